@@ -11,6 +11,7 @@ console.log('PromptCrafter: Document ready state:', document.readyState);
 class PromptCrafterInjector {
     constructor() {
         this.apiBaseUrl = 'http://localhost:8080/api';
+        this.socket = new PromptCrafterSocket(this.apiBaseUrl);
         this.context = this.detectContext();
         this.init();
     }
@@ -582,10 +583,23 @@ class PromptCrafterInjector {
             style = 'ACADEMIC'; // Academic style for scholarly search queries
         }
 
-        const response = await fetch(`${this.apiBaseUrl}/rewrite`, {
+        // One persistent socket per page; fall back to HTTP if it cannot connect
+        try {
+            return await this.socket.enhance(text, style, context || 'GENERAL');
+        } catch (error) {
+            if (!error.transport) {
+                throw error;
+            }
+            console.warn('PromptCrafter: WebSocket unavailable, falling back to HTTP:', error.message);
+        }
+
+        // Same key on the retry, so the backend enhances and stores the prompt only once
+        const idempotencyKey = crypto.randomUUID();
+        const send = () => fetch(`${this.apiBaseUrl}/rewrite`, {
             method: 'POST',
             headers: {
                 'Content-Type': 'application/json',
+                'Idempotency-Key': idempotencyKey,
             },
             body: JSON.stringify({
                 originalText: text,
@@ -594,6 +608,14 @@ class PromptCrafterInjector {
             })
         });
 
+        let response;
+        try {
+            response = await send();
+        } catch (networkError) {
+            console.warn('PromptCrafter: Network error, retrying once:', networkError.message);
+            response = await send();
+        }
+
         if (!response.ok) {
             throw new Error(`API call failed: ${response.status}`);
         }
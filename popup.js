@@ -34,6 +34,9 @@ document.addEventListener('DOMContentLoaded', function() {
     // API endpoint - matches your Spring Boot backend
     const API_BASE_URL = 'http://localhost:8080/api';
 
+    // Persistent connection for enhancements and history pushes; fetch is the fallback
+    const socket = new PromptCrafterSocket(API_BASE_URL);
+
     let currentHistory = [];
     let activeHistoryItem = null;
 
@@ -178,10 +181,23 @@ document.addEventListener('DOMContentLoaded', function() {
      */
     async function enhancePrompt(originalText, style, context) {
         try {
-            const response = await fetch(`${API_BASE_URL}/rewrite`, {
+            return await socket.enhance(originalText, style, context, showStreamingToken);
+        } catch (error) {
+            if (!error.transport) {
+                console.error('Socket enhancement failed:', error);
+                throw new Error(`Failed to enhance prompt: ${error.message}`);
+            }
+            console.warn('WebSocket unavailable, falling back to HTTP:', error.message);
+        }
+
+        try {
+            // Same key on the retry, so the backend enhances and stores the prompt only once
+            const idempotencyKey = crypto.randomUUID();
+            const send = () => fetch(`${API_BASE_URL}/rewrite`, {
                 method: 'POST',
                 headers: {
                     'Content-Type': 'application/json',
+                    'Idempotency-Key': idempotencyKey,
                 },
                 body: JSON.stringify({
                     originalText: originalText,
@@ -190,6 +206,14 @@ document.addEventListener('DOMContentLoaded', function() {
                 })
             });
 
+            let response;
+            try {
+                response = await send();
+            } catch (networkError) {
+                console.warn('Network error, retrying once:', networkError.message);
+                response = await send();
+            }
+
             if (!response.ok) {
                 throw new Error(`HTTP error! status: ${response.status}`);
             }
@@ -207,6 +231,18 @@ document.addEventListener('DOMContentLoaded', function() {
         }
     }
 
+    /**
+     * Show raw model tokens as they stream in; replaced by the rendered result
+     */
+    function showStreamingToken(token) {
+        if (loadingDiv.style.display !== 'none') {
+            loadingDiv.style.display = 'none';
+            enhancedResultDiv.textContent = '';
+            resultSection.style.display = 'block';
+        }
+        enhancedResultDiv.textContent += token;
+    }
+
     /**
      * Handle the rewrite button click
      */
@@ -226,7 +262,9 @@ document.addEventListener('DOMContentLoaded', function() {
         try {
             const enhancedText = await enhancePrompt(originalText, style, context);
             showResult(enhancedText);
-            refreshHistory(); // Update history to show the new enhancement
+            if (!socket.socket) {
+                refreshHistory(); // No socket push, so reload history to show the new enhancement
+            }
         } catch (error) {
             showError(error.message);
         } finally {
@@ -620,5 +658,13 @@ document.addEventListener('DOMContentLoaded', function() {
     // Load history on startup
     loadHistory();
 
+    // New enhancements (from this popup or any tab) arrive as socket pushes
+    socket.onHistoryEntry(item => {
+        currentHistory = [item, ...currentHistory].slice(0, 10);
+        historyEmpty.style.display = 'none';
+        displayHistory(currentHistory);
+    });
+    socket.connect().catch(error => console.warn('WebSocket unavailable:', error.message));
+
     console.log('PromptCrafter popup loaded successfully');
 });
@@ -0,0 +1,146 @@
+/**
+ * WebSocket client for the PromptCrafter backend (/api/ws)
+ * Keeps one connection open for enhance and history requests, correlated by id,
+ * and receives streamed tokens and pushed history entries.
+ * Callers fall back to fetch when a request fails with error.transport set.
+ */
+
+class PromptCrafterSocket {
+    constructor(apiBaseUrl) {
+        this.url = apiBaseUrl.replace(/^http/, 'ws') + '/ws';
+        this.socket = null;
+        this.opening = null;
+        this.nextId = 1;
+        this.pending = new Map();
+        this.historyListeners = [];
+        this.requestTimeoutMs = 120000;
+    }
+
+    /**
+     * Open the connection, or reuse the one already open
+     */
+    connect() {
+        if (this.socket && this.socket.readyState === WebSocket.OPEN) {
+            return Promise.resolve(this.socket);
+        }
+        if (this.opening) {
+            return this.opening;
+        }
+
+        this.opening = new Promise((resolve, reject) => {
+            const socket = new WebSocket(this.url);
+
+            socket.onopen = () => {
+                this.socket = socket;
+                this.opening = null;
+                resolve(socket);
+            };
+            socket.onerror = () => {
+                if (this.opening) {
+                    this.opening = null;
+                    reject(PromptCrafterSocket.transportError('WebSocket connection failed'));
+                }
+            };
+            socket.onclose = () => {
+                this.socket = null;
+                this.opening = null;
+                this.failPending('WebSocket connection closed');
+            };
+            socket.onmessage = (event) => this.handleMessage(event.data);
+        });
+        return this.opening;
+    }
+
+    /**
+     * Enhance a prompt; onToken receives raw model tokens while the model streams.
+     * Resolves with the final enhanced text.
+     */
+    async enhance(originalText, style, context, onToken) {
+        const data = await this.send({ type: 'enhance', originalText, style, context }, onToken);
+        if (data.success) {
+            return data.enhancedText;
+        }
+        throw new Error(data.message || 'Enhancement failed');
+    }
+
+    /**
+     * Fetch the latest history entries (same shape as GET /api/history)
+     */
+    history(limit = 10) {
+        return this.send({ type: 'history', limit });
+    }
+
+    /**
+     * Register a callback for history entries pushed after any enhancement
+     */
+    onHistoryEntry(listener) {
+        this.historyListeners.push(listener);
+    }
+
+    async send(message, onToken) {
+        const socket = await this.connect();
+        const id = String(this.nextId++);
+
+        return new Promise((resolve, reject) => {
+            const timer = setTimeout(() => {
+                this.pending.delete(id);
+                reject(new Error('Request timed out'));
+            }, this.requestTimeoutMs);
+
+            this.pending.set(id, { resolve, reject, onToken, timer });
+            socket.send(JSON.stringify({ ...message, id }));
+        });
+    }
+
+    handleMessage(raw) {
+        let message;
+        try {
+            message = JSON.parse(raw);
+        } catch (error) {
+            console.error('PromptCrafter: Invalid socket message', error);
+            return;
+        }
+
+        if (message.type === 'historyEntry') {
+            this.historyListeners.forEach(listener => listener(message.item));
+            return;
+        }
+
+        const request = this.pending.get(message.id);
+        if (!request) {
+            return;
+        }
+        if (message.type === 'token') {
+            if (request.onToken) {
+                request.onToken(message.text);
+            }
+            return;
+        }
+
+        this.pending.delete(message.id);
+        clearTimeout(request.timer);
+        if (message.type === 'error') {
+            const error = new Error(message.message);
+            if (message.retryAfter !== undefined) {
+                error.retryAfter = message.retryAfter;
+            }
+            request.reject(error);
+        } else {
+            request.resolve(message);
+        }
+    }
+
+    static transportError(message) {
+        const error = new Error(message);
+        error.transport = true;
+        return error;
+    }
+
+    failPending(reason) {
+        this.pending.forEach(request => {
+            clearTimeout(request.timer);
+            request.reject(PromptCrafterSocket.transportError(reason));
+        });
+        this.pending.clear();
+    }
+}
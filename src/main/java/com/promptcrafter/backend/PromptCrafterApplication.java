@@ -3,9 +3,36 @@ package com.promptcrafter.backend;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.Arrays;
+
 @SpringBootApplication
 public class PromptCrafterApplication {
     public static void main(String[] args) {
+        selectLoggingBackend(args);
         SpringApplication.run(PromptCrafterApplication.class, args);
     }
-}
\ No newline at end of file
+
+    /**
+     * With the "prod" profile, logging goes through tinylog's asynchronous
+     * writer thread (tinylog-prod.properties) instead of Logback. The SLF4J
+     * provider is fixed when the first logger is created, so this has to run
+     * before Spring starts. Explicit -Dslf4j.provider settings win.
+     */
+    private static void selectLoggingBackend(String[] args) {
+        String profiles = Arrays.stream(args)
+                .filter(arg -> arg.startsWith("--spring.profiles.active="))
+                .map(arg -> arg.substring("--spring.profiles.active=".length()))
+                .findFirst()
+                .orElse(System.getProperty("spring.profiles.active", System.getenv("SPRING_PROFILES_ACTIVE")));
+        boolean prod = profiles != null
+                && Arrays.stream(profiles.split(",")).map(String::trim).anyMatch("prod"::equals);
+        if (!prod || System.getProperty("slf4j.provider") != null) {
+            return;
+        }
+        System.setProperty("slf4j.provider", "org.tinylog.slf4j.TinylogSlf4jServiceProvider");
+        System.setProperty("org.springframework.boot.logging.LoggingSystem", "none");
+        if (System.getProperty("tinylog.configuration") == null) {
+            System.setProperty("tinylog.configuration", "tinylog-prod.properties");
+        }
+    }
+}
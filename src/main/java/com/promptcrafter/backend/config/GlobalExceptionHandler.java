@@ -1,6 +1,7 @@
 package com.promptcrafter.backend.config;
 
 import com.promptcrafter.backend.dto.PromptResponse;
+import com.promptcrafter.backend.service.idempotency.IdempotencyConflictException;
 import jakarta.validation.ConstraintViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -25,6 +26,11 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(new PromptResponse(false, null, ex.getMessage()));
     }
 
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<PromptResponse> handleIdempotencyConflict(IdempotencyConflictException ex) {
+        return ResponseEntity.status(ex.getStatus()).body(new PromptResponse(false, null, ex.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<PromptResponse> handleGeneral(Exception ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -0,0 +1,19 @@
+package com.promptcrafter.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ProfilingConfig {
+    @Bean
+    public FilterRegistrationBean<ProfilingTokenFilter> profilingTokenFilter(
+            @Value("${app.profiling.token:}") String token,
+            @Value("${management.endpoints.web.base-path:/actuator}") String basePath) {
+        FilterRegistrationBean<ProfilingTokenFilter> registration =
+                new FilterRegistrationBean<>(new ProfilingTokenFilter(token));
+        registration.addUrlPatterns(basePath + "/jfr", basePath + "/jfr/*");
+        return registration;
+    }
+}
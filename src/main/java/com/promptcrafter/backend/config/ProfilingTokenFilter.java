@@ -0,0 +1,49 @@
+package com.promptcrafter.backend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Guards the profiling endpoint (/actuator/jfr). Requests must carry the
+ * configured token in the X-Profiling-Token header. When no token is
+ * configured the endpoint is closed to everyone.
+ *
+ * Registered by {@link ProfilingConfig}.
+ */
+public class ProfilingTokenFilter extends OncePerRequestFilter {
+
+    public static final String TOKEN_HEADER = "X-Profiling-Token";
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfilingTokenFilter.class);
+
+    private final byte[] token;
+
+    public ProfilingTokenFilter(String token) {
+        this.token = token == null ? new byte[0] : token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (token.length == 0) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Profiling is disabled (app.profiling.token is not set)");
+            return;
+        }
+        String supplied = request.getHeader(TOKEN_HEADER);
+        if (supplied == null || !MessageDigest.isEqual(token, supplied.getBytes(StandardCharsets.UTF_8))) {
+            logger.warn("Rejected profiling request from {}", request.getRemoteAddr());
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Missing or invalid " + TOKEN_HEADER);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
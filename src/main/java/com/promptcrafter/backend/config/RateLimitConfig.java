@@ -0,0 +1,34 @@
+package com.promptcrafter.backend.config;
+
+import com.promptcrafter.backend.service.metrics.EnhancementMetrics;
+import com.promptcrafter.backend.service.ratelimit.ClientKeyResolver;
+import com.promptcrafter.backend.service.ratelimit.RateLimiter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Puts the per-client rate limit in front of the enhancement and history
+ * endpoints. Polling or streaming a progressive upgrade is not limited, since
+ * it waits for work that was already counted.
+ *
+ * Configuration:
+ * - app.rate-limit.enabled: Apply the rate limit (default: true)
+ * - app.rate-limit.key-header: See {@link ClientKeyResolver}
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            RateLimiter limiter,
+            EnhancementMetrics metrics,
+            ClientKeyResolver clientKeys) {
+        FilterRegistrationBean<RateLimitFilter> registration =
+                new FilterRegistrationBean<>(new RateLimitFilter(limiter, metrics, clientKeys));
+        registration.addUrlPatterns("/api/rewrite", "/api/rewrite/refine", "/api/rewrite/progressive",
+                "/api/history", "/api/history/export");
+        return registration;
+    }
+}
@@ -0,0 +1,73 @@
+package com.promptcrafter.backend.config;
+
+import com.promptcrafter.backend.service.metrics.EnhancementMetrics;
+import com.promptcrafter.backend.service.ratelimit.ClientKeyResolver;
+import com.promptcrafter.backend.service.ratelimit.RateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the per-client {@link RateLimiter} to the enhancement and history
+ * endpoints. Clients are told their budget in the RateLimit-Limit,
+ * RateLimit-Remaining, RateLimit-Reset and RateLimit-Policy headers (IETF
+ * httpapi-ratelimit-headers draft); refused requests get 429 with Retry-After.
+ *
+ * Clients are identified by {@link ClientKeyResolver}, by API key or remote
+ * address. CORS preflight requests are not counted.
+ *
+ * Registered by {@link RateLimitConfig}.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final RateLimiter limiter;
+    private final EnhancementMetrics metrics;
+    private final ClientKeyResolver clientKeys;
+    private final String policy;
+
+    public RateLimitFilter(RateLimiter limiter, EnhancementMetrics metrics, ClientKeyResolver clientKeys) {
+        this.limiter = limiter;
+        this.metrics = metrics;
+        this.clientKeys = clientKeys;
+        this.policy = limiter.burst() + ";w=" + limiter.windowSeconds();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if ("OPTIONS".equals(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        RateLimiter.Decision decision = limiter.acquire(clientKeys.resolve(request));
+        response.setHeader("RateLimit-Limit", Integer.toString(decision.limit()));
+        response.setHeader("RateLimit-Remaining", Integer.toString(decision.remaining()));
+        response.setHeader("RateLimit-Reset", Long.toString(seconds(decision.resetNanos())));
+        response.setHeader("RateLimit-Policy", policy);
+        if (!decision.allowed()) {
+            long retryAfter = seconds(decision.retryAfterNanos());
+            logger.debug("Rate limited {} {} from {}", request.getMethod(), request.getRequestURI(),
+                    request.getRemoteAddr());
+            metrics.rateLimited(request.getRequestURI().startsWith("/api/history") ? "/api/history" : "/api/rewrite");
+            response.setHeader("Retry-After", Long.toString(retryAfter));
+            response.sendError(429, "Rate limit exceeded, retry in " + retryAfter + " seconds");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    // Rounded up, so a client waiting that long is not refused again
+    private static long seconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+}
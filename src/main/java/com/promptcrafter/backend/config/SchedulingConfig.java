@@ -0,0 +1,12 @@
+package com.promptcrafter.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background tasks such as the periodic usage rollup flush.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,44 @@
+package com.promptcrafter.backend.config;
+
+import com.promptcrafter.backend.controller.EnhancementSocketHandler;
+import com.promptcrafter.backend.service.ratelimit.ClientKeyResolver;
+import com.promptcrafter.backend.service.stats.UsageLedger;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+
+/**
+ * Keeps what the WebSocket handshake says about the client for the lifetime of
+ * the connection: its client key, which the socket's messages are rate
+ * limited by, and the usage account bound by {@link UsageAccountFilter}, which
+ * their model usage is charged to.
+ *
+ * Registered by {@link WebSocketConfig}.
+ */
+public class SocketHandshakeInterceptor implements HandshakeInterceptor {
+
+    private final ClientKeyResolver clientKeys;
+
+    public SocketHandshakeInterceptor(ClientKeyResolver clientKeys) {
+        this.clientKeys = clientKeys;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            attributes.put(EnhancementSocketHandler.CLIENT_KEY, clientKeys.resolve(servletRequest.getServletRequest()));
+        }
+        attributes.put(EnhancementSocketHandler.USAGE_ACCOUNT, UsageLedger.current());
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
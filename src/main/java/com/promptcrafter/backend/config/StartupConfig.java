@@ -0,0 +1,28 @@
+package com.promptcrafter.backend.config;
+
+import com.promptcrafter.backend.controller.RewriteController;
+import com.promptcrafter.backend.service.PromptEnhancementService;
+import com.promptcrafter.backend.service.history.HistoryStore;
+import com.promptcrafter.backend.service.stats.LatencyTracker;
+import com.promptcrafter.backend.service.stats.UsageLedger;
+import com.promptcrafter.backend.service.stats.UsageStatsService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Beans that stay eager when spring.main.lazy-initialization is on (the "fast"
+ * profile). The enhancement request path is created at startup so the first
+ * request does not pay for it, and services with @Scheduled methods must exist
+ * for their schedules to start. Everything else (export, ingest, stats and
+ * profiling endpoints, most actuator endpoints) is created on first use.
+ */
+@Configuration
+public class StartupConfig {
+    @Bean
+    public static LazyInitializationExcludeFilter requestPathEagerInitialization() {
+        return LazyInitializationExcludeFilter.forBeanTypes(RewriteController.class,
+                PromptEnhancementService.class, HistoryStore.class,
+                UsageStatsService.class, UsageLedger.class, LatencyTracker.class);
+    }
+}
@@ -0,0 +1,26 @@
+package com.promptcrafter.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binds the usage account of every /api request.
+ *
+ * Configuration:
+ * - app.usage.user-header: Header naming the user that usage is charged to (default: X-User)
+ * - app.usage.team-header: Header naming the user's team (default: X-Team)
+ */
+@Configuration
+public class UsageAccountConfig {
+    @Bean
+    public FilterRegistrationBean<UsageAccountFilter> usageAccountFilter(
+            @Value("${app.usage.user-header:X-User}") String userHeader,
+            @Value("${app.usage.team-header:X-Team}") String teamHeader) {
+        FilterRegistrationBean<UsageAccountFilter> registration =
+                new FilterRegistrationBean<>(new UsageAccountFilter(userHeader, teamHeader));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,53 @@
+package com.promptcrafter.backend.config;
+
+import com.promptcrafter.backend.service.stats.UsageAccount;
+import com.promptcrafter.backend.service.stats.UsageLedger;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Charges the model usage of an API request to the user and team named in its
+ * headers, or to the default account without them. Until requests are
+ * authenticated the headers are taken as given.
+ *
+ * Registered by {@link UsageAccountConfig}.
+ */
+public class UsageAccountFilter extends OncePerRequestFilter {
+
+    // Longer values are cut, so a client cannot make the usage rows arbitrarily large
+    private static final int MAX_LENGTH = 128;
+
+    private final String userHeader;
+    private final String teamHeader;
+
+    public UsageAccountFilter(String userHeader, String teamHeader) {
+        this.userHeader = userHeader;
+        this.teamHeader = teamHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String user = header(request, userHeader);
+        UsageAccount account = user.isEmpty()
+                ? UsageAccount.DEFAULT
+                : new UsageAccount(user, header(request, teamHeader));
+        try (UsageLedger.Scope scope = UsageLedger.open(account)) {
+            chain.doFilter(request, response);
+        }
+    }
+
+    private static String header(HttpServletRequest request, String name) {
+        String value = request.getHeader(name);
+        if (value == null) {
+            return "";
+        }
+        value = value.trim();
+        return value.length() > MAX_LENGTH ? value.substring(0, MAX_LENGTH) : value;
+    }
+}
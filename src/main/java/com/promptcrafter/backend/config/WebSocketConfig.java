@@ -0,0 +1,50 @@
+package com.promptcrafter.backend.config;
+
+import com.promptcrafter.backend.controller.EnhancementSocketHandler;
+import com.promptcrafter.backend.service.ratelimit.ClientKeyResolver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+/**
+ * Registers the extension's WebSocket channel at /api/ws. Origins are open
+ * like the REST API in {@link CorsConfig}, since content scripts connect from
+ * the pages they are injected into. The handshake's client key is kept by
+ * {@link SocketHandshakeInterceptor}. Skipped without a servlet container,
+ * e.g. for command-line bulk ingest.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final EnhancementSocketHandler socketHandler;
+    private final ClientKeyResolver clientKeys;
+
+    public WebSocketConfig(EnhancementSocketHandler socketHandler, ClientKeyResolver clientKeys) {
+        this.socketHandler = socketHandler;
+        this.clientKeys = clientKeys;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(socketHandler, "/api/ws")
+                .addInterceptors(new SocketHandshakeInterceptor(clientKeys))
+                .setAllowedOriginPatterns("*");
+    }
+
+    @Bean
+    public ServletServerContainerFactoryBean webSocketContainer(
+            @Value("${app.websocket.max-message-kb:64}") int maxMessageKb,
+            @Value("${app.websocket.idle-timeout-ms:300000}") long idleTimeoutMillis) {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(maxMessageKb * 1024);
+        container.setMaxSessionIdleTimeout(idleTimeoutMillis);
+        return container;
+    }
+}
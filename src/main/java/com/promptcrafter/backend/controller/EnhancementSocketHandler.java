@@ -0,0 +1,343 @@
+package com.promptcrafter.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.promptcrafter.backend.dto.PromptHistoryResponse;
+import com.promptcrafter.backend.dto.PromptRequest;
+import com.promptcrafter.backend.dto.PromptResponse;
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.service.PromptEnhancementService;
+import com.promptcrafter.backend.service.history.HistoryAppendedEvent;
+import com.promptcrafter.backend.service.history.HistoryEntry;
+import com.promptcrafter.backend.service.logging.RequestLogPolicy;
+import com.promptcrafter.backend.service.metrics.EnhancementMetrics;
+import com.promptcrafter.backend.service.ratelimit.RateLimiter;
+import com.promptcrafter.backend.service.stats.UsageAccount;
+import com.promptcrafter.backend.service.stats.UsageLedger;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WebSocket channel (/api/ws) for the browser extension. One persistent
+ * connection carries any number of concurrent requests, correlated by the
+ * client-chosen "id", plus server-pushed history updates.
+ *
+ * Client messages:
+ * - {"type":"enhance","id":"1","originalText":"...","style":"CONCISE","context":"GENERAL"}
+ * - {"type":"history","id":"2","limit":10}
+ * - {"type":"ping","id":"3"}
+ *
+ * Server messages:
+ * - {"type":"token","id":"1","text":"..."}: raw model tokens while the model streams
+ * - {"type":"result","id":"1","success":true,"enhancedText":"...","message":"..."}: final, cleaned text
+ * - {"type":"history","id":"2","success":true,"history":[...],"totalCount":10}
+ * - {"type":"pong","id":"3"}
+ * - {"type":"historyEntry","item":{...}}: pushed to every connection when an enhancement is stored
+ * - {"type":"error","id":"...","message":"..."}: invalid message or server busy
+ * - {"type":"error","id":"...","message":"...","retryAfter":12}: rate limited, retry in that many seconds
+ *
+ * Requests run on a bounded worker pool so a slow model call never blocks the
+ * connection. Sends go through {@link ConcurrentWebSocketSessionDecorator},
+ * which serializes writes from the workers and the history push.
+ *
+ * Enhance and history messages take from the same per-client {@link RateLimiter}
+ * buckets as the REST endpoints, keyed by the client of the handshake, so
+ * moving to the socket does not escape the limit. Their model usage is charged
+ * to the usage account of the handshake.
+ *
+ * Configuration:
+ * - app.websocket.workers: Threads running socket requests (default: 8)
+ * - app.websocket.queue-capacity: Requests waiting for a worker before "busy" errors (default: 256)
+ * - app.websocket.max-in-flight-per-session: Concurrent requests per connection (default: 8)
+ */
+@Component
+public class EnhancementSocketHandler extends TextWebSocketHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnhancementSocketHandler.class);
+
+    private static final int SEND_TIME_LIMIT_MS = 10_000;
+    private static final int SEND_BUFFER_LIMIT_BYTES = 512 * 1024;
+    private static final String IN_FLIGHT = "promptcrafter.inFlight";
+
+    // Session attribute holding the handshake's client key, set by the handshake interceptor
+    public static final String CLIENT_KEY = "promptcrafter.clientKey";
+
+    // Session attribute holding the handshake's usage account, set by the handshake interceptor
+    public static final String USAGE_ACCOUNT = "promptcrafter.usageAccount";
+
+    private final PromptEnhancementService promptService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final RequestLogPolicy logPolicy;
+    private final RateLimiter limiter;
+    private final EnhancementMetrics metrics;
+    private final boolean rateLimited;
+    private final int maxInFlightPerSession;
+    private final ThreadPoolExecutor workers;
+
+    // Send-safe decorators of the open sessions, keyed by session id
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    public EnhancementSocketHandler(PromptEnhancementService promptService,
+                                    ObjectMapper objectMapper,
+                                    Validator validator,
+                                    RequestLogPolicy logPolicy,
+                                    RateLimiter limiter,
+                                    EnhancementMetrics metrics,
+                                    @Value("${app.rate-limit.enabled:true}") boolean rateLimited,
+                                    @Value("${app.websocket.workers:8}") int workerCount,
+                                    @Value("${app.websocket.queue-capacity:256}") int queueCapacity,
+                                    @Value("${app.websocket.max-in-flight-per-session:8}") int maxInFlightPerSession) {
+        this.promptService = promptService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.logPolicy = logPolicy;
+        this.limiter = limiter;
+        this.metrics = metrics;
+        this.rateLimited = rateLimited;
+        this.maxInFlightPerSession = maxInFlightPerSession;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "ws-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        WebSocketSession concurrent = new ConcurrentWebSocketSessionDecorator(
+                session, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT_BYTES);
+        session.getAttributes().put(IN_FLIGHT, new AtomicInteger());
+        // Without a servlet handshake there is no API key to go by
+        InetSocketAddress remote = session.getRemoteAddress();
+        session.getAttributes().putIfAbsent(CLIENT_KEY,
+                "ip:" + (remote != null && remote.getAddress() != null ? remote.getAddress().getHostAddress() : ""));
+        session.getAttributes().putIfAbsent(USAGE_ACCOUNT, UsageAccount.DEFAULT);
+        sessions.put(session.getId(), concurrent);
+        logger.debug("WebSocket connected: {} ({} open)", session.getId(), sessions.size());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        sessions.remove(session.getId());
+        logger.debug("WebSocket closed: {} {} ({} open)", session.getId(), status, sessions.size());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        WebSocketSession target = sessions.getOrDefault(session.getId(), session);
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(message.getPayload());
+        } catch (IOException e) {
+            sendError(target, null, "Message is not valid JSON");
+            return;
+        }
+        String id = node.hasNonNull("id") ? node.get("id").asText() : null;
+        String type = node.path("type").asText("");
+
+        switch (type) {
+            case "ping" -> send(target, envelope("pong", id));
+            case "enhance" -> {
+                if (acquire(target, id)) {
+                    submit(target, id, () -> enhance(target, id, node));
+                }
+            }
+            case "history" -> {
+                if (acquire(target, id)) {
+                    submit(target, id, () -> history(target, id, node.path("limit").asInt(10)));
+                }
+            }
+            default -> sendError(target, id, "Unknown message type: " + type);
+        }
+    }
+
+    /**
+     * Pushes each newly stored enhancement to every open connection.
+     */
+    @EventListener
+    public void onHistoryAppended(HistoryAppendedEvent event) {
+        if (sessions.isEmpty()) {
+            return;
+        }
+        ObjectNode push = envelope("historyEntry", null);
+        push.set("item", objectMapper.valueToTree(toHistoryItem(event.getEntry())));
+        TextMessage message = new TextMessage(push.toString());
+        for (WebSocketSession session : sessions.values()) {
+            send(session, message);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    // Takes one request from the client's bucket, or tells the client when to retry
+    private boolean acquire(WebSocketSession session, String id) {
+        if (!rateLimited) {
+            return true;
+        }
+        RateLimiter.Decision decision = limiter.acquire((String) session.getAttributes().get(CLIENT_KEY));
+        if (decision.allowed()) {
+            return true;
+        }
+        metrics.rateLimited("/api/ws");
+        // Rounded up, so a client waiting that long is not refused again
+        long retryAfter = (decision.retryAfterNanos() + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+        ObjectNode error = envelope("error", id);
+        error.put("message", "Rate limit exceeded, retry in " + retryAfter + " seconds");
+        error.put("retryAfter", retryAfter);
+        send(session, error);
+        return false;
+    }
+
+    private void submit(WebSocketSession session, String id, Runnable work) {
+        AtomicInteger inFlight = (AtomicInteger) session.getAttributes().get(IN_FLIGHT);
+        if (inFlight.incrementAndGet() > maxInFlightPerSession) {
+            inFlight.decrementAndGet();
+            sendError(session, id, "Too many requests in flight on this connection");
+            return;
+        }
+        UsageAccount account = (UsageAccount) session.getAttributes().get(USAGE_ACCOUNT);
+        try {
+            workers.execute(() -> {
+                try (UsageLedger.Scope scope = UsageLedger.open(account)) {
+                    work.run();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            sendError(session, id, "Server busy, retry later");
+        }
+    }
+
+    private void enhance(WebSocketSession session, String id, JsonNode node) {
+        PromptRequest request;
+        try {
+            request = new PromptRequest(
+                    node.path("originalText").asText(null),
+                    node.hasNonNull("style") ? EnhancementStyle.fromString(node.get("style").asText()) : null,
+                    node.hasNonNull("context") ? ContextType.fromString(node.get("context").asText()) : null);
+        } catch (IllegalArgumentException e) {
+            sendError(session, id, e.getMessage());
+            return;
+        }
+        Set<ConstraintViolation<PromptRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<PromptRequest> violation = violations.iterator().next();
+            sendError(session, id, violation.getPropertyPath() + ": " + violation.getMessage());
+            return;
+        }
+
+        long start = System.nanoTime();
+        PromptResponse response;
+        try {
+            response = promptService.enhancePrompt(request, token -> {
+                ObjectNode tokenMessage = envelope("token", id);
+                tokenMessage.put("text", token);
+                send(session, tokenMessage);
+            });
+        } catch (Exception e) {
+            logger.error("Unexpected error in socket enhancement: {}", e.getMessage(), e);
+            response = new PromptResponse(false, null, "Internal server error: " + e.getMessage());
+        }
+
+        if (response.isSuccess()) {
+            if (logPolicy.sampled()) {
+                logger.info("Socket enhancement successful - style: {}, context: {}, prompt: {}, response: {}, {} ms",
+                           request.getStyle(), request.getContext(), logPolicy.describe(request.getOriginalText()),
+                           logPolicy.describe(response.getEnhancedText()), (System.nanoTime() - start) / 1_000_000);
+            }
+        } else {
+            logger.warn("Socket enhancement failed - style: {}, context: {}, prompt: {}: {}",
+                       request.getStyle(), request.getContext(), logPolicy.describe(request.getOriginalText()),
+                       response.getMessage());
+        }
+        ObjectNode result = envelope("result", id);
+        result.setAll((ObjectNode) objectMapper.valueToTree(response));
+        send(session, result);
+    }
+
+    private void history(WebSocketSession session, String id, int limit) {
+        if (limit < 1 || limit > 50) {
+            sendError(session, id, "Limit must be between 1 and 50");
+            return;
+        }
+        PromptHistoryResponse response = promptService.getPromptHistory(limit);
+        ObjectNode result = envelope("history", id);
+        result.setAll((ObjectNode) objectMapper.valueToTree(response));
+        send(session, result);
+    }
+
+    private ObjectNode envelope(String type, String id) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("type", type);
+        if (id != null) {
+            node.put("id", id);
+        }
+        return node;
+    }
+
+    private void sendError(WebSocketSession session, String id, String message) {
+        ObjectNode error = envelope("error", id);
+        error.put("message", message);
+        send(session, error);
+    }
+
+    private void send(WebSocketSession session, ObjectNode payload) {
+        send(session, new TextMessage(payload.toString()));
+    }
+
+    private void send(WebSocketSession session, TextMessage message) {
+        if (!session.isOpen()) {
+            return;
+        }
+        try {
+            session.sendMessage(message);
+        } catch (Exception e) {
+            // Includes send time and buffer limits for clients that stopped reading
+            logger.warn("Closing WebSocket {} after failed send: {}", session.getId(), e.getMessage());
+            sessions.remove(session.getId());
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException ignored) {
+                // Already closing
+            }
+        }
+    }
+
+    private static PromptHistoryResponse.HistoryItem toHistoryItem(HistoryEntry entry) {
+        return new PromptHistoryResponse.HistoryItem(entry.getPromptId(), entry.getOriginalText(),
+                entry.getStyle().name(), entry.getContext().name(), entry.getEnhancedText(), entry.getCreatedAt());
+    }
+}
@@ -0,0 +1,78 @@
+package com.promptcrafter.backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promptcrafter.backend.dto.IngestReport;
+import com.promptcrafter.backend.service.ingest.BulkIngestService;
+import com.promptcrafter.backend.service.stats.UsageAccount;
+import com.promptcrafter.backend.service.stats.UsageLedger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * REST Controller for bulk ingest of prompt corpora.
+ *
+ * Endpoints:
+ * - POST /api/ingest: Enhances a streamed JSONL upload and streams JSONL results back
+ *
+ * The upload is read line by line while results are written, so neither side
+ * is buffered in memory. The last response line is a summary object of the
+ * form {"summary": {...}}. Unlike the command-line runner, HTTP uploads are not
+ * checkpointed; clients resume by re-sending the lines after the last result.
+ */
+@RestController
+@RequestMapping("/api")
+public class IngestController {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestController.class);
+
+    private final BulkIngestService ingestService;
+    private final ObjectMapper objectMapper;
+
+    public IngestController(BulkIngestService ingestService, ObjectMapper objectMapper) {
+        this.ingestService = ingestService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Enhances each line of a JSONL upload.
+     *
+     * Each line has the same fields as a /rewrite request plus an optional "id"
+     * that is echoed in the matching result line.
+     *
+     * @param body The raw JSONL request body
+     * @return ResponseEntity streaming one result per input line followed by a summary
+     */
+    @PostMapping(value = "/ingest", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> ingest(InputStream body) {
+        logger.info("Received bulk ingest upload");
+
+        // The body is written on an async thread, outside the request's usage scope
+        UsageAccount account = UsageLedger.current();
+        StreamingResponseBody response = outputStream -> {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            IngestReport report;
+            try (UsageLedger.Scope scope = UsageLedger.open(account)) {
+                report = ingestService.ingest(reader, outputStream, 0, lastLine -> {});
+            }
+            outputStream.write(objectMapper.writeValueAsBytes(Map.of("summary", report)));
+            outputStream.write('\n');
+            outputStream.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(response);
+    }
+}
@@ -3,12 +3,35 @@ package com.promptcrafter.backend.controller;
 import com.promptcrafter.backend.dto.PromptHistoryResponse;
 import com.promptcrafter.backend.dto.PromptRequest;
 import com.promptcrafter.backend.dto.PromptResponse;
+import com.promptcrafter.backend.dto.RefinementRequest;
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.service.HistoryExportService;
 import com.promptcrafter.backend.service.PromptEnhancementService;
+import com.promptcrafter.backend.service.idempotency.IdempotencyConflictException;
+import com.promptcrafter.backend.service.idempotency.IdempotencyService;
+import com.promptcrafter.backend.service.logging.RequestLogPolicy;
+import com.promptcrafter.backend.service.progressive.UpgradeRegistry;
+import com.promptcrafter.backend.service.ratelimit.ClientKeyResolver;
+import com.promptcrafter.backend.service.refinement.RefinementService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * REST Controller for handling prompt enhancement requests.
@@ -18,7 +41,11 @@ import org.springframework.web.bind.annotation.*;
  *
  * Endpoints:
  * - POST /api/rewrite: Enhances a user prompt based on style and context
+ * - POST /api/rewrite/refine: Applies a follow-up instruction to an earlier enhancement
+ * - POST /api/rewrite/progressive: Returns a rule-based draft at once, upgraded to the AI result later
+ * - GET /api/rewrite/upgrades/{token}: The AI result of a draft, over SSE or by polling
  * - GET /api/history: Retrieves recent prompt enhancement history
+ * - GET /api/history/export: Streams the full enhancement history as NDJSON
  */
 @RestController
 @RequestMapping("/api")
@@ -26,15 +53,41 @@ public class RewriteController {
 
     private static final Logger logger = LoggerFactory.getLogger(RewriteController.class);
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final PromptEnhancementService promptService;
+    private final HistoryExportService exportService;
+    private final RequestLogPolicy logPolicy;
+    private final IdempotencyService idempotencyService;
+    private final RefinementService refinementService;
+    private final UpgradeRegistry upgrades;
+    private final ClientKeyResolver clientKeys;
 
     /**
-     * Constructor for dependency injection of the prompt enhancement service.
+     * Constructor for dependency injection of the prompt enhancement and export services.
      *
      * @param promptService Service responsible for prompt enhancement logic
+     * @param exportService Service responsible for streaming history exports
+     * @param logPolicy Sampling and redaction of per-request log lines
+     * @param idempotencyService Deduplication of retried requests by Idempotency-Key
+     * @param refinementService Follow-up instructions on earlier enhancements
+     * @param upgrades Pending AI upgrades of progressive drafts
+     * @param clientKeys Identifies the client an Idempotency-Key belongs to
      */
-    public RewriteController(PromptEnhancementService promptService) {
+    public RewriteController(PromptEnhancementService promptService, HistoryExportService exportService,
+                             RequestLogPolicy logPolicy, IdempotencyService idempotencyService,
+                             RefinementService refinementService, UpgradeRegistry upgrades,
+                             ClientKeyResolver clientKeys) {
         this.promptService = promptService;
+        this.exportService = exportService;
+        this.logPolicy = logPolicy;
+        this.idempotencyService = idempotencyService;
+        this.refinementService = refinementService;
+        this.upgrades = upgrades;
+        this.clientKeys = clientKeys;
     }
 
     /**
@@ -50,37 +103,200 @@ public class RewriteController {
      * - enhancedText: The AI-enhanced version of the prompt
      * - message: Status message or error description
      *
+     * Clients that retry can send an Idempotency-Key header. A repeated key
+     * returns the first request's response (Idempotent-Replayed: true) without
+     * enhancing or storing the prompt again; reusing a key for a different
+     * request is rejected with 422. Keys are per client (API key or remote
+     * address), so clients cannot collide on a key.
+     *
      * @param request The prompt enhancement request with validation
+     * @param idempotencyKey Optional client-chosen key identifying this request across retries
+     * @param httpRequest The HTTP request, identifying the client that owns the key
      * @return ResponseEntity containing the enhancement result
      */
     @PostMapping("/rewrite")
-    public ResponseEntity<PromptResponse> rewrite(@Valid @RequestBody PromptRequest request) {
-        logger.info("Received prompt enhancement request - style: {}, context: {}, text length: {}",
-                   request.getStyle(), request.getContext(),
-                   request.getOriginalText() != null ? request.getOriginalText().length() : 0);
+    public ResponseEntity<PromptResponse> rewrite(@Valid @RequestBody PromptRequest request,
+                                                  @RequestHeader(value = IDEMPOTENCY_KEY, required = false)
+                                                  String idempotencyKey,
+                                                  HttpServletRequest httpRequest) {
+        logger.debug("Received prompt enhancement request - style: {}, context: {}",
+                   request.getStyle(), request.getContext());
 
         try {
-            // Process the enhancement request through the service layer
-            PromptResponse response = promptService.enhancePrompt(request);
+            if (idempotencyKey == null) {
+                return ResponseEntity.ok(enhance(request));
+            }
+            IdempotencyService.Result result = idempotencyService.execute(clientKeys.resolve(httpRequest),
+                    idempotencyKey, request, () -> enhance(request));
+            return ResponseEntity.ok()
+                    .header(IDEMPOTENT_REPLAYED, String.valueOf(result.replayed()))
+                    .body(result.response());
+
+        } catch (IdempotencyConflictException e) {
+            // Handled by GlobalExceptionHandler
+            throw e;
+        } catch (Exception e) {
+            logger.error("Unexpected error in rewrite controller: {}", e.getMessage(), e);
+            PromptResponse errorResponse = new PromptResponse(false, null,
+                    "Internal server error: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(errorResponse);
+        }
+    }
+
+    /**
+     * Applies a follow-up instruction to an earlier enhancement.
+     *
+     * This endpoint accepts a JSON request containing:
+     * - recordId: The recordId of an earlier response, or the id of a history item (required)
+     * - instruction: What should change, e.g. "shorter" or "more formal" (required, at most 500 characters)
+     *
+     * The response has the same fields as /rewrite; its recordId identifies the
+     * refined version, which can be refined again. Only the instruction is sent
+     * by the client; the server keeps the session's state.
+     *
+     * @param request The refinement request with validation
+     * @return ResponseEntity containing the refined enhancement, or 404 if the record does not exist
+     */
+    @PostMapping("/rewrite/refine")
+    public ResponseEntity<PromptResponse> refine(@Valid @RequestBody RefinementRequest request) {
+        logger.debug("Received refinement request - record: {}", request.getRecordId());
 
-            // Log the result for monitoring and debugging
-            if (response.isSuccess()) {
-                logger.info("Prompt enhancement successful, response length: {}",
-                           response.getEnhancedText() != null ? response.getEnhancedText().length() : 0);
+        try {
+            long start = System.nanoTime();
+            Optional<PromptResponse> response = refinementService.refine(request);
+            if (response.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(PromptResponse.error("No enhancement with id " + request.getRecordId()));
+            }
+            if (response.get().isSuccess()) {
+                if (logPolicy.sampled()) {
+                    logger.info("Prompt refinement successful - record: {}, instruction: {}, response: {}, {} ms",
+                               request.getRecordId(), logPolicy.describe(request.getInstruction()),
+                               logPolicy.describe(response.get().getEnhancedText()),
+                               (System.nanoTime() - start) / 1_000_000);
+                }
             } else {
-                logger.warn("Prompt enhancement failed: {}", response.getMessage());
+                logger.warn("Prompt refinement failed - record: {}, instruction: {}: {}",
+                           request.getRecordId(), logPolicy.describe(request.getInstruction()),
+                           response.get().getMessage());
             }
+            return ResponseEntity.ok(response.get());
+
+        } catch (Exception e) {
+            logger.error("Unexpected error in refine controller: {}", e.getMessage(), e);
+            PromptResponse errorResponse = new PromptResponse(false, null,
+                    "Internal server error: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(errorResponse);
+        }
+    }
 
+    /**
+     * Enhances a prompt progressively: prompts that need the AI model get the
+     * rule-based draft immediately, with an upgradeToken. The AI result later
+     * replaces the draft in the stored record (same recordId) and is fetched
+     * from /rewrite/upgrades/{upgradeToken}. Prompts that do not need the
+     * model get their final response and no token.
+     *
+     * @param request The prompt enhancement request with validation
+     * @return ResponseEntity containing the draft or final enhancement
+     */
+    @PostMapping("/rewrite/progressive")
+    public ResponseEntity<PromptResponse> rewriteProgressively(@Valid @RequestBody PromptRequest request) {
+        logger.debug("Received progressive enhancement request - style: {}, context: {}",
+                   request.getStyle(), request.getContext());
+
+        try {
+            PromptEnhancementService.ProgressiveEnhancement result = promptService.enhancePromptProgressively(request);
+            PromptResponse response = result.response();
+            if (result.upgrade() != null) {
+                response.setUpgradeToken(upgrades.register(result.upgrade()));
+            }
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
-            logger.error("Unexpected error in rewrite controller: {}", e.getMessage(), e);
+            logger.error("Unexpected error in progressive rewrite controller: {}", e.getMessage(), e);
             PromptResponse errorResponse = new PromptResponse(false, null,
                     "Internal server error: " + e.getMessage());
             return ResponseEntity.internalServerError().body(errorResponse);
         }
     }
 
+    /**
+     * Streams the AI result of a progressive draft as one server-sent event
+     * named "upgrade", whose data is the final response, then closes the stream.
+     * If the upgrade is already done the event is sent at once.
+     *
+     * @param token The upgradeToken of the draft response
+     * @return The event stream, or 404 if the token is unknown or expired
+     */
+    @GetMapping(value = "/rewrite/upgrades/{token}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamUpgrade(@PathVariable String token) {
+        CompletableFuture<PromptResponse> upgrade = upgrades.find(token);
+        if (upgrade == null) {
+            return ResponseEntity.notFound().build();
+        }
+        SseEmitter emitter = new SseEmitter(upgrades.waitTimeoutMillis());
+        upgrade.whenComplete((response, error) -> {
+            try {
+                emitter.send(SseEmitter.event()
+                        .name("upgrade")
+                        .data(error == null ? response : PromptResponse.error("Enhancement failed: " + error.getMessage()),
+                                MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the stream timed out
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Polls for the AI result of a progressive draft.
+     *
+     * @param token The upgradeToken of the draft response
+     * @return 200 with the final response, 202 while it is pending, or 404 if the token is unknown or expired
+     */
+    @GetMapping(value = "/rewrite/upgrades/{token}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PromptResponse> pollUpgrade(@PathVariable String token) {
+        CompletableFuture<PromptResponse> upgrade = upgrades.find(token);
+        if (upgrade == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(PromptResponse.error("Unknown or expired upgrade token"));
+        }
+        if (!upgrade.isDone()) {
+            PromptResponse pending = new PromptResponse(false, null, "AI enhancement still pending");
+            pending.setUpgradeToken(token);
+            return ResponseEntity.accepted().body(pending);
+        }
+        try {
+            return ResponseEntity.ok(upgrade.join());
+        } catch (CompletionException e) {
+            return ResponseEntity.ok(PromptResponse.error("Enhancement failed: " + e.getCause().getMessage()));
+        }
+    }
+
+    private PromptResponse enhance(PromptRequest request) {
+        long start = System.nanoTime();
+
+        // Process the enhancement request through the service layer
+        PromptResponse response = promptService.enhancePrompt(request);
+
+        // Successful requests are sampled, failures are always logged
+        if (response.isSuccess()) {
+            if (logPolicy.sampled()) {
+                logger.info("Prompt enhancement successful - style: {}, context: {}, prompt: {}, response: {}, {} ms",
+                           request.getStyle(), request.getContext(), logPolicy.describe(request.getOriginalText()),
+                           logPolicy.describe(response.getEnhancedText()), (System.nanoTime() - start) / 1_000_000);
+            }
+        } else {
+            logger.warn("Prompt enhancement failed - style: {}, context: {}, prompt: {}: {}",
+                       request.getStyle(), request.getContext(), logPolicy.describe(request.getOriginalText()),
+                       response.getMessage());
+        }
+        return response;
+    }
+
     /**
      * Retrieves recent prompt enhancement history for the frontend.
      *
@@ -101,7 +317,7 @@ public class RewriteController {
      */
     @GetMapping("/history")
     public ResponseEntity<PromptHistoryResponse> getHistory(@RequestParam(defaultValue = "10") int limit) {
-        logger.info("Received history request - limit: {}", limit);
+        logger.debug("Received history request - limit: {}", limit);
 
         try {
             // Validate limit parameter
@@ -115,7 +331,9 @@ public class RewriteController {
             // Retrieve history from service layer
             PromptHistoryResponse response = promptService.getPromptHistory(limit);
 
-            logger.info("History request successful - returned {} items", response.getHistory().size());
+            if (logPolicy.sampled()) {
+                logger.info("History request successful - returned {} items", response.getHistory().size());
+            }
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
@@ -125,4 +343,51 @@ public class RewriteController {
             return ResponseEntity.internalServerError().body(errorResponse);
         }
     }
+
+    /**
+     * Streams the full enhancement history as newline-delimited JSON for offline analysis.
+     *
+     * Unlike /history this endpoint has no item limit; rows are streamed from a
+     * database cursor, so memory use stays constant regardless of table size.
+     *
+     * Query parameters (all optional):
+     * - from: Inclusive lower bound on creation time (ISO-8601 instant)
+     * - to: Exclusive upper bound on creation time (ISO-8601 instant)
+     * - style: Only export this enhancement style
+     * - context: Only export this context type
+     * - gzip: Compress the export (default: false)
+     *
+     * @param from Inclusive lower bound on creation time
+     * @param to Exclusive upper bound on creation time
+     * @param style Enhancement style filter
+     * @param context Context type filter
+     * @param gzip Whether to gzip-compress the export
+     * @return ResponseEntity streaming one JSON object per line
+     */
+    @GetMapping("/history/export")
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) EnhancementStyle style,
+            @RequestParam(required = false) ContextType context,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        logger.info("Received history export request - from: {}, to: {}, style: {}, context: {}, gzip: {}",
+                   from, to, style, context, gzip);
+
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                try (GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, 8192)) {
+                    exportService.exportHistory(from, to, style, context, gzipStream);
+                }
+            } else {
+                exportService.exportHistory(from, to, style, context, outputStream);
+            }
+        };
+
+        String filename = gzip ? "history.ndjson.gz" : "history.ndjson";
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
 }
\ No newline at end of file
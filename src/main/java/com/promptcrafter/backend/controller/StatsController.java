@@ -0,0 +1,132 @@
+package com.promptcrafter.backend.controller;
+
+import com.promptcrafter.backend.dto.UsageStatsResponse;
+import com.promptcrafter.backend.dto.UserUsageResponse;
+import com.promptcrafter.backend.enums.RollupGranularity;
+import com.promptcrafter.backend.service.stats.UsageLedger;
+import com.promptcrafter.backend.service.stats.UsageStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * REST Controller for usage statistics.
+ *
+ * Endpoints:
+ * - GET /api/stats: Usage by enhancement style and context, in total and over time
+ * - GET /api/usage: Model usage and estimated cost per user and team, for charge-back
+ *
+ * Served from in-memory counters and pre-aggregated tables; raw prompt
+ * history is never scanned.
+ */
+@RestController
+@RequestMapping("/api")
+public class StatsController {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatsController.class);
+
+    // Upper bounds on the number of buckets a single request may return per style/context
+    private static final Duration MAX_MINUTE_RANGE = Duration.ofHours(48);
+    private static final Duration MAX_HOUR_RANGE = Duration.ofDays(90);
+
+    private final UsageStatsService statsService;
+    private final UsageLedger usageLedger;
+
+    public StatsController(UsageStatsService statsService, UsageLedger usageLedger) {
+        this.statsService = statsService;
+        this.usageLedger = usageLedger;
+    }
+
+    /**
+     * Retrieves usage statistics.
+     *
+     * Query parameters:
+     * - granularity: MINUTE or HOUR (default: HOUR)
+     * - from: Inclusive start of the range (ISO-8601 instant, default: 24 hours ago)
+     * - to: Exclusive end of the range (ISO-8601 instant, default: now)
+     *
+     * The response includes live totals since startup and the rollup buckets for
+     * the range. Minute buckets are available for the configured retention only
+     * and lag real time by up to two minutes.
+     *
+     * @param granularity Bucket size
+     * @param from Start of the range
+     * @param to End of the range
+     * @return ResponseEntity containing the statistics
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<UsageStatsResponse> getStats(
+            @RequestParam(defaultValue = "HOUR") RollupGranularity granularity,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofHours(24));
+        logger.info("Received stats request - granularity: {}, from: {}, to: {}", granularity, start, end);
+
+        Duration maxRange = granularity == RollupGranularity.MINUTE ? MAX_MINUTE_RANGE : MAX_HOUR_RANGE;
+        if (!start.isBefore(end) || Duration.between(start, end).compareTo(maxRange) > 0) {
+            logger.warn("Invalid stats range: {} - {}", start, end);
+            return ResponseEntity.badRequest().body(new UsageStatsResponse(false,
+                    "Range must be positive and at most " + maxRange.toHours() + " hours for " + granularity));
+        }
+
+        try {
+            return ResponseEntity.ok(statsService.getStats(start, end, granularity));
+        } catch (Exception e) {
+            logger.error("Unexpected error in stats controller: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(new UsageStatsResponse(false,
+                    "Internal server error: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Retrieves model usage per user and team.
+     *
+     * Query parameters:
+     * - user: Only this user (default: all users)
+     * - team: Only this team (default: all teams)
+     * - from: Inclusive start of the range (ISO-8601 instant, default: 24 hours ago)
+     * - to: Exclusive end of the range (ISO-8601 instant, default: now)
+     *
+     * The response includes hourly buckets and totals over the range per user
+     * and team, highest estimated cost first. Counts not flushed to the usage
+     * table yet are included, so the current hour is up to date.
+     *
+     * @param user User filter
+     * @param team Team filter
+     * @param from Start of the range
+     * @param to End of the range
+     * @return ResponseEntity containing the usage
+     */
+    @GetMapping("/usage")
+    public ResponseEntity<UserUsageResponse> getUsage(
+            @RequestParam(required = false) String user,
+            @RequestParam(required = false) String team,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofHours(24));
+        logger.info("Received usage request - user: {}, team: {}, from: {}, to: {}", user, team, start, end);
+
+        if (!start.isBefore(end) || Duration.between(start, end).compareTo(MAX_HOUR_RANGE) > 0) {
+            logger.warn("Invalid usage range: {} - {}", start, end);
+            return ResponseEntity.badRequest().body(new UserUsageResponse(false,
+                    "Range must be positive and at most " + MAX_HOUR_RANGE.toHours() + " hours"));
+        }
+
+        try {
+            return ResponseEntity.ok(usageLedger.getUsage(user, team, start, end));
+        } catch (Exception e) {
+            logger.error("Unexpected error in usage controller: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(new UserUsageResponse(false,
+                    "Internal server error: " + e.getMessage()));
+        }
+    }
+}
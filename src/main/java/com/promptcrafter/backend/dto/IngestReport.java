@@ -0,0 +1,76 @@
+package com.promptcrafter.backend.dto;
+
+/**
+ * DTO summarising a bulk ingest run.
+ * Returned as the last line of a streamed ingest and logged by the CLI runner.
+ */
+public class IngestReport {
+
+    private long linesRead;
+    private long linesSkipped;
+    private long succeeded;
+    private long failed;
+    private long elapsedMillis;
+    private double itemsPerSecond;
+    private int concurrency;
+    private int maxInFlight;
+    private int batchSize;
+
+    public IngestReport() {}
+
+    public IngestReport(long linesRead, long linesSkipped, long succeeded, long failed, long elapsedMillis,
+                        int concurrency, int maxInFlight, int batchSize) {
+        this.linesRead = linesRead;
+        this.linesSkipped = linesSkipped;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.elapsedMillis = elapsedMillis;
+        this.itemsPerSecond = elapsedMillis > 0 ? (succeeded + failed) * 1000.0 / elapsedMillis : 0;
+        this.concurrency = concurrency;
+        this.maxInFlight = maxInFlight;
+        this.batchSize = batchSize;
+    }
+
+    // Getters and setters
+    public long getLinesRead() { return linesRead; }
+    public void setLinesRead(long linesRead) { this.linesRead = linesRead; }
+
+    public long getLinesSkipped() { return linesSkipped; }
+    public void setLinesSkipped(long linesSkipped) { this.linesSkipped = linesSkipped; }
+
+    public long getSucceeded() { return succeeded; }
+    public void setSucceeded(long succeeded) { this.succeeded = succeeded; }
+
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public double getItemsPerSecond() { return itemsPerSecond; }
+    public void setItemsPerSecond(double itemsPerSecond) { this.itemsPerSecond = itemsPerSecond; }
+
+    public int getConcurrency() { return concurrency; }
+    public void setConcurrency(int concurrency) { this.concurrency = concurrency; }
+
+    public int getMaxInFlight() { return maxInFlight; }
+    public void setMaxInFlight(int maxInFlight) { this.maxInFlight = maxInFlight; }
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+
+    @Override
+    public String toString() {
+        return "IngestReport{" +
+                "linesRead=" + linesRead +
+                ", linesSkipped=" + linesSkipped +
+                ", succeeded=" + succeeded +
+                ", failed=" + failed +
+                ", elapsedMillis=" + elapsedMillis +
+                ", itemsPerSecond=" + String.format("%.2f", itemsPerSecond) +
+                ", concurrency=" + concurrency +
+                ", maxInFlight=" + maxInFlight +
+                ", batchSize=" + batchSize +
+                '}';
+    }
+}
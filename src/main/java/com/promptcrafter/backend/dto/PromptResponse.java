@@ -27,6 +27,18 @@ public class PromptResponse {
      * Contains success confirmation or error details.
      */
     private String message;
+
+    /**
+     * Id of the stored enhancement, which follow-up refinement requests reference.
+     * Will be null if the enhancement failed.
+     */
+    private Long recordId;
+
+    /**
+     * Token for fetching the AI version of a draft response, via SSE or polling.
+     * Null if the response is final.
+     */
+    private String upgradeToken;
     
     /**
      * Timestamp when the response was created.
@@ -129,6 +141,42 @@ public class PromptResponse {
         this.message = message;
     }
 
+    /**
+     * Gets the id of the stored enhancement.
+     *
+     * @return The enhancement record id, or null if nothing was stored
+     */
+    public Long getRecordId() {
+        return recordId;
+    }
+
+    /**
+     * Sets the id of the stored enhancement.
+     *
+     * @param recordId The enhancement record id
+     */
+    public void setRecordId(Long recordId) {
+        this.recordId = recordId;
+    }
+
+    /**
+     * Gets the token for fetching the AI version of a draft.
+     *
+     * @return The upgrade token, or null if the response is final
+     */
+    public String getUpgradeToken() {
+        return upgradeToken;
+    }
+
+    /**
+     * Sets the token for fetching the AI version of a draft.
+     *
+     * @param upgradeToken The upgrade token
+     */
+    public void setUpgradeToken(String upgradeToken) {
+        this.upgradeToken = upgradeToken;
+    }
+
     /**
      * Gets the timestamp when the response was created.
      * 
@@ -158,6 +206,8 @@ public class PromptResponse {
                 "success=" + success +
                 ", enhancedTextLength=" + (enhancedText != null ? enhancedText.length() : 0) +
                 ", message='" + message + '\'' +
+                ", recordId=" + recordId +
+                ", upgradeToken=" + upgradeToken +
                 ", timestamp=" + timestamp +
                 '}';
     }
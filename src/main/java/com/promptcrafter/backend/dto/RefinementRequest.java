@@ -0,0 +1,69 @@
+package com.promptcrafter.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Data Transfer Object for follow-up requests in a refinement session.
+ *
+ * Instead of sending the full text again, the client references an earlier
+ * enhancement by the recordId of its response (or the id of a history item)
+ * and sends only what should change, e.g. "shorter" or "more formal".
+ */
+public class RefinementRequest {
+
+    /**
+     * Id of the enhancement to refine.
+     */
+    @NotNull(message = "Record id is required")
+    private Long recordId;
+
+    /**
+     * What should change in the enhancement.
+     * Must not be blank and should be at most 500 characters.
+     */
+    @NotBlank(message = "Instruction is required and cannot be empty")
+    @Size(max = 500, message = "Instruction must be at most 500 characters")
+    private String instruction;
+
+    /**
+     * Default constructor for JSON deserialization.
+     */
+    public RefinementRequest() {}
+
+    /**
+     * Constructor with all parameters for programmatic creation.
+     *
+     * @param recordId Id of the enhancement to refine
+     * @param instruction What should change in the enhancement
+     */
+    public RefinementRequest(Long recordId, String instruction) {
+        this.recordId = recordId;
+        this.instruction = instruction;
+    }
+
+    public Long getRecordId() {
+        return recordId;
+    }
+
+    public void setRecordId(Long recordId) {
+        this.recordId = recordId;
+    }
+
+    public String getInstruction() {
+        return instruction;
+    }
+
+    public void setInstruction(String instruction) {
+        this.instruction = instruction;
+    }
+
+    @Override
+    public String toString() {
+        return "RefinementRequest{" +
+                "recordId=" + recordId +
+                ", instructionLength=" + (instruction != null ? instruction.length() : 0) +
+                '}';
+    }
+}
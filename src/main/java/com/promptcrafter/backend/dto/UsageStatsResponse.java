@@ -0,0 +1,107 @@
+package com.promptcrafter.backend.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * DTO for returning usage statistics by enhancement style and context.
+ * Totals come from live in-memory counters; buckets come from the rollup table.
+ */
+public class UsageStatsResponse {
+
+    private Instant countingSince;
+    private List<UsageCount> totals;
+    private String granularity;
+    private Instant from;
+    private Instant to;
+    private List<UsageBucket> buckets;
+    private boolean success;
+    private String message;
+
+    public UsageStatsResponse() {}
+
+    public UsageStatsResponse(boolean success, String message) {
+        this.success = success;
+        this.message = message;
+    }
+
+    public UsageStatsResponse(Instant countingSince, List<UsageCount> totals, String granularity,
+                              Instant from, Instant to, List<UsageBucket> buckets) {
+        this.countingSince = countingSince;
+        this.totals = totals;
+        this.granularity = granularity;
+        this.from = from;
+        this.to = to;
+        this.buckets = buckets;
+        this.success = true;
+    }
+
+    /**
+     * Count of enhancements for one style and context
+     */
+    public static class UsageCount {
+        private String enhancementStyle;
+        private String context;
+        private long count;
+
+        public UsageCount() {}
+
+        public UsageCount(String enhancementStyle, String context, long count) {
+            this.enhancementStyle = enhancementStyle;
+            this.context = context;
+            this.count = count;
+        }
+
+        // Getters and setters
+        public String getEnhancementStyle() { return enhancementStyle; }
+        public void setEnhancementStyle(String enhancementStyle) { this.enhancementStyle = enhancementStyle; }
+
+        public String getContext() { return context; }
+        public void setContext(String context) { this.context = context; }
+
+        public long getCount() { return count; }
+        public void setCount(long count) { this.count = count; }
+    }
+
+    /**
+     * Count of enhancements for one style and context within a time bucket
+     */
+    public static class UsageBucket extends UsageCount {
+        private Instant bucketStart;
+
+        public UsageBucket() {}
+
+        public UsageBucket(Instant bucketStart, String enhancementStyle, String context, long count) {
+            super(enhancementStyle, context, count);
+            this.bucketStart = bucketStart;
+        }
+
+        public Instant getBucketStart() { return bucketStart; }
+        public void setBucketStart(Instant bucketStart) { this.bucketStart = bucketStart; }
+    }
+
+    // Getters and setters for main class
+    public Instant getCountingSince() { return countingSince; }
+    public void setCountingSince(Instant countingSince) { this.countingSince = countingSince; }
+
+    public List<UsageCount> getTotals() { return totals; }
+    public void setTotals(List<UsageCount> totals) { this.totals = totals; }
+
+    public String getGranularity() { return granularity; }
+    public void setGranularity(String granularity) { this.granularity = granularity; }
+
+    public Instant getFrom() { return from; }
+    public void setFrom(Instant from) { this.from = from; }
+
+    public Instant getTo() { return to; }
+    public void setTo(Instant to) { this.to = to; }
+
+    public List<UsageBucket> getBuckets() { return buckets; }
+    public void setBuckets(List<UsageBucket> buckets) { this.buckets = buckets; }
+
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
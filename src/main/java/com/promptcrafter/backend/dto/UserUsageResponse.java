@@ -0,0 +1,125 @@
+package com.promptcrafter.backend.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * DTO for returning model usage per user and team, for charge-back.
+ * Hourly buckets come from the usage table plus the counts not flushed yet;
+ * totals add up the buckets of the range per user and team.
+ */
+public class UserUsageResponse {
+
+    private Instant from;
+    private Instant to;
+    private Instant lastFlush;
+    private List<AccountUsage> totals;
+    private List<AccountUsageBucket> buckets;
+    private boolean success;
+    private String message;
+
+    public UserUsageResponse() {}
+
+    public UserUsageResponse(boolean success, String message) {
+        this.success = success;
+        this.message = message;
+    }
+
+    public UserUsageResponse(Instant from, Instant to, Instant lastFlush, List<AccountUsage> totals,
+                             List<AccountUsageBucket> buckets) {
+        this.from = from;
+        this.to = to;
+        this.lastFlush = lastFlush;
+        this.totals = totals;
+        this.buckets = buckets;
+        this.success = true;
+    }
+
+    /**
+     * Usage of one user and team
+     */
+    public static class AccountUsage {
+        private String user;
+        private String team;
+        private long requests;
+        private long inputTokens;
+        private long outputTokens;
+        private double estimatedCostUsd;
+        private long fallbacks;
+
+        public AccountUsage() {}
+
+        public AccountUsage(String user, String team, long requests, long inputTokens, long outputTokens,
+                            double estimatedCostUsd, long fallbacks) {
+            this.user = user;
+            this.team = team;
+            this.requests = requests;
+            this.inputTokens = inputTokens;
+            this.outputTokens = outputTokens;
+            this.estimatedCostUsd = estimatedCostUsd;
+            this.fallbacks = fallbacks;
+        }
+
+        // Getters and setters
+        public String getUser() { return user; }
+        public void setUser(String user) { this.user = user; }
+
+        public String getTeam() { return team; }
+        public void setTeam(String team) { this.team = team; }
+
+        public long getRequests() { return requests; }
+        public void setRequests(long requests) { this.requests = requests; }
+
+        public long getInputTokens() { return inputTokens; }
+        public void setInputTokens(long inputTokens) { this.inputTokens = inputTokens; }
+
+        public long getOutputTokens() { return outputTokens; }
+        public void setOutputTokens(long outputTokens) { this.outputTokens = outputTokens; }
+
+        public double getEstimatedCostUsd() { return estimatedCostUsd; }
+        public void setEstimatedCostUsd(double estimatedCostUsd) { this.estimatedCostUsd = estimatedCostUsd; }
+
+        public long getFallbacks() { return fallbacks; }
+        public void setFallbacks(long fallbacks) { this.fallbacks = fallbacks; }
+    }
+
+    /**
+     * Usage of one user and team within an hour
+     */
+    public static class AccountUsageBucket extends AccountUsage {
+        private Instant bucketStart;
+
+        public AccountUsageBucket() {}
+
+        public AccountUsageBucket(Instant bucketStart, String user, String team, long requests, long inputTokens,
+                                  long outputTokens, double estimatedCostUsd, long fallbacks) {
+            super(user, team, requests, inputTokens, outputTokens, estimatedCostUsd, fallbacks);
+            this.bucketStart = bucketStart;
+        }
+
+        public Instant getBucketStart() { return bucketStart; }
+        public void setBucketStart(Instant bucketStart) { this.bucketStart = bucketStart; }
+    }
+
+    // Getters and setters for main class
+    public Instant getFrom() { return from; }
+    public void setFrom(Instant from) { this.from = from; }
+
+    public Instant getTo() { return to; }
+    public void setTo(Instant to) { this.to = to; }
+
+    public Instant getLastFlush() { return lastFlush; }
+    public void setLastFlush(Instant lastFlush) { this.lastFlush = lastFlush; }
+
+    public List<AccountUsage> getTotals() { return totals; }
+    public void setTotals(List<AccountUsage> totals) { this.totals = totals; }
+
+    public List<AccountUsageBucket> getBuckets() { return buckets; }
+    public void setBuckets(List<AccountUsageBucket> buckets) { this.buckets = buckets; }
+
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
@@ -0,0 +1,39 @@
+package com.promptcrafter.backend.enums;
+
+import java.time.Duration;
+
+public enum RollupGranularity {
+    MINUTE(Duration.ofMinutes(1)),
+    HOUR(Duration.ofHours(1));
+
+    private final Duration bucketSize;
+
+    /**
+     * Constructor to initialize the bucket size.
+     *
+     * @param bucketSize Duration covered by one rollup bucket
+     */
+    RollupGranularity(Duration bucketSize) {
+        this.bucketSize = bucketSize;
+    }
+
+    /**
+     * Getter for the duration covered by one rollup bucket.
+     *
+     * @return Bucket size as a Duration
+     */
+    public Duration getBucketSize() {
+        return bucketSize;
+    }
+
+    /**
+     * Truncates an epoch-millisecond timestamp to the start of its bucket.
+     *
+     * @param epochMillis Timestamp in milliseconds since the epoch
+     * @return Start of the bucket containing the timestamp, in epoch milliseconds
+     */
+    public long bucketStart(long epochMillis) {
+        long size = bucketSize.toMillis();
+        return epochMillis - Math.floorMod(epochMillis, size);
+    }
+}
@@ -0,0 +1,204 @@
+package com.promptcrafter.backend.grpc;
+
+import com.promptcrafter.backend.dto.PromptRequest;
+import com.promptcrafter.backend.dto.PromptResponse;
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.grpc.proto.BatchEnhanceRequest;
+import com.promptcrafter.backend.grpc.proto.BatchEnhanceResponse;
+import com.promptcrafter.backend.grpc.proto.Context;
+import com.promptcrafter.backend.grpc.proto.EnhanceChunk;
+import com.promptcrafter.backend.grpc.proto.EnhanceRequest;
+import com.promptcrafter.backend.grpc.proto.EnhanceResponse;
+import com.promptcrafter.backend.grpc.proto.EnhancerGrpc;
+import com.promptcrafter.backend.grpc.proto.Style;
+import com.promptcrafter.backend.service.PromptEnhancementService;
+import com.promptcrafter.backend.service.logging.RequestLogPolicy;
+import com.promptcrafter.backend.service.stats.UsageLedger;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * gRPC implementation of the Enhancer service (src/main/proto/enhancer.proto),
+ * backed by the same {@link PromptEnhancementService} as POST /api/rewrite.
+ *
+ * Invalid requests fail with INVALID_ARGUMENT and the same validation messages
+ * as the REST API. Enhancement failures are not gRPC errors: they come back as
+ * a response with success=false, as they do over REST. In a batch, each item
+ * succeeds or fails on its own. Batch items are charged to the usage account
+ * of the call, as bound by {@link UsageAccountInterceptor}.
+ *
+ * Configuration:
+ * - app.grpc.batch-concurrency: Batch items enhanced in parallel, across all batches (default: 4)
+ * - app.grpc.max-batch-size: Largest accepted batch (default: 100)
+ */
+@Component
+public class EnhancerGrpcService extends EnhancerGrpc.EnhancerImplBase {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnhancerGrpcService.class);
+
+    private final PromptEnhancementService promptService;
+    private final Validator validator;
+    private final RequestLogPolicy logPolicy;
+    private final int maxBatchSize;
+    private final ExecutorService batchWorkers;
+
+    public EnhancerGrpcService(PromptEnhancementService promptService,
+                               Validator validator,
+                               RequestLogPolicy logPolicy,
+                               @Value("${app.grpc.batch-concurrency:4}") int batchConcurrency,
+                               @Value("${app.grpc.max-batch-size:100}") int maxBatchSize) {
+        this.promptService = promptService;
+        this.validator = validator;
+        this.logPolicy = logPolicy;
+        this.maxBatchSize = maxBatchSize;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.batchWorkers = Executors.newFixedThreadPool(batchConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "grpc-batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void enhance(EnhanceRequest request, StreamObserver<EnhanceResponse> responseObserver) {
+        PromptRequest promptRequest = toPromptRequest(request);
+        String violation = validate(promptRequest);
+        if (violation != null) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(violation).asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(toProto(run(promptRequest, null)));
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void enhanceStream(EnhanceRequest request, StreamObserver<EnhanceChunk> responseObserver) {
+        PromptRequest promptRequest = toPromptRequest(request);
+        String violation = validate(promptRequest);
+        if (violation != null) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(violation).asRuntimeException());
+            return;
+        }
+        ServerCallStreamObserver<EnhanceChunk> call = (ServerCallStreamObserver<EnhanceChunk>) responseObserver;
+        PromptResponse response = run(promptRequest, token -> {
+            // The model call keeps running after a cancel; its tokens are dropped
+            if (!call.isCancelled()) {
+                call.onNext(EnhanceChunk.newBuilder().setToken(token).build());
+            }
+        });
+        if (!call.isCancelled()) {
+            call.onNext(EnhanceChunk.newBuilder().setResult(toProto(response)).build());
+            call.onCompleted();
+        }
+    }
+
+    @Override
+    public void enhanceBatch(BatchEnhanceRequest request, StreamObserver<BatchEnhanceResponse> responseObserver) {
+        int count = request.getRequestsCount();
+        if (count == 0 || count > maxBatchSize) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("Batch must contain between 1 and " + maxBatchSize + " requests")
+                    .asRuntimeException());
+            return;
+        }
+
+        List<CompletableFuture<EnhanceResponse>> futures = new ArrayList<>(count);
+        for (EnhanceRequest item : request.getRequestsList()) {
+            PromptRequest promptRequest = toPromptRequest(item);
+            String violation = validate(promptRequest);
+            if (violation != null) {
+                futures.add(CompletableFuture.completedFuture(toProto(PromptResponse.error(violation))));
+            } else {
+                futures.add(CompletableFuture.supplyAsync(
+                        UsageLedger.bind(() -> toProto(run(promptRequest, null))), batchWorkers));
+            }
+        }
+
+        BatchEnhanceResponse.Builder response = BatchEnhanceResponse.newBuilder();
+        for (CompletableFuture<EnhanceResponse> future : futures) {
+            response.addResponses(future.join());
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchWorkers.shutdownNow();
+    }
+
+    private PromptResponse run(PromptRequest request, Consumer<String> onToken) {
+        long start = System.nanoTime();
+        PromptResponse response;
+        try {
+            response = onToken == null
+                    ? promptService.enhancePrompt(request)
+                    : promptService.enhancePrompt(request, onToken);
+        } catch (Exception e) {
+            logger.error("Unexpected error in gRPC enhancement: {}", e.getMessage(), e);
+            response = PromptResponse.error("Internal server error: " + e.getMessage());
+        }
+
+        if (response.isSuccess()) {
+            if (logPolicy.sampled()) {
+                logger.info("gRPC enhancement successful - style: {}, context: {}, prompt: {}, response: {}, {} ms",
+                           request.getStyle(), request.getContext(), logPolicy.describe(request.getOriginalText()),
+                           logPolicy.describe(response.getEnhancedText()), (System.nanoTime() - start) / 1_000_000);
+            }
+        } else {
+            logger.warn("gRPC enhancement failed - style: {}, context: {}, prompt: {}: {}",
+                       request.getStyle(), request.getContext(), logPolicy.describe(request.getOriginalText()),
+                       response.getMessage());
+        }
+        return response;
+    }
+
+    private String validate(PromptRequest request) {
+        Set<ConstraintViolation<PromptRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        ConstraintViolation<PromptRequest> violation = violations.iterator().next();
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    static PromptRequest toPromptRequest(EnhanceRequest request) {
+        Style style = request.getStyle();
+        Context context = request.getContext();
+        return new PromptRequest(
+                request.getOriginalText(),
+                style == Style.STYLE_UNSPECIFIED || style == Style.UNRECOGNIZED
+                        ? null : EnhancementStyle.valueOf(style.name()),
+                context == Context.CONTEXT_UNSPECIFIED || context == Context.UNRECOGNIZED
+                        ? null : ContextType.valueOf(context.name()));
+    }
+
+    static EnhanceResponse toProto(PromptResponse response) {
+        EnhanceResponse.Builder builder = EnhanceResponse.newBuilder().setSuccess(response.isSuccess());
+        if (response.getEnhancedText() != null) {
+            builder.setEnhancedText(response.getEnhancedText());
+        }
+        if (response.getMessage() != null) {
+            builder.setMessage(response.getMessage());
+        }
+        return builder.build();
+    }
+}
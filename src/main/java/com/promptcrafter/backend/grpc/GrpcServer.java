@@ -0,0 +1,121 @@
+package com.promptcrafter.backend.grpc;
+
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the gRPC server next to the servlet container. It starts with the
+ * application context and drains in-flight calls on shutdown before the
+ * services behind it are destroyed.
+ *
+ * Calls are charged to the usage account named in their metadata, under the
+ * same names as the app.usage.user-header and app.usage.team-header headers.
+ *
+ * Configuration:
+ * - app.grpc.enabled: Start the gRPC server (default: false)
+ * - app.grpc.port: Listen port, 0 for a random port (default: 9090)
+ * - app.grpc.workers: Threads running calls; like Tomcat's pool, calls block on the model (default: 32)
+ * - app.grpc.max-message-kb: Largest inbound message, which bounds batch payloads (default: 4096)
+ * - app.grpc.shutdown-grace-seconds: Time in-flight calls get to finish on shutdown (default: 30)
+ */
+@Component
+@ConditionalOnProperty(name = "app.grpc.enabled", havingValue = "true")
+public class GrpcServer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcServer.class);
+
+    private final EnhancerGrpcService enhancerService;
+    private final int port;
+    private final int workerCount;
+    private final int maxMessageKb;
+    private final long shutdownGraceSeconds;
+    private final UsageAccountInterceptor usageAccounts;
+
+    private volatile Server server;
+    private ExecutorService workers;
+
+    public GrpcServer(EnhancerGrpcService enhancerService,
+                      @Value("${app.grpc.port:9090}") int port,
+                      @Value("${app.grpc.workers:32}") int workerCount,
+                      @Value("${app.grpc.max-message-kb:4096}") int maxMessageKb,
+                      @Value("${app.grpc.shutdown-grace-seconds:30}") long shutdownGraceSeconds,
+                      @Value("${app.usage.user-header:X-User}") String userHeader,
+                      @Value("${app.usage.team-header:X-Team}") String teamHeader) {
+        this.enhancerService = enhancerService;
+        this.port = port;
+        this.workerCount = workerCount;
+        this.maxMessageKb = maxMessageKb;
+        this.shutdownGraceSeconds = shutdownGraceSeconds;
+        this.usageAccounts = new UsageAccountInterceptor(userHeader, teamHeader);
+    }
+
+    @Override
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "grpc-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            server = NettyServerBuilder.forPort(port)
+                    .addService(ServerInterceptors.intercept(enhancerService, usageAccounts))
+                    .executor(workers)
+                    .maxInboundMessageSize(maxMessageKb * 1024)
+                    .build()
+                    .start();
+        } catch (IOException e) {
+            workers.shutdownNow();
+            throw new UncheckedIOException("Could not start gRPC server on port " + port, e);
+        }
+        logger.info("gRPC server started on port {}", server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        Server running = server;
+        if (running == null) {
+            return;
+        }
+        running.shutdown();
+        try {
+            if (!running.awaitTermination(shutdownGraceSeconds, TimeUnit.SECONDS)) {
+                logger.warn("gRPC calls still running after {}s, cancelling them", shutdownGraceSeconds);
+                running.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            running.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdownNow();
+        server = null;
+        logger.info("gRPC server stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * @return The bound port, useful when app.grpc.port is 0
+     */
+    public int getPort() {
+        Server running = server;
+        return running != null ? running.getPort() : -1;
+    }
+}
@@ -0,0 +1,92 @@
+package com.promptcrafter.backend.grpc;
+
+import com.promptcrafter.backend.service.stats.UsageAccount;
+import com.promptcrafter.backend.service.stats.UsageLedger;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+
+/**
+ * Charges the model usage of a gRPC call to the user and team named in its
+ * metadata, or to the default account without them. The gRPC counterpart of
+ * {@link com.promptcrafter.backend.config.UsageAccountFilter}, using the same
+ * names as metadata keys.
+ *
+ * gRPC runs the callbacks of one call on any of its worker threads, so the
+ * account is bound around each callback rather than once per call.
+ *
+ * Registered by {@link GrpcServer}.
+ */
+public class UsageAccountInterceptor implements ServerInterceptor {
+
+    // Longer values are cut, so a client cannot make the usage rows arbitrarily large
+    private static final int MAX_LENGTH = 128;
+
+    private final Metadata.Key<String> userKey;
+    private final Metadata.Key<String> teamKey;
+
+    public UsageAccountInterceptor(String userKey, String teamKey) {
+        this.userKey = Metadata.Key.of(userKey, Metadata.ASCII_STRING_MARSHALLER);
+        this.teamKey = Metadata.Key.of(teamKey, Metadata.ASCII_STRING_MARSHALLER);
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        String user = value(headers, userKey);
+        UsageAccount account = user.isEmpty()
+                ? UsageAccount.DEFAULT
+                : new UsageAccount(user, value(headers, teamKey));
+        ServerCall.Listener<ReqT> listener;
+        try (UsageLedger.Scope scope = UsageLedger.open(account)) {
+            listener = next.startCall(call, headers);
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onMessage(ReqT message) {
+                try (UsageLedger.Scope scope = UsageLedger.open(account)) {
+                    super.onMessage(message);
+                }
+            }
+
+            @Override
+            public void onHalfClose() {
+                try (UsageLedger.Scope scope = UsageLedger.open(account)) {
+                    super.onHalfClose();
+                }
+            }
+
+            @Override
+            public void onCancel() {
+                try (UsageLedger.Scope scope = UsageLedger.open(account)) {
+                    super.onCancel();
+                }
+            }
+
+            @Override
+            public void onComplete() {
+                try (UsageLedger.Scope scope = UsageLedger.open(account)) {
+                    super.onComplete();
+                }
+            }
+
+            @Override
+            public void onReady() {
+                try (UsageLedger.Scope scope = UsageLedger.open(account)) {
+                    super.onReady();
+                }
+            }
+        };
+    }
+
+    private static String value(Metadata headers, Metadata.Key<String> key) {
+        String value = headers.get(key);
+        if (value == null) {
+            return "";
+        }
+        value = value.trim();
+        return value.length() > MAX_LENGTH ? value.substring(0, MAX_LENGTH) : value;
+    }
+}
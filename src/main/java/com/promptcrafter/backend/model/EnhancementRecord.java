@@ -1,5 +1,7 @@
 package com.promptcrafter.backend.model;
 
+import com.promptcrafter.backend.model.converter.CompressedText;
+import com.promptcrafter.backend.model.converter.CompressedTextConverter;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.Fetch;
@@ -37,10 +39,20 @@ public class EnhancementRecord {
 
     /**
      * The enhanced version of the prompt text. Stored up to 8000 characters
-     * to capture rich outputs.
+     * to capture rich outputs; may be stored compressed and is only
+     * decompressed when read (see {@link CompressedTextConverter}).
      */
+    @Convert(converter = CompressedTextConverter.class)
     @Column(nullable = false, length = 8000)
-    private String enhancedText;
+    private CompressedText enhancedText;
+
+    /**
+     * Whether the enhanced text is the model's answer to the prompt, as
+     * opposed to a fallback, draft or reused copy. Null on rows written
+     * before the column existed, which count as not a model answer.
+     */
+    @Column(name = "model_answer")
+    private Boolean modelAnswer;
 
     /**
      * Timestamp when this enhancement record was created.
@@ -73,14 +85,17 @@ public class EnhancementRecord {
      *
      * @return the enhanced text
      */
-    public String getEnhancedText() { return enhancedText; }
+    public String getEnhancedText() { return enhancedText != null ? enhancedText.toString() : null; }
 
     /**
      * Sets the enhanced text associated with this record.
      *
      * @param enhancedText the enhanced text
      */
-    public void setEnhancedText(String enhancedText) { this.enhancedText = enhancedText; }
+    public void setEnhancedText(String enhancedText) { this.enhancedText = CompressedText.of(enhancedText); }
+
+    public boolean isModelAnswer() { return Boolean.TRUE.equals(modelAnswer); }
+    public void setModelAnswer(boolean modelAnswer) { this.modelAnswer = modelAnswer; }
 
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
@@ -2,6 +2,8 @@ package com.promptcrafter.backend.model;
 
 import com.promptcrafter.backend.enums.ContextType;
 import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.model.converter.CompressedText;
+import com.promptcrafter.backend.model.converter.CompressedTextConverter;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 
@@ -39,10 +41,12 @@ public class Prompt {
 
     /**
      * The original text content entered by the user.
-     * Limited to 4000 characters to keep requests lightweight.
+     * Limited to 4000 characters to keep requests lightweight; may be stored
+     * compressed (see {@link CompressedTextConverter}).
      */
+    @Convert(converter = CompressedTextConverter.class)
     @Column(nullable = false, length = 4000)
-    private String originalText;
+    private CompressedText originalText;
 
     /**
      * The enhancement style requested by the user (e.g., CONCISE, ACADEMIC).
@@ -72,8 +76,8 @@ public class Prompt {
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
 
-    public String getOriginalText() { return originalText; }
-    public void setOriginalText(String originalText) { this.originalText = originalText; }
+    public String getOriginalText() { return originalText != null ? originalText.toString() : null; }
+    public void setOriginalText(String originalText) { this.originalText = CompressedText.of(originalText); }
 
     public EnhancementStyle getStyle() { return style; }
     public void setStyle(EnhancementStyle style) { this.style = style; }
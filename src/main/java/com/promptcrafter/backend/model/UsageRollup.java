@@ -0,0 +1,99 @@
+package com.promptcrafter.backend.model;
+
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.enums.RollupGranularity;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Entity holding a pre-aggregated usage count for one time bucket.
+ *
+ * Each row counts the enhancements of one `EnhancementStyle` and `ContextType`
+ * within a minute or hour bucket. Rows are written by the periodic flush of
+ * the in-memory counters, so statistics queries never scan raw history.
+ *
+ * Database table: usage_rollups
+ * Indexes: unique index on (granularity, bucket_start, style, context)
+ */
+@Entity
+@Table(name = "usage_rollups", indexes = {
+        @Index(name = "idx_usage_rollups_bucket",
+               columnList = "granularity, bucket_start, style, context", unique = true)
+})
+public class UsageRollup {
+
+    /**
+     * Primary key for the rollup row (auto-generated).
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Size of the time bucket this row covers.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RollupGranularity granularity;
+
+    /**
+     * Inclusive start of the time bucket.
+     */
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    /**
+     * The enhancement style being counted.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EnhancementStyle style;
+
+    /**
+     * The context type being counted.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ContextType context;
+
+    /**
+     * Number of enhancements in the bucket.
+     */
+    @Column(nullable = false)
+    private long count;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public UsageRollup() {}
+
+    public UsageRollup(RollupGranularity granularity, Instant bucketStart, EnhancementStyle style,
+                       ContextType context, long count) {
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.style = style;
+        this.context = context;
+        this.count = count;
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public RollupGranularity getGranularity() { return granularity; }
+    public void setGranularity(RollupGranularity granularity) { this.granularity = granularity; }
+
+    public Instant getBucketStart() { return bucketStart; }
+    public void setBucketStart(Instant bucketStart) { this.bucketStart = bucketStart; }
+
+    public EnhancementStyle getStyle() { return style; }
+    public void setStyle(EnhancementStyle style) { this.style = style; }
+
+    public ContextType getContext() { return context; }
+    public void setContext(ContextType context) { this.context = context; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+}
@@ -0,0 +1,117 @@
+package com.promptcrafter.backend.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Entity holding the model usage charged to one user and team within one hour.
+ *
+ * Rows are written by the periodic flush of the in-memory usage counters, so
+ * requests never write here themselves. Cost is the estimate at the prices
+ * configured when the usage happened, in millionths of a US dollar.
+ *
+ * Database table: user_usage
+ * Indexes: unique index on (user_id, team, bucket_start), index on bucket_start
+ */
+@Entity
+@Table(name = "user_usage", indexes = {
+        @Index(name = "idx_user_usage_account", columnList = "user_id, team, bucket_start", unique = true),
+        @Index(name = "idx_user_usage_bucket", columnList = "bucket_start")
+})
+public class UserUsage {
+
+    /**
+     * Primary key for the usage row (auto-generated).
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The user the usage is charged to.
+     */
+    @Column(name = "user_id", nullable = false, length = 128)
+    private String userId;
+
+    /**
+     * The user's team, or "" for none.
+     */
+    @Column(nullable = false, length = 128)
+    private String team;
+
+    /**
+     * Inclusive start of the hour this row covers.
+     */
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    /**
+     * Enhancement and refinement requests.
+     */
+    @Column(nullable = false)
+    private long requests;
+
+    /**
+     * Tokens sent to the model.
+     */
+    @Column(name = "input_tokens", nullable = false)
+    private long inputTokens;
+
+    /**
+     * Tokens received from the model.
+     */
+    @Column(name = "output_tokens", nullable = false)
+    private long outputTokens;
+
+    /**
+     * Estimated cost of the model calls, in millionths of a US dollar.
+     */
+    @Column(name = "cost_micros", nullable = false)
+    private long costMicros;
+
+    /**
+     * Rule-based fallbacks used instead of a model answer.
+     */
+    @Column(nullable = false)
+    private long fallbacks;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public UserUsage() {}
+
+    public UserUsage(String userId, String team, Instant bucketStart) {
+        this.userId = userId;
+        this.team = team;
+        this.bucketStart = bucketStart;
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public String getTeam() { return team; }
+    public void setTeam(String team) { this.team = team; }
+
+    public Instant getBucketStart() { return bucketStart; }
+    public void setBucketStart(Instant bucketStart) { this.bucketStart = bucketStart; }
+
+    public long getRequests() { return requests; }
+    public void setRequests(long requests) { this.requests = requests; }
+
+    public long getInputTokens() { return inputTokens; }
+    public void setInputTokens(long inputTokens) { this.inputTokens = inputTokens; }
+
+    public long getOutputTokens() { return outputTokens; }
+    public void setOutputTokens(long outputTokens) { this.outputTokens = outputTokens; }
+
+    public long getCostMicros() { return costMicros; }
+    public void setCostMicros(long costMicros) { this.costMicros = costMicros; }
+
+    public long getFallbacks() { return fallbacks; }
+    public void setFallbacks(long fallbacks) { this.fallbacks = fallbacks; }
+}
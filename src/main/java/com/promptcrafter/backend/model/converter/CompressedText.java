@@ -0,0 +1,98 @@
+package com.promptcrafter.backend.model.converter;
+
+import java.util.Objects;
+
+/**
+ * Immutable holder for a text column that may be stored compressed.
+ *
+ * Entities keep this value instead of a plain {@code String} so that loading
+ * a row only copies the stored column value; the text is decompressed the
+ * first time {@link #toString()} is called and cached afterwards. Rows that
+ * are listed but never displayed therefore never pay for decompression.
+ */
+public final class CompressedText {
+
+    /**
+     * The column value as read from (or last written to) the database, or
+     * null if this value was created from plain text and not yet stored.
+     */
+    private final String stored;
+
+    /**
+     * The plain text, decoded lazily from {@link #stored}.
+     */
+    private String text;
+
+    private CompressedText(String stored, String text) {
+        this.stored = stored;
+        this.text = text;
+    }
+
+    /**
+     * Wraps plain text supplied by application code.
+     *
+     * @param text The plain text (may be null)
+     * @return A holder for the text, or null if text is null
+     */
+    public static CompressedText of(String text) {
+        return text != null ? new CompressedText(null, text) : null;
+    }
+
+    /**
+     * Wraps a raw column value without decoding it.
+     *
+     * @param stored The column value read from the database (may be null)
+     * @return A holder that decodes on first access, or null if stored is null
+     */
+    static CompressedText fromStored(String stored) {
+        return stored != null ? new CompressedText(stored, null) : null;
+    }
+
+    /**
+     * Gets the raw column value this holder was loaded from.
+     *
+     * @return The stored column value, or null for values created from plain text
+     */
+    String getStored() {
+        return stored;
+    }
+
+    /**
+     * Checks whether the plain text has already been decoded.
+     *
+     * @return true if no decompression is pending
+     */
+    public boolean isDecoded() {
+        return text != null;
+    }
+
+    /**
+     * Gets the plain text, decompressing it on first access.
+     *
+     * @return The plain text
+     */
+    @Override
+    public String toString() {
+        String result = text;
+        if (result == null) {
+            result = TextCompressionCodec.decode(stored);
+            text = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CompressedText other)) return false;
+        if (stored != null && other.stored != null) {
+            return stored.equals(other.stored);
+        }
+        return toString().equals(other.toString());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(toString());
+    }
+}
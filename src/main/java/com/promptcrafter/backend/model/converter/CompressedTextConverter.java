@@ -0,0 +1,56 @@
+package com.promptcrafter.backend.model.converter;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * JPA attribute converter that stores large text columns compressed.
+ *
+ * Compression is optional and controlled by configuration:
+ * - app.storage.compression.enabled: Compress values on write (default: false)
+ * - app.storage.compression.min-length: Minimum text length worth compressing (default: 512)
+ *
+ * Reads always understand both plain and compressed values, so the flag can
+ * be switched at any time without migrating existing rows. A value is only
+ * stored compressed when that is actually shorter than the plain text.
+ *
+ * Instances are created by Hibernate through Spring's bean container, which
+ * is what makes the {@code @Value} injection work.
+ */
+@Converter
+@Immutable
+public class CompressedTextConverter implements AttributeConverter<CompressedText, String> {
+
+    @Value("${app.storage.compression.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.storage.compression.min-length:512}")
+    private int minLength;
+
+    @Override
+    public String convertToDatabaseColumn(CompressedText attribute) {
+        if (attribute == null) {
+            return null;
+        }
+        // Values loaded from the database are written back untouched
+        if (attribute.getStored() != null) {
+            return attribute.getStored();
+        }
+
+        String text = attribute.toString();
+        boolean mustEncode = TextCompressionCodec.isEncoded(text);
+        if (!mustEncode && (!enabled || text.length() < minLength)) {
+            return text;
+        }
+
+        String encoded = TextCompressionCodec.encode(text);
+        return mustEncode || encoded.length() < text.length() ? encoded : text;
+    }
+
+    @Override
+    public CompressedText convertToEntityAttribute(String dbData) {
+        return CompressedText.fromStored(dbData);
+    }
+}
@@ -0,0 +1,145 @@
+package com.promptcrafter.backend.model.converter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes long text columns as deflate-compressed, Base64-armoured strings.
+ *
+ * Stored format: {@code MARKER + base64(version byte + deflate stream)}.
+ * The deflate stream is primed with a preset dictionary built from the
+ * template vocabulary, so even short enhancements compress well. Values that
+ * do not start with {@link #MARKER} are plain text, which keeps rows written
+ * before compression was enabled readable.
+ *
+ * Changing the dictionary requires a new format version; old versions must
+ * stay decodable for as long as rows written with them exist.
+ */
+public final class TextCompressionCodec {
+
+    /**
+     * Prefix that marks a stored value as compressed. A control character is
+     * used because it never appears at the start of user-entered text.
+     */
+    public static final char MARKER = '\u0001';
+
+    /**
+     * Format version 1: raw deflate with {@link #DICTIONARY_V1}.
+     */
+    static final byte VERSION_1 = 1;
+
+    /**
+     * Preset dictionary for version 1. Deflate matches against the end of the
+     * dictionary most cheaply, so the most frequent phrases come last.
+     */
+    private static final byte[] DICTIONARY_V1 = (
+            "Enhanced version: Original prompt: Task: Rewrite the following prompt "
+            + "- Maintain general applicability\n- Use clear, universal language\n"
+            + "- Structure for conversational AI interaction\n- Use clear instructions and role definitions\n"
+            + "- Focus on academic search keywords\n- Use research terminology\n- Include relevant time periods\n"
+            + "- Use scholarly language\n- Add research context\n- Include methodology considerations\n"
+            + "- Reference potential frameworks\n- Use engaging language\n- Add creative elements\n"
+            + "- Suggest unique perspectives\n- Encourage innovative thinking\n"
+            + "- Add background context\n- Include specific examples\n- Clarify objectives and scope\n"
+            + "- Provide structured approach\n- Remove unnecessary words\n- Keep essential information\n"
+            + "**Systematic Research Investigation**\n\n**Innovative Exploration**\n\n**Creative Approach:**\n"
+            + "**Comprehensive Analysis Request**\n\n**Required Elements:**\n**Requirements:**\n"
+            + "- **Background Context**: Provide relevant background information\n"
+            + "- **Specific Examples**: Include concrete examples and case studies\n"
+            + "- **Step-by-Step Methodology**: Outline detailed approach and process\n"
+            + "- **Challenges & Solutions**: Identify potential issues and solutions\n"
+            + "- **Detailed Recommendations**: Provide comprehensive guidance with supporting evidence\n"
+            + "- Provide peer-reviewed sources and academic references\n"
+            + "- Include methodological framework and research design\n"
+            + "- Present evidence-based analysis with proper citations\n"
+            + "- Consider theoretical context and scholarly implications\n"
+            + "You are an expert. Please provide a detailed explanation of the following, including "
+            + "the key concepts, examples, and practical applications. Explain in simple terms "
+            + "and include the background, objectives, scope, methodology, and expected outcomes. "
+            + "### Context\n### Objective\n### Requirements\n### Output Format\n"
+            + "\n\n**Objective:**\n**Context:**\n**Scope:**\n**Output Format:**\n\n- **").getBytes(StandardCharsets.UTF_8);
+
+    private static final ThreadLocal<Deflater> DEFLATERS =
+            ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+    private static final ThreadLocal<Inflater> INFLATERS =
+            ThreadLocal.withInitial(() -> new Inflater(true));
+
+    private TextCompressionCodec() {}
+
+    /**
+     * Checks whether a stored column value is in compressed form.
+     *
+     * @param stored The raw column value
+     * @return true if the value must be decoded before use
+     */
+    public static boolean isEncoded(String stored) {
+        return stored != null && !stored.isEmpty() && stored.charAt(0) == MARKER;
+    }
+
+    /**
+     * Compresses text into the stored format using the current format version.
+     *
+     * @param text The plain text to compress
+     * @return The encoded column value
+     */
+    public static String encode(String text) {
+        byte[] input = text.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = DEFLATERS.get();
+        deflater.reset();
+        deflater.setDictionary(DICTIONARY_V1);
+        deflater.setInput(input);
+        deflater.finish();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + 16);
+        out.write(VERSION_1);
+        byte[] buffer = new byte[1024];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(buffer);
+            out.write(buffer, 0, n);
+        }
+        return MARKER + Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    /**
+     * Decodes a stored column value. Plain values are returned unchanged.
+     *
+     * @param stored The raw column value
+     * @return The plain text
+     * @throws IllegalStateException if the value is corrupt or uses an unknown format version
+     */
+    public static String decode(String stored) {
+        if (!isEncoded(stored)) {
+            return stored;
+        }
+
+        byte[] payload = Base64.getDecoder().decode(stored.substring(1));
+        if (payload.length == 0 || payload[0] != VERSION_1) {
+            throw new IllegalStateException("Unsupported compressed text format version: "
+                    + (payload.length == 0 ? "none" : payload[0]));
+        }
+
+        Inflater inflater = INFLATERS.get();
+        inflater.reset();
+        inflater.setDictionary(DICTIONARY_V1);
+        inflater.setInput(payload, 1, payload.length - 1);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length * 4);
+        byte[] buffer = new byte[2048];
+        try {
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && inflater.needsInput()) {
+                    throw new IllegalStateException("Truncated compressed text");
+                }
+                out.write(buffer, 0, n);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed text: " + e.getMessage(), e);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -1,12 +1,19 @@
 package com.promptcrafter.backend.repository;
 
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
 import com.promptcrafter.backend.model.EnhancementRecord;
 import com.promptcrafter.backend.model.Prompt;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface EnhancementRecordRepository extends JpaRepository<EnhancementRecord, Long> {
     List<EnhancementRecord> findByPrompt(Prompt prompt);
@@ -27,4 +34,34 @@ public interface EnhancementRecordRepository extends JpaRepository<EnhancementRe
      */
     @Query("SELECT er FROM EnhancementRecord er ORDER BY er.createdAt DESC")
     List<EnhancementRecord> findRecentEnhancementRecords(@Param("limit") int limit);
+
+    /**
+     * Streams enhancement records with their prompts in insertion order for export.
+     * Backed by a forward-only, read-only cursor so rows are fetched in batches
+     * instead of being loaded into memory. Must be consumed inside a transaction
+     * and closed afterwards. All filters are optional (null means "any").
+     *
+     * Note: MySQL only honours the fetch size when the JDBC URL sets useCursorFetch=true.
+     *
+     * @param from Inclusive lower bound on creation time
+     * @param to Exclusive upper bound on creation time
+     * @param style Enhancement style to match
+     * @param context Context type to match
+     * @return Stream of matching records, oldest first
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT er FROM EnhancementRecord er JOIN FETCH er.prompt p " +
+           "WHERE (:from IS NULL OR er.createdAt >= :from) " +
+           "AND (:to IS NULL OR er.createdAt < :to) " +
+           "AND (:style IS NULL OR p.style = :style) " +
+           "AND (:context IS NULL OR p.context = :context) " +
+           "ORDER BY er.id")
+    Stream<EnhancementRecord> streamForExport(@Param("from") Instant from,
+                                              @Param("to") Instant to,
+                                              @Param("style") EnhancementStyle style,
+                                              @Param("context") ContextType context);
 }
\ No newline at end of file
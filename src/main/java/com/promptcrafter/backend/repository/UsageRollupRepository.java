@@ -0,0 +1,41 @@
+package com.promptcrafter.backend.repository;
+
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.enums.RollupGranularity;
+import com.promptcrafter.backend.model.UsageRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface UsageRollupRepository extends JpaRepository<UsageRollup, Long> {
+    Optional<UsageRollup> findByGranularityAndBucketStartAndStyleAndContext(
+            RollupGranularity granularity, Instant bucketStart, EnhancementStyle style, ContextType context);
+
+    /**
+     * Find rollup rows of one granularity within a time range, oldest first.
+     *
+     * @param granularity Bucket size to read
+     * @param from Inclusive lower bound on bucket start
+     * @param to Exclusive upper bound on bucket start
+     * @return Matching rollup rows
+     */
+    List<UsageRollup> findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(
+            RollupGranularity granularity, Instant from, Instant to);
+
+    /**
+     * Delete rollup rows of one granularity older than the given instant.
+     *
+     * @param granularity Bucket size to prune
+     * @param before Exclusive upper bound on bucket start
+     * @return Number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM UsageRollup ur WHERE ur.granularity = :granularity AND ur.bucketStart < :before")
+    int deleteOlderThan(@Param("granularity") RollupGranularity granularity, @Param("before") Instant before);
+}
@@ -0,0 +1,28 @@
+package com.promptcrafter.backend.repository;
+
+import com.promptcrafter.backend.model.UserUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserUsageRepository extends JpaRepository<UserUsage, Long> {
+    Optional<UserUsage> findByUserIdAndTeamAndBucketStart(String userId, String team, Instant bucketStart);
+
+    /**
+     * Find usage rows within a time range, oldest first.
+     *
+     * @param user Only rows of this user, or null for all users
+     * @param team Only rows of this team, or null for all teams
+     * @param from Inclusive lower bound on bucket start
+     * @param to Exclusive upper bound on bucket start
+     * @return Matching usage rows
+     */
+    @Query("SELECT u FROM UserUsage u WHERE (:user IS NULL OR u.userId = :user) AND (:team IS NULL OR u.team = :team)"
+            + " AND u.bucketStart >= :from AND u.bucketStart < :to ORDER BY u.bucketStart")
+    List<UserUsage> findInRange(@Param("user") String user, @Param("team") String team,
+                                @Param("from") Instant from, @Param("to") Instant to);
+}
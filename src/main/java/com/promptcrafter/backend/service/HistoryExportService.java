@@ -0,0 +1,31 @@
+package com.promptcrafter.backend.service;
+
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+
+/**
+ * Service interface for exporting the full enhancement history for offline analysis.
+ * Implementations stream rows directly to the output so memory use does not
+ * depend on the size of the history.
+ */
+public interface HistoryExportService {
+
+    /**
+     * Writes all matching history items to the output as newline-delimited JSON
+     * (one object per line, oldest first). All filters are optional.
+     *
+     * @param from Inclusive lower bound on creation time, or null
+     * @param to Exclusive upper bound on creation time, or null
+     * @param style Enhancement style to match, or null for all styles
+     * @param context Context type to match, or null for all contexts
+     * @param out Destination stream (not closed by this method)
+     * @return Number of items written
+     * @throws IOException if writing to the output fails
+     */
+    long exportHistory(Instant from, Instant to, EnhancementStyle style, ContextType context,
+                       OutputStream out) throws IOException;
+}
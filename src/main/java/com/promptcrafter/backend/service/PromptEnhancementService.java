@@ -4,6 +4,9 @@ import com.promptcrafter.backend.dto.PromptHistoryResponse;
 import com.promptcrafter.backend.dto.PromptRequest;
 import com.promptcrafter.backend.dto.PromptResponse;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
 /**
  * Service interface for enhancing user prompts using AI and rule-based methods.
  * This interface provides the main entry point for prompt enhancement functionality,
@@ -19,6 +22,33 @@ public interface PromptEnhancementService {
      */
     PromptResponse enhancePrompt(PromptRequest request);
 
+    /**
+     * Enhances a user prompt, streaming raw model tokens to a callback as they arrive.
+     * The response carries the final cleaned text, which may differ from the streamed tokens.
+     *
+     * @param request The prompt enhancement request containing original text, style, and context
+     * @param onToken Receives each model token; not called when the fallback is used
+     * @return Enhanced prompt response with success status and enhanced text
+     */
+    PromptResponse enhancePrompt(PromptRequest request, Consumer<String> onToken);
+
+    /**
+     * Returns a rule-based draft at once when the prompt needs the AI model,
+     * and replaces it with the AI enhancement in the background.
+     *
+     * @param request The prompt enhancement request containing original text, style, and context
+     * @return The stored draft and the pending final response, or a final response and no upgrade
+     */
+    ProgressiveEnhancement enhancePromptProgressively(PromptRequest request);
+
+    /**
+     * Result of a progressive enhancement.
+     *
+     * @param response The draft, or the final response if there is no upgrade
+     * @param upgrade Completes with the final response for the same record, or null
+     */
+    record ProgressiveEnhancement(PromptResponse response, CompletableFuture<PromptResponse> upgrade) {}
+
     /**
      * Retrieves recent prompt enhancement history for display in the frontend
      *
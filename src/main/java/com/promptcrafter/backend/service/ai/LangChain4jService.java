@@ -2,284 +2,418 @@ package com.promptcrafter.backend.service.ai;
 
 import com.promptcrafter.backend.enums.ContextType;
 import com.promptcrafter.backend.enums.EnhancementStyle;
-import com.promptcrafter.backend.templates.PromptTemplateBuilder;
+import com.promptcrafter.backend.service.metrics.EnhancementMetrics;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
 import dev.langchain4j.model.openai.OpenAiChatModel;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
-import java.util.regex.Pattern;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 /**
  * Service component responsible for AI-powered text enhancement using LangChain4j framework.
  * This service integrates with OpenAI models to provide intelligent prompt enhancement
  * and includes robust fallback mechanisms for reliability.
+ *
+ * Configuration:
+ * - app.openai.api-key: API key; "demo-key" disables the model and uses the fallback
+ * - app.openai.base-url: OpenAI-compatible endpoint, e.g. a local stub (default: OpenAI)
+ * - app.openai.model: Model name (default: gpt-4o-mini)
+ * - app.openai.temperature: Sampling temperature (default: 0.2)
+ * - api.timeout: Model call timeout in milliseconds (default: 30000)
+ * - api.retry-attempts: Retries on failed model calls (default: 3)
+ *
+ * Output caps and stop sequences come from {@link TokenBudget}. They are fixed
+ * when a model client is built, so there is one client per style and cap,
+ * built on first use.
  */
 @Service
 public class LangChain4jService {
     private static final Logger logger = LoggerFactory.getLogger(LangChain4jService.class);
 
+    private static final String PROVIDER = "openai";
+
     @Value("${app.openai.api-key}")
     private String apiKey;
 
-    private OpenAiChatModel chatModel;
-    private boolean modelInitialized = false;
+    @Value("${app.openai.base-url:}")
+    private String baseUrl;
+
+    @Value("${app.openai.model:gpt-4o-mini}")
+    private String modelName;
+
+    @Value("${app.openai.temperature:0.2}")
+    private double temperature;
+
+    @Value("${api.timeout:30000}")
+    private long timeoutMillis;
+
+    @Value("${api.retry-attempts:3}")
+    private int retryAttempts;
+
+    private final RuleBasedEnhancer ruleBasedEnhancer;
+    private final ResponseCleaner responseCleaner;
+    private final EnhancementMetrics metrics;
+    private final TokenBudget tokenBudget;
+
+    // Clients by style and output cap
+    private final Map<String, OpenAiChatModel> chatModels = new ConcurrentHashMap<>();
+    private final Map<String, OpenAiStreamingChatModel> streamingChatModels = new ConcurrentHashMap<>();
+    private volatile boolean modelConfigured = false;
+    private volatile boolean modelInitialized = false;
+    // Model calls made for a waiting client, which background work yields to
+    private final AtomicInteger interactiveCalls = new AtomicInteger();
+
+    public LangChain4jService(RuleBasedEnhancer ruleBasedEnhancer, ResponseCleaner responseCleaner,
+                              EnhancementMetrics metrics, TokenBudget tokenBudget) {
+        this.ruleBasedEnhancer = ruleBasedEnhancer;
+        this.responseCleaner = responseCleaner;
+        this.metrics = metrics;
+        this.tokenBudget = tokenBudget;
+    }
 
     /**
      * Enhances text using AI model or fallback to rule-based enhancement if AI unavailable.
      * This method handles the complete enhancement pipeline including AI processing,
      * response cleaning, and fallback generation.
      *
+     * The template is sent to the model as-is; style and context are passed
+     * explicitly to select the fallback and to tag the model latency metrics.
+     *
      * @param promptTemplate The complete prompt template to send to the AI model
+     * @param style The requested enhancement style
+     * @param context The requested context
      * @return Enhanced text based on the template instructions
      * @throws IllegalArgumentException if promptTemplate is null or empty
      */
-    public String enhanceText(String promptTemplate) {
+    public String enhanceText(String promptTemplate, EnhancementStyle style, ContextType context) {
+        return enhanceText(promptTemplate, style, context, null);
+    }
+
+    /**
+     * Enhances text like {@link #enhanceText(String, EnhancementStyle, ContextType)},
+     * streaming the raw model tokens to a callback as they arrive. The returned
+     * text is the cleaned full response, or the fallback when the model is not
+     * used or fails; in those cases no tokens are streamed.
+     *
+     * @param promptTemplate The complete prompt template to send to the AI model
+     * @param style The requested enhancement style
+     * @param context The requested context
+     * @param onToken Receives each token, or null for a blocking call
+     * @return Enhanced text based on the template instructions
+     */
+    public String enhanceText(String promptTemplate, EnhancementStyle style, ContextType context,
+                              Consumer<String> onToken) {
+        return enhance(promptTemplate, style, context, onToken).text();
+    }
+
+    /**
+     * Enhances text like {@link #enhanceText(String, EnhancementStyle, ContextType, Consumer)},
+     * and tells whether the model answered or the fallback was used.
+     *
+     * @param promptTemplate The complete prompt template to send to the AI model
+     * @param style The requested enhancement style
+     * @param context The requested context
+     * @param onToken Receives each token, or null for a blocking call
+     * @return The enhanced text and where it came from
+     */
+    public EnhancedText enhance(String promptTemplate, EnhancementStyle style, ContextType context,
+                                Consumer<String> onToken) {
         if (promptTemplate == null || promptTemplate.trim().isEmpty()) {
             throw new IllegalArgumentException("Prompt template cannot be null or empty");
         }
 
         logger.debug("Starting text enhancement with template length: {}", promptTemplate.length());
 
-        try {
-            if (!modelInitialized) {
-                initializeChatModel();
-            }
-
-            if (chatModel != null && !"demo-key".equals(apiKey)) {
-                logger.info("Using OpenAI AI model for enhancement");
-                PromptTemplateBuilder pb = new PromptTemplateBuilder();
-                String response = "";
-                if (promptTemplate.toLowerCase().contains("concise")) {
-                    if (promptTemplate.toLowerCase().contains("chatgpt")) {
-                        response = chatModel.generate(pb.buildEnhancementPrompt(promptTemplate, EnhancementStyle.CONCISE, ContextType.CHATGPT));
-                    } else if (promptTemplate.toLowerCase().contains("google_scholar")) {
-                        response = chatModel.generate(pb.buildEnhancementPrompt(promptTemplate, EnhancementStyle.CONCISE, ContextType.GOOGLE_SCHOLAR));
-                    } else {
-                        response = chatModel.generate(pb.buildEnhancementPrompt(promptTemplate, EnhancementStyle.CONCISE, ContextType.GENERAL));
-                    }
-                } else if (promptTemplate.toLowerCase().contains("academic")) {
-                    if (promptTemplate.toLowerCase().contains("chatgpt")) {
-                        response = chatModel.generate(pb.buildEnhancementPrompt(promptTemplate, EnhancementStyle.ACADEMIC, ContextType.CHATGPT));
-                    } else if (promptTemplate.toLowerCase().contains("google_scholar")) {
-                        response = chatModel.generate(pb.buildEnhancementPrompt(promptTemplate, EnhancementStyle.ACADEMIC, ContextType.GOOGLE_SCHOLAR));
-                    } else {
-                        response = chatModel.generate(pb.buildEnhancementPrompt(promptTemplate, EnhancementStyle.ACADEMIC, ContextType.GENERAL));
-                    }
-                } else if (promptTemplate.toLowerCase().contains("creative")) {
-                    if (promptTemplate.toLowerCase().contains("chatgpt")) {
-                        response = chatModel.generate(pb.buildEnhancementPrompt(promptTemplate, EnhancementStyle.CREATIVE, ContextType.CHATGPT));
-                    } else if (promptTemplate.toLowerCase().contains("google_scholar")) {
-                        response = chatModel.generate(pb.buildEnhancementPrompt(promptTemplate, EnhancementStyle.CREATIVE, ContextType.GOOGLE_SCHOLAR));
-                    } else {
-                        response = chatModel.generate(pb.buildEnhancementPrompt(promptTemplate, EnhancementStyle.CREATIVE, ContextType.GENERAL));
-                    }
-                } else {
-                    if (promptTemplate.toLowerCase().contains("chatgpt")) {
-                        response = chatModel.generate(pb.buildEnhancementPrompt(promptTemplate, EnhancementStyle.DETAILED, ContextType.CHATGPT));
-                    } else if (promptTemplate.toLowerCase().contains("google_scholar")) {
-                        response = chatModel.generate(pb.buildEnhancementPrompt(promptTemplate, EnhancementStyle.DETAILED, ContextType.GOOGLE_SCHOLAR));
-                    } else {
-                        response = chatModel.generate(pb.buildEnhancementPrompt(promptTemplate, EnhancementStyle.DETAILED, ContextType.GENERAL));
-                    }
-                }
-                String cleanedResponse = cleanResponse(response);
-                logger.debug("AI enhancement completed successfully");
-                return cleanedResponse;
-            } else {
-                logger.info("Using fallback enhancement (API key not available or demo mode)");
-                return generateFallbackEnhancement(promptTemplate);
-            }
+        if (!isModelAvailable()) {
+            logger.debug("Using fallback enhancement (API key not available or demo mode)");
+            return EnhancedText.fallback(metrics.fallback(EnhancementMetrics.FALLBACK_NO_API_KEY, style,
+                    () -> ruleBasedEnhancer.enhance(promptTemplate, style)));
+        }
 
+        logger.debug("Using OpenAI AI model for enhancement");
+        String cleanedResponse;
+        try {
+            cleanedResponse = callModel(List.of(UserMessage.from(promptTemplate)), style, context, onToken,
+                    tokenBudget.maxOutputTokens(style), true);
         } catch (Exception e) {
             logger.warn("AI service failed, using fallback enhancement: {}", e.getMessage());
-            return generateFallbackEnhancement(promptTemplate);
+            return EnhancedText.fallback(metrics.fallback(EnhancementMetrics.FALLBACK_MODEL_ERROR, style,
+                    () -> ruleBasedEnhancer.enhance(promptTemplate, style)));
+        }
+        if (cleanedResponse == null) {
+            return EnhancedText.fallback(metrics.fallback(EnhancementMetrics.FALLBACK_UNUSABLE_RESPONSE, style,
+                    () -> ruleBasedEnhancer.enhance(promptTemplate, style)));
         }
+        logger.debug("AI enhancement completed successfully");
+        return new EnhancedText(cleanedResponse, true);
     }
 
     /**
-     * Initializes the Hugging Face chat model with configuration settings.
-     * Performs lazy initialization to avoid unnecessary API calls and handles
-     * configuration errors gracefully.
-     * @throws RuntimeException if model initialization fails critically
+     * Result of {@link #enhance}.
+     *
+     * @param text The enhanced text
+     * @param modelAnswer Whether the model produced the text, rather than the rule-based fallback
      */
-    private void initializeChatModel() {
-        try {
-            if (!"demo-key".equals(apiKey) && apiKey != null && !apiKey.trim().isEmpty()) {
-                logger.info("Initializing OpenAI chat model");
-                this.chatModel = OpenAiChatModel.builder()
-                        .apiKey(apiKey)
-                        .modelName("gpt-4o-mini")
-                        .temperature(0.2)
-                        .timeout(Duration.ofSeconds(30))
-                        .build();
-                logger.info("OpenAI model initialized successfully");
-            } else {
-                logger.info("No valid API key found, will use fallback enhancement");
-                modelInitialized = true;
-            }
-        } catch (Exception e) {
-            logger.error("Failed to initialize OpenAI model: {}", e.getMessage());
-            modelInitialized = true; // Mark as attempted to avoid retries
+    public record EnhancedText(String text, boolean modelAnswer) {
+
+        static EnhancedText fallback(String text) {
+            return new EnhancedText(text, false);
         }
     }
 
     /**
-     * Cleans and validates AI model responses by removing template artifacts
-     * and ensuring response quality. Returns null if response is not usable.
+     * Sends a template to the model without falling back, for callers that
+     * combine several model answers and handle failures themselves.
      *
-     * @param response Raw response from the AI model
-     * @return Cleaned response text, or null if response is unusable
+     * @param promptTemplate The complete prompt template to send to the AI model
+     * @param style The requested enhancement style
+     * @param context The requested context
+     * @param maxOutputTokens Output cap for this call
+     * @return The cleaned response, or null if the response is unusable
+     * @throws IllegalStateException if the model is not available
+     * @throws RuntimeException if the model call fails
      */
-    private String cleanResponse(String response) {
-        if (response == null || response.trim().isEmpty()) {
-            return "Enhanced version not available";
-        }
-
-        // Clean up AI response - remove template artifacts and formatting
-        String cleaned = response
-                .replaceAll("(?i)enhanced version:?\\s*", "")
-                .replaceAll("(?i)task:.*?(?=\\w)", "")
-                .replaceAll("(?i)requirements:.*?(?=\\w)", "")
-                .replaceAll("(?i)original prompt:.*?\\n", "")
-                .replaceAll("\\n\\s*\\n", "\n")  // Remove extra newlines
-                .trim();
-
-        // If cleaning left us with nothing meaningful, generate fallback
-        if (cleaned.length() < 10 || cleaned.toLowerCase().contains("i cannot") ||
-                cleaned.toLowerCase().contains("i can't")) {
-            logger.warn("AI response was not useful, generating fallback");
-            return null; // Will trigger fallback in calling method
+    public String enhanceTextWithoutFallback(String promptTemplate, EnhancementStyle style, ContextType context,
+                                             int maxOutputTokens) {
+        if (!isModelAvailable()) {
+            throw new IllegalStateException("AI model is not available");
         }
-
-        return cleaned;
+        return callModel(List.of(UserMessage.from(promptTemplate)), style, context, null, maxOutputTokens, true);
     }
 
     /**
-     * Generates rule-based enhancement when AI service is unavailable.
-     * Analyzes the prompt template to determine the appropriate enhancement style
-     * and applies corresponding transformation rules.
+     * Sends a template to the model for work no client is waiting for. Like
+     * {@link #enhanceTextWithoutFallback}, but the call is not counted in
+     * {@link #interactiveCallsInFlight()}.
      *
-     * @param promptTemplate The original prompt template containing style information
-     * @return Rule-based enhanced text matching the requested style
+     * @param promptTemplate The complete prompt template to send to the AI model
+     * @param style The requested enhancement style
+     * @param context The requested context
+     * @return The cleaned response, or null if the response is unusable
+     * @throws IllegalStateException if the model is not available
+     * @throws RuntimeException if the model call fails
      */
-    private String generateFallbackEnhancement(String promptTemplate) {
-        logger.debug("Generating fallback enhancement");
-
-        String originalText = extractOriginalFromTemplate(promptTemplate);
-
-        if (promptTemplate.toLowerCase().contains("concise")) {
-            return generateConciseEnhancement(originalText);
-        } else if (promptTemplate.toLowerCase().contains("academic")) {
-            return generateAcademicEnhancement(originalText);
-        } else if (promptTemplate.toLowerCase().contains("creative")) {
-            return generateCreativeEnhancement(originalText);
-        } else {
-            return generateDetailedEnhancement(originalText);
+    public String enhanceTextInBackground(String promptTemplate, EnhancementStyle style, ContextType context) {
+        if (!isModelAvailable()) {
+            throw new IllegalStateException("AI model is not available");
         }
+        return callModel(List.of(UserMessage.from(promptTemplate)), style, context, null,
+                tokenBudget.maxOutputTokens(style), false);
     }
 
     /**
-     * Extracts the original user text from a prompt template using pattern matching.
-     * Handles various template formats and provides fallback for parsing failures.
+     * Sends a conversation to the model without falling back, for follow-up
+     * requests that only the model can answer.
      *
-     * @param template The complete prompt template
-     * @return The original user text, or a fallback phrase if extraction fails
+     * @param messages The conversation, ending with the user's latest message
+     * @param style The enhancement style, which selects the output cap
+     * @param context The requested context
+     * @return The cleaned response, or null if the response is unusable
+     * @throws IllegalStateException if the model is not available
+     * @throws RuntimeException if the model call fails
      */
-    private String extractOriginalFromTemplate(String template) {
-        // Use regex to find text after "Original prompt:" and before next major section
-        Pattern pattern = Pattern.compile("Original prompt:\\s*(.+?)\\s*(?:Requirements:|\\n\\n|$)", Pattern.DOTALL);
-        java.util.regex.Matcher matcher = pattern.matcher(template);
-
-        if (matcher.find()) {
-            return matcher.group(1).trim();
+    public String chat(List<ChatMessage> messages, EnhancementStyle style, ContextType context) {
+        if (!isModelAvailable()) {
+            throw new IllegalStateException("AI model is not available");
         }
+        return callModel(messages, style, context, null, tokenBudget.maxOutputTokens(style), true);
+    }
 
-        // Fallback: look for simple patterns
-        String[] lines = template.split("\n");
-        for (String line : lines) {
-            if (line.trim().toLowerCase().startsWith("original prompt:")) {
-                return line.replaceFirst("(?i)original prompt:\\s*", "").trim();
-            }
+    /**
+     * @return Whether enhancements go to the AI model, rather than always to the rule-based fallback
+     */
+    public boolean isModelAvailable() {
+        if (!modelInitialized) {
+            initializeChatModel();
         }
+        return modelConfigured;
+    }
 
-        return "the specified topic";
+    /**
+     * @return Model calls in flight that a client is waiting for
+     */
+    public int interactiveCallsInFlight() {
+        return interactiveCalls.get();
     }
 
     /**
-     * Generates a concise enhancement using rule-based logic.
-     * Reduces text length while maintaining essential meaning and clarity.
+     * Runs one model call and cleans the response.
      *
-     * @param originalText The user's original text to enhance
-     * @return Concise version of the original text
+     * @return The cleaned response, or null if it is unusable
      */
-    private String generateConciseEnhancement(String originalText) {
-        // Rule-based concise enhancement with markdown formatting
-        if (originalText.length() <= 50) {
-            return "**Quick Inquiry**\n\n" + originalText;
+    private String callModel(List<ChatMessage> messages, EnhancementStyle style, ContextType context,
+                             Consumer<String> onToken, int maxOutputTokens, boolean interactive) {
+        if (interactive) {
+            interactiveCalls.incrementAndGet();
+        }
+        try {
+            return callModel(messages, style, context, onToken, maxOutputTokens);
+        } finally {
+            if (interactive) {
+                interactiveCalls.decrementAndGet();
+            }
         }
+    }
 
-        // Extract key terms and create focused version
-        String[] words = originalText.split("\\s+");
-        if (words.length > 10) {
-            // Take first few and last few words, add connecting phrase
-            String beginning = String.join(" ", java.util.Arrays.copyOfRange(words, 0, Math.min(5, words.length)));
-            String ending = words.length > 10 ?
-                    String.join(" ", java.util.Arrays.copyOfRange(words, words.length - 3, words.length)) : "";
-            return "**Focused Query**\n\n" + beginning + (ending.isEmpty() ? "" : " - *" + ending + "*") + " (concise approach)";
+    private String callModel(List<ChatMessage> messages, EnhancementStyle style, ContextType context,
+                             Consumer<String> onToken, int maxOutputTokens) {
+        int promptChars = 0;
+        int estimatedInputTokens = 0;
+        for (ChatMessage message : messages) {
+            String text = textOf(message);
+            promptChars += text.length();
+            estimatedInputTokens += tokenBudget.count(text);
         }
+        logger.debug("Sending about {} input tokens, output capped at {}", estimatedInputTokens, maxOutputTokens);
+        Response<AiMessage> response = metrics.modelCall(PROVIDER, modelName, style, context,
+                () -> onToken != null
+                        ? generateStreaming(streamingChatModel(style, maxOutputTokens), messages, onToken)
+                        : chatModel(style, maxOutputTokens).generate(messages));
+
+        String text = response.content() != null ? response.content().text() : null;
+        TokenUsage usage = response.tokenUsage();
+        Integer outputTokens = usage != null ? usage.outputTokenCount() : null;
+        metrics.recordModelUsage(modelName, style, promptChars, text != null ? text.length() : 0,
+                estimatedInputTokens,
+                usage != null ? usage.inputTokenCount() : null,
+                outputTokens,
+                outputTokens == null && text != null ? tokenBudget.count(text) : 0);
 
-        return "**Direct Query**\n\n" + originalText;
+        return metrics.stage(EnhancementMetrics.STAGE_RESPONSE_CLEAN, () -> responseCleaner.clean(text));
     }
 
-    /**
-     * Generates an academic enhancement using scholarly language and research context.
-     * Adds methodological considerations and academic terminology.
-     *
-     * @param originalText The user's original text to enhance
-     * @return Academic version with research-focused language
-     */
-    private String generateAcademicEnhancement(String originalText) {
-        return "**Systematic Research Investigation**\n\n" + originalText +
-                "\n\n**Requirements:**\n" +
-                "- Provide peer-reviewed sources and academic references\n" +
-                "- Include methodological framework and research design\n" +
-                "- Present evidence-based analysis with proper citations\n" +
-                "- Consider theoretical context and scholarly implications";
+    // Only text messages are ever sent
+    private static String textOf(ChatMessage message) {
+        if (message instanceof UserMessage user) {
+            return user.singleText();
+        }
+        if (message instanceof AiMessage ai) {
+            return ai.text() != null ? ai.text() : "";
+        }
+        if (message instanceof SystemMessage system) {
+            return system.text();
+        }
+        throw new IllegalArgumentException("Unsupported message type: " + message.type());
     }
 
     /**
-     * Generates a detailed enhancement with comprehensive context and examples.
-     * Expands the original text with background information and structured approach.
-     *
-     * @param originalText The user's original text to enhance
-     * @return Detailed version with comprehensive context and requirements
+     * Runs one streaming model call and waits for it to complete.
      */
-    private String generateDetailedEnhancement(String originalText) {
-        return "**Comprehensive Analysis Request**\n\n" + originalText +
-                "\n\n**Required Elements:**\n" +
-                "- **Background Context**: Provide relevant background information\n" +
-                "- **Specific Examples**: Include concrete examples and case studies\n" +
-                "- **Step-by-Step Methodology**: Outline detailed approach and process\n" +
-                "- **Challenges & Solutions**: Identify potential issues and solutions\n" +
-                "- **Detailed Recommendations**: Provide comprehensive guidance with supporting evidence";
+    private Response<AiMessage> generateStreaming(OpenAiStreamingChatModel streamingChatModel,
+                                                  List<ChatMessage> messages, Consumer<String> onToken) {
+        CompletableFuture<Response<AiMessage>> completion = new CompletableFuture<>();
+        streamingChatModel.generate(messages, new StreamingResponseHandler<AiMessage>() {
+            @Override
+            public void onNext(String token) {
+                onToken.accept(token);
+            }
+
+            @Override
+            public void onComplete(Response<AiMessage> response) {
+                completion.complete(response);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                completion.completeExceptionally(error);
+            }
+        });
+        try {
+            return completion.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while streaming the model response", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Streaming model call failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Streaming model call timed out after " + timeoutMillis + " ms", e);
+        }
     }
 
     /**
-     * Generates a creative enhancement with innovative approaches and engaging language.
-     * Adds creative elements while maintaining practical applicability.
-     *
-     * @param originalText The user's original text to enhance
-     * @return Creative version with innovative and engaging elements
+     * Initializes the OpenAI chat model with configuration settings.
+     * Performs lazy initialization to avoid unnecessary API calls and handles
+     * configuration errors gracefully. Builds the client of every style with
+     * its default output cap, so configuration errors show up here.
+     * Synchronized so concurrent first requests initialize only once.
      */
-    private String generateCreativeEnhancement(String originalText) {
-        return "**Innovative Exploration**\n\n" + originalText +
-                "\n\n**Creative Approach:**\n" +
-                "- **Unconventional Thinking**: Explore unique perspectives and novel approaches\n" +
-                "- **Storytelling Elements**: Incorporate engaging narratives and scenarios\n" +
-                "- **Innovative Solutions**: Develop creative strategies and breakthrough ideas\n" +
-                "- **Practical Creativity**: Balance innovation with real-world applicability";
+    private synchronized void initializeChatModel() {
+        if (modelInitialized) {
+            return;
+        }
+        try {
+            if (!"demo-key".equals(apiKey) && apiKey != null && !apiKey.trim().isEmpty()) {
+                logger.info("Initializing OpenAI chat model");
+                if (baseUrl != null && !baseUrl.isBlank()) {
+                    logger.info("Using OpenAI-compatible endpoint: {}", baseUrl);
+                }
+                for (EnhancementStyle style : EnhancementStyle.values()) {
+                    chatModel(style, tokenBudget.maxOutputTokens(style));
+                    streamingChatModel(style, tokenBudget.maxOutputTokens(style));
+                }
+                logger.info("OpenAI model initialized successfully");
+                modelConfigured = true;
+                modelInitialized = true;
+            } else {
+                logger.info("No valid API key found, will use fallback enhancement");
+                modelInitialized = true;
+            }
+        } catch (Exception e) {
+            logger.error("Failed to initialize OpenAI model: {}", e.getMessage());
+            modelInitialized = true; // Mark as attempted to avoid retries
+        }
+    }
+
+    private OpenAiChatModel chatModel(EnhancementStyle style, int maxOutputTokens) {
+        return chatModels.computeIfAbsent(style + ":" + maxOutputTokens, key -> {
+            OpenAiChatModel.OpenAiChatModelBuilder builder = OpenAiChatModel.builder()
+                    .apiKey(apiKey)
+                    .modelName(modelName)
+                    .temperature(temperature)
+                    .maxTokens(maxOutputTokens)
+                    .stop(tokenBudget.stopSequences(style))
+                    .timeout(Duration.ofMillis(timeoutMillis))
+                    .maxRetries(retryAttempts);
+            if (baseUrl != null && !baseUrl.isBlank()) {
+                builder.baseUrl(baseUrl);
+            }
+            return builder.build();
+        });
+    }
+
+    // Streaming calls are not retried: tokens may already have reached the client
+    private OpenAiStreamingChatModel streamingChatModel(EnhancementStyle style, int maxOutputTokens) {
+        return streamingChatModels.computeIfAbsent(style + ":" + maxOutputTokens, key -> {
+            OpenAiStreamingChatModel.OpenAiStreamingChatModelBuilder builder = OpenAiStreamingChatModel.builder()
+                    .apiKey(apiKey)
+                    .modelName(modelName)
+                    .temperature(temperature)
+                    .maxTokens(maxOutputTokens)
+                    .stop(tokenBudget.stopSequences(style))
+                    .timeout(Duration.ofMillis(timeoutMillis));
+            if (baseUrl != null && !baseUrl.isBlank()) {
+                builder.baseUrl(baseUrl);
+            }
+            return builder.build();
+        });
     }
-}
\ No newline at end of file
+}
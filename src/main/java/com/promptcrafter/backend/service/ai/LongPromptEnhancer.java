@@ -0,0 +1,236 @@
+package com.promptcrafter.backend.service.ai;
+
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.service.ai.LangChain4jService.EnhancedText;
+import com.promptcrafter.backend.service.metrics.EnhancementMetrics;
+import com.promptcrafter.backend.service.stats.UsageLedger;
+import com.promptcrafter.backend.templates.PromptTemplateBuilder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Enhances long prompts in parts that run concurrently (map), then joins the
+ * parts in order (reduce).
+ *
+ * Model latency grows with the length of the answer, so one call for a
+ * prompt near the 4000 character limit is the slowest kind of request. Above
+ * a configurable size the prompt is cut into up to max-chunks parts of about
+ * equal length, at paragraph and markdown heading boundaries, or at sentence
+ * ends where there are too few paragraphs. Every part is sent with the same
+ * style and context instructions; the answers are joined without another
+ * model call, dropping a title the model repeated at the top of every part.
+ *
+ * The style's output cap from {@link TokenBudget} is shared between the
+ * parts, so the joined answer is no longer than a single answer would be.
+ *
+ * Streaming callers receive each part once it and all parts before it are
+ * done, rather than token by token. If any part fails or is unusable, the
+ * whole prompt gets the rule-based fallback, as a failed single call would.
+ * Prompts are never split when the model is not configured.
+ *
+ * Configuration:
+ * - app.long-prompt.enabled: Enhance long prompts in parts (default: true)
+ * - app.long-prompt.min-chars: Shortest prompt that is split (default: 1500)
+ * - app.long-prompt.chunk-chars: Target part length (default: 800)
+ * - app.long-prompt.max-chunks: Most parts per prompt (default: 4)
+ * - app.long-prompt.concurrency: Parts enhanced in parallel, across all requests (default: 8)
+ */
+@Service
+public class LongPromptEnhancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LongPromptEnhancer.class);
+
+    // Blank lines, or a line break before a markdown heading
+    private static final Pattern PARAGRAPH = Pattern.compile("\\n[ \\t]*\\n\\s*|\\n(?=[ \\t]*#{1,6}\\s)");
+    private static final Pattern SENTENCE = Pattern.compile("(?<=[.!?])\\s+(?=\\S)");
+    private static final int MIN_PART_OUTPUT_TOKENS = 32;
+
+    private final LangChain4jService aiService;
+    private final PromptTemplateBuilder templateBuilder;
+    private final RuleBasedEnhancer ruleBasedEnhancer;
+    private final EnhancementMetrics metrics;
+    private final TokenBudget tokenBudget;
+    private final boolean enabled;
+    private final int minChars;
+    private final int chunkChars;
+    private final int maxChunks;
+    private final ExecutorService workers;
+
+    public LongPromptEnhancer(LangChain4jService aiService,
+                              PromptTemplateBuilder templateBuilder,
+                              RuleBasedEnhancer ruleBasedEnhancer,
+                              EnhancementMetrics metrics,
+                              TokenBudget tokenBudget,
+                              @Value("${app.long-prompt.enabled:true}") boolean enabled,
+                              @Value("${app.long-prompt.min-chars:1500}") int minChars,
+                              @Value("${app.long-prompt.chunk-chars:800}") int chunkChars,
+                              @Value("${app.long-prompt.max-chunks:4}") int maxChunks,
+                              @Value("${app.long-prompt.concurrency:8}") int concurrency) {
+        this.aiService = aiService;
+        this.templateBuilder = templateBuilder;
+        this.ruleBasedEnhancer = ruleBasedEnhancer;
+        this.metrics = metrics;
+        this.tokenBudget = tokenBudget;
+        this.enabled = enabled;
+        this.minChars = minChars;
+        this.chunkChars = chunkChars;
+        this.maxChunks = maxChunks;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "long-prompt-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Enhances a prompt in parts if it is long enough.
+     *
+     * @param originalText The user's prompt
+     * @param style The requested enhancement style
+     * @param context The requested context
+     * @param onToken Receives each finished part in order, or null
+     * @return The joined enhancement, or the fallback if a part failed; empty if the
+     *         prompt is not enhanced in parts
+     */
+    public Optional<EnhancedText> enhance(String originalText, EnhancementStyle style, ContextType context,
+                                          Consumer<String> onToken) {
+        if (!enabled || originalText.length() < minChars || !aiService.isModelAvailable()) {
+            return Optional.empty();
+        }
+        List<String> chunks = metrics.stage(EnhancementMetrics.STAGE_LONG_PROMPT_SPLIT, () -> split(originalText));
+        if (chunks.size() < 2) {
+            return Optional.empty();
+        }
+        logger.debug("Enhancing {} character prompt in {} parts", originalText.length(), chunks.size());
+
+        int maxOutputTokens = Math.max(MIN_PART_OUTPUT_TOKENS, tokenBudget.maxOutputTokens(style) / chunks.size());
+        List<CompletableFuture<String>> parts = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            String template = templateBuilder.buildChunkPrompt(chunks.get(i), style, context, i + 1, chunks.size());
+            parts.add(CompletableFuture.supplyAsync(UsageLedger.bind(
+                    () -> aiService.enhanceTextWithoutFallback(template, style, context, maxOutputTokens)), workers));
+        }
+
+        // Reduce: join the answers in order as each one completes
+        StringBuilder merged = new StringBuilder();
+        String title = null;
+        try {
+            for (CompletableFuture<String> part : parts) {
+                String text = part.join();
+                if (text == null) {
+                    parts.forEach(remaining -> remaining.cancel(false));
+                    return Optional.of(EnhancedText.fallback(metrics.fallback(
+                            EnhancementMetrics.FALLBACK_UNUSABLE_RESPONSE, style,
+                            () -> ruleBasedEnhancer.generateEnhancement(originalText, style))));
+                }
+                String piece;
+                if (title == null) {
+                    title = firstLine(text);
+                    piece = text;
+                } else {
+                    piece = "\n" + withoutTitle(text, title);
+                }
+                merged.append(piece);
+                if (onToken != null) {
+                    onToken.accept(piece);
+                }
+            }
+        } catch (CompletionException e) {
+            parts.forEach(remaining -> remaining.cancel(false));
+            logger.warn("AI service failed on a part of a long prompt, using fallback enhancement: {}",
+                       e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            return Optional.of(EnhancedText.fallback(metrics.fallback(
+                    EnhancementMetrics.FALLBACK_MODEL_ERROR, style,
+                    () -> ruleBasedEnhancer.generateEnhancement(originalText, style))));
+        }
+        return Optional.of(new EnhancedText(merged.toString(), true));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Cuts a prompt into parts of about equal length at paragraph boundaries,
+     * or at sentence ends if there are too few paragraphs.
+     *
+     * @param text The prompt
+     * @return The parts in order; a single element if the prompt is not split
+     */
+    List<String> split(String text) {
+        int wanted = Math.min(maxChunks, (text.length() + chunkChars - 1) / chunkChars);
+        if (wanted < 2) {
+            return List.of(text);
+        }
+        List<Integer> cuts = boundaries(PARAGRAPH, text);
+        if (cuts.size() < wanted - 1) {
+            cuts = boundaries(SENTENCE, text);
+        }
+
+        List<String> chunks = new ArrayList<>(wanted);
+        int start = 0;
+        int next = 0;
+        for (int part = 1; part < wanted; part++) {
+            int ideal = (int) ((long) text.length() * part / wanted);
+            // Closest boundary to the ideal position after the previous cut
+            while (next + 1 < cuts.size() && Math.abs(cuts.get(next + 1) - ideal) <= Math.abs(cuts.get(next) - ideal)) {
+                next++;
+            }
+            if (next >= cuts.size()) {
+                break;
+            }
+            int cut = cuts.get(next++);
+            addChunk(chunks, text.substring(start, cut));
+            start = cut;
+        }
+        addChunk(chunks, text.substring(start));
+        return chunks.size() < 2 ? List.of(text) : chunks;
+    }
+
+    private static List<Integer> boundaries(Pattern pattern, String text) {
+        List<Integer> cuts = new ArrayList<>();
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            cuts.add(matcher.start());
+        }
+        return cuts;
+    }
+
+    private static void addChunk(List<String> chunks, String chunk) {
+        String trimmed = chunk.strip();
+        if (!trimmed.isEmpty()) {
+            chunks.add(trimmed);
+        }
+    }
+
+    // Drops a title the model repeated at the top of a later part
+    private static String withoutTitle(String text, String title) {
+        if (firstLine(text).equals(title) && text.length() > title.length()) {
+            return text.substring(title.length()).strip();
+        }
+        return text;
+    }
+
+    private static String firstLine(String text) {
+        int end = text.indexOf('\n');
+        return end < 0 ? text : text.substring(0, end);
+    }
+}
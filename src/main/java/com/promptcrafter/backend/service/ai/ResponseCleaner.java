@@ -0,0 +1,45 @@
+package com.promptcrafter.backend.service.ai;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Strips template artifacts from AI model responses and rejects responses
+ * that are too short or are refusals.
+ */
+@Component
+public class ResponseCleaner {
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCleaner.class);
+
+    /**
+     * Cleans and validates AI model responses by removing template artifacts
+     * and ensuring response quality. Returns null if response is not usable.
+     *
+     * @param response Raw response from the AI model
+     * @return Cleaned response text, or null if response is unusable
+     */
+    public String clean(String response) {
+        if (response == null || response.trim().isEmpty()) {
+            return "Enhanced version not available";
+        }
+
+        // Clean up AI response - remove template artifacts and formatting
+        String cleaned = response
+                .replaceAll("(?i)enhanced version:?\\s*", "")
+                .replaceAll("(?i)task:.*?(?=\\w)", "")
+                .replaceAll("(?i)requirements:.*?(?=\\w)", "")
+                .replaceAll("(?i)original prompt:.*?\\n", "")
+                .replaceAll("\\n\\s*\\n", "\n")  // Remove extra newlines
+                .trim();
+
+        // If cleaning left us with nothing meaningful, generate fallback
+        if (cleaned.length() < 10 || cleaned.toLowerCase().contains("i cannot") ||
+                cleaned.toLowerCase().contains("i can't")) {
+            logger.warn("AI response was not useful, generating fallback");
+            return null; // Will trigger fallback in calling method
+        }
+
+        return cleaned;
+    }
+}
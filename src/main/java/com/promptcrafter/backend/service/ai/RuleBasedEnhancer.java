@@ -0,0 +1,154 @@
+package com.promptcrafter.backend.service.ai;
+
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rule-based prompt enhancement used when the AI model is unavailable or
+ * returns an unusable response, and for short prompts routed away from the
+ * model by triage. Produces markdown in the same shape as the
+ * model output for each enhancement style.
+ */
+@Component
+public class RuleBasedEnhancer {
+    private static final Logger logger = LoggerFactory.getLogger(RuleBasedEnhancer.class);
+
+    /**
+     * Generates rule-based enhancement when AI service is unavailable.
+     * Applies the transformation rules of the requested style to the original
+     * text extracted from the prompt template.
+     *
+     * @param promptTemplate The prompt template containing the original text
+     * @param style The requested enhancement style
+     * @return Rule-based enhanced text matching the requested style
+     */
+    public String enhance(String promptTemplate, EnhancementStyle style) {
+        logger.debug("Generating fallback enhancement");
+
+        return generateEnhancement(extractOriginalFromTemplate(promptTemplate), style);
+    }
+
+    /**
+     * Applies the transformation rules of the requested style to the user's text.
+     *
+     * @param originalText The user's original text to enhance
+     * @param style The requested enhancement style
+     * @return Rule-based enhanced text matching the requested style
+     */
+    public String generateEnhancement(String originalText, EnhancementStyle style) {
+        return switch (style) {
+            case CONCISE -> generateConciseEnhancement(originalText);
+            case ACADEMIC -> generateAcademicEnhancement(originalText);
+            case CREATIVE -> generateCreativeEnhancement(originalText);
+            default -> generateDetailedEnhancement(originalText);
+        };
+    }
+
+    /**
+     * Extracts the original user text from a prompt template using pattern matching.
+     * Handles various template formats and provides fallback for parsing failures.
+     *
+     * @param template The complete prompt template
+     * @return The original user text, or a fallback phrase if extraction fails
+     */
+    public String extractOriginalFromTemplate(String template) {
+        // Use regex to find text after "Original prompt:" and before next major section
+        Pattern pattern = Pattern.compile("Original prompt:\\s*(.+?)\\s*(?:Requirements:|\\n\\n|$)", Pattern.DOTALL);
+        Matcher matcher = pattern.matcher(template);
+
+        if (matcher.find()) {
+            return matcher.group(1).trim();
+        }
+
+        // Fallback: look for simple patterns
+        String[] lines = template.split("\n");
+        for (String line : lines) {
+            if (line.trim().toLowerCase().startsWith("original prompt:")) {
+                return line.replaceFirst("(?i)original prompt:\\s*", "").trim();
+            }
+        }
+
+        return "the specified topic";
+    }
+
+    /**
+     * Generates a concise enhancement using rule-based logic.
+     * Reduces text length while maintaining essential meaning and clarity.
+     *
+     * @param originalText The user's original text to enhance
+     * @return Concise version of the original text
+     */
+    public String generateConciseEnhancement(String originalText) {
+        // Rule-based concise enhancement with markdown formatting
+        if (originalText.length() <= 50) {
+            return "**Quick Inquiry**\n\n" + originalText;
+        }
+
+        // Extract key terms and create focused version
+        String[] words = originalText.split("\\s+");
+        if (words.length > 10) {
+            // Take first few and last few words, add connecting phrase
+            String beginning = String.join(" ", Arrays.copyOfRange(words, 0, Math.min(5, words.length)));
+            String ending = words.length > 10 ?
+                    String.join(" ", Arrays.copyOfRange(words, words.length - 3, words.length)) : "";
+            return "**Focused Query**\n\n" + beginning + (ending.isEmpty() ? "" : " - *" + ending + "*") + " (concise approach)";
+        }
+
+        return "**Direct Query**\n\n" + originalText;
+    }
+
+    /**
+     * Generates an academic enhancement using scholarly language and research context.
+     * Adds methodological considerations and academic terminology.
+     *
+     * @param originalText The user's original text to enhance
+     * @return Academic version with research-focused language
+     */
+    public String generateAcademicEnhancement(String originalText) {
+        return "**Systematic Research Investigation**\n\n" + originalText +
+                "\n\n**Requirements:**\n" +
+                "- Provide peer-reviewed sources and academic references\n" +
+                "- Include methodological framework and research design\n" +
+                "- Present evidence-based analysis with proper citations\n" +
+                "- Consider theoretical context and scholarly implications";
+    }
+
+    /**
+     * Generates a detailed enhancement with comprehensive context and examples.
+     * Expands the original text with background information and structured approach.
+     *
+     * @param originalText The user's original text to enhance
+     * @return Detailed version with comprehensive context and requirements
+     */
+    public String generateDetailedEnhancement(String originalText) {
+        return "**Comprehensive Analysis Request**\n\n" + originalText +
+                "\n\n**Required Elements:**\n" +
+                "- **Background Context**: Provide relevant background information\n" +
+                "- **Specific Examples**: Include concrete examples and case studies\n" +
+                "- **Step-by-Step Methodology**: Outline detailed approach and process\n" +
+                "- **Challenges & Solutions**: Identify potential issues and solutions\n" +
+                "- **Detailed Recommendations**: Provide comprehensive guidance with supporting evidence";
+    }
+
+    /**
+     * Generates a creative enhancement with innovative approaches and engaging language.
+     * Adds creative elements while maintaining practical applicability.
+     *
+     * @param originalText The user's original text to enhance
+     * @return Creative version with innovative and engaging elements
+     */
+    public String generateCreativeEnhancement(String originalText) {
+        return "**Innovative Exploration**\n\n" + originalText +
+                "\n\n**Creative Approach:**\n" +
+                "- **Unconventional Thinking**: Explore unique perspectives and novel approaches\n" +
+                "- **Storytelling Elements**: Incorporate engaging narratives and scenarios\n" +
+                "- **Innovative Solutions**: Develop creative strategies and breakthrough ideas\n" +
+                "- **Practical Creativity**: Balance innovation with real-world applicability";
+    }
+}
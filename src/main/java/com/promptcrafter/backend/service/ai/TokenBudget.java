@@ -0,0 +1,165 @@
+package com.promptcrafter.backend.service.ai;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingRegistry;
+import com.knuddels.jtokkit.api.EncodingType;
+import com.knuddels.jtokkit.api.IntArrayList;
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.templates.PromptTemplateBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Token limits for model calls: counts tokens locally before a call, trims
+ * prompts that would exceed the input budget, and holds the output cap and
+ * stop sequences of each enhancement style.
+ *
+ * Tokens are counted with the jtokkit tokenizer for the configured model, or
+ * with cl100k_base when jtokkit does not know the model (jtokkit 1.0 has no
+ * o200k_base, so gpt-4o counts are estimates that run a few percent high for
+ * English). Estimated and reported counts are recorded side by side, which
+ * shows how far off the estimate is.
+ *
+ * A prompt over the budget keeps its beginning (two thirds of the budget) and
+ * its end (one third), which usually hold the request and the expected
+ * output, and loses the middle. Both cuts are moved to the nearest paragraph,
+ * sentence or word boundary and the gap is marked with "[...]".
+ *
+ * The output caps keep the enhanced text well below the 8000 character column
+ * it is stored in. Every style stops when the model starts to repeat the
+ * template; CONCISE also stops at the start of a second section.
+ *
+ * Configuration:
+ * - app.tokens.max-input: Most tokens sent per model call, template included (default: 1500)
+ * - app.tokens.max-output.concise: Output cap for CONCISE (default: 120)
+ * - app.tokens.max-output.academic: Output cap for ACADEMIC (default: 500)
+ * - app.tokens.max-output.detailed: Output cap for DETAILED (default: 900)
+ * - app.tokens.max-output.creative: Output cap for CREATIVE (default: 600)
+ */
+@Component
+public class TokenBudget {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenBudget.class);
+
+    private static final String TRIM_MARKER = "\n[...]\n";
+    private static final List<String> TEMPLATE_STOPS = List.of("Original prompt:", "Enhanced version:");
+    private static final List<String> CONCISE_STOPS = List.of("Original prompt:", "Enhanced version:", "\n\n**", "\n\n#");
+    private static final int CONTEXTS = ContextType.values().length;
+    // Preferred cut positions, best first
+    private static final List<String> BOUNDARIES = List.of("\n", ". ", "? ", "! ", " ");
+
+    private final Encoding encoding;
+    private final int maxInputTokens;
+    private final int[] maxOutputTokens = new int[EnhancementStyle.values().length];
+    // Template tokens without the prompt, by style and context
+    private final int[] templateTokens;
+
+    public TokenBudget(PromptTemplateBuilder templateBuilder,
+                       @Value("${app.openai.model:gpt-4o-mini}") String modelName,
+                       @Value("${app.tokens.max-input:1500}") int maxInputTokens,
+                       @Value("${app.tokens.max-output.concise:120}") int conciseTokens,
+                       @Value("${app.tokens.max-output.academic:500}") int academicTokens,
+                       @Value("${app.tokens.max-output.detailed:900}") int detailedTokens,
+                       @Value("${app.tokens.max-output.creative:600}") int creativeTokens) {
+        EncodingRegistry registry = Encodings.newLazyEncodingRegistry();
+        this.encoding = registry.getEncodingForModel(modelName)
+                .orElseGet(() -> registry.getEncoding(EncodingType.CL100K_BASE));
+        this.maxInputTokens = maxInputTokens;
+        maxOutputTokens[EnhancementStyle.CONCISE.ordinal()] = conciseTokens;
+        maxOutputTokens[EnhancementStyle.ACADEMIC.ordinal()] = academicTokens;
+        maxOutputTokens[EnhancementStyle.DETAILED.ordinal()] = detailedTokens;
+        maxOutputTokens[EnhancementStyle.CREATIVE.ordinal()] = creativeTokens;
+
+        this.templateTokens = new int[EnhancementStyle.values().length * CONTEXTS];
+        for (EnhancementStyle style : EnhancementStyle.values()) {
+            for (ContextType context : ContextType.values()) {
+                templateTokens[style.ordinal() * CONTEXTS + context.ordinal()] =
+                        count(templateBuilder.buildEnhancementPrompt("", style, context));
+            }
+        }
+        logger.info("Counting tokens with {} for model {}", encoding.getName(), modelName);
+    }
+
+    /**
+     * @param text Any text
+     * @return Estimated number of tokens in the text
+     */
+    public int count(String text) {
+        return encoding.countTokens(text);
+    }
+
+    /**
+     * @return Most output tokens for one answer in the style
+     */
+    public int maxOutputTokens(EnhancementStyle style) {
+        return maxOutputTokens[style.ordinal()];
+    }
+
+    /**
+     * @return Sequences that end the model's answer in the style
+     */
+    public List<String> stopSequences(EnhancementStyle style) {
+        return style == EnhancementStyle.CONCISE ? CONCISE_STOPS : TEMPLATE_STOPS;
+    }
+
+    /**
+     * Trims a prompt so that it fits the input budget together with its template.
+     *
+     * @param originalText The user's prompt
+     * @param style The enhancement style, which selects the template
+     * @param context The context, which selects the template
+     * @return The prompt, or its beginning and end if it is over the budget
+     */
+    public String fitInput(String originalText, EnhancementStyle style, ContextType context) {
+        int available = maxInputTokens - templateTokens[style.ordinal() * CONTEXTS + context.ordinal()];
+        IntArrayList tokens = encoding.encode(originalText);
+        if (tokens.size() <= available) {
+            return originalText;
+        }
+        int kept = Math.max(available - count(TRIM_MARKER), 16);
+        int headCount = kept * 2 / 3;
+        String head = headUntilBoundary(decode(tokens, 0, headCount));
+        String tail = tailFromBoundary(decode(tokens, tokens.size() - (kept - headCount), tokens.size()));
+        logger.debug("Trimmed prompt of {} tokens to fit the {} token input budget", tokens.size(), maxInputTokens);
+        return head + TRIM_MARKER + tail;
+    }
+
+    private String decode(IntArrayList tokens, int from, int to) {
+        IntArrayList range = new IntArrayList(to - from);
+        for (int i = from; i < to; i++) {
+            range.add(tokens.get(i));
+        }
+        // A cut inside a multi-byte character decodes to replacement characters
+        return encoding.decode(range).replace("\uFFFD", "");
+    }
+
+    // Cuts after the last paragraph, sentence or word end in the last third
+    private static String headUntilBoundary(String head) {
+        int floor = head.length() * 2 / 3;
+        for (String boundary : BOUNDARIES) {
+            int cut = head.lastIndexOf(boundary);
+            if (cut >= floor) {
+                return head.substring(0, cut + boundary.strip().length()).strip();
+            }
+        }
+        return head.strip();
+    }
+
+    // Starts at the first paragraph, sentence or word start in the first third
+    private static String tailFromBoundary(String tail) {
+        int ceiling = tail.length() / 3;
+        for (String boundary : BOUNDARIES) {
+            int cut = tail.indexOf(boundary);
+            if (cut >= 0 && cut <= ceiling) {
+                return tail.substring(cut + boundary.length()).strip();
+            }
+        }
+        return tail.strip();
+    }
+}
@@ -0,0 +1,21 @@
+package com.promptcrafter.backend.service.history;
+
+/**
+ * Published after an interactive enhancement has been stored, so listeners
+ * (e.g. the WebSocket channel) can push it to clients. Bulk ingest does not
+ * publish these events. Every stored enhancement is published, including
+ * fallbacks and reused copies; listeners that only want model answers check
+ * {@link HistoryEntry#isModelAnswer()}.
+ */
+public class HistoryAppendedEvent {
+
+    private final HistoryEntry entry;
+
+    public HistoryAppendedEvent(HistoryEntry entry) {
+        this.entry = entry;
+    }
+
+    public HistoryEntry getEntry() {
+        return entry;
+    }
+}
@@ -0,0 +1,87 @@
+package com.promptcrafter.backend.service.history;
+
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+
+import java.time.Instant;
+
+/**
+ * Immutable view of one stored enhancement: the original prompt, its style and
+ * context, the enhanced text, and whether that text is the model's answer to
+ * this prompt (rather than a fallback, a rule-based or unchanged text, a draft,
+ * or a copy of another prompt's enhancement).
+ *
+ * Entries passed to {@link HistoryStore#append} are created with
+ * {@link #unsaved}; the store returns a copy with the identifiers and creation
+ * time it assigned.
+ */
+public final class HistoryEntry {
+
+    private final Long id;
+    private final Long promptId;
+    private final String originalText;
+    private final EnhancementStyle style;
+    private final ContextType context;
+    private final String enhancedText;
+    private final boolean modelAnswer;
+    private final Instant createdAt;
+
+    public HistoryEntry(Long id, Long promptId, String originalText, EnhancementStyle style,
+                        ContextType context, String enhancedText, boolean modelAnswer, Instant createdAt) {
+        this.id = id;
+        this.promptId = promptId;
+        this.originalText = originalText;
+        this.style = style;
+        this.context = context;
+        this.enhancedText = enhancedText;
+        this.modelAnswer = modelAnswer;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Creates an entry that has not been stored yet.
+     *
+     * @param originalText The user's original prompt text
+     * @param style The enhancement style used
+     * @param context The context type used
+     * @param enhancedText The enhanced text
+     * @param modelAnswer Whether the model produced the enhanced text for this prompt
+     * @return An entry without identifiers or creation time
+     */
+    public static HistoryEntry unsaved(String originalText, EnhancementStyle style, ContextType context,
+                                       String enhancedText, boolean modelAnswer) {
+        return new HistoryEntry(null, null, originalText, style, context, enhancedText, modelAnswer, null);
+    }
+
+    /**
+     * Gets the identifier of the stored enhancement.
+     *
+     * @return The enhancement ID, or null if not stored yet
+     */
+    public Long getId() { return id; }
+
+    /**
+     * Gets the identifier of the stored original prompt.
+     *
+     * @return The prompt ID, or null if not stored yet
+     */
+    public Long getPromptId() { return promptId; }
+
+    public String getOriginalText() { return originalText; }
+
+    public EnhancementStyle getStyle() { return style; }
+
+    public ContextType getContext() { return context; }
+
+    public String getEnhancedText() { return enhancedText; }
+
+    /**
+     * Tells whether the enhanced text is the model's answer to this prompt, which
+     * makes it worth reusing for similar prompts.
+     *
+     * @return False for fallbacks, rule-based or unchanged prompts, drafts and reused copies
+     */
+    public boolean isModelAnswer() { return modelAnswer; }
+
+    public Instant getCreatedAt() { return createdAt; }
+}
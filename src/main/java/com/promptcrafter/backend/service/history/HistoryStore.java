@@ -0,0 +1,90 @@
+package com.promptcrafter.backend.service.history;
+
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage SPI for the enhancement history.
+ *
+ * History is append-only: entries are written once after an enhancement and
+ * read back newest-first for the history view or oldest-first for exports.
+ * The implementation is selected with app.history.store:
+ * - jpa (default): Prompt/EnhancementRecord rows through Spring Data JPA
+ * - mmap: Append-only memory-mapped log files (single node only)
+ */
+public interface HistoryStore {
+
+    /**
+     * Stores one enhancement.
+     *
+     * @param userEmail Email of the user who submitted the prompt
+     * @param entry The unsaved entry
+     * @return The stored entry with identifiers and creation time
+     */
+    HistoryEntry append(String userEmail, HistoryEntry entry);
+
+    /**
+     * Stores several enhancements as one unit of work.
+     *
+     * @param userEmail Email of the user who submitted the prompts
+     * @param entries The unsaved entries
+     * @return The stored entries, in the same order
+     */
+    List<HistoryEntry> appendAll(String userEmail, List<HistoryEntry> entries);
+
+    /**
+     * Reads the most recent entries.
+     *
+     * @param limit Maximum number of entries to return
+     * @return Entries ordered newest first
+     */
+    List<HistoryEntry> findLatest(int limit);
+
+    /**
+     * Reads one entry.
+     *
+     * @param id The entry id ({@link HistoryEntry#getId()})
+     * @return The entry, or empty if there is none with this id
+     */
+    Optional<HistoryEntry> findById(long id);
+
+    /**
+     * Replaces the enhanced text of a stored entry, e.g. a draft with the
+     * final enhancement. Identifiers and creation time are kept.
+     *
+     * @param id The entry id ({@link HistoryEntry#getId()})
+     * @param enhancedText The new enhanced text
+     * @param modelAnswer Whether the model produced the new text ({@link HistoryEntry#isModelAnswer()})
+     * @return The updated entry, or empty if there is none with this id
+     */
+    Optional<HistoryEntry> replaceEnhancedText(long id, String enhancedText, boolean modelAnswer);
+
+    /**
+     * Visits all matching entries, oldest first, without loading them all into memory.
+     * All filters are optional (null means "any").
+     *
+     * @param from Inclusive lower bound on creation time
+     * @param to Exclusive upper bound on creation time
+     * @param style Enhancement style to match
+     * @param context Context type to match
+     * @param visitor Called once per matching entry
+     * @return Number of entries visited
+     * @throws IOException if the visitor fails to write an entry
+     */
+    long scan(Instant from, Instant to, EnhancementStyle style, ContextType context,
+              HistoryVisitor visitor) throws IOException;
+
+    /**
+     * Callback for {@link #scan}; may throw IOException so entries can be
+     * written straight to a response stream.
+     */
+    @FunctionalInterface
+    interface HistoryVisitor {
+        void visit(HistoryEntry entry) throws IOException;
+    }
+}
@@ -0,0 +1,185 @@
+package com.promptcrafter.backend.service.history;
+
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.model.EnhancementRecord;
+import com.promptcrafter.backend.model.Prompt;
+import com.promptcrafter.backend.model.User;
+import com.promptcrafter.backend.repository.EnhancementRecordRepository;
+import com.promptcrafter.backend.repository.PromptRepository;
+import com.promptcrafter.backend.repository.UserRepository;
+import com.promptcrafter.backend.service.metrics.EnhancementMetrics;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * HistoryStore backed by the `prompts` and `enhancement_records` tables.
+ *
+ * Each entry is stored as one `Prompt` and one `EnhancementRecord` owned by
+ * the submitting `User`, who is created on first use.
+ */
+@Component
+@ConditionalOnProperty(name = "app.history.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaHistoryStore implements HistoryStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JpaHistoryStore.class);
+
+    // Matches the fetch size hint on EnhancementRecordRepository.streamForExport
+    private static final int SCAN_BATCH_SIZE = 500;
+
+    private final UserRepository userRepository;
+    private final PromptRepository promptRepository;
+    private final EnhancementRecordRepository enhancementRecordRepository;
+    private final EnhancementMetrics metrics;
+    private final TransactionTemplate userCreation;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public JpaHistoryStore(UserRepository userRepository,
+                           PromptRepository promptRepository,
+                           EnhancementRecordRepository enhancementRecordRepository,
+                           EnhancementMetrics metrics,
+                           PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.promptRepository = promptRepository;
+        this.enhancementRecordRepository = enhancementRecordRepository;
+        this.metrics = metrics;
+        this.userCreation = new TransactionTemplate(transactionManager);
+        this.userCreation.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    @Transactional
+    public HistoryEntry append(String userEmail, HistoryEntry entry) {
+        return appendAll(userEmail, List.of(entry)).get(0);
+    }
+
+    @Override
+    @Transactional
+    public List<HistoryEntry> appendAll(String userEmail, List<HistoryEntry> entries) {
+        User user = metrics.stage(EnhancementMetrics.STAGE_USER_RESOLVE, () -> getOrCreateUser(userEmail));
+
+        List<Prompt> prompts = new ArrayList<>(entries.size());
+        List<EnhancementRecord> records = new ArrayList<>(entries.size());
+        for (HistoryEntry entry : entries) {
+            Prompt prompt = new Prompt();
+            prompt.setUser(user);
+            prompt.setOriginalText(entry.getOriginalText());
+            prompt.setStyle(entry.getStyle());
+            prompt.setContext(entry.getContext());
+            prompts.add(prompt);
+
+            EnhancementRecord record = new EnhancementRecord();
+            record.setPrompt(prompt);
+            record.setEnhancedText(entry.getEnhancedText());
+            record.setModelAnswer(entry.isModelAnswer());
+            records.add(record);
+        }
+        promptRepository.saveAll(prompts);
+        enhancementRecordRepository.saveAll(records);
+
+        return records.stream().map(JpaHistoryStore::toEntry).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<HistoryEntry> findLatest(int limit) {
+        // Using Pageable to limit at database level for efficiency
+        Pageable pageable = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "createdAt"));
+        return enhancementRecordRepository.findAll(pageable).getContent().stream()
+                .map(JpaHistoryStore::toEntry)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<HistoryEntry> findById(long id) {
+        return enhancementRecordRepository.findById(id).map(JpaHistoryStore::toEntry);
+    }
+
+    @Override
+    @Transactional
+    public Optional<HistoryEntry> replaceEnhancedText(long id, String enhancedText, boolean modelAnswer) {
+        // Flushed by dirty checking when the transaction commits
+        return enhancementRecordRepository.findById(id).map(record -> {
+            record.setEnhancedText(enhancedText);
+            record.setModelAnswer(modelAnswer);
+            return toEntry(record);
+        });
+    }
+
+    /**
+     * Streams rows from a forward-only cursor and clears the persistence context
+     * after every batch, so memory use does not depend on the table size.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long scan(Instant from, Instant to, EnhancementStyle style, ContextType context,
+                     HistoryVisitor visitor) throws IOException {
+        long count = 0;
+        try (Stream<EnhancementRecord> records = enhancementRecordRepository.streamForExport(from, to, style, context)) {
+            Iterator<EnhancementRecord> iterator = records.iterator();
+            while (iterator.hasNext()) {
+                visitor.visit(toEntry(iterator.next()));
+                count++;
+
+                if (count % SCAN_BATCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves the user with the given email or creates one if it doesn't exist.
+     *
+     * The user is inserted in its own transaction so that concurrent first
+     * requests (e.g. several multiplexed over one WebSocket) do not fail the
+     * enclosing append: the loser of the unique-email race re-reads the
+     * winner's committed row.
+     *
+     * @param email The user's email
+     * @return The user entity
+     */
+    private User getOrCreateUser(String email) {
+        return userRepository.findByEmail(email).orElseGet(() -> {
+            try {
+                userCreation.executeWithoutResult(status -> {
+                    logger.info("Creating user: {}", email);
+                    userRepository.save(new User(email, "Demo User"));
+                });
+            } catch (DataIntegrityViolationException e) {
+                logger.debug("User {} was created concurrently", email);
+            }
+            return userRepository.findByEmail(email).orElseThrow();
+        });
+    }
+
+    private static HistoryEntry toEntry(EnhancementRecord record) {
+        Prompt prompt = record.getPrompt();
+        return new HistoryEntry(record.getId(), prompt.getId(), prompt.getOriginalText(), prompt.getStyle(),
+                prompt.getContext(), record.getEnhancedText(), record.isModelAnswer(), record.getCreatedAt());
+    }
+}
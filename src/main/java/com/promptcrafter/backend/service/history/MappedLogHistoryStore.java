@@ -0,0 +1,443 @@
+package com.promptcrafter.backend.service.history;
+
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * HistoryStore backed by append-only, memory-mapped log segments.
+ *
+ * Intended for single-node deployments where JPA's per-write overhead is not
+ * worth paying for immutable history. Entries are appended to fixed-size
+ * segment files ({@code segment-<first id>.log}) that are mapped into memory;
+ * a new segment is started when the current one is full.
+ *
+ * Record format (big-endian):
+ * <pre>
+ *   int    body length (0 marks the end of written data)
+ *   int    CRC32 of the body
+ *   body:
+ *     byte   format version (2)
+ *     long   id
+ *     long   created-at, epoch milliseconds
+ *     byte   EnhancementStyle ordinal
+ *     byte   ContextType ordinal
+ *     byte   flags: bit 0 set if the enhanced text is a model answer
+ *     int    original text length, then UTF-8 bytes
+ *     int    enhanced text length, then UTF-8 bytes
+ * </pre>
+ * Version 1 records have no flags byte and are read as not being model answers.
+ * Enum constants are stored by ordinal, so new constants must only ever be
+ * appended to the enums.
+ *
+ * Ids are assigned sequentially from 1, so an in-memory array indexed by id
+ * holds each record's location and serves newest-first reads without touching
+ * older data. Replacing an entry's enhanced text appends a full copy of the
+ * record with the same id and points the index at it; the old record stays in
+ * the log, and a record whose id was seen before replaces it on recovery.
+ * On startup the segments are scanned to rebuild that index; the last
+ * segment's records are CRC-checked and anything after the first torn or
+ * corrupt record is discarded, which recovers from a crash mid-append.
+ *
+ * Configuration:
+ * - app.history.log.directory: Directory holding the segments (default: data/history)
+ * - app.history.log.segment-size-mb: Size of each segment file (default: 64)
+ * - app.history.log.fsync: Force every append to disk (default: false; the OS
+ *   page cache already survives a process crash)
+ */
+@Component
+@ConditionalOnProperty(name = "app.history.store", havingValue = "mmap")
+public class MappedLogHistoryStore implements HistoryStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedLogHistoryStore.class);
+
+    private static final byte FORMAT_VERSION = 2;
+    private static final byte FORMAT_VERSION_WITHOUT_FLAGS = 1;
+    private static final int HEADER_SIZE = 8;
+    // Offsets of the fixed-size fields relative to the start of the body
+    private static final int OFFSET_ID = 1;
+    private static final int OFFSET_CREATED_AT = 9;
+    private static final int OFFSET_STYLE = 17;
+    private static final int OFFSET_CONTEXT = 18;
+    private static final int OFFSET_FLAGS = 19;
+    private static final int BODY_FIXED_SIZE = 20;
+    private static final int BODY_FIXED_SIZE_WITHOUT_FLAGS = 19;
+
+    private static final byte FLAG_MODEL_ANSWER = 1;
+
+    // Locations are packed as (segment index << 40) | position within the segment
+    private static final int POSITION_BITS = 40;
+    private static final long POSITION_MASK = (1L << POSITION_BITS) - 1;
+
+    private static final EnhancementStyle[] STYLES = EnhancementStyle.values();
+    private static final ContextType[] CONTEXTS = ContextType.values();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean fsync;
+
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+
+    // Record locations indexed by id - 1; only the appending thread writes these,
+    // readers see replaced locations through the atomic array
+    private volatile AtomicLongArray locations = new AtomicLongArray(1024);
+    private volatile int count;
+
+    public MappedLogHistoryStore(@Value("${app.history.log.directory:data/history}") Path directory,
+                                 @Value("${app.history.log.segment-size-mb:64}") int segmentSizeMb,
+                                 @Value("${app.history.log.fsync:false}") boolean fsync) throws IOException {
+        if (segmentSizeMb < 1 || segmentSizeMb > 1024) {
+            throw new IllegalArgumentException("app.history.log.segment-size-mb must be between 1 and 1024");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSizeMb * 1024 * 1024;
+        this.fsync = fsync;
+
+        Files.createDirectories(directory);
+        recover();
+        logger.info("Opened history log at {} - {} entries in {} segments", directory, count, segments.size());
+    }
+
+    @Override
+    public synchronized HistoryEntry append(String userEmail, HistoryEntry entry) {
+        HistoryEntry stored = write(entry);
+        if (fsync) {
+            currentSegment().buffer.force();
+        }
+        return stored;
+    }
+
+    @Override
+    public synchronized List<HistoryEntry> appendAll(String userEmail, List<HistoryEntry> entries) {
+        List<HistoryEntry> stored = new ArrayList<>(entries.size());
+        for (HistoryEntry entry : entries) {
+            stored.add(write(entry));
+        }
+        if (fsync) {
+            segments.forEach(segment -> segment.buffer.force());
+        }
+        return stored;
+    }
+
+    @Override
+    public List<HistoryEntry> findLatest(int limit) {
+        int total = count;
+        AtomicLongArray snapshot = locations;
+        List<HistoryEntry> result = new ArrayList<>(Math.min(limit, total));
+        for (int i = total - 1; i >= 0 && result.size() < limit; i--) {
+            result.add(read(snapshot.get(i)));
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<HistoryEntry> findById(long id) {
+        int total = count;
+        AtomicLongArray snapshot = locations;
+        if (id < 1 || id > total) {
+            return Optional.empty();
+        }
+        return Optional.of(read(snapshot.get((int) (id - 1))));
+    }
+
+    @Override
+    public synchronized Optional<HistoryEntry> replaceEnhancedText(long id, String enhancedText,
+                                                                   boolean modelAnswer) {
+        if (id < 1 || id > count) {
+            return Optional.empty();
+        }
+        HistoryEntry current = read(locations.get((int) (id - 1)));
+        HistoryEntry replaced = new HistoryEntry(id, id, current.getOriginalText(), current.getStyle(),
+                current.getContext(), enhancedText, modelAnswer, current.getCreatedAt());
+        locations.set((int) (id - 1), writeRecord(replaced));
+        if (fsync) {
+            currentSegment().buffer.force();
+        }
+        return Optional.of(replaced);
+    }
+
+    @Override
+    public long scan(Instant from, Instant to, EnhancementStyle style, ContextType context,
+                     HistoryVisitor visitor) throws IOException {
+        int total = count;
+        AtomicLongArray snapshot = locations;
+        long fromMillis = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+        long toMillis = to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+
+        long visited = 0;
+        for (int i = 0; i < total; i++) {
+            long location = snapshot.get(i);
+            ByteBuffer buffer = segments.get(segmentOf(location)).buffer;
+            int body = positionOf(location) + HEADER_SIZE;
+
+            // Filter on the fixed-size fields before decoding any text
+            long createdAt = buffer.getLong(body + OFFSET_CREATED_AT);
+            if (createdAt < fromMillis || createdAt >= toMillis) continue;
+            if (style != null && buffer.get(body + OFFSET_STYLE) != style.ordinal()) continue;
+            if (context != null && buffer.get(body + OFFSET_CONTEXT) != context.ordinal()) continue;
+
+            visitor.visit(read(location));
+            visited++;
+        }
+        return visited;
+    }
+
+    /**
+     * Forces all segments to disk on shutdown.
+     */
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+            segment.channel.close();
+        }
+    }
+
+    /**
+     * Appends one record with the next id. Callers hold the store's monitor.
+     */
+    private HistoryEntry write(HistoryEntry entry) {
+        long id = count + 1L;
+        HistoryEntry stored = new HistoryEntry(id, id, entry.getOriginalText(), entry.getStyle(), entry.getContext(),
+                entry.getEnhancedText(), entry.isModelAnswer(), Instant.ofEpochMilli(System.currentTimeMillis()));
+        addLocation(writeRecord(stored));
+        return stored;
+    }
+
+    /**
+     * Writes a record with the entry's id and creation time, rolling to a new
+     * segment if it does not fit. Callers hold the store's monitor.
+     *
+     * @return The record's location
+     */
+    private long writeRecord(HistoryEntry entry) {
+        long id = entry.getId();
+        byte[] original = entry.getOriginalText().getBytes(StandardCharsets.UTF_8);
+        byte[] enhanced = entry.getEnhancedText().getBytes(StandardCharsets.UTF_8);
+        int bodyLength = BODY_FIXED_SIZE + 4 + original.length + 4 + enhanced.length;
+        int recordLength = HEADER_SIZE + bodyLength;
+        if (recordLength > segmentSize) {
+            throw new IllegalArgumentException("History entry of " + recordLength + " bytes exceeds segment size");
+        }
+
+        Segment segment = segments.isEmpty() ? null : currentSegment();
+        if (segment == null || segment.writePosition + recordLength > segmentSize) {
+            // Named after the next new id; replacements can fill a segment before one is assigned
+            long firstId = Math.max(count + 1L, currentFirstId() + 1);
+            segment = openSegment(firstId, segments.size());
+            segments.add(segment);
+        }
+
+        ByteBuffer body = ByteBuffer.allocate(bodyLength);
+        body.put(FORMAT_VERSION)
+                .putLong(id)
+                .putLong(entry.getCreatedAt().toEpochMilli())
+                .put((byte) entry.getStyle().ordinal())
+                .put((byte) entry.getContext().ordinal())
+                .put(entry.isModelAnswer() ? FLAG_MODEL_ANSWER : 0)
+                .putInt(original.length).put(original)
+                .putInt(enhanced.length).put(enhanced);
+        CRC32 crc = new CRC32();
+        crc.update(body.array());
+
+        int position = segment.writePosition;
+        // Body and CRC first, length last: a torn write leaves a zero or mismatching length behind
+        segment.buffer.putInt(position + 4, (int) crc.getValue());
+        segment.buffer.put(position + HEADER_SIZE, body.array());
+        segment.buffer.putInt(position, bodyLength);
+        segment.writePosition = position + recordLength;
+
+        return ((long) (segments.size() - 1) << POSITION_BITS) | position;
+    }
+
+    private HistoryEntry read(long location) {
+        ByteBuffer buffer = segments.get(segmentOf(location)).buffer;
+        int position = positionOf(location) + HEADER_SIZE;
+
+        long id = buffer.getLong(position + OFFSET_ID);
+        long createdAt = buffer.getLong(position + OFFSET_CREATED_AT);
+        EnhancementStyle style = STYLES[buffer.get(position + OFFSET_STYLE)];
+        ContextType context = CONTEXTS[buffer.get(position + OFFSET_CONTEXT)];
+        boolean modelAnswer = false;
+        if (buffer.get(position) == FORMAT_VERSION_WITHOUT_FLAGS) {
+            position += BODY_FIXED_SIZE_WITHOUT_FLAGS;
+        } else {
+            modelAnswer = (buffer.get(position + OFFSET_FLAGS) & FLAG_MODEL_ANSWER) != 0;
+            position += BODY_FIXED_SIZE;
+        }
+
+        int originalLength = buffer.getInt(position);
+        byte[] original = new byte[originalLength];
+        buffer.get(position + 4, original);
+        position += 4 + originalLength;
+
+        int enhancedLength = buffer.getInt(position);
+        byte[] enhanced = new byte[enhancedLength];
+        buffer.get(position + 4, enhanced);
+
+        return new HistoryEntry(id, id, new String(original, StandardCharsets.UTF_8), style, context,
+                new String(enhanced, StandardCharsets.UTF_8), modelAnswer, Instant.ofEpochMilli(createdAt));
+    }
+
+    /**
+     * Maps every existing segment, rebuilds the location index and truncates a
+     * torn tail in the last segment.
+     */
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(p -> p.getFileName().toString().matches("segment-\\d{20}\\.log"))
+                    .sorted()
+                    .toList();
+        }
+
+        for (int s = 0; s < files.size(); s++) {
+            boolean last = s == files.size() - 1;
+            String name = files.get(s).getFileName().toString();
+            Segment segment = mapSegment(files.get(s), Long.parseLong(name.substring(8, 28)));
+            segments.add(segment);
+
+            int position = 0;
+            while (position + HEADER_SIZE <= segmentSize) {
+                int bodyLength = segment.buffer.getInt(position);
+                if (bodyLength <= 0 || position + HEADER_SIZE + bodyLength > segmentSize) {
+                    break;
+                }
+                if (last && !isValid(segment.buffer, position, bodyLength)) {
+                    logger.warn("Discarding torn history record at {} offset {}", files.get(s), position);
+                    break;
+                }
+                long location = ((long) s << POSITION_BITS) | position;
+                long id = segment.buffer.getLong(position + HEADER_SIZE + OFFSET_ID);
+                if (id <= count) {
+                    // A replaced entry
+                    locations.set((int) (id - 1), location);
+                } else {
+                    addLocation(location);
+                }
+                position += HEADER_SIZE + bodyLength;
+            }
+            segment.writePosition = position;
+
+            if (last) {
+                zeroTornTail(segment.buffer, position);
+            }
+        }
+    }
+
+    /**
+     * Zeroes whatever a crash left behind after the last valid record so it is
+     * never mistaken for one. Nothing was ever written past the torn record, so
+     * the first run of zeroes longer than a page marks the end of the garbage.
+     */
+    private void zeroTornTail(ByteBuffer buffer, int position) {
+        int zeroRun = 0;
+        for (int i = position; i < segmentSize && zeroRun < 4096; i++) {
+            if (buffer.get(i) != 0) {
+                buffer.put(i, (byte) 0);
+                zeroRun = 0;
+            } else {
+                zeroRun++;
+            }
+        }
+    }
+
+    private boolean isValid(ByteBuffer buffer, int position, int bodyLength) {
+        byte[] body = new byte[bodyLength];
+        buffer.get(position + HEADER_SIZE, body);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        // The next new id, or an earlier one for a replaced entry
+        long id = ByteBuffer.wrap(body, OFFSET_ID, 8).getLong();
+        return (int) crc.getValue() == buffer.getInt(position + 4)
+                && (body[0] == FORMAT_VERSION || body[0] == FORMAT_VERSION_WITHOUT_FLAGS)
+                && id >= 1 && id <= count + 1L;
+    }
+
+    private Segment openSegment(long firstId, int index) {
+        try {
+            Path file = directory.resolve(String.format("segment-%020d.log", firstId));
+            logger.info("Starting history log segment {} ({})", index, file.getFileName());
+            return mapSegment(file, firstId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create history log segment", e);
+        }
+    }
+
+    private Segment mapSegment(Path file, long firstId) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        return new Segment(channel, buffer, firstId);
+    }
+
+    private Segment currentSegment() {
+        return segments.get(segments.size() - 1);
+    }
+
+    private long currentFirstId() {
+        return segments.isEmpty() ? 0 : currentSegment().firstId;
+    }
+
+    private void addLocation(long location) {
+        int index = count;
+        if (index == locations.length()) {
+            AtomicLongArray grown = new AtomicLongArray(index * 2);
+            for (int i = 0; i < index; i++) {
+                grown.set(i, locations.get(i));
+            }
+            locations = grown;
+        }
+        locations.set(index, location);
+        // Volatile write publishes the location to readers that snapshot count
+        count = index + 1;
+    }
+
+    private static int segmentOf(long location) {
+        return (int) (location >>> POSITION_BITS);
+    }
+
+    private static int positionOf(long location) {
+        return (int) (location & POSITION_MASK);
+    }
+
+    /**
+     * One mapped segment file.
+     */
+    private static final class Segment {
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        // Number in the file name
+        private final long firstId;
+        private int writePosition;
+
+        private Segment(FileChannel channel, MappedByteBuffer buffer, long firstId) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.firstId = firstId;
+        }
+    }
+}
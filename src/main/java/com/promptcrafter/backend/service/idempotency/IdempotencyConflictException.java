@@ -0,0 +1,22 @@
+package com.promptcrafter.backend.service.idempotency;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when a request carries an Idempotency-Key that cannot be honored:
+ * the key was used with a different request body (422), or the original
+ * request is still running after the wait timeout (409).
+ */
+public class IdempotencyConflictException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    public IdempotencyConflictException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,146 @@
+package com.promptcrafter.backend.service.idempotency;
+
+import com.promptcrafter.backend.dto.PromptRequest;
+import com.promptcrafter.backend.dto.PromptResponse;
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.util.ExpiringMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates client retries that carry the same Idempotency-Key.
+ *
+ * Keys are scoped by client, so two clients that happen to pick the same key
+ * (a counter, say) never see each other's responses.
+ *
+ * The first request with a key runs and its response is kept; repeats get the
+ * kept response, or wait for it while the first request is still running,
+ * without another model call or history write. Only successful responses are
+ * kept: a failed or thrown attempt releases the key so a retry runs again.
+ *
+ * Keys are remembered in an {@link ExpiringMap}, whose operations are short
+ * and run under its lock; the work and the waiting happen outside it. Each
+ * entry keeps the request text, style and context it was created for, so a
+ * reused key is only replayed for an equal request; the text is capped by the
+ * request validation.
+ *
+ * Configuration:
+ * - app.idempotency.ttl-seconds: How long a key is remembered (default: 600)
+ * - app.idempotency.max-entries: Keys remembered at most (default: 10000)
+ * - app.idempotency.wait-timeout-ms: How long a repeat waits for the running original (default: 60000)
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    // Longer keys are rejected rather than stored
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final long waitTimeoutMillis;
+    private final ExpiringMap<ClientKey, Entry> entries;
+
+    public IdempotencyService(@Value("${app.idempotency.ttl-seconds:600}") long ttlSeconds,
+                              @Value("${app.idempotency.max-entries:10000}") int maxEntries,
+                              @Value("${app.idempotency.wait-timeout-ms:60000}") long waitTimeoutMillis) {
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.entries = new ExpiringMap<>(Duration.ofSeconds(ttlSeconds), maxEntries);
+    }
+
+    /**
+     * Result of a keyed request.
+     *
+     * @param response The response of the first request with this key
+     * @param replayed Whether the response was produced by an earlier request
+     */
+    public record Result(PromptResponse response, boolean replayed) {}
+
+    /**
+     * Runs the work once per key and returns its response to every request with that key.
+     *
+     * @param client The client sending the request, e.g. from {@code ClientKeyResolver}
+     * @param key The client's Idempotency-Key
+     * @param request The request body, which must match the first request with this key
+     * @param work Produces the response for the first request
+     * @return The response and whether it was replayed
+     * @throws IdempotencyConflictException If the key was used for a different request,
+     *         or the first request is still running after the wait timeout
+     */
+    public Result execute(String client, String key, PromptRequest request, Supplier<PromptResponse> work) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IdempotencyConflictException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        ClientKey clientKey = new ClientKey(client, key);
+        Entry created = new Entry(request);
+        Entry existing = entries.putIfAbsent(clientKey, created);
+
+        if (existing != null) {
+            if (!existing.matches(request)) {
+                throw new IdempotencyConflictException(HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Idempotency-Key was already used for a different request");
+            }
+            logger.debug("Replaying response for idempotency key {} of {}", key, client);
+            return new Result(await(existing.result), true);
+        }
+
+        PromptResponse response;
+        try {
+            response = work.get();
+        } catch (RuntimeException e) {
+            entries.remove(clientKey, created);
+            created.result.completeExceptionally(e);
+            throw e;
+        }
+        if (!response.isSuccess()) {
+            entries.remove(clientKey, created);
+        }
+        created.result.complete(response);
+        return new Result(response, false);
+    }
+
+    private PromptResponse await(CompletableFuture<PromptResponse> result) {
+        try {
+            return result.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException(HttpStatus.CONFLICT,
+                    "A request with this Idempotency-Key is still in progress");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for idempotent request", e);
+        }
+    }
+
+    private record ClientKey(String client, String key) {}
+
+    private static final class Entry {
+        final String originalText;
+        final EnhancementStyle style;
+        final ContextType context;
+        final CompletableFuture<PromptResponse> result = new CompletableFuture<>();
+
+        Entry(PromptRequest request) {
+            this.originalText = request.getOriginalText();
+            this.style = request.getStyle();
+            this.context = request.getContext();
+        }
+
+        boolean matches(PromptRequest request) {
+            return style == request.getStyle() && context == request.getContext()
+                    && originalText.equals(request.getOriginalText());
+        }
+    }
+}
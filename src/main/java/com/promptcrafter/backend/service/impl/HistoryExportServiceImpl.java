@@ -0,0 +1,103 @@
+package com.promptcrafter.backend.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.service.HistoryExportService;
+import com.promptcrafter.backend.service.history.HistoryEntry;
+import com.promptcrafter.backend.service.history.HistoryStore;
+import com.promptcrafter.backend.service.metrics.EnhancementMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+
+/**
+ * Implementation of HistoryExportService that streams history entries from the
+ * HistoryStore through a Jackson generator.
+ *
+ * Memory stays constant regardless of history size: the store visits entries
+ * one at a time (the JPA store reads them from a forward-only cursor) and each
+ * entry is written immediately. Output is flushed every batch so the client
+ * sees steady progress.
+ */
+@Service
+public class HistoryExportServiceImpl implements HistoryExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryExportServiceImpl.class);
+
+    private static final int FLUSH_INTERVAL = 500;
+
+    private final HistoryStore historyStore;
+    private final ObjectMapper objectMapper;
+    private final EnhancementMetrics metrics;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param historyStore Store providing the history scan
+     * @param objectMapper Shared Jackson mapper used to create the generator
+     * @param metrics Meters recording the store scan
+     */
+    public HistoryExportServiceImpl(HistoryStore historyStore, ObjectMapper objectMapper,
+                                    EnhancementMetrics metrics) {
+        this.historyStore = historyStore;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public long exportHistory(Instant from, Instant to, EnhancementStyle style, ContextType context,
+                              OutputStream out) throws IOException {
+        logger.info("Starting history export - from: {}, to: {}, style: {}, context: {}", from, to, style, context);
+
+        long count;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+
+            long[] written = {0};
+            long start = System.nanoTime();
+            try {
+                count = historyStore.scan(from, to, style, context, entry -> {
+                    writeEntry(generator, entry);
+                    if (++written[0] % FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                });
+            } finally {
+                // Includes time spent writing to the client, which paces the scan
+                metrics.recordPersistence("scan", start);
+            }
+            generator.flush();
+        }
+
+        logger.info("History export completed - {} items written", count);
+        return count;
+    }
+
+    /**
+     * Writes a single history entry as one NDJSON line.
+     *
+     * @param generator The Jackson generator writing to the response
+     * @param entry The history entry
+     * @throws IOException if writing fails
+     */
+    private void writeEntry(JsonGenerator generator, HistoryEntry entry) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", entry.getId());
+        generator.writeNumberField("promptId", entry.getPromptId());
+        generator.writeStringField("originalText", entry.getOriginalText());
+        generator.writeStringField("enhancementStyle", entry.getStyle().name());
+        generator.writeStringField("context", entry.getContext().name());
+        generator.writeStringField("enhancedText", entry.getEnhancedText());
+        generator.writeStringField("createdAt", entry.getCreatedAt().toString());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
@@ -3,109 +3,269 @@ package com.promptcrafter.backend.service.impl;
 import com.promptcrafter.backend.dto.PromptHistoryResponse;
 import com.promptcrafter.backend.dto.PromptRequest;
 import com.promptcrafter.backend.dto.PromptResponse;
-import com.promptcrafter.backend.model.EnhancementRecord;
-import com.promptcrafter.backend.model.Prompt;
-import com.promptcrafter.backend.model.User;
-import com.promptcrafter.backend.repository.EnhancementRecordRepository;
-import com.promptcrafter.backend.repository.PromptRepository;
-import com.promptcrafter.backend.repository.UserRepository;
 import com.promptcrafter.backend.service.PromptEnhancementService;
 import com.promptcrafter.backend.service.ai.LangChain4jService;
+import com.promptcrafter.backend.service.ai.LongPromptEnhancer;
+import com.promptcrafter.backend.service.ai.RuleBasedEnhancer;
+import com.promptcrafter.backend.service.ai.TokenBudget;
+import com.promptcrafter.backend.service.history.HistoryAppendedEvent;
+import com.promptcrafter.backend.service.history.HistoryEntry;
+import com.promptcrafter.backend.service.history.HistoryStore;
+import com.promptcrafter.backend.service.metrics.EnhancementMetrics;
+import com.promptcrafter.backend.service.similarity.SimilarPromptFinder;
+import com.promptcrafter.backend.service.speculative.StylePregenerator;
+import com.promptcrafter.backend.service.stats.UsageAccount;
+import com.promptcrafter.backend.service.stats.UsageLedger;
+import com.promptcrafter.backend.service.stats.UsageStatsService;
+import com.promptcrafter.backend.service.triage.PromptTriage;
 import com.promptcrafter.backend.templates.PromptTemplateBuilder;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Instant;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Implementation of PromptEnhancementService that handles prompt enhancement
- * and stores the enhancement history in the database.
+ * and stores the enhancement history through the configured HistoryStore.
  * 
  * This service integrates AI-powered enhancement with persistent storage,
  * ensuring all prompt enhancements are tracked for future reference.
+ * Transactions are owned by the store, so no database connection is held
+ * while waiting for the AI model.
  */
 @Service
-@Transactional
 public class PromptEnhancementServiceImpl implements PromptEnhancementService {
 
     private static final Logger logger = LoggerFactory.getLogger(PromptEnhancementServiceImpl.class);
     
-    // Default user email for demo purposes (Week 1 - no authentication yet)
-    private static final String DEFAULT_USER_EMAIL = "demo@promptcrafter.com";
-
     private final PromptTemplateBuilder templateBuilder;
     private final LangChain4jService aiService;
-    private final UserRepository userRepository;
-    private final PromptRepository promptRepository;
-    private final EnhancementRecordRepository enhancementRecordRepository;
+    private final HistoryStore historyStore;
+    private final UsageStatsService usageStatsService;
+    private final EnhancementMetrics metrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SimilarPromptFinder similarPrompts;
+    private final PromptTriage triage;
+    private final RuleBasedEnhancer ruleBasedEnhancer;
+    private final LongPromptEnhancer longPrompts;
+    private final TokenBudget tokenBudget;
+    private final StylePregenerator pregenerator;
+    private final ThreadPoolExecutor upgradeWorkers;
 
     /**
-     * Constructor for dependency injection of all required services and repositories.
+     * Constructor for dependency injection of all required services.
      * 
      * @param templateBuilder Service for building AI prompt templates
      * @param aiService Service for AI-powered text enhancement
-     * @param userRepository Repository for user data operations
-     * @param promptRepository Repository for prompt data operations
-     * @param enhancementRecordRepository Repository for enhancement record operations
+     * @param historyStore Store for the enhancement history
+     * @param usageStatsService Service maintaining usage counters
+     * @param metrics Meters for the enhancement pipeline stages
+     * @param eventPublisher Publishes a HistoryAppendedEvent for each stored enhancement
+     * @param similarPrompts Finds earlier enhancements of near-duplicate prompts
+     * @param triage Decides whether a prompt needs the AI model
+     * @param ruleBasedEnhancer Enhances prompts that triage keeps away from the model
+     * @param longPrompts Enhances long prompts in parts that run concurrently
+     * @param tokenBudget Trims prompts that are over the model's input budget
+     * @param pregenerator Prepares the other styles of enhanced prompts while the model is idle
+     * @param upgradeConcurrency Progressive drafts upgraded in parallel (app.progressive.concurrency)
+     * @param upgradeQueueCapacity Progressive drafts waiting for an upgrade at most (app.progressive.queue-capacity)
      */
     public PromptEnhancementServiceImpl(PromptTemplateBuilder templateBuilder, 
                                       LangChain4jService aiService,
-                                      UserRepository userRepository,
-                                      PromptRepository promptRepository,
-                                      EnhancementRecordRepository enhancementRecordRepository) {
+                                      HistoryStore historyStore,
+                                      UsageStatsService usageStatsService,
+                                      EnhancementMetrics metrics,
+                                      ApplicationEventPublisher eventPublisher,
+                                      SimilarPromptFinder similarPrompts,
+                                      PromptTriage triage,
+                                      RuleBasedEnhancer ruleBasedEnhancer,
+                                      LongPromptEnhancer longPrompts,
+                                      TokenBudget tokenBudget,
+                                      StylePregenerator pregenerator,
+                                      @Value("${app.progressive.concurrency:16}") int upgradeConcurrency,
+                                      @Value("${app.progressive.queue-capacity:256}") int upgradeQueueCapacity) {
         this.templateBuilder = templateBuilder;
         this.aiService = aiService;
-        this.userRepository = userRepository;
-        this.promptRepository = promptRepository;
-        this.enhancementRecordRepository = enhancementRecordRepository;
+        this.historyStore = historyStore;
+        this.usageStatsService = usageStatsService;
+        this.metrics = metrics;
+        this.eventPublisher = eventPublisher;
+        this.similarPrompts = similarPrompts;
+        this.triage = triage;
+        this.ruleBasedEnhancer = ruleBasedEnhancer;
+        this.longPrompts = longPrompts;
+        this.tokenBudget = tokenBudget;
+        this.pregenerator = pregenerator;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.upgradeWorkers = new ThreadPoolExecutor(upgradeConcurrency, upgradeConcurrency, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(upgradeQueueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "progressive-upgrade-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.upgradeWorkers.allowCoreThreadTimeOut(true);
     }
 
     /**
-     * Enhances a user prompt and stores the enhancement history in the database.
+     * Enhances a user prompt and stores the enhancement history.
      * This method handles the complete enhancement workflow including:
-     * 1. User lookup/creation
-     * 2. Prompt template building
-     * 3. AI enhancement
-     * 4. Database storage of original prompt and enhanced result
+     * 1. Triage: prompts that are already well structured are returned as is,
+     *    short prompts get the rule-based enhancement
+     * 2. Prompt template building, with the prompt trimmed to the input token budget
+     * 3. AI enhancement, in concurrent parts for long prompts, or reuse of a
+     *    variant prepared in advance or of the enhancement of a near-duplicate
+     *    earlier prompt; prompts enhanced by one model call have their other
+     *    styles prepared in the background
+     * 4. Storage of original prompt and enhanced result
      * 
      * @param request The prompt enhancement request containing original text, style, and context
      * @return Enhanced prompt response with success status and enhanced text
      */
     @Override
     public PromptResponse enhancePrompt(PromptRequest request) {
-        logger.info("Starting prompt enhancement - style: {}, context: {}, text length: {}", 
+        return enhancePrompt(request, null);
+    }
+
+    @Override
+    public PromptResponse enhancePrompt(PromptRequest request, Consumer<String> onToken) {
+        return metrics.request(request.getStyle(), request.getContext(), request.getOriginalText().length(),
+                () -> doEnhancePrompt(request, null, onToken), PromptResponse::isSuccess);
+    }
+
+    /**
+     * Enhances a user prompt progressively. Prompts that triage sends to the
+     * model get the rule-based draft at once, stored in history; the full
+     * pipeline runs in the background and its result replaces the draft in
+     * the stored record. Other prompts are enhanced as usual, since that does
+     * not wait for the model either. When too many upgrades are queued, the
+     * draft is the final response.
+     *
+     * @param request The prompt enhancement request containing original text, style, and context
+     * @return The draft and the pending AI version, or a final response
+     */
+    @Override
+    public ProgressiveEnhancement enhancePromptProgressively(PromptRequest request) {
+        PromptTriage.Decision decision = triage(request.getOriginalText());
+        if (decision.route() != PromptTriage.Route.MODEL || !aiService.isModelAvailable()) {
+            return new ProgressiveEnhancement(metrics.request(request.getStyle(), request.getContext(),
+                    request.getOriginalText().length(), () -> doEnhancePrompt(request, decision, null),
+                    PromptResponse::isSuccess), null);
+        }
+
+        PromptResponse draft = metrics.stage(EnhancementMetrics.STAGE_PROGRESSIVE_DRAFT, () -> storeDraft(request));
+        if (!draft.isSuccess()) {
+            return new ProgressiveEnhancement(draft, null);
+        }
+        long recordId = draft.getRecordId();
+        try {
+            CompletableFuture<PromptResponse> upgrade = CompletableFuture.supplyAsync(UsageLedger.bind(
+                    () -> metrics.request(request.getStyle(), request.getContext(), request.getOriginalText().length(),
+                            () -> upgradeDraft(request, decision, recordId), PromptResponse::isSuccess)),
+                    upgradeWorkers);
+            return new ProgressiveEnhancement(draft, upgrade);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Upgrade queue is full, keeping draft {} as the final enhancement", recordId);
+            publishDraft(recordId);
+            draft.setMessage("Server busy; enhanced without the AI model");
+            return new ProgressiveEnhancement(draft, null);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        upgradeWorkers.shutdownNow();
+    }
+
+    private PromptResponse storeDraft(PromptRequest request) {
+        try {
+            String draftText = ruleBasedEnhancer.generateEnhancement(request.getOriginalText(), request.getStyle());
+            HistoryEntry unsaved = HistoryEntry.unsaved(
+                    request.getOriginalText(), request.getStyle(), request.getContext(), draftText, false);
+            HistoryEntry entry = metrics.persistence("append", () -> historyStore.append(UsageAccount.DEFAULT_USER, unsaved));
+            usageStatsService.record(request.getStyle(), request.getContext());
+            logger.debug("Saved draft enhancement with ID: {}", entry.getId());
+
+            PromptResponse response = new PromptResponse(true, draftText, "Draft ready; the AI enhancement follows");
+            response.setRecordId(entry.getId());
+            return response;
+
+        } catch (Exception e) {
+            logger.error("Error during draft enhancement: {}", e.getMessage(), e);
+            return new PromptResponse(false, null, "Enhancement failed: " + e.getMessage());
+        }
+    }
+
+    // The HistoryAppendedEvent is published once the record holds the final text, or the draft is kept
+    private PromptResponse upgradeDraft(PromptRequest request, PromptTriage.Decision decision, long recordId) {
+        boolean published = false;
+        try {
+            Enhancement enhancement = enhance(request, decision, null);
+            HistoryEntry entry = metrics.persistence("replaceEnhancedText",
+                    () -> historyStore.replaceEnhancedText(recordId, enhancement.text(), enhancement.modelAnswer()))
+                    .orElseThrow(() -> new IllegalStateException("Draft " + recordId + " is no longer stored"));
+            published = true;
+            eventPublisher.publishEvent(new HistoryAppendedEvent(entry));
+            logger.debug("Replaced draft {} with the final enhancement", recordId);
+
+            PromptResponse response = new PromptResponse(true, enhancement.text(), enhancement.message());
+            response.setRecordId(recordId);
+            return response;
+
+        } catch (Exception e) {
+            logger.error("Error during draft upgrade, keeping the draft: {}", e.getMessage(), e);
+            if (!published) {
+                publishDraft(recordId);
+            }
+            return new PromptResponse(false, null, "Enhancement failed: " + e.getMessage());
+        }
+    }
+
+    // Publishes a draft that stays the final text, so listeners still see the history entry
+    private void publishDraft(long recordId) {
+        try {
+            metrics.persistence("findById", () -> historyStore.findById(recordId))
+                    .ifPresent(entry -> eventPublisher.publishEvent(new HistoryAppendedEvent(entry)));
+        } catch (Exception e) {
+            logger.warn("Could not publish kept draft {}: {}", recordId, e.getMessage());
+        }
+    }
+
+    private PromptResponse doEnhancePrompt(PromptRequest request, PromptTriage.Decision decision,
+                                           Consumer<String> onToken) {
+        logger.debug("Starting prompt enhancement - style: {}, context: {}, text length: {}", 
                    request.getStyle(), request.getContext(), request.getOriginalText().length());
 
         try {
-            // Step 1: Get or create default user for demo purposes
-            User user = getOrCreateDefaultUser();
-            
-            // Step 2: Build the enhancement prompt template
-            String promptTemplate = templateBuilder.buildEnhancementPrompt(
-                    request.getOriginalText(), request.getStyle(), request.getContext()
-            );
-            logger.debug("Built prompt template with length: {}", promptTemplate.length());
-
-            // Step 3: Enhance the text using AI service
-            String enhancedText = aiService.enhanceText(promptTemplate);
-            logger.debug("AI enhancement completed, result length: {}", enhancedText.length());
-
-            // Step 4: Store the original prompt in database
-            Prompt prompt = createAndSavePrompt(user, request);
-            logger.debug("Saved original prompt with ID: {}", prompt.getId());
-
-            // Step 5: Store the enhancement record in database
-            EnhancementRecord record = createAndSaveEnhancementRecord(prompt, enhancedText);
-            logger.debug("Saved enhancement record with ID: {}", record.getId());
-
-            logger.info("Prompt enhancement completed successfully for prompt ID: {}", prompt.getId());
-            return new PromptResponse(true, enhancedText, "Enhancement completed successfully");
+            Enhancement enhancement = enhance(request, decision, onToken);
+            String enhancedText = enhancement.text();
+
+            // Step 4: Store the original prompt and its enhancement (user is resolved by the store)
+            HistoryEntry unsaved = HistoryEntry.unsaved(request.getOriginalText(), request.getStyle(),
+                    request.getContext(), enhancedText, enhancement.modelAnswer());
+            HistoryEntry entry = metrics.persistence("append", () -> historyStore.append(UsageAccount.DEFAULT_USER, unsaved));
+            logger.debug("Saved enhancement with ID: {}", entry.getId());
+            eventPublisher.publishEvent(new HistoryAppendedEvent(entry));
+
+            // Step 5: Count the enhancement for usage statistics
+            usageStatsService.record(request.getStyle(), request.getContext());
+
+            logger.debug("Prompt enhancement completed successfully for prompt ID: {}", entry.getPromptId());
+            PromptResponse response = new PromptResponse(true, enhancedText, enhancement.message());
+            response.setRecordId(entry.getId());
+            return response;
 
         } catch (Exception e) {
             logger.error("Error during prompt enhancement: {}", e.getMessage(), e);
@@ -113,59 +273,84 @@ public class PromptEnhancementServiceImpl implements PromptEnhancementService {
         }
     }
 
-    /**
-     * Retrieves the default demo user or creates one if it doesn't exist.
-     * This is a temporary solution for Week 1 before user authentication is implemented.
-     * 
-     * @return The default demo user entity
-     */
-    private User getOrCreateDefaultUser() {
-        return userRepository.findByEmail(DEFAULT_USER_EMAIL)
-                .orElseGet(() -> {
-                    logger.info("Creating default demo user: {}", DEFAULT_USER_EMAIL);
-                    User newUser = new User();
-                    newUser.setEmail(DEFAULT_USER_EMAIL);
-                    newUser.setName("Demo User");
-                    return userRepository.save(newUser);
-                });
-    }
+    // decision is null unless triage already ran for this request
+    private Enhancement enhance(PromptRequest request, PromptTriage.Decision decision, Consumer<String> onToken) {
+        String originalText = request.getOriginalText();
 
-    /**
-     * Creates and saves a new Prompt entity based on the enhancement request.
-     * 
-     * @param user The user who submitted the prompt
-     * @param request The original prompt enhancement request
-     * @return The saved Prompt entity with generated ID
-     */
-    private Prompt createAndSavePrompt(User user, PromptRequest request) {
-        Prompt prompt = new Prompt();
-        prompt.setUser(user);
-        prompt.setOriginalText(request.getOriginalText());
-        prompt.setStyle(request.getStyle());
-        prompt.setContext(request.getContext());
-        
-        return promptRepository.save(prompt);
+        // Step 1: Triage, which keeps prompts the model would not improve away from it
+        if (decision == null) {
+            decision = triage(originalText);
+        }
+
+        if (decision.route() == PromptTriage.Route.AS_IS) {
+            return new Enhancement(originalText, "Prompt is already well structured; returned unchanged", false);
+        }
+        if (decision.route() == PromptTriage.Route.RULE_BASED) {
+            return new Enhancement(ruleBasedEnhancer.generateEnhancement(originalText, request.getStyle()),
+                    "Short prompt enhanced without the AI model", false);
+        }
+
+        Optional<String> prepared = pregenerator.take(originalText, request.getStyle(), request.getContext());
+        if (prepared.isPresent()) {
+            // This style was generated speculatively after the prompt was enhanced in another one
+            metrics.reuse(EnhancementMetrics.REUSE_SPECULATIVE, request.getStyle());
+            return new Enhancement(prepared.get(), "Enhancement prepared in advance for this style", true);
+        }
+
+        Optional<SimilarPromptFinder.SimilarEnhancement> similar = metrics.stage(
+                EnhancementMetrics.STAGE_SIMILARITY_LOOKUP,
+                () -> similarPrompts.find(originalText, request.getStyle(), request.getContext()));
+        if (similar.isPresent()) {
+            // A near-duplicate prompt was enhanced before; skip the model call
+            metrics.reuse(EnhancementMetrics.REUSE_SIMILAR_PROMPT, request.getStyle());
+            logger.debug("Reusing enhancement {} for a similar prompt", similar.get().entry().getId());
+            return new Enhancement(similar.get().entry().getEnhancedText(),
+                    String.format("Reused the enhancement of a similar prompt (similarity %.2f)",
+                            similar.get().similarity()), false);
+        }
+
+        // Steps 2 and 3 for long prompts: enhance parts concurrently and join them
+        Optional<LangChain4jService.EnhancedText> inParts =
+                longPrompts.enhance(originalText, request.getStyle(), request.getContext(), onToken);
+        if (inParts.isPresent()) {
+            return new Enhancement(inParts.get().text(), "Enhancement completed successfully",
+                    inParts.get().modelAnswer());
+        }
+
+        // Step 2: Build the enhancement prompt template; history keeps the untrimmed prompt
+        String promptTemplate = metrics.stage(EnhancementMetrics.STAGE_TEMPLATE_BUILD,
+                () -> templateBuilder.buildEnhancementPrompt(
+                        tokenBudget.fitInput(originalText, request.getStyle(), request.getContext()),
+                        request.getStyle(), request.getContext()));
+        logger.debug("Built prompt template with length: {}", promptTemplate.length());
+
+        // Step 3: Enhance the text using AI service
+        LangChain4jService.EnhancedText enhanced =
+                aiService.enhance(promptTemplate, request.getStyle(), request.getContext(), onToken);
+        logger.debug("AI enhancement completed, result length: {}", enhanced.text().length());
+        if (enhanced.modelAnswer()) {
+            // A fallback means the model is failing; don't queue more calls to it
+            pregenerator.schedule(originalText, request.getStyle(), request.getContext());
+        }
+        return new Enhancement(enhanced.text(), "Enhancement completed successfully", enhanced.modelAnswer());
     }
 
-    /**
-     * Creates and saves a new EnhancementRecord entity linking the original prompt
-     * with its enhanced version.
-     * 
-     * @param prompt The original prompt entity
-     * @param enhancedText The AI-enhanced version of the prompt
-     * @return The saved EnhancementRecord entity with generated ID
-     */
-    private EnhancementRecord createAndSaveEnhancementRecord(Prompt prompt, String enhancedText) {
-        EnhancementRecord record = new EnhancementRecord();
-        record.setPrompt(prompt);
-        record.setEnhancedText(enhancedText);
-        
-        return enhancementRecordRepository.save(record);
+    // modelAnswer: the model answered this prompt, so the text may be reused for similar prompts
+    private record Enhancement(String text, String message, boolean modelAnswer) {}
+
+    private PromptTriage.Decision triage(String originalText) {
+        PromptTriage.Decision decision = metrics.stage(EnhancementMetrics.STAGE_TRIAGE,
+                () -> triage.triage(originalText));
+        metrics.triage(decision.route().name().toLowerCase(Locale.ROOT), decision.reason(),
+                decision.route() != PromptTriage.Route.MODEL);
+        logger.debug("Triage routed prompt to {} ({}, {} words, {} sections)",
+                   decision.route(), decision.reason(), decision.words(), decision.sections());
+        return decision;
     }
 
     /**
      * Retrieves recent prompt enhancement history for display in the frontend.
-     * This method queries the database for recent prompts and their most recent enhancements,
+     * This method queries the history store for recent prompts and their most recent enhancements,
      * returning them in chronological order (newest first).
      *
      * @param limit Maximum number of history items to return
@@ -173,37 +358,32 @@ public class PromptEnhancementServiceImpl implements PromptEnhancementService {
      */
     @Override
     public PromptHistoryResponse getPromptHistory(int limit) {
-        logger.info("Retrieving prompt history - limit: {}", limit);
+        logger.debug("Retrieving prompt history - limit: {}", limit);
 
         try {
-            // Create pageable request with sorting and limit
-            Pageable pageable = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "createdAt"));
-
-            // Query for recent enhancement records with their associated prompts
-            // Using Pageable to limit at database level for efficiency
-            List<EnhancementRecord> recentRecords = enhancementRecordRepository.findAll(pageable).getContent();
+            List<HistoryEntry> recentEntries = metrics.persistence("findLatest", () -> historyStore.findLatest(limit));
 
-            logger.info("Found {} enhancement records in database", recentRecords.size());
+            logger.debug("Found {} enhancement records in history", recentEntries.size());
 
             // Convert to DTO format for frontend consumption
-            List<PromptHistoryResponse.HistoryItem> historyItems = recentRecords.stream()
-                .map(record -> {
-                    logger.debug("Processing record ID: {}, prompt: {}", record.getId(), record.getPrompt().getOriginalText());
+            List<PromptHistoryResponse.HistoryItem> historyItems = recentEntries.stream()
+                .map(entry -> {
+                    logger.debug("Processing record ID: {}", entry.getId());
                     return new PromptHistoryResponse.HistoryItem(
-                        record.getPrompt().getId(),
-                        record.getPrompt().getOriginalText(),
-                        record.getPrompt().getStyle().name(),
-                        record.getPrompt().getContext().name(),
-                        record.getEnhancedText(),
-                        record.getCreatedAt()
+                        entry.getPromptId(),
+                        entry.getOriginalText(),
+                        entry.getStyle().name(),
+                        entry.getContext().name(),
+                        entry.getEnhancedText(),
+                        entry.getCreatedAt()
                     );
                 })
                 .toList();
 
-            logger.info("Successfully created {} history items", historyItems.size());
+            logger.debug("Successfully created {} history items", historyItems.size());
 
             PromptHistoryResponse response = new PromptHistoryResponse(historyItems, historyItems.size());
-            logger.info("Created response with success: {}, totalCount: {}", response.isSuccess(), response.getTotalCount());
+            logger.debug("Created response with success: {}, totalCount: {}", response.isSuccess(), response.getTotalCount());
 
             return response;
 
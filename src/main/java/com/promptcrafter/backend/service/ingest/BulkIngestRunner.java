@@ -0,0 +1,121 @@
+package com.promptcrafter.backend.service.ingest;
+
+import com.promptcrafter.backend.dto.IngestReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Command-line entry point for bulk ingest of a JSONL file.
+ *
+ * Only active when app.ingest.input is set, for example:
+ * java -jar app.jar --spring.main.web-application-type=none --app.ingest.input=corpus.jsonl
+ *
+ * Configuration:
+ * - app.ingest.input: JSONL file to enhance (required)
+ * - app.ingest.output: JSONL results file (default: input + ".out.jsonl")
+ * - app.ingest.checkpoint: Progress file used to resume after a crash (default: output + ".checkpoint")
+ *
+ * The checkpoint records the last fully written input line and the output
+ * size at that point. On restart the output is truncated back to that size and
+ * processing resumes with the next line, so the output never contains
+ * duplicates. Items of the batch that was in progress during a crash may be
+ * persisted twice. The checkpoint is deleted once a run completes, so the next
+ * run with the same paths starts from the first line again.
+ *
+ * Without a web server the application is closed once the run completes;
+ * otherwise the scheduler threads would keep the JVM running.
+ */
+@Component
+@ConditionalOnProperty(name = "app.ingest.input")
+public class BulkIngestRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkIngestRunner.class);
+
+    private final BulkIngestService ingestService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${app.ingest.input}")
+    private Path input;
+
+    @Value("${app.ingest.output:}")
+    private String output;
+
+    @Value("${app.ingest.checkpoint:}")
+    private String checkpoint;
+
+    public BulkIngestRunner(BulkIngestService ingestService, ConfigurableApplicationContext context) {
+        this.ingestService = ingestService;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        Path outputPath = Path.of(output.isBlank() ? input + ".out.jsonl" : output);
+        Path checkpointPath = Path.of(checkpoint.isBlank() ? outputPath + ".checkpoint" : checkpoint);
+
+        long resumeAfterLine = 0;
+        long outputSize = 0;
+        if (Files.exists(checkpointPath)) {
+            String[] parts = Files.readString(checkpointPath).trim().split("\\s+");
+            resumeAfterLine = Long.parseLong(parts[0]);
+            outputSize = Long.parseLong(parts[1]);
+            logger.info("Resuming bulk ingest of {} after line {}", input, resumeAfterLine);
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             FileChannel channel = FileChannel.open(outputPath,
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+
+            // Drop anything written after the last checkpoint
+            channel.truncate(outputSize);
+            channel.position(outputSize);
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 65536);
+
+            IngestReport report = ingestService.ingest(reader, out, resumeAfterLine,
+                    lastLine -> writeCheckpoint(checkpointPath, lastLine, channel));
+            out.flush();
+            channel.force(false);
+            Files.deleteIfExists(checkpointPath);
+
+            logger.info("Bulk ingest of {} finished, results in {} - {}", input, outputPath, report);
+        }
+        if (!(context instanceof WebServerApplicationContext)) {
+            context.close();
+        }
+    }
+
+    /**
+     * Atomically replaces the checkpoint file. Called after each batch has been
+     * flushed to the output, so the recorded size covers only complete lines.
+     */
+    private void writeCheckpoint(Path checkpointPath, long lastLine, FileChannel channel) {
+        try {
+            channel.force(false);
+            Path temp = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+            Files.writeString(temp, lastLine + " " + channel.position());
+            Files.move(temp, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write ingest checkpoint", e);
+        }
+    }
+}
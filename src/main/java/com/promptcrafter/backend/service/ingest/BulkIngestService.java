@@ -0,0 +1,364 @@
+package com.promptcrafter.backend.service.ingest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promptcrafter.backend.dto.IngestReport;
+import com.promptcrafter.backend.dto.PromptRequest;
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.service.ai.LangChain4jService;
+import com.promptcrafter.backend.service.ai.TokenBudget;
+import com.promptcrafter.backend.service.history.HistoryEntry;
+import com.promptcrafter.backend.service.history.HistoryStore;
+import com.promptcrafter.backend.service.metrics.EnhancementMetrics;
+import com.promptcrafter.backend.service.stats.UsageAccount;
+import com.promptcrafter.backend.service.stats.UsageLedger;
+import com.promptcrafter.backend.service.stats.UsageStatsService;
+import com.promptcrafter.backend.templates.PromptTemplateBuilder;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Runs JSONL prompt corpora through the enhancer in bulk.
+ *
+ * Each input line is a JSON object with the same fields as a /api/rewrite
+ * request ({@code originalText}, {@code style}, optional {@code context}) and
+ * an optional {@code id} that is copied to the output. The pipeline has three
+ * bounded stages:
+ * 1. A reader thread parses lines and submits them to the worker pool
+ * 2. A fixed pool of workers enhances prompts (limits upstream concurrency)
+ * 3. The calling thread collects results in input order, persists them in
+ *    batches through the HistoryStore, writes one output line per input line and reports a checkpoint
+ *
+ * Backpressure comes from the in-flight queue: the reader blocks once
+ * max-in-flight items are queued, running or waiting to be written, so memory
+ * stays bounded no matter how large the input is.
+ *
+ * Model usage on the worker threads is charged to the usage account bound on
+ * the calling thread.
+ *
+ * Configuration:
+ * - app.ingest.concurrency: Number of concurrent enhancements (default: 4)
+ * - app.ingest.max-in-flight: Maximum items between reader and writer (default: 64)
+ * - app.ingest.batch-size: Items persisted per transaction (default: 50)
+ */
+@Service
+public class BulkIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkIngestService.class);
+
+    // Marks the end of input in the in-flight queue
+    private static final CompletableFuture<ItemResult> END_OF_INPUT = CompletableFuture.completedFuture(null);
+
+    private final PromptTemplateBuilder templateBuilder;
+    private final LangChain4jService aiService;
+    private final TokenBudget tokenBudget;
+    private final HistoryStore historyStore;
+    private final UsageStatsService usageStatsService;
+    private final EnhancementMetrics metrics;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${app.ingest.concurrency:4}")
+    private int concurrency;
+
+    @Value("${app.ingest.max-in-flight:64}")
+    private int maxInFlight;
+
+    @Value("${app.ingest.batch-size:50}")
+    private int batchSize;
+
+    public BulkIngestService(PromptTemplateBuilder templateBuilder,
+                             LangChain4jService aiService,
+                             TokenBudget tokenBudget,
+                             HistoryStore historyStore,
+                             UsageStatsService usageStatsService,
+                             EnhancementMetrics metrics,
+                             ObjectMapper objectMapper,
+                             Validator validator) {
+        this.templateBuilder = templateBuilder;
+        this.aiService = aiService;
+        this.tokenBudget = tokenBudget;
+        this.historyStore = historyStore;
+        this.usageStatsService = usageStatsService;
+        this.metrics = metrics;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    /**
+     * Enhances every line of the input and writes one JSON result line per input line.
+     *
+     * @param input JSONL input, read line by line
+     * @param output Destination for JSONL results (flushed after every batch, not closed)
+     * @param resumeAfterLine Lines up to and including this number are skipped (0 to start fresh)
+     * @param checkpoint Called with the last fully written line number after every batch
+     * @return Summary of the run
+     * @throws IOException if reading the input or writing the output fails
+     */
+    public IngestReport ingest(BufferedReader input, OutputStream output, long resumeAfterLine,
+                               LongConsumer checkpoint) throws IOException {
+        logger.info("Starting bulk ingest - concurrency: {}, max in flight: {}, batch size: {}, resume after line: {}",
+                   concurrency, maxInFlight, batchSize, resumeAfterLine);
+
+        long start = System.nanoTime();
+        BlockingQueue<CompletableFuture<ItemResult>> inFlight = new ArrayBlockingQueue<>(maxInFlight);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency, namedThreads("ingest-worker-"));
+        AtomicLong linesRead = new AtomicLong();
+        AtomicLong linesSkipped = new AtomicLong();
+        UsageAccount account = UsageLedger.current();
+        Thread reader = new Thread(() -> {
+            try (UsageLedger.Scope scope = UsageLedger.open(account)) {
+                readLines(input, inFlight, workers, resumeAfterLine, linesRead, linesSkipped);
+            }
+        }, "ingest-reader");
+        reader.setDaemon(true);
+
+        long succeeded = 0;
+        long failed = 0;
+        try {
+            reader.start();
+
+            List<ItemResult> batch = new ArrayList<>(batchSize);
+            while (true) {
+                CompletableFuture<ItemResult> next = inFlight.take();
+                if (next == END_OF_INPUT) {
+                    break;
+                }
+                ItemResult result = awaitResult(next);
+                if (result.error == null) {
+                    succeeded++;
+                } else {
+                    failed++;
+                }
+                batch.add(result);
+
+                if (batch.size() >= batchSize) {
+                    commitBatch(batch, output, checkpoint);
+                    logProgress(start, succeeded, failed);
+                }
+            }
+            commitBatch(batch, output, checkpoint);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Bulk ingest interrupted", e);
+        } finally {
+            reader.interrupt();
+            workers.shutdownNow();
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        IngestReport report = new IngestReport(linesRead.get(), linesSkipped.get(), succeeded, failed, elapsedMillis,
+                concurrency, maxInFlight, batchSize);
+        logger.info("Bulk ingest completed - {}", report);
+        return report;
+    }
+
+    /**
+     * Reader stage: parses lines and submits them to the workers, blocking while
+     * the in-flight queue is full.
+     */
+    private void readLines(BufferedReader input, BlockingQueue<CompletableFuture<ItemResult>> inFlight,
+                           ExecutorService workers, long resumeAfterLine,
+                           AtomicLong linesRead, AtomicLong linesSkipped) {
+        long lineNumber = 0;
+        try {
+            String line;
+            while ((line = input.readLine()) != null) {
+                lineNumber = linesRead.incrementAndGet();
+                if (lineNumber <= resumeAfterLine) {
+                    linesSkipped.incrementAndGet();
+                    continue;
+                }
+                long itemLine = lineNumber;
+                String itemText = line;
+                inFlight.put(CompletableFuture.supplyAsync(
+                        UsageLedger.bind(() -> process(itemLine, itemText)), workers));
+            }
+            inFlight.put(END_OF_INPUT);
+        } catch (IOException e) {
+            logger.error("Failed to read ingest input at line {}: {}", lineNumber, e.getMessage());
+            try {
+                inFlight.put(CompletableFuture.failedFuture(new IngestReadException(e)));
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for the next result in input order, rethrowing input read failures.
+     */
+    private ItemResult awaitResult(CompletableFuture<ItemResult> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IngestReadException readException) {
+                throw readException.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Worker stage: parses, validates and enhances a single line.
+     */
+    private ItemResult process(long lineNumber, String line) {
+        ItemResult result = new ItemResult(lineNumber);
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            if (node == null || !node.isObject()) {
+                result.error = "Line is not a JSON object";
+                return result;
+            }
+            result.id = node.hasNonNull("id") ? node.get("id").asText() : null;
+
+            PromptRequest request = new PromptRequest(
+                    node.path("originalText").asText(null),
+                    node.hasNonNull("style") ? EnhancementStyle.fromString(node.get("style").asText()) : null,
+                    node.hasNonNull("context") ? ContextType.fromString(node.get("context").asText()) : null);
+            Set<ConstraintViolation<PromptRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                ConstraintViolation<PromptRequest> violation = violations.iterator().next();
+                result.error = violation.getPropertyPath() + ": " + violation.getMessage();
+                return result;
+            }
+
+            result.request = request;
+            LangChain4jService.EnhancedText enhanced = metrics.request(request.getStyle(), request.getContext(),
+                    request.getOriginalText().length(), () -> {
+                        // Trimmed to the input token budget like interactive requests; history keeps the full prompt
+                        String promptTemplate = metrics.stage(EnhancementMetrics.STAGE_TEMPLATE_BUILD,
+                                () -> templateBuilder.buildEnhancementPrompt(
+                                        tokenBudget.fitInput(request.getOriginalText(), request.getStyle(),
+                                                request.getContext()),
+                                        request.getStyle(), request.getContext()));
+                        return aiService.enhance(promptTemplate, request.getStyle(), request.getContext(), null);
+                    }, text -> text.text() != null);
+            result.enhancedText = enhanced.text();
+            result.modelAnswer = enhanced.modelAnswer();
+            if (result.enhancedText == null) {
+                result.error = "Enhancement produced no text";
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            result.error = "Invalid line: " + e.getMessage();
+        } catch (Exception e) {
+            logger.warn("Enhancement failed for ingest line {}: {}", lineNumber, e.getMessage());
+            result.error = "Enhancement failed: " + e.getMessage();
+        }
+        return result;
+    }
+
+    /**
+     * Writer stage: persists the successful items of a batch as one unit of work,
+     * then writes all result lines and reports the checkpoint.
+     */
+    private void commitBatch(List<ItemResult> batch, OutputStream output, LongConsumer checkpoint) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<ItemResult> toPersist = batch.stream().filter(r -> r.error == null).toList();
+        if (!toPersist.isEmpty()) {
+            List<HistoryEntry> entries = toPersist.stream()
+                    .map(r -> HistoryEntry.unsaved(r.request.getOriginalText(), r.request.getStyle(),
+                            r.request.getContext(), r.enhancedText, r.modelAnswer))
+                    .toList();
+            metrics.persistence("appendAll", () -> historyStore.appendAll(UsageAccount.DEFAULT_USER, entries));
+            toPersist.forEach(r -> usageStatsService.record(r.request.getStyle(), r.request.getContext()));
+        }
+
+        for (ItemResult result : batch) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("line", result.lineNumber);
+            if (result.id != null) {
+                line.put("id", result.id);
+            }
+            line.put("success", result.error == null);
+            if (result.error == null) {
+                line.put("style", result.request.getStyle());
+                line.put("context", result.request.getContext());
+                line.put("enhancedText", result.enhancedText);
+            } else {
+                line.put("message", result.error);
+            }
+            output.write(objectMapper.writeValueAsBytes(line));
+            output.write('\n');
+        }
+        output.flush();
+
+        checkpoint.accept(batch.get(batch.size() - 1).lineNumber);
+        batch.clear();
+    }
+
+    private void logProgress(long start, long succeeded, long failed) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        logger.info("Bulk ingest progress - {} succeeded, {} failed, {} items/s",
+                   succeeded, failed, String.format("%.2f", (succeeded + failed) / Math.max(seconds, 1e-3)));
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Result of processing one input line.
+     */
+    private static final class ItemResult {
+        private final long lineNumber;
+        private String id;
+        private PromptRequest request;
+        private String enhancedText;
+        private boolean modelAnswer;
+        private String error;
+
+        private ItemResult(long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+    }
+
+    /**
+     * Carries an input read failure from the reader thread to the writer.
+     */
+    private static final class IngestReadException extends RuntimeException {
+        private IngestReadException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+}
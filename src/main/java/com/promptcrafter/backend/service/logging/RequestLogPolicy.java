@@ -0,0 +1,69 @@
+package com.promptcrafter.backend.service.logging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides what the request path logs.
+ *
+ * Successful requests write one summary line, sampled at the configured rate.
+ * Warnings and errors are never sampled and keep their stack traces. Prompt and
+ * enhancement text is logged as its length plus a short SHA-256 prefix, so
+ * identical prompts can still be correlated without writing user text.
+ *
+ * Configuration:
+ * - app.logging.sample-rate: Fraction of successful requests logged, 0.0 to 1.0 (default: 1.0)
+ * - app.logging.redact-prompts: Replace prompt text with length and hash (default: true)
+ */
+@Component
+public class RequestLogPolicy {
+
+    private static final int HASH_BYTES = 6;
+
+    private final double sampleRate;
+    private final boolean redactPrompts;
+
+    public RequestLogPolicy(@Value("${app.logging.sample-rate:1.0}") double sampleRate,
+                            @Value("${app.logging.redact-prompts:true}") boolean redactPrompts) {
+        this.sampleRate = Math.max(0, Math.min(1, sampleRate));
+        this.redactPrompts = redactPrompts;
+    }
+
+    /**
+     * @return Whether this request's success line should be written
+     */
+    public boolean sampled() {
+        return sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    /**
+     * Describes user text for a log line.
+     *
+     * @param text Prompt or enhancement text, may be null
+     * @return "len=N sha=xxxxxxxxxxxx" when redacting, otherwise the text itself
+     */
+    public String describe(String text) {
+        if (text == null) {
+            return "len=0";
+        }
+        if (!redactPrompts) {
+            return text;
+        }
+        return "len=" + text.length() + " sha=" + hash(text);
+    }
+
+    private static String hash(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, HASH_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.promptcrafter.backend.service.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event for one stage of the enhancement pipeline.
+ *
+ * Emitted by {@link EnhancementMetrics} for the whole request and for each
+ * stage inside it (template build, model call, response cleaning, fallback,
+ * user resolution, persistence). Stage events carry the style, context and
+ * text length of the request running on the same thread, so they can be
+ * grouped by request shape in JDK Mission Control.
+ *
+ * Events cost almost nothing when no recording is running.
+ */
+@Name("com.promptcrafter.EnhancementStage")
+@Label("Enhancement Stage")
+@Category({"PromptCrafter", "Enhancement"})
+@Description("One stage of the prompt enhancement pipeline")
+@StackTrace(false)
+public class EnhancementEvent extends Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Detail")
+    @Description("Stage specific detail: store operation, model name or fallback reason")
+    String detail;
+
+    @Label("Style")
+    String style;
+
+    @Label("Context")
+    String context;
+
+    @Label("Text Length")
+    @Description("Length of the original prompt in characters")
+    int textLength;
+
+    @Label("Outcome")
+    String outcome;
+}
@@ -0,0 +1,400 @@
+package com.promptcrafter.backend.service.metrics;
+
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.service.stats.LatencyTracker;
+import com.promptcrafter.backend.service.stats.UsageLedger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Central place for the meters of the enhancement pipeline, so meter names and
+ * tags stay consistent across the services that record them.
+ *
+ * Meters:
+ * - promptcrafter.enhance.stage (timer, tag stage): user.resolve, triage, similarity.lookup,
+ *   long_prompt.split, template.build, response.clean, progressive.draft
+ * - promptcrafter.model.latency (timer, tags provider/model/style/context/outcome): upstream model calls
+ * - promptcrafter.enhance.fallback (timer, tags reason/style): rule-based fallback generation
+ * - promptcrafter.enhance.reuse (counter, tags source/style): enhancements served without a model call
+ * - promptcrafter.enhance.triage (counter, tags route/reason): triage routing decisions
+ * - promptcrafter.refine.session (counter, tag source): refinement turns by where the session came from
+ * - promptcrafter.speculative (counter, tag outcome): speculative style variants; hit rate is
+ *   hit / generated, wasted work is (preempted + failed + unused) / started
+ * - promptcrafter.ratelimit.rejected (counter, tag path): requests refused with 429 by the per-client rate limit
+ * - promptcrafter.persistence (timer, tags store/operation): each HistoryStore call
+ * - promptcrafter.model.prompt.chars / completion.chars (counters, tag model)
+ * - promptcrafter.model.prompt.tokens / completion.tokens (counters, tag model): when the provider reports usage
+ * - promptcrafter.model.prompt.tokens.estimated (counter, tag model): local count before the call
+ * - promptcrafter.model.tokens (summary, tags kind/style): tokens per call, kind estimated_input, input or output
+ *
+ * Every timed section also emits an {@link EnhancementEvent} for JDK Flight
+ * Recorder. Sections running inside {@link #request} inherit its style,
+ * context and text length. Whole requests are also recorded in the
+ * {@link LatencyTracker} rolling windows. Requests, fallbacks and model
+ * tokens are also charged to the current account in the {@link UsageLedger}.
+ *
+ * Histogram buckets for the timers are enabled in application.properties via
+ * management.metrics.distribution.percentiles-histogram.promptcrafter.
+ */
+@Component
+public class EnhancementMetrics {
+
+    public static final String STAGE_USER_RESOLVE = "user.resolve";
+    public static final String STAGE_TRIAGE = "triage";
+    public static final String STAGE_SIMILARITY_LOOKUP = "similarity.lookup";
+    public static final String STAGE_LONG_PROMPT_SPLIT = "long_prompt.split";
+    public static final String STAGE_TEMPLATE_BUILD = "template.build";
+    public static final String STAGE_RESPONSE_CLEAN = "response.clean";
+    public static final String STAGE_PROGRESSIVE_DRAFT = "progressive.draft";
+
+    public static final String FALLBACK_NO_API_KEY = "no_api_key";
+    public static final String FALLBACK_MODEL_ERROR = "model_error";
+    public static final String FALLBACK_UNUSABLE_RESPONSE = "unusable_response";
+
+    public static final String REUSE_SIMILAR_PROMPT = "similar_prompt";
+    public static final String REUSE_SPECULATIVE = "speculative";
+
+    public static final String SPECULATIVE_QUEUED = "queued";
+    public static final String SPECULATIVE_DROPPED = "dropped";
+    public static final String SPECULATIVE_STARTED = "started";
+    public static final String SPECULATIVE_GENERATED = "generated";
+    public static final String SPECULATIVE_PREEMPTED = "preempted";
+    public static final String SPECULATIVE_FAILED = "failed";
+    public static final String SPECULATIVE_HIT = "hit";
+    public static final String SPECULATIVE_UNUSED = "unused";
+
+    public static final String SESSION_STORE = "store";
+    public static final String SESSION_HISTORY = "history";
+
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_ERROR = "error";
+
+    // Shape of the request running on this thread, copied into stage events
+    private static final ThreadLocal<RequestShape> CURRENT_REQUEST = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+    private final String storeName;
+    private final LatencyTracker latencyTracker;
+    private final UsageLedger usageLedger;
+
+    public EnhancementMetrics(MeterRegistry registry,
+                              @Value("${app.history.store:jpa}") String storeName,
+                              LatencyTracker latencyTracker,
+                              UsageLedger usageLedger) {
+        this.registry = registry;
+        this.storeName = storeName;
+        this.latencyTracker = latencyTracker;
+        this.usageLedger = usageLedger;
+    }
+
+    /**
+     * Marks one enhancement request. Stages recorded on this thread until it
+     * returns are attributed to it in JFR, and its latency is recorded by
+     * outcome: ERROR if it throws or does not succeed, FALLBACK if the text
+     * was produced without the model (rule-based, reused or returned as is),
+     * AI otherwise.
+     *
+     * @param style Requested enhancement style
+     * @param context Requested context
+     * @param textLength Length of the original prompt
+     * @param work The request body
+     * @param succeeded Decides the outcome from the result
+     * @return The value returned by the request body
+     */
+    public <T> T request(EnhancementStyle style, ContextType context, int textLength,
+                         Supplier<T> work, Predicate<T> succeeded) {
+        RequestShape previous = CURRENT_REQUEST.get();
+        RequestShape shape = new RequestShape(style, context, textLength);
+        CURRENT_REQUEST.set(shape);
+        usageLedger.recordRequest();
+        EnhancementEvent event = begin("request", null);
+        long start = System.nanoTime();
+        String outcome = OUTCOME_ERROR;
+        try {
+            T result = work.get();
+            outcome = succeeded.test(result) ? OUTCOME_SUCCESS : "failure";
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (style != null && context != null) {
+                LatencyTracker.Outcome latencyOutcome = !OUTCOME_SUCCESS.equals(outcome)
+                        ? LatencyTracker.Outcome.ERROR
+                        : shape.local ? LatencyTracker.Outcome.FALLBACK : LatencyTracker.Outcome.AI;
+                latencyTracker.record(style, context, latencyOutcome, elapsed);
+            }
+            commit(event, outcome);
+            CURRENT_REQUEST.set(previous);
+        }
+    }
+
+    /**
+     * Times one pipeline stage.
+     *
+     * @param stage Stage name, one of the STAGE_* constants
+     * @param work The stage body
+     * @return The value returned by the stage
+     */
+    public <T> T stage(String stage, Supplier<T> work) {
+        Timer timer = Timer.builder("promptcrafter.enhance.stage")
+                .tag("stage", stage)
+                .register(registry);
+        return timed(timer, stage, null, work);
+    }
+
+    /**
+     * Times one HistoryStore call.
+     *
+     * @param operation Store operation (append, appendAll, findLatest, scan)
+     * @param work The store call
+     * @return The value returned by the store
+     */
+    public <T> T persistence(String operation, Supplier<T> work) {
+        return timed(persistenceTimer(operation), "persistence", operation, work);
+    }
+
+    /**
+     * Records the duration of a store call that may throw checked exceptions.
+     *
+     * @param operation Store operation
+     * @param startNanos Value of System.nanoTime() when the call started
+     */
+    public void recordPersistence(String operation, long startNanos) {
+        persistenceTimer(operation).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Times one upstream model call. The outcome tag is "error" when the call throws.
+     *
+     * @param provider Model provider, e.g. "openai"
+     * @param model Model name
+     * @param style Requested enhancement style
+     * @param context Requested context
+     * @param call The model call
+     * @return The model response
+     */
+    public <T> T modelCall(String provider, String model, EnhancementStyle style, ContextType context,
+                           Supplier<T> call) {
+        EnhancementEvent event = begin("model.call", model);
+        long start = System.nanoTime();
+        String outcome = OUTCOME_ERROR;
+        try {
+            T result = call.get();
+            outcome = OUTCOME_SUCCESS;
+            return result;
+        } finally {
+            Timer.builder("promptcrafter.model.latency")
+                    .tag("provider", provider)
+                    .tag("model", model)
+                    .tag("style", style.name())
+                    .tag("context", context.name())
+                    .tag("outcome", outcome)
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            commit(event, outcome);
+        }
+    }
+
+    /**
+     * Counts prompt and completion size for one model call.
+     *
+     * @param model Model name
+     * @param style Requested enhancement style
+     * @param promptChars Characters sent
+     * @param completionChars Characters received
+     * @param estimatedPromptTokens Tokens sent, as counted locally before the call
+     * @param promptTokens Tokens sent, or null if the provider did not report usage
+     * @param completionTokens Tokens received, or null if the provider did not report usage
+     * @param estimatedCompletionTokens Tokens received as counted locally; charged when the provider did not report usage
+     */
+    public void recordModelUsage(String model, EnhancementStyle style, int promptChars, int completionChars,
+                                 int estimatedPromptTokens, Integer promptTokens, Integer completionTokens,
+                                 int estimatedCompletionTokens) {
+        counter("promptcrafter.model.prompt.chars", model).increment(promptChars);
+        counter("promptcrafter.model.completion.chars", model).increment(completionChars);
+        counter("promptcrafter.model.prompt.tokens.estimated", model).increment(estimatedPromptTokens);
+        tokens("estimated_input", style).record(estimatedPromptTokens);
+        if (promptTokens != null) {
+            counter("promptcrafter.model.prompt.tokens", model).increment(promptTokens);
+            tokens("input", style).record(promptTokens);
+        }
+        if (completionTokens != null) {
+            counter("promptcrafter.model.completion.tokens", model).increment(completionTokens);
+            tokens("output", style).record(completionTokens);
+        }
+        usageLedger.recordModelCall(promptTokens != null ? promptTokens : estimatedPromptTokens,
+                completionTokens != null ? completionTokens : estimatedCompletionTokens);
+    }
+
+    /**
+     * Times rule-based fallback generation, tagged by why it was used.
+     *
+     * @param reason One of the FALLBACK_* constants
+     * @param style Requested enhancement style
+     * @param work The fallback generator
+     * @return The fallback text
+     */
+    public String fallback(String reason, EnhancementStyle style, Supplier<String> work) {
+        Timer timer = Timer.builder("promptcrafter.enhance.fallback")
+                .tag("reason", reason)
+                .tag("style", style.name())
+                .register(registry);
+        markLocal();
+        usageLedger.recordFallback();
+        return timed(timer, "fallback", reason, work);
+    }
+
+    /**
+     * Counts one enhancement served from an earlier result instead of the model.
+     *
+     * @param source One of the REUSE_* constants
+     * @param style Requested enhancement style
+     */
+    public void reuse(String source, EnhancementStyle style) {
+        Counter.builder("promptcrafter.enhance.reuse")
+                .tag("source", source)
+                .tag("style", style.name())
+                .register(registry)
+                .increment();
+        markLocal();
+    }
+
+    /**
+     * Counts one step in the life of a speculative style variant.
+     *
+     * @param outcome One of the SPECULATIVE_* constants
+     */
+    public void speculative(String outcome) {
+        Counter.builder("promptcrafter.speculative")
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Counts one refinement turn.
+     *
+     * @param source SESSION_STORE if the session was kept, SESSION_HISTORY if it was rebuilt from history
+     */
+    public void refinement(String source) {
+        Counter.builder("promptcrafter.refine.session")
+                .tag("source", source)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Counts one request refused by the per-client rate limit.
+     *
+     * @param path Request path, e.g. "/api/rewrite" or "/api/history"
+     */
+    public void rateLimited(String path) {
+        Counter.builder("promptcrafter.ratelimit.rejected")
+                .tag("path", path)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Counts one triage decision.
+     *
+     * @param route Chosen route, e.g. "as_is", "rule_based" or "model"
+     * @param reason Why the route was chosen
+     * @param local Whether the request is served without a model call
+     */
+    public void triage(String route, String reason, boolean local) {
+        Counter.builder("promptcrafter.enhance.triage")
+                .tag("route", route)
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+        if (local) {
+            markLocal();
+        }
+    }
+
+    private static void markLocal() {
+        RequestShape shape = CURRENT_REQUEST.get();
+        if (shape != null) {
+            shape.local = true;
+        }
+    }
+
+    private <T> T timed(Timer timer, String stage, String detail, Supplier<T> work) {
+        EnhancementEvent event = begin(stage, detail);
+        String outcome = OUTCOME_ERROR;
+        try {
+            T result = timer.record(work);
+            outcome = OUTCOME_SUCCESS;
+            return result;
+        } finally {
+            commit(event, outcome);
+        }
+    }
+
+    private static EnhancementEvent begin(String stage, String detail) {
+        EnhancementEvent event = new EnhancementEvent();
+        if (event.isEnabled()) {
+            event.stage = stage;
+            event.detail = detail;
+            event.begin();
+        }
+        return event;
+    }
+
+    private static void commit(EnhancementEvent event, String outcome) {
+        if (event.shouldCommit()) {
+            RequestShape shape = CURRENT_REQUEST.get();
+            if (shape != null) {
+                event.style = shape.style != null ? shape.style.name() : null;
+                event.context = shape.context != null ? shape.context.name() : null;
+                event.textLength = shape.textLength;
+            }
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    private Timer persistenceTimer(String operation) {
+        return Timer.builder("promptcrafter.persistence")
+                .tag("store", storeName)
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    private Counter counter(String name, String model) {
+        return Counter.builder(name)
+                .tag("model", model)
+                .register(registry);
+    }
+
+    private DistributionSummary tokens(String kind, EnhancementStyle style) {
+        return DistributionSummary.builder("promptcrafter.model.tokens")
+                .baseUnit("tokens")
+                .tag("kind", kind)
+                .tag("style", style.name())
+                .register(registry);
+    }
+
+    private static final class RequestShape {
+        final EnhancementStyle style;
+        final ContextType context;
+        final int textLength;
+        // Served without a model call
+        boolean local;
+
+        RequestShape(EnhancementStyle style, ContextType context, int textLength) {
+            this.style = style;
+            this.context = context;
+            this.textLength = textLength;
+        }
+    }
+}
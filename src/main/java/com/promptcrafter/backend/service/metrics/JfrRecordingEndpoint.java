@@ -0,0 +1,211 @@
+package com.promptcrafter.backend.service.metrics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for on-demand JDK Flight Recorder recordings.
+ *
+ * Operations (all under /actuator/jfr, protected by ProfilingTokenFilter):
+ * - GET: state of the current or last recording
+ * - POST {"maxSeconds":60,"maxSizeMb":50,"settings":"profile"}: starts a recording
+ * - DELETE: stops the recording and keeps its file for download
+ * - GET /{id}: downloads the recording; a running recording is dumped as a snapshot
+ *
+ * Only one recording runs at a time. Duration and size are capped by the
+ * configuration, so a forgotten recording stops on its own. The recording
+ * includes the {@link EnhancementEvent} stage events together with the JDK's
+ * own events (allocation, GC, locks, socket I/O).
+ *
+ * Configuration:
+ * - app.profiling.max-duration-seconds: upper bound and default for maxSeconds (default 300)
+ * - app.profiling.max-size-mb: upper bound and default for maxSizeMb (default 100)
+ */
+@Component
+@WebEndpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(JfrRecordingEndpoint.class);
+
+    private final int maxDurationSeconds;
+    private final int maxSizeMb;
+
+    private Recording recording;
+    private Path recordingFile;
+    private Path snapshotFile;
+
+    public JfrRecordingEndpoint(@Value("${app.profiling.max-duration-seconds:300}") int maxDurationSeconds,
+                                @Value("${app.profiling.max-size-mb:100}") int maxSizeMb) {
+        this.maxDurationSeconds = maxDurationSeconds;
+        this.maxSizeMb = maxSizeMb;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        return describe();
+    }
+
+    /**
+     * Starts a bounded recording.
+     *
+     * @param maxSeconds Recording length, capped at app.profiling.max-duration-seconds
+     * @param maxSizeMb Recording size limit, capped at app.profiling.max-size-mb
+     * @param settings JFR settings, "default" (low overhead) or "profile" (more detail)
+     * @return State of the new recording, or 409 if one is already running
+     */
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable Integer maxSeconds,
+                                                                       @Nullable Integer maxSizeMb,
+                                                                       @Nullable String settings) {
+        if (!FlightRecorder.isAvailable()) {
+            return error(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE, "Flight Recorder is not available in this JVM");
+        }
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return error(409, "Recording " + recording.getId() + " is already running");
+        }
+        String settingsName = settings != null ? settings : "default";
+        if (!"default".equals(settingsName) && !"profile".equals(settingsName)) {
+            return error(WebEndpointResponse.STATUS_BAD_REQUEST, "settings must be 'default' or 'profile'");
+        }
+        int seconds = bound(maxSeconds, maxDurationSeconds);
+        int sizeMb = bound(maxSizeMb, this.maxSizeMb);
+
+        try {
+            discardPrevious();
+            Recording next = new Recording(Configuration.getConfiguration(settingsName));
+            next.setName("promptcrafter-" + settingsName);
+            next.setToDisk(true);
+            next.setDuration(Duration.ofSeconds(seconds));
+            next.setMaxSize((long) sizeMb * 1024 * 1024);
+            Path file = Files.createTempFile("promptcrafter-", ".jfr");
+            next.setDestination(file);
+            next.start();
+            recording = next;
+            recordingFile = file;
+            snapshotFile = file.resolveSibling(file.getFileName() + ".snapshot");
+            logger.info("Started JFR recording {} ({} settings, {}s, {} MB) to {}",
+                    next.getId(), settingsName, seconds, sizeMb, file);
+            return new WebEndpointResponse<>(describe());
+        } catch (Exception e) {
+            logger.error("Failed to start JFR recording: {}", e.getMessage(), e);
+            return error(WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR, e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the running recording. Its file stays available for download until
+     * the next recording starts.
+     */
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            logger.info("Stopped JFR recording {}", recording.getId());
+        }
+        return describe();
+    }
+
+    /**
+     * Downloads a recording. A running recording is dumped to a snapshot first.
+     *
+     * @param id Recording id as reported by the status operation
+     * @return The .jfr file, or 404 if the id is not the current recording
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> download(@Selector long id) {
+        if (recording == null || recording.getId() != id) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        try {
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.dump(snapshotFile);
+                return new WebEndpointResponse<>(new FileSystemResource(snapshotFile));
+            }
+            if (recordingFile == null || !Files.exists(recordingFile)) {
+                return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+            }
+            return new WebEndpointResponse<>(new FileSystemResource(recordingFile));
+        } catch (IOException e) {
+            logger.error("Failed to read JFR recording {}: {}", id, e.getMessage(), e);
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        discardPrevious();
+    }
+
+    private void discardPrevious() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        if (recordingFile != null) {
+            try {
+                Files.deleteIfExists(recordingFile);
+                Files.deleteIfExists(snapshotFile);
+            } catch (IOException e) {
+                logger.warn("Could not delete old JFR recording {}: {}", recordingFile, e.getMessage());
+            }
+            recordingFile = null;
+            snapshotFile = null;
+        }
+    }
+
+    private Map<String, Object> describe() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("available", FlightRecorder.isAvailable());
+        status.put("maxDurationSeconds", maxDurationSeconds);
+        status.put("maxSizeMb", maxSizeMb);
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("id", recording.getId());
+        status.put("name", recording.getName());
+        status.put("state", recording.getState().name());
+        status.put("startTime", recording.getStartTime());
+        status.put("stopTime", recording.getStopTime());
+        status.put("duration", recording.getDuration());
+        status.put("maxSize", recording.getMaxSize());
+        status.put("download", "/actuator/jfr/" + recording.getId());
+        return status;
+    }
+
+    private static int bound(Integer requested, int limit) {
+        if (requested == null || requested <= 0) {
+            return limit;
+        }
+        return Math.min(requested, limit);
+    }
+
+    private static WebEndpointResponse<Map<String, Object>> error(int status, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", message);
+        return new WebEndpointResponse<>(body, status);
+    }
+}
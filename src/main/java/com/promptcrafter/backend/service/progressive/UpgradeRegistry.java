@@ -0,0 +1,62 @@
+package com.promptcrafter.backend.service.progressive;
+
+import com.promptcrafter.backend.dto.PromptResponse;
+import com.promptcrafter.backend.util.ExpiringMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Pending AI upgrades of progressive drafts, by upgrade token.
+ *
+ * Tokens are random, so one client cannot guess another's. An upgrade stays
+ * fetchable for the TTL after its draft was returned, also once it completed,
+ * so a client can poll late or reconnect. Entries live in an {@link ExpiringMap},
+ * like the idempotency keys.
+ *
+ * Configuration:
+ * - app.progressive.ttl-seconds: How long an upgrade can be fetched (default: 300)
+ * - app.progressive.max-pending: Upgrades kept at most (default: 10000)
+ * - app.progressive.wait-timeout-ms: How long an SSE stream waits for its upgrade (default: 60000)
+ */
+@Component
+public class UpgradeRegistry {
+
+    private final long waitTimeoutMillis;
+    private final ExpiringMap<String, CompletableFuture<PromptResponse>> upgrades;
+
+    public UpgradeRegistry(@Value("${app.progressive.ttl-seconds:300}") long ttlSeconds,
+                           @Value("${app.progressive.max-pending:10000}") int maxPending,
+                           @Value("${app.progressive.wait-timeout-ms:60000}") long waitTimeoutMillis) {
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.upgrades = new ExpiringMap<>(Duration.ofSeconds(ttlSeconds), maxPending);
+    }
+
+    /**
+     * @param upgrade Completes with the final response
+     * @return The token that fetches it
+     */
+    public String register(CompletableFuture<PromptResponse> upgrade) {
+        String token = UUID.randomUUID().toString();
+        upgrades.put(token, upgrade);
+        return token;
+    }
+
+    /**
+     * @param token An upgrade token
+     * @return The upgrade, or null if the token is unknown or expired
+     */
+    public CompletableFuture<PromptResponse> find(String token) {
+        return upgrades.get(token);
+    }
+
+    /**
+     * @return How long an SSE stream waits for its upgrade, in milliseconds
+     */
+    public long waitTimeoutMillis() {
+        return waitTimeoutMillis;
+    }
+}
@@ -0,0 +1,43 @@
+package com.promptcrafter.backend.service.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Identifies the client behind an HTTP request, for the rate limit buckets and
+ * the scope of Idempotency-Keys: "key:" plus the configured API key header when
+ * there is one and the request carries it, else "ip:" plus the remote address.
+ *
+ * The header is only as trustworthy as whatever issues the keys: a client that
+ * makes up a new key per request is a new client each time.
+ *
+ * Configuration:
+ * - app.rate-limit.key-header: Header identifying a client, e.g. X-API-Key; only set
+ *   it when a gateway issues and checks the keys (default: empty, clients are
+ *   identified by remote address)
+ */
+@Component
+public class ClientKeyResolver {
+
+    // Longer keys are cut, so a client cannot make the buckets arbitrarily large
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private final String keyHeader;
+
+    public ClientKeyResolver(@Value("${app.rate-limit.key-header:}") String keyHeader) {
+        this.keyHeader = keyHeader == null || keyHeader.isBlank() ? null : keyHeader;
+    }
+
+    /**
+     * @param request An HTTP request, including a WebSocket handshake
+     * @return The client key, e.g. "key:abc" or "ip:203.0.113.7"
+     */
+    public String resolve(HttpServletRequest request) {
+        String key = keyHeader != null ? request.getHeader(keyHeader) : null;
+        if (key == null || key.isBlank()) {
+            return "ip:" + request.getRemoteAddr();
+        }
+        return "key:" + (key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key);
+    }
+}
@@ -0,0 +1,145 @@
+package com.promptcrafter.backend.service.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token buckets, so one runaway client cannot use up the model
+ * quota and the worker threads of everyone else.
+ *
+ * Each bucket is a single {@link AtomicLong} holding the time at which it is
+ * full again (the generic cell rate algorithm, equivalent to a token bucket of
+ * burst tokens refilled at the sustained rate). A request moves that time one
+ * interval forward with a compare-and-set, so there is no lock, and requests
+ * of different clients touch different buckets. A rejected request only reads
+ * its bucket, which keeps a flooding client from contending with itself.
+ * Buckets are found in a {@link ConcurrentHashMap}, whose lookups do not lock
+ * either.
+ *
+ * A bucket that has refilled completely holds no information: a new one would
+ * decide the same way. Those are evicted every evict-interval-ms, so memory
+ * follows the clients active in the last minute or so. If max-clients buckets
+ * exist anyway, further new clients share one overflow bucket until eviction
+ * makes room.
+ *
+ * Configuration:
+ * - app.rate-limit.requests-per-minute: Sustained rate per client (default: 60)
+ * - app.rate-limit.burst: Requests a client may send at once after being idle (default: 20)
+ * - app.rate-limit.max-clients: Buckets kept at most (default: 100000)
+ * - app.rate-limit.evict-interval-ms: How often refilled buckets are dropped (default: 60000)
+ */
+@Component
+public class RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+
+    // Client keys are prefixed ("key:", "ip:"), so this cannot collide with one
+    private static final String OVERFLOW_CLIENT = "overflow";
+
+    private final int burst;
+    private final int maxClients;
+    // Time to earn one request
+    private final long intervalNanos;
+    // How far ahead of now a bucket's full time may be: burst intervals
+    private final long toleranceNanos;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public RateLimiter(@Value("${app.rate-limit.requests-per-minute:60}") int requestsPerMinute,
+                       @Value("${app.rate-limit.burst:20}") int burst,
+                       @Value("${app.rate-limit.max-clients:100000}") int maxClients) {
+        if (requestsPerMinute < 1 || burst < 1) {
+            throw new IllegalArgumentException("app.rate-limit.requests-per-minute and app.rate-limit.burst must be"
+                    + " at least 1, were " + requestsPerMinute + " and " + burst);
+        }
+        this.burst = burst;
+        this.maxClients = maxClients;
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / requestsPerMinute;
+        this.toleranceNanos = intervalNanos * burst;
+    }
+
+    /**
+     * Takes one request from a client's bucket. Lock-free; safe to call from any thread.
+     *
+     * @param client Client key: "key:" plus the API key, or "ip:" plus the remote address
+     * @return Whether the request may proceed, with the values for the RateLimit headers
+     */
+    public Decision acquire(String client) {
+        long now = System.nanoTime();
+        AtomicLong bucket = bucket(client, now);
+        while (true) {
+            long full = bucket.get();
+            long next = (full - now > 0 ? full : now) + intervalNanos;
+            long wait = next - now - toleranceNanos;
+            if (wait > 0) {
+                return new Decision(false, burst, 0, next - now - intervalNanos, wait);
+            }
+            if (bucket.compareAndSet(full, next)) {
+                return new Decision(true, burst, (int) ((toleranceNanos - (next - now)) / intervalNanos), next - now, 0);
+            }
+        }
+    }
+
+    /**
+     * @return Requests a full bucket holds
+     */
+    public int burst() {
+        return burst;
+    }
+
+    /**
+     * @return The window in which burst requests are earned back, in seconds
+     */
+    public long windowSeconds() {
+        return TimeUnit.NANOSECONDS.toSeconds(toleranceNanos + TimeUnit.SECONDS.toNanos(1) - 1);
+    }
+
+    /**
+     * @return Number of buckets currently kept
+     */
+    public int clients() {
+        return buckets.size();
+    }
+
+    /**
+     * Drops the buckets that have refilled completely.
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.evict-interval-ms:60000}",
+               initialDelayString = "${app.rate-limit.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        // A request racing with the removal may still update the dropped bucket;
+        // that client then gets at most one extra request from its next bucket
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        logger.debug("Evicted {} idle rate limit buckets, {} kept", before - buckets.size(), buckets.size());
+    }
+
+    private AtomicLong bucket(String client, long now) {
+        AtomicLong bucket = buckets.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxClients) {
+            client = OVERFLOW_CLIENT;
+        }
+        return buckets.computeIfAbsent(client, key -> new AtomicLong(now));
+    }
+
+    /**
+     * Outcome of one {@link #acquire}.
+     *
+     * @param allowed Whether the request may proceed
+     * @param limit Requests the bucket holds when full
+     * @param remaining Requests left right now
+     * @param resetNanos Time until the bucket is full again
+     * @param retryAfterNanos Time until the next request is allowed; 0 if this one was
+     */
+    public record Decision(boolean allowed, int limit, int remaining, long resetNanos, long retryAfterNanos) {}
+}
@@ -0,0 +1,151 @@
+package com.promptcrafter.backend.service.refinement;
+
+import com.promptcrafter.backend.dto.PromptResponse;
+import com.promptcrafter.backend.dto.RefinementRequest;
+import com.promptcrafter.backend.service.ai.LangChain4jService;
+import com.promptcrafter.backend.service.history.HistoryAppendedEvent;
+import com.promptcrafter.backend.service.history.HistoryEntry;
+import com.promptcrafter.backend.service.history.HistoryStore;
+import com.promptcrafter.backend.service.metrics.EnhancementMetrics;
+import com.promptcrafter.backend.service.stats.UsageAccount;
+import com.promptcrafter.backend.service.stats.UsageStatsService;
+import com.promptcrafter.backend.templates.PromptTemplateBuilder;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Applies follow-up instructions ("shorter", "more formal") to an earlier
+ * enhancement, sending the model only what changes between steps.
+ *
+ * A new /api/rewrite would send the full text inside the full template again.
+ * A refinement sends short system instructions, the newest turns of the
+ * session as chat messages (the current version last) and the new
+ * instruction. Older turns are compacted to their instruction, so the
+ * upstream prompt stays bounded however long the session runs.
+ *
+ * Every refined version is stored in history with the session's original
+ * prompt, and its id is returned as the recordId to refine next. It is not
+ * marked as a model answer to that prompt, so a later /api/rewrite of a
+ * similar prompt never reuses a refinement. Refinement needs the model: there
+ * is no rule-based fallback for free-form instructions.
+ *
+ * Configuration:
+ * - app.refinement.keep-turns: Newest turns replayed verbatim (default: 1)
+ * - app.refinement.max-earlier-instructions: Instructions of compacted turns replayed (default: 8)
+ */
+@Service
+public class RefinementService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefinementService.class);
+
+    private final RefinementSessionStore sessions;
+    private final HistoryStore historyStore;
+    private final PromptTemplateBuilder templateBuilder;
+    private final LangChain4jService aiService;
+    private final UsageStatsService usageStatsService;
+    private final EnhancementMetrics metrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int keepTurns;
+    private final int maxEarlierInstructions;
+
+    public RefinementService(RefinementSessionStore sessions,
+                             HistoryStore historyStore,
+                             PromptTemplateBuilder templateBuilder,
+                             LangChain4jService aiService,
+                             UsageStatsService usageStatsService,
+                             EnhancementMetrics metrics,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${app.refinement.keep-turns:1}") int keepTurns,
+                             @Value("${app.refinement.max-earlier-instructions:8}") int maxEarlierInstructions) {
+        this.sessions = sessions;
+        this.historyStore = historyStore;
+        this.templateBuilder = templateBuilder;
+        this.aiService = aiService;
+        this.usageStatsService = usageStatsService;
+        this.metrics = metrics;
+        this.eventPublisher = eventPublisher;
+        this.keepTurns = keepTurns;
+        this.maxEarlierInstructions = maxEarlierInstructions;
+    }
+
+    /**
+     * Refines an earlier enhancement and stores the result.
+     *
+     * @param request The enhancement to refine and the instruction
+     * @return The refined enhancement with its new recordId, or empty if there is no enhancement with that id
+     */
+    public Optional<PromptResponse> refine(RefinementRequest request) {
+        long recordId = request.getRecordId();
+        RefinementSession session = sessions.get(recordId);
+        if (session != null) {
+            metrics.refinement(EnhancementMetrics.SESSION_STORE);
+        } else {
+            Optional<HistoryEntry> entry = metrics.persistence("findById", () -> historyStore.findById(recordId));
+            if (entry.isEmpty()) {
+                return Optional.empty();
+            }
+            session = RefinementSession.start(entry.get());
+            metrics.refinement(EnhancementMetrics.SESSION_HISTORY);
+        }
+
+        RefinementSession current = session;
+        return Optional.of(metrics.request(current.style(), current.context(), request.getInstruction().length(),
+                () -> doRefine(current, request.getInstruction()), PromptResponse::isSuccess));
+    }
+
+    private PromptResponse doRefine(RefinementSession session, String instruction) {
+        if (!aiService.isModelAvailable()) {
+            return new PromptResponse(false, null, "Refinement needs the AI model, which is not configured");
+        }
+
+        String refined;
+        try {
+            refined = aiService.chat(messages(session, instruction), session.style(), session.context());
+        } catch (Exception e) {
+            logger.warn("AI service failed to refine prompt: {}", e.getMessage());
+            return new PromptResponse(false, null, "Refinement failed: " + e.getMessage());
+        }
+        if (refined == null) {
+            return new PromptResponse(false, null, "Refinement failed: the model returned no usable revision");
+        }
+
+        // A model answer, but to the follow-up instructions rather than to the original prompt alone
+        HistoryEntry unsaved = HistoryEntry.unsaved(session.originalText(), session.style(), session.context(),
+                refined, false);
+        HistoryEntry entry = metrics.persistence("append", () -> historyStore.append(UsageAccount.DEFAULT_USER, unsaved));
+        eventPublisher.publishEvent(new HistoryAppendedEvent(entry));
+        usageStatsService.record(session.style(), session.context());
+        sessions.put(entry.getId(), session.next(instruction, refined, keepTurns, maxEarlierInstructions));
+        logger.debug("Refined prompt into enhancement {}", entry.getId());
+
+        PromptResponse response = new PromptResponse(true, refined, "Refinement completed successfully");
+        response.setRecordId(entry.getId());
+        return response;
+    }
+
+    // System instructions, the replayed turns, then the new instruction
+    private List<ChatMessage> messages(RefinementSession session, String instruction) {
+        List<ChatMessage> messages = new ArrayList<>(2 * session.turns().size() + 2);
+        messages.add(SystemMessage.from(templateBuilder.buildRefinementInstructions(
+                session.style(), session.context(), session.earlierInstructions())));
+        for (RefinementSession.Turn turn : session.turns()) {
+            if (turn.instruction() != null) {
+                messages.add(UserMessage.from(turn.instruction()));
+            }
+            messages.add(AiMessage.from(turn.result()));
+        }
+        messages.add(UserMessage.from(instruction));
+        return messages;
+    }
+}
@@ -0,0 +1,78 @@
+package com.promptcrafter.backend.service.refinement;
+
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.service.history.HistoryEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact, immutable state of a refinement session: the prompt it started
+ * from, its style and context, the most recent turns verbatim, and the
+ * instructions of older turns.
+ *
+ * Each refinement returns a new session, so every stored version of a prompt
+ * can be refined further on its own branch.
+ *
+ * @param originalText The prompt the session started from, stored with every refined version
+ * @param style The enhancement style of the session
+ * @param context The context of the session
+ * @param turns The most recent turns, oldest first; the last one holds the current version
+ * @param earlierInstructions Instructions of compacted turns, oldest first
+ */
+public record RefinementSession(String originalText, EnhancementStyle style, ContextType context,
+                                List<Turn> turns, List<String> earlierInstructions) {
+
+    /**
+     * One step of the session.
+     *
+     * @param instruction What the user asked for, or null for the first enhancement
+     * @param result The version the step produced
+     */
+    public record Turn(String instruction, String result) {}
+
+    /**
+     * Starts a session from a stored enhancement.
+     *
+     * @param entry The enhancement to refine
+     * @return A session whose only turn is the stored enhanced text
+     */
+    public static RefinementSession start(HistoryEntry entry) {
+        return new RefinementSession(entry.getOriginalText(), entry.getStyle(), entry.getContext(),
+                List.of(new Turn(null, entry.getEnhancedText())), List.of());
+    }
+
+    /**
+     * @return The current version of the prompt
+     */
+    public String latestText() {
+        return turns.get(turns.size() - 1).result();
+    }
+
+    /**
+     * Adds a turn. Turns beyond the newest keepTurns are compacted to their
+     * instruction, and only the newest maxEarlierInstructions of those are kept.
+     *
+     * @param instruction What the user asked for
+     * @param result The revised version
+     * @param keepTurns Turns kept verbatim, at least 1
+     * @param maxEarlierInstructions Instructions of compacted turns kept
+     * @return The session after the turn
+     */
+    public RefinementSession next(String instruction, String result, int keepTurns, int maxEarlierInstructions) {
+        List<Turn> nextTurns = new ArrayList<>(turns);
+        nextTurns.add(new Turn(instruction, result));
+        List<String> nextEarlier = new ArrayList<>(earlierInstructions);
+        while (nextTurns.size() > Math.max(1, keepTurns)) {
+            Turn compacted = nextTurns.remove(0);
+            if (compacted.instruction() != null) {
+                nextEarlier.add(compacted.instruction());
+            }
+        }
+        while (nextEarlier.size() > maxEarlierInstructions) {
+            nextEarlier.remove(0);
+        }
+        return new RefinementSession(originalText, style, context, List.copyOf(nextTurns), List.copyOf(nextEarlier));
+    }
+}
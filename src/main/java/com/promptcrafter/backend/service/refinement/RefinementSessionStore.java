@@ -0,0 +1,47 @@
+package com.promptcrafter.backend.service.refinement;
+
+import com.promptcrafter.backend.util.ExpiringMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded, expiring store of refinement sessions, keyed by the id of the
+ * history entry holding the session's current version.
+ *
+ * Like the idempotency keys, sessions live in an {@link ExpiringMap}; each
+ * turn puts the session again, which restarts its TTL. A session that is no
+ * longer here is rebuilt from the history store, without the instructions of
+ * its earlier turns.
+ *
+ * Configuration:
+ * - app.refinement.ttl-seconds: How long a session is kept after its last turn (default: 1800)
+ * - app.refinement.max-sessions: Sessions kept at most (default: 5000)
+ */
+@Component
+public class RefinementSessionStore {
+
+    private final ExpiringMap<Long, RefinementSession> sessions;
+
+    public RefinementSessionStore(@Value("${app.refinement.ttl-seconds:1800}") long ttlSeconds,
+                                  @Value("${app.refinement.max-sessions:5000}") int maxSessions) {
+        this.sessions = new ExpiringMap<>(Duration.ofSeconds(ttlSeconds), maxSessions);
+    }
+
+    /**
+     * @param recordId Id of the history entry holding the session's current version
+     * @return The session, or null if it expired, was evicted or never existed
+     */
+    public RefinementSession get(long recordId) {
+        return sessions.get(recordId);
+    }
+
+    /**
+     * @param recordId Id of the history entry holding the session's current version
+     * @param session The session
+     */
+    public void put(long recordId, RefinementSession session) {
+        sessions.put(recordId, session);
+    }
+}
@@ -0,0 +1,241 @@
+package com.promptcrafter.backend.service.similarity;
+
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory locality-sensitive index over {@link TextFeatures} sets,
+ * partitioned by style and context, that finds the stored set with the
+ * highest estimated Jaccard similarity to a query.
+ *
+ * Each set gets a MinHash signature of 32 values, split into 8 bands of 4.
+ * Two sets land in the same bucket of a band when all 4 values agree, which
+ * happens with probability J^4 for Jaccard index J; over 8 bands a pair at
+ * J = 0.8 becomes a candidate 98.5% of the time, at J = 0.9 99.98%, and at
+ * J = 0.3 only 6%. Candidates are ranked by comparing the lowest byte of each
+ * signature value (b-bit MinHash), which estimates J with a standard error of
+ * about 0.07.
+ *
+ * Every band has a head table indexed by bucket and every entry one "next"
+ * link per band, giving per-band chains ordered newest first. Entries live in
+ * parallel primitive arrays used as a ring: once the capacity is reached,
+ * each add overwrites the oldest entry. Overwritten entries are never
+ * unlinked; a chain walk stops at the first link whose target is not older
+ * than the entry before it, which is where the overwritten (oldest) part of a
+ * chain starts. Colliding buckets and stale heads only add candidates, which
+ * the signature comparison rejects.
+ *
+ * About 81 bytes per entry plus the head tables (about 8 bytes per entry);
+ * lookups hold a read lock.
+ */
+public class MinHashIndex {
+
+    private static final int HASHES = 32;
+    private static final int ROWS = 4;
+    private static final int BANDS = HASHES / ROWS;
+    private static final long[] SEEDS = new long[HASHES];
+    private static final int INITIAL_SIZE = 1024;
+    private static final int CONTEXTS = ContextType.values().length;
+
+    static {
+        for (int i = 0; i < HASHES; i++) {
+            SEEDS[i] = TextFeatures.mix(0x9e3779b97f4a7c15L * (i + 1));
+        }
+    }
+
+    private final int capacity;
+    private final int maxCandidates;
+    private final int bucketMask;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Chain heads per band, indexed by bucket; -1 when empty
+    private final int[][] heads;
+
+    // Entry slots; grown by doubling until capacity, then reused oldest first
+    private byte[] signatures = new byte[INITIAL_SIZE * HASHES];
+    private long[] recordIds = new long[INITIAL_SIZE];
+    private long[] sequences = new long[INITIAL_SIZE];
+    private byte[] partitions = new byte[INITIAL_SIZE];
+    private int[][] next = new int[BANDS][INITIAL_SIZE];
+    private int slots = INITIAL_SIZE;
+    private long added;
+
+    /**
+     * @param capacity Entries kept; older entries are overwritten
+     * @param maxCandidates Chain entries examined per band and lookup, which bounds lookup time
+     */
+    public MinHashIndex(int capacity, int maxCandidates) {
+        this.capacity = capacity;
+        this.maxCandidates = maxCandidates;
+        // About four entries per bucket when full
+        int bucketBits = Math.max(10, 32 - Integer.numberOfLeadingZeros(Math.max(1, capacity - 1)) - 2);
+        this.bucketMask = (1 << bucketBits) - 1;
+        this.heads = new int[BANDS][1 << bucketBits];
+        for (int[] band : heads) {
+            Arrays.fill(band, -1);
+        }
+    }
+
+    /**
+     * Adds a feature set, overwriting the oldest entry when the index is full.
+     * Empty sets are ignored.
+     *
+     * @param features Sorted distinct features from {@link TextFeatures#of}
+     * @param recordId History id of the enhancement to reuse
+     */
+    public void add(long[] features, long recordId, EnhancementStyle style, ContextType context) {
+        if (features.length == 0) {
+            return;
+        }
+        long[] minHashes = minHashes(features);
+        lock.writeLock().lock();
+        try {
+            int slot = (int) (added % capacity);
+            if (slot == slots) {
+                grow();
+            }
+            for (int i = 0; i < HASHES; i++) {
+                signatures[slot * HASHES + i] = (byte) minHashes[i];
+            }
+            recordIds[slot] = recordId;
+            sequences[slot] = added;
+            partitions[slot] = partition(style, context);
+            for (int band = 0; band < BANDS; band++) {
+                int bucket = bucket(minHashes, band);
+                next[band][slot] = heads[band][bucket];
+                heads[band][bucket] = slot;
+            }
+            added++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the entry with the same style and context and the highest estimated similarity.
+     *
+     * @param features Sorted distinct features from {@link TextFeatures#of}
+     * @param minEstimate Lowest accepted estimated Jaccard index
+     * @return The best candidate, or null if none reaches minEstimate
+     */
+    public Match find(long[] features, EnhancementStyle style, ContextType context, double minEstimate) {
+        if (features.length == 0) {
+            return null;
+        }
+        long[] minHashes = minHashes(features);
+        byte[] query = new byte[HASHES];
+        for (int i = 0; i < HASHES; i++) {
+            query[i] = (byte) minHashes[i];
+        }
+        byte partition = partition(style, context);
+        int bestSlot = -1;
+        int bestAgreeing = -1;
+
+        lock.readLock().lock();
+        try {
+            for (int band = 0; band < BANDS && bestAgreeing < HASHES; band++) {
+                int slot = heads[band][bucket(minHashes, band)];
+                long newerSequence = Long.MAX_VALUE;
+                for (int examined = 0; slot >= 0 && examined < maxCandidates; examined++) {
+                    long sequence = sequences[slot];
+                    if (sequence >= newerSequence) {
+                        break;
+                    }
+                    if (partitions[slot] == partition) {
+                        int agreeing = agreeing(query, slot);
+                        if (agreeing > bestAgreeing) {
+                            bestAgreeing = agreeing;
+                            bestSlot = slot;
+                        }
+                    }
+                    newerSequence = sequence;
+                    slot = next[band][slot];
+                }
+            }
+            if (bestSlot < 0) {
+                return null;
+            }
+            double estimate = estimate(bestAgreeing);
+            return estimate >= minEstimate ? new Match(recordIds[bestSlot], estimate) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of entries currently held
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return (int) Math.min(added, capacity);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param recordId History id of the candidate enhancement
+     * @param estimatedSimilarity Estimated Jaccard index of the two feature sets
+     */
+    public record Match(long recordId, double estimatedSimilarity) {}
+
+    private int agreeing(byte[] query, int slot) {
+        int base = slot * HASHES;
+        int agreeing = 0;
+        for (int i = 0; i < HASHES; i++) {
+            if (signatures[base + i] == query[i]) {
+                agreeing++;
+            }
+        }
+        return agreeing;
+    }
+
+    // Unrelated values agree on their lowest byte 1 time in 256
+    private static double estimate(int agreeing) {
+        double raw = (double) agreeing / HASHES;
+        return Math.max(0.0, (raw - 1.0 / 256) / (1.0 - 1.0 / 256));
+    }
+
+    private static long[] minHashes(long[] features) {
+        long[] minHashes = new long[HASHES];
+        Arrays.fill(minHashes, Long.MAX_VALUE);
+        for (long feature : features) {
+            for (int i = 0; i < HASHES; i++) {
+                long hash = TextFeatures.mix(feature ^ SEEDS[i]);
+                if (hash < minHashes[i]) {
+                    minHashes[i] = hash;
+                }
+            }
+        }
+        return minHashes;
+    }
+
+    private int bucket(long[] minHashes, int band) {
+        long hash = band;
+        for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+            hash = hash * 31 + minHashes[row];
+        }
+        return (int) TextFeatures.mix(hash) & bucketMask;
+    }
+
+    private void grow() {
+        int size = (int) Math.min((long) slots * 2, capacity);
+        signatures = Arrays.copyOf(signatures, size * HASHES);
+        recordIds = Arrays.copyOf(recordIds, size);
+        sequences = Arrays.copyOf(sequences, size);
+        partitions = Arrays.copyOf(partitions, size);
+        for (int band = 0; band < BANDS; band++) {
+            next[band] = Arrays.copyOf(next[band], size);
+        }
+        slots = size;
+    }
+
+    private static byte partition(EnhancementStyle style, ContextType context) {
+        return (byte) (style.ordinal() * CONTEXTS + context.ordinal());
+    }
+}
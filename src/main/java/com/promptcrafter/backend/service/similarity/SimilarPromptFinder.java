@@ -0,0 +1,127 @@
+package com.promptcrafter.backend.service.similarity;
+
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.service.history.HistoryAppendedEvent;
+import com.promptcrafter.backend.service.history.HistoryEntry;
+import com.promptcrafter.backend.service.history.HistoryStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Finds an earlier enhancement whose prompt is a near duplicate of a new one
+ * (same style and context, differing only in whitespace, punctuation, casing or
+ * a word or two), so its enhancement can be reused instead of calling the model.
+ *
+ * Prompts are reduced locally to {@link TextFeatures} and kept in a
+ * {@link MinHashIndex}. The index proposes the best candidate by estimated
+ * similarity; it is reused only if the exact Jaccard index of the two prompts
+ * reaches the threshold. The index is loaded from the history store in the
+ * background once the application is ready (lookups before that just miss)
+ * and is updated from {@link HistoryAppendedEvent}s. Only entries that hold
+ * the model's answer to their prompt are indexed
+ * ({@link HistoryEntry#isModelAnswer()}); fallbacks, drafts, rule-based
+ * outputs and reused copies are never handed out again.
+ *
+ * Configuration:
+ * - app.similarity.enabled: Reuse near-duplicate enhancements (default: true)
+ * - app.similarity.threshold: Lowest Jaccard index of word and word-pair sets to reuse (default: 0.8)
+ * - app.similarity.capacity: Most recent prompts kept in the index (default: 250000)
+ * - app.similarity.max-candidates: Index entries compared per band and lookup (default: 64)
+ */
+@Component
+public class SimilarPromptFinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarPromptFinder.class);
+
+    // Candidates are checked exactly, so the estimate only needs to be roughly right
+    private static final double ESTIMATE_SLACK = 0.15;
+
+    private final HistoryStore historyStore;
+    private final boolean enabled;
+    private final double threshold;
+    private final MinHashIndex index;
+
+    public SimilarPromptFinder(HistoryStore historyStore,
+                               @Value("${app.similarity.enabled:true}") boolean enabled,
+                               @Value("${app.similarity.threshold:0.8}") double threshold,
+                               @Value("${app.similarity.capacity:250000}") int capacity,
+                               @Value("${app.similarity.max-candidates:64}") int maxCandidates) {
+        this.historyStore = historyStore;
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.index = new MinHashIndex(capacity, maxCandidates);
+    }
+
+    /**
+     * A stored enhancement that can be reused for a new prompt.
+     *
+     * @param entry The earlier history entry
+     * @param similarity Jaccard index of the two prompts' features, 1.0 for identical normalized text
+     */
+    public record SimilarEnhancement(HistoryEntry entry, double similarity) {}
+
+    /**
+     * Looks up the closest earlier prompt with the same style and context.
+     *
+     * @param originalText The new prompt
+     * @return The earlier enhancement, or empty if none is similar enough or reuse is disabled
+     */
+    public Optional<SimilarEnhancement> find(String originalText, EnhancementStyle style, ContextType context) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        long[] features = TextFeatures.of(originalText);
+        MinHashIndex.Match match = index.find(features, style, context, threshold - ESTIMATE_SLACK);
+        if (match == null) {
+            return Optional.empty();
+        }
+        return historyStore.findById(match.recordId())
+                .filter(entry -> entry.getStyle() == style && entry.getContext() == context)
+                .map(entry -> new SimilarEnhancement(entry,
+                        TextFeatures.jaccard(features, TextFeatures.of(entry.getOriginalText()))))
+                .filter(similar -> similar.similarity() >= threshold);
+    }
+
+    @EventListener
+    public void onHistoryAppended(HistoryAppendedEvent event) {
+        if (enabled) {
+            add(event.getEntry());
+        }
+    }
+
+    /**
+     * Loads the most recent history into the index without delaying startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHistory() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(() -> {
+            long start = System.nanoTime();
+            try {
+                long count = historyStore.scan(null, null, null, null, this::add);
+                logger.info("Indexed {} prompts for similar-prompt reuse in {} ms ({} kept)",
+                           count, (System.nanoTime() - start) / 1_000_000, index.size());
+            } catch (Exception e) {
+                logger.warn("Could not load history into the similar-prompt index: {}", e.getMessage(), e);
+            }
+        }, "similarity-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void add(HistoryEntry entry) {
+        if (!entry.isModelAnswer()) {
+            return;
+        }
+        index.add(TextFeatures.of(entry.getOriginalText()), entry.getId(), entry.getStyle(), entry.getContext());
+    }
+}
@@ -0,0 +1,263 @@
+package com.promptcrafter.backend.service.speculative;
+
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.service.ai.LangChain4jService;
+import com.promptcrafter.backend.service.ai.TokenBudget;
+import com.promptcrafter.backend.service.metrics.EnhancementMetrics;
+import com.promptcrafter.backend.service.stats.UsageAccount;
+import com.promptcrafter.backend.service.stats.UsageLedger;
+import com.promptcrafter.backend.templates.PromptTemplateBuilder;
+import com.promptcrafter.backend.util.ExpiringMap;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Enhances recently enhanced prompts in the other styles while the model has
+ * spare capacity, so a user who tries another style next is answered from
+ * memory.
+ *
+ * After a prompt is enhanced with one model call, its other styles (same
+ * context) are queued, newest prompt first. A single low-priority lane works
+ * through the queue and yields to interactive traffic:
+ * - A variant starts only while fewer than max-interactive-calls model calls
+ *   for waiting clients are in flight, and is dropped if it waits past the TTL.
+ * - A running variant is abandoned as soon as interactive calls reach that
+ *   threshold: its call is interrupted and the answer discarded. An upstream
+ *   request that was already sent may still complete before the lane moves on.
+ *
+ * Variants are charged to the usage account of the request that queued them.
+ *
+ * Results are used once and kept in an {@link ExpiringMap}, like the
+ * idempotency keys; an expired or evicted result counts as unused. Every step
+ * is counted in promptcrafter.speculative by outcome, which gives the hit rate
+ * and the share of wasted model calls.
+ *
+ * Configuration:
+ * - app.speculative.enabled: Generate other styles speculatively; up to three extra model calls
+ *   per enhanced prompt (default: false)
+ * - app.speculative.max-interactive-calls: Variants run only while fewer interactive model calls
+ *   are in flight (default: 1, i.e. only when the model is idle)
+ * - app.speculative.max-queued: Variants waiting at most; the oldest are dropped (default: 64)
+ * - app.speculative.ttl-seconds: How long queued variants and results are kept (default: 600)
+ * - app.speculative.max-results: Results kept at most (default: 2000)
+ */
+@Component
+public class StylePregenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(StylePregenerator.class);
+
+    // How often the lane checks for interactive traffic
+    private static final long POLL_MILLIS = 20;
+
+    private final LangChain4jService aiService;
+    private final PromptTemplateBuilder templateBuilder;
+    private final TokenBudget tokenBudget;
+    private final EnhancementMetrics metrics;
+    private final boolean enabled;
+    private final int maxInteractiveCalls;
+    private final int maxQueued;
+    private final long ttlNanos;
+
+    // Newest first; guarded by itself, which also guards pending
+    private final Deque<Task> queue = new ArrayDeque<>();
+    // Variants queued or running
+    private final Set<Key> pending = new HashSet<>();
+    private final ExpiringMap<Key, String> results;
+    private final ExecutorService lane;
+    private final ExecutorService calls;
+
+    public StylePregenerator(LangChain4jService aiService,
+                             PromptTemplateBuilder templateBuilder,
+                             TokenBudget tokenBudget,
+                             EnhancementMetrics metrics,
+                             @Value("${app.speculative.enabled:false}") boolean enabled,
+                             @Value("${app.speculative.max-interactive-calls:1}") int maxInteractiveCalls,
+                             @Value("${app.speculative.max-queued:64}") int maxQueued,
+                             @Value("${app.speculative.ttl-seconds:600}") long ttlSeconds,
+                             @Value("${app.speculative.max-results:2000}") int maxResults) {
+        this.aiService = aiService;
+        this.templateBuilder = templateBuilder;
+        this.tokenBudget = tokenBudget;
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.maxInteractiveCalls = maxInteractiveCalls;
+        this.maxQueued = maxQueued;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.results = new ExpiringMap<>(Duration.ofSeconds(ttlSeconds), maxResults,
+                unused -> metrics.speculative(EnhancementMetrics.SPECULATIVE_UNUSED));
+        if (enabled) {
+            this.lane = Executors.newSingleThreadExecutor(runnable -> thread(runnable, "speculative-lane"));
+            this.calls = Executors.newSingleThreadExecutor(runnable -> thread(runnable, "speculative-call"));
+            lane.execute(this::run);
+        } else {
+            this.lane = null;
+            this.calls = null;
+        }
+    }
+
+    /**
+     * Queues the other styles of a prompt that was just enhanced by the model.
+     *
+     * @param originalText The user's prompt
+     * @param style The style it was enhanced in
+     * @param context The context it was enhanced for
+     */
+    public void schedule(String originalText, EnhancementStyle style, ContextType context) {
+        if (!enabled || !aiService.isModelAvailable()) {
+            return;
+        }
+        long now = System.nanoTime();
+        UsageAccount account = UsageLedger.current();
+        for (EnhancementStyle other : EnhancementStyle.values()) {
+            if (other == style) {
+                continue;
+            }
+            Key key = new Key(originalText, other, context);
+            if (results.containsKey(key)) {
+                continue;
+            }
+            synchronized (queue) {
+                if (!pending.add(key)) {
+                    continue;
+                }
+                queue.addFirst(new Task(key, account, now + ttlNanos));
+                metrics.speculative(EnhancementMetrics.SPECULATIVE_QUEUED);
+                if (queue.size() > maxQueued) {
+                    pending.remove(queue.removeLast().key);
+                    metrics.speculative(EnhancementMetrics.SPECULATIVE_DROPPED);
+                }
+                queue.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Takes the speculative enhancement of a prompt in a style, if one is ready.
+     *
+     * @param originalText The user's prompt
+     * @param style The requested style
+     * @param context The requested context
+     * @return The enhanced text, or empty if none was generated or it expired
+     */
+    public Optional<String> take(String originalText, EnhancementStyle style, ContextType context) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String result = results.remove(new Key(originalText, style, context));
+        if (result == null) {
+            return Optional.empty();
+        }
+        metrics.speculative(EnhancementMetrics.SPECULATIVE_HIT);
+        return Optional.of(result);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (enabled) {
+            lane.shutdownNow();
+            calls.shutdownNow();
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Task task;
+                synchronized (queue) {
+                    while (queue.isEmpty()) {
+                        queue.wait();
+                    }
+                    task = queue.removeFirst();
+                }
+                try {
+                    generate(task);
+                } finally {
+                    synchronized (queue) {
+                        pending.remove(task.key);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void generate(Task task) throws InterruptedException {
+        while (busy()) {
+            if (task.expiresAt - System.nanoTime() <= 0) {
+                metrics.speculative(EnhancementMetrics.SPECULATIVE_DROPPED);
+                return;
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+
+        Key key = task.key;
+        metrics.speculative(EnhancementMetrics.SPECULATIVE_STARTED);
+        Future<String> call = calls.submit(() -> {
+            try (UsageLedger.Scope scope = UsageLedger.open(task.account)) {
+                return aiService.enhanceTextInBackground(
+                        templateBuilder.buildEnhancementPrompt(tokenBudget.fitInput(key.text, key.style, key.context),
+                                key.style, key.context),
+                        key.style, key.context);
+            }
+        });
+        String text;
+        try {
+            while (true) {
+                try {
+                    text = call.get(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    if (busy()) {
+                        call.cancel(true);
+                        metrics.speculative(EnhancementMetrics.SPECULATIVE_PREEMPTED);
+                        return;
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            logger.debug("Speculative {} enhancement failed: {}", key.style, e.getCause().getMessage());
+            metrics.speculative(EnhancementMetrics.SPECULATIVE_FAILED);
+            return;
+        }
+        if (text == null) {
+            metrics.speculative(EnhancementMetrics.SPECULATIVE_FAILED);
+            return;
+        }
+
+        results.put(key, text);
+        metrics.speculative(EnhancementMetrics.SPECULATIVE_GENERATED);
+    }
+
+    private boolean busy() {
+        return aiService.interactiveCallsInFlight() >= maxInteractiveCalls;
+    }
+
+    private static Thread thread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    }
+
+    private record Key(String text, EnhancementStyle style, ContextType context) {}
+
+    private record Task(Key key, UsageAccount account, long expiresAt) {}
+}
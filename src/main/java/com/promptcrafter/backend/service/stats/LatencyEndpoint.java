@@ -0,0 +1,26 @@
+package com.promptcrafter.backend.service.stats;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint (GET /actuator/latency) with rolling p50/p95/p99
+ * enhancement latency and SLO burn per style, context and outcome, for
+ * operators without a Prometheus server. See {@link LatencyTracker}.
+ */
+@Component
+@Endpoint(id = "latency")
+public class LatencyEndpoint {
+
+    private final LatencyTracker latencyTracker;
+
+    public LatencyEndpoint(LatencyTracker latencyTracker) {
+        this.latencyTracker = latencyTracker;
+    }
+
+    @ReadOperation
+    public LatencyTracker.LatencyReport latency() {
+        return latencyTracker.report();
+    }
+}
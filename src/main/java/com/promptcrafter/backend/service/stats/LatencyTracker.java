@@ -0,0 +1,205 @@
+package com.promptcrafter.backend.service.stats;
+
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rolling enhancement latency percentiles by `EnhancementStyle`, `ContextType`
+ * and outcome, for the latency actuator endpoint.
+ *
+ * Each style/context/outcome combination has an HdrHistogram {@link Recorder},
+ * so recording is a wait-free array update with no allocation. Every
+ * {@value #SLOT_SECONDS} seconds the recorders are swapped into a ring of
+ * interval histograms covering the last 15 minutes. Reports merge the slots of
+ * the 1, 5 and 15 minute windows, so the newest up to {@value #SLOT_SECONDS}
+ * seconds of traffic are not reported yet.
+ *
+ * A request counts against the SLO when it ends in an error or takes longer
+ * than the latency threshold. The burn rate is the bad fraction divided by the
+ * error budget (1 - target): 1.0 spends the budget exactly, above 1.0 spends it
+ * early.
+ *
+ * Configuration:
+ * - app.latency.slo.threshold-ms: Latency a request must stay under (default: 5000)
+ * - app.latency.slo.target: Fraction of requests that must be good (default: 0.99)
+ */
+@Component
+public class LatencyTracker {
+
+    /**
+     * How an enhancement ended: model answer, answered without the model
+     * (rule-based, reused or returned as is), or failure.
+     */
+    public enum Outcome { AI, FALLBACK, ERROR }
+
+    static final int SLOT_SECONDS = 10;
+    private static final int[] WINDOW_MINUTES = {1, 5, 15};
+    private static final int SLOTS = 15 * 60 / SLOT_SECONDS;
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private static final EnhancementStyle[] STYLES = EnhancementStyle.values();
+    private static final ContextType[] CONTEXTS = ContextType.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private final long thresholdMicros;
+    private final double target;
+
+    // Indexed by (style * contexts + context) * outcomes + outcome
+    private final Series[] series = new Series[STYLES.length * CONTEXTS.length * OUTCOMES.length];
+
+    // Slot that received the most recent interval, guarded by this
+    private int cursor;
+    private Instant lastRotation = Instant.now();
+
+    public LatencyTracker(@Value("${app.latency.slo.threshold-ms:5000}") long thresholdMillis,
+                          @Value("${app.latency.slo.target:0.99}") double target) {
+        if (target <= 0 || target >= 1) {
+            throw new IllegalArgumentException("app.latency.slo.target must be between 0 and 1, was " + target);
+        }
+        this.thresholdMicros = thresholdMillis * 1000;
+        this.target = target;
+        for (int i = 0; i < series.length; i++) {
+            series[i] = new Series();
+        }
+    }
+
+    /**
+     * Records one enhancement. Wait-free; safe to call from any thread.
+     *
+     * @param style The enhancement style used
+     * @param context The context type used
+     * @param outcome How the enhancement ended
+     * @param nanos Elapsed time in nanoseconds
+     */
+    public void record(EnhancementStyle style, ContextType context, Outcome outcome, long nanos) {
+        series[index(style.ordinal(), context.ordinal(), outcome.ordinal())]
+                .recorder.recordValue(Math.max(1, nanos / 1000));
+    }
+
+    /**
+     * Moves the interval recorded since the last call into the next ring slot.
+     */
+    @Scheduled(fixedRate = SLOT_SECONDS * 1000L, initialDelay = SLOT_SECONDS * 1000L)
+    public synchronized void rotate() {
+        cursor = (cursor + 1) % SLOTS;
+        for (Series s : series) {
+            s.rotate(cursor);
+        }
+        lastRotation = Instant.now();
+    }
+
+    /**
+     * Builds percentiles and SLO burn for the 1, 5 and 15 minute windows.
+     *
+     * @return Report with one entry per window
+     */
+    public synchronized LatencyReport report() {
+        List<WindowReport> windows = new ArrayList<>(WINDOW_MINUTES.length);
+        for (int minutes : WINDOW_MINUTES) {
+            windows.add(window(minutes));
+        }
+        return new LatencyReport(lastRotation, SLOT_SECONDS, thresholdMicros / 1000, target, windows);
+    }
+
+    private WindowReport window(int minutes) {
+        int slots = minutes * 60 / SLOT_SECONDS;
+        Histogram all = new Histogram(SIGNIFICANT_DIGITS);
+        long bad = 0;
+        List<SeriesReport> rows = new ArrayList<>();
+        for (EnhancementStyle style : STYLES) {
+            for (ContextType context : CONTEXTS) {
+                for (Outcome outcome : OUTCOMES) {
+                    Histogram merged = series[index(style.ordinal(), context.ordinal(), outcome.ordinal())]
+                            .merge(cursor, slots);
+                    if (merged == null) {
+                        continue;
+                    }
+                    long seriesBad = badCount(merged, outcome);
+                    rows.add(new SeriesReport(style.name(), context.name(), outcome.name(),
+                            merged.getTotalCount(), millis(merged, 50), millis(merged, 95), millis(merged, 99),
+                            merged.getMaxValue() / 1000.0, burnRate(seriesBad, merged.getTotalCount())));
+                    all.add(merged);
+                    bad += seriesBad;
+                }
+            }
+        }
+        long total = all.getTotalCount();
+        return new WindowReport(minutes + "m", total,
+                total > 0 ? millis(all, 50) : 0, total > 0 ? millis(all, 95) : 0, total > 0 ? millis(all, 99) : 0,
+                bad, burnRate(bad, total), rows);
+    }
+
+    private long badCount(Histogram histogram, Outcome outcome) {
+        if (outcome == Outcome.ERROR) {
+            return histogram.getTotalCount();
+        }
+        return histogram.getTotalCount() - histogram.getCountBetweenValues(0, thresholdMicros);
+    }
+
+    private double burnRate(long bad, long total) {
+        return total == 0 ? 0 : ((double) bad / total) / (1 - target);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static int index(int style, int context, int outcome) {
+        return (style * CONTEXTS.length + context) * OUTCOMES.length + outcome;
+    }
+
+    /**
+     * One recorder plus its ring of completed intervals. Slots without traffic
+     * stay null, and evicted histograms are recycled into the recorder.
+     */
+    private static final class Series {
+        final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+        final Histogram[] slots = new Histogram[SLOTS];
+        Histogram spare;
+
+        void rotate(int slot) {
+            Histogram interval = recorder.getIntervalHistogram(spare);
+            Histogram evicted = slots[slot];
+            if (interval.getTotalCount() == 0) {
+                slots[slot] = null;
+                spare = interval;
+            } else {
+                slots[slot] = interval;
+                spare = evicted;
+            }
+        }
+
+        Histogram merge(int newest, int count) {
+            Histogram merged = null;
+            for (int i = 0; i < count; i++) {
+                Histogram slot = slots[Math.floorMod(newest - i, SLOTS)];
+                if (slot == null) {
+                    continue;
+                }
+                if (merged == null) {
+                    merged = new Histogram(SIGNIFICANT_DIGITS);
+                }
+                merged.add(slot);
+            }
+            return merged;
+        }
+    }
+
+    public record LatencyReport(Instant updatedAt, int slotSeconds, long sloThresholdMs, double sloTarget,
+                                List<WindowReport> windows) {}
+
+    public record WindowReport(String window, long count, double p50Ms, double p95Ms, double p99Ms,
+                               long badCount, double burnRate, List<SeriesReport> series) {}
+
+    public record SeriesReport(String style, String context, String outcome, long count,
+                               double p50Ms, double p95Ms, double p99Ms, double maxMs, double burnRate) {}
+}
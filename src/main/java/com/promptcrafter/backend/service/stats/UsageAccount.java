@@ -0,0 +1,15 @@
+package com.promptcrafter.backend.service.stats;
+
+/**
+ * Who model usage is charged to: a user and, optionally, their team.
+ *
+ * @param user User identifier, e.g. an email address
+ * @param team Team identifier, or "" for none
+ */
+public record UsageAccount(String user, String team) {
+
+    // Without authentication, every request is attributed to this demo user
+    public static final String DEFAULT_USER = "demo@promptcrafter.com";
+
+    public static final UsageAccount DEFAULT = new UsageAccount(DEFAULT_USER, "");
+}
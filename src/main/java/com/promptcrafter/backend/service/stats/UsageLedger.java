@@ -0,0 +1,348 @@
+package com.promptcrafter.backend.service.stats;
+
+import com.promptcrafter.backend.dto.UserUsageResponse;
+import com.promptcrafter.backend.enums.RollupGranularity;
+import com.promptcrafter.backend.model.UserUsage;
+import com.promptcrafter.backend.repository.UserUsageRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Model usage per user and team, for charge-back: requests, input and output
+ * tokens, estimated cost and rule-based fallbacks.
+ *
+ * Usage is charged to the {@link UsageAccount} bound to the current thread,
+ * or the default account when none is. HTTP requests are bound from their
+ * headers by the usage account filter; work handed to another thread carries
+ * the account along with {@link #bind}. Requests, fallbacks and model calls
+ * arrive here through {@link com.promptcrafter.backend.service.metrics.EnhancementMetrics}.
+ *
+ * Like the usage statistics, counting only increments striped counters
+ * ({@link LongAdder}) in a per-hour pending bucket; requests never write to the
+ * database. A scheduled flush drains the counters into the user_usage table in
+ * one transaction, including the current hour, so at most flush-interval-ms of
+ * usage is lost if the process dies. A failed flush puts its counts back to be
+ * retried, and the pending counts are flushed on shutdown.
+ *
+ * Input tokens are the provider's count, or the local count when the provider
+ * reports none; the same holds for output tokens. Cost uses the configured
+ * prices at the time of the call.
+ *
+ * Configuration:
+ * - app.usage.flush-interval-ms: How often counts are written, i.e. the most usage a crash loses (default: 10000)
+ * - app.usage.input-price-per-million: US dollars per million input tokens (default: 0.15)
+ * - app.usage.output-price-per-million: US dollars per million output tokens (default: 0.60)
+ */
+@Service
+public class UsageLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsageLedger.class);
+
+    private static final long HOUR_MILLIS = RollupGranularity.HOUR.getBucketSize().toMillis();
+
+    // Account the work on this thread is charged to
+    private static final ThreadLocal<UsageAccount> CURRENT_ACCOUNT = new ThreadLocal<>();
+
+    private final UserUsageRepository usageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final double inputPricePerMillion;
+    private final double outputPricePerMillion;
+
+    // Counts not yet flushed, keyed by hour bucket start (epoch millis), then account
+    private final ConcurrentSkipListMap<Long, ConcurrentHashMap<UsageAccount, Counters>> pending =
+            new ConcurrentSkipListMap<>();
+
+    // Held while counts are drained and written, so reports never miss counts in between
+    private final Object flushLock = new Object();
+    private volatile Instant lastFlush;
+
+    public UsageLedger(UserUsageRepository usageRepository,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${app.usage.input-price-per-million:0.15}") double inputPricePerMillion,
+                       @Value("${app.usage.output-price-per-million:0.60}") double outputPricePerMillion) {
+        this.usageRepository = usageRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.inputPricePerMillion = inputPricePerMillion;
+        this.outputPricePerMillion = outputPricePerMillion;
+    }
+
+    /**
+     * Charges the work on this thread to an account until the scope is closed.
+     *
+     * @param account The account to charge
+     * @return Scope restoring the previous account when closed
+     */
+    public static Scope open(UsageAccount account) {
+        UsageAccount previous = CURRENT_ACCOUNT.get();
+        CURRENT_ACCOUNT.set(account);
+        return new Scope(previous);
+    }
+
+    /**
+     * Wraps work to be run on another thread so it is charged to the current account.
+     *
+     * @param work The work
+     * @return The work, run under the account bound now
+     */
+    public static <T> Supplier<T> bind(Supplier<T> work) {
+        UsageAccount account = current();
+        return () -> {
+            try (Scope scope = open(account)) {
+                return work.get();
+            }
+        };
+    }
+
+    /**
+     * @return The account the work on this thread is charged to
+     */
+    public static UsageAccount current() {
+        UsageAccount account = CURRENT_ACCOUNT.get();
+        return account != null ? account : UsageAccount.DEFAULT;
+    }
+
+    /**
+     * Counts one enhancement or refinement request. Lock-free; safe to call from any thread.
+     */
+    public void recordRequest() {
+        counters(currentHour(), current()).requests.increment();
+    }
+
+    /**
+     * Counts one rule-based fallback. Lock-free; safe to call from any thread.
+     */
+    public void recordFallback() {
+        counters(currentHour(), current()).fallbacks.increment();
+    }
+
+    /**
+     * Counts the tokens and estimated cost of one model call. Lock-free; safe to call from any thread.
+     *
+     * @param inputTokens Tokens sent
+     * @param outputTokens Tokens received
+     */
+    public void recordModelCall(int inputTokens, int outputTokens) {
+        Counters counters = counters(currentHour(), current());
+        counters.inputTokens.add(inputTokens);
+        counters.outputTokens.add(outputTokens);
+        // Dollars per million tokens are micro-dollars per token
+        counters.costMicros.add(Math.round(inputTokens * inputPricePerMillion + outputTokens * outputPricePerMillion));
+    }
+
+    /**
+     * Writes the pending counts to the usage table. Buckets older than the
+     * previous hour are dropped once written; no more increments arrive there.
+     */
+    @Scheduled(fixedDelayString = "${app.usage.flush-interval-ms:10000}",
+               initialDelayString = "${app.usage.flush-interval-ms:10000}")
+    public void flush() {
+        flushBefore(currentHour() - HOUR_MILLIS);
+    }
+
+    /**
+     * Flushes everything on shutdown; no more increments arrive at this point.
+     */
+    @PreDestroy
+    public void flushAll() {
+        flushBefore(Long.MAX_VALUE);
+    }
+
+    /**
+     * Builds the usage report: hourly buckets from the usage table plus the
+     * counts not flushed yet, and totals per user and team.
+     *
+     * @param user Only this user, or null for all users
+     * @param team Only this team, or null for all teams
+     * @param from Inclusive start of the range
+     * @param to Exclusive end of the range
+     * @return Usage response
+     */
+    public UserUsageResponse getUsage(String user, String team, Instant from, Instant to) {
+        Comparator<BucketKey> order = Comparator.comparingLong(BucketKey::hour)
+                .thenComparing(key -> key.account().user())
+                .thenComparing(key -> key.account().team());
+        Map<BucketKey, Usage> merged = new TreeMap<>(order);
+        synchronized (flushLock) {
+            for (UserUsage row : usageRepository.findInRange(user, team, from, to)) {
+                merged.merge(new BucketKey(row.getBucketStart().toEpochMilli(),
+                                new UsageAccount(row.getUserId(), row.getTeam())),
+                        new Usage(row.getRequests(), row.getInputTokens(), row.getOutputTokens(),
+                                row.getCostMicros(), row.getFallbacks()),
+                        Usage::plus);
+            }
+            for (Map.Entry<Long, ConcurrentHashMap<UsageAccount, Counters>> hour
+                    : pending.subMap(from.toEpochMilli(), to.toEpochMilli()).entrySet()) {
+                hour.getValue().forEach((account, counters) -> {
+                    Usage usage = counters.sum();
+                    if ((user == null || user.equals(account.user())) && (team == null || team.equals(account.team()))
+                            && !usage.isEmpty()) {
+                        merged.merge(new BucketKey(hour.getKey(), account), usage, Usage::plus);
+                    }
+                });
+            }
+        }
+
+        List<UserUsageResponse.AccountUsageBucket> buckets = new ArrayList<>(merged.size());
+        Map<UsageAccount, Usage> totals = new LinkedHashMap<>();
+        merged.forEach((key, usage) -> {
+            UsageAccount account = key.account();
+            buckets.add(new UserUsageResponse.AccountUsageBucket(Instant.ofEpochMilli(key.hour()), account.user(),
+                    account.team(), usage.requests(), usage.inputTokens(), usage.outputTokens(), usd(usage),
+                    usage.fallbacks()));
+            totals.merge(account, usage, Usage::plus);
+        });
+        List<UserUsageResponse.AccountUsage> totalUsage = totals.entrySet().stream()
+                .map(entry -> new UserUsageResponse.AccountUsage(entry.getKey().user(), entry.getKey().team(),
+                        entry.getValue().requests(), entry.getValue().inputTokens(),
+                        entry.getValue().outputTokens(), usd(entry.getValue()), entry.getValue().fallbacks()))
+                .sorted(Comparator.comparingDouble(UserUsageResponse.AccountUsage::getEstimatedCostUsd).reversed())
+                .toList();
+
+        return new UserUsageResponse(from, to, lastFlush, totalUsage, buckets);
+    }
+
+    private void flushBefore(long cutoff) {
+        synchronized (flushLock) {
+            List<Drained> batch = new ArrayList<>();
+            for (Map.Entry<Long, ConcurrentHashMap<UsageAccount, Counters>> hour : pending.entrySet()) {
+                if (hour.getKey() < cutoff) {
+                    pending.remove(hour.getKey());
+                }
+                hour.getValue().forEach((account, counters) -> {
+                    Usage usage = counters.drain();
+                    if (!usage.isEmpty()) {
+                        batch.add(new Drained(hour.getKey(), account, usage));
+                    }
+                });
+            }
+            if (batch.isEmpty()) {
+                lastFlush = Instant.now();
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> batch.forEach(this::write));
+                lastFlush = Instant.now();
+                logger.debug("Flushed usage of {} accounts and hours", batch.size());
+            } catch (Exception e) {
+                // Counts go back to pending and are retried on the next flush
+                batch.forEach(drained -> counters(drained.hour(), drained.account()).add(drained.usage()));
+                logger.error("Failed to flush user usage: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void write(Drained drained) {
+        UsageAccount account = drained.account();
+        Instant bucketStart = Instant.ofEpochMilli(drained.hour());
+        UserUsage row = usageRepository
+                .findByUserIdAndTeamAndBucketStart(account.user(), account.team(), bucketStart)
+                .orElseGet(() -> new UserUsage(account.user(), account.team(), bucketStart));
+        Usage usage = drained.usage();
+        row.setRequests(row.getRequests() + usage.requests());
+        row.setInputTokens(row.getInputTokens() + usage.inputTokens());
+        row.setOutputTokens(row.getOutputTokens() + usage.outputTokens());
+        row.setCostMicros(row.getCostMicros() + usage.costMicros());
+        row.setFallbacks(row.getFallbacks() + usage.fallbacks());
+        usageRepository.save(row);
+    }
+
+    private Counters counters(long hour, UsageAccount account) {
+        ConcurrentHashMap<UsageAccount, Counters> accounts = pending.get(hour);
+        if (accounts == null) {
+            accounts = pending.computeIfAbsent(hour, key -> new ConcurrentHashMap<>());
+        }
+        Counters counters = accounts.get(account);
+        if (counters == null) {
+            counters = accounts.computeIfAbsent(account, key -> new Counters());
+        }
+        return counters;
+    }
+
+    private static long currentHour() {
+        return RollupGranularity.HOUR.bucketStart(System.currentTimeMillis());
+    }
+
+    private static double usd(Usage usage) {
+        return usage.costMicros() / 1_000_000.0;
+    }
+
+    /**
+     * Restores the account that was bound before {@link #open}.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final UsageAccount previous;
+
+        private Scope(UsageAccount previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                CURRENT_ACCOUNT.set(previous);
+            } else {
+                CURRENT_ACCOUNT.remove();
+            }
+        }
+    }
+
+    private static final class Counters {
+        final LongAdder requests = new LongAdder();
+        final LongAdder inputTokens = new LongAdder();
+        final LongAdder outputTokens = new LongAdder();
+        final LongAdder costMicros = new LongAdder();
+        final LongAdder fallbacks = new LongAdder();
+
+        Usage sum() {
+            return new Usage(requests.sum(), inputTokens.sum(), outputTokens.sum(), costMicros.sum(), fallbacks.sum());
+        }
+
+        // Each counter is taken and zeroed atomically, so concurrent increments go to this or the next flush
+        Usage drain() {
+            return new Usage(requests.sumThenReset(), inputTokens.sumThenReset(), outputTokens.sumThenReset(),
+                    costMicros.sumThenReset(), fallbacks.sumThenReset());
+        }
+
+        void add(Usage usage) {
+            requests.add(usage.requests());
+            inputTokens.add(usage.inputTokens());
+            outputTokens.add(usage.outputTokens());
+            costMicros.add(usage.costMicros());
+            fallbacks.add(usage.fallbacks());
+        }
+    }
+
+    private record Usage(long requests, long inputTokens, long outputTokens, long costMicros, long fallbacks) {
+        Usage plus(Usage other) {
+            return new Usage(requests + other.requests, inputTokens + other.inputTokens,
+                    outputTokens + other.outputTokens, costMicros + other.costMicros, fallbacks + other.fallbacks);
+        }
+
+        boolean isEmpty() {
+            return requests == 0 && inputTokens == 0 && outputTokens == 0 && costMicros == 0 && fallbacks == 0;
+        }
+    }
+
+    private record BucketKey(long hour, UsageAccount account) {}
+
+    private record Drained(long hour, UsageAccount account, Usage usage) {}
+}
@@ -0,0 +1,191 @@
+package com.promptcrafter.backend.service.stats;
+
+import com.promptcrafter.backend.dto.UsageStatsResponse;
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.enums.RollupGranularity;
+import com.promptcrafter.backend.model.UsageRollup;
+import com.promptcrafter.backend.repository.UsageRollupRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Maintains usage statistics by `EnhancementStyle` and `ContextType` without
+ * touching raw history.
+ *
+ * Every enhancement increments striped counters ({@link LongAdder}) in two
+ * places: running totals since startup, and a per-minute pending bucket. A
+ * scheduled flush moves completed minute buckets into the usage_rollups table
+ * as MINUTE rows and adds them to the matching HOUR rows. Statistics queries
+ * read only the in-memory totals and the rollup table.
+ *
+ * Configuration:
+ * - app.stats.flush-interval-ms: How often completed minutes are flushed (default: 60000)
+ * - app.stats.minute-retention-hours: How long MINUTE rows are kept (default: 48)
+ */
+@Service
+public class UsageStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsageStatsService.class);
+
+    private static final EnhancementStyle[] STYLES = EnhancementStyle.values();
+    private static final ContextType[] CONTEXTS = ContextType.values();
+
+    private final UsageRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Instant countingSince = Instant.now();
+
+    // Totals since startup, indexed by [style][context]
+    private final LongAdder[][] totals = newCounters();
+
+    // Counts not yet flushed, keyed by minute bucket start (epoch millis)
+    private final ConcurrentSkipListMap<Long, LongAdder[][]> pending = new ConcurrentSkipListMap<>();
+
+    @Value("${app.stats.minute-retention-hours:48}")
+    private long minuteRetentionHours;
+
+    public UsageStatsService(UsageRollupRepository rollupRepository, PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Counts one completed enhancement. Lock-free; safe to call from any thread.
+     *
+     * @param style The enhancement style used
+     * @param context The context type used
+     */
+    public void record(EnhancementStyle style, ContextType context) {
+        int s = style.ordinal();
+        int c = context.ordinal();
+        totals[s][c].increment();
+
+        long minute = RollupGranularity.MINUTE.bucketStart(System.currentTimeMillis());
+        LongAdder[][] bucket = pending.get(minute);
+        if (bucket == null) {
+            bucket = pending.computeIfAbsent(minute, key -> newCounters());
+        }
+        bucket[s][c].increment();
+    }
+
+    /**
+     * Builds the statistics response: live totals plus rollup buckets for the range.
+     *
+     * @param from Inclusive start of the range
+     * @param to Exclusive end of the range
+     * @param granularity Bucket size to read
+     * @return Statistics response
+     */
+    public UsageStatsResponse getStats(Instant from, Instant to, RollupGranularity granularity) {
+        List<UsageStatsResponse.UsageCount> totalCounts = new ArrayList<>();
+        for (EnhancementStyle style : STYLES) {
+            for (ContextType context : CONTEXTS) {
+                long count = totals[style.ordinal()][context.ordinal()].sum();
+                if (count > 0) {
+                    totalCounts.add(new UsageStatsResponse.UsageCount(style.name(), context.name(), count));
+                }
+            }
+        }
+
+        List<UsageStatsResponse.UsageBucket> buckets = rollupRepository
+                .findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(
+                        granularity, from, to)
+                .stream()
+                .map(rollup -> new UsageStatsResponse.UsageBucket(rollup.getBucketStart(),
+                        rollup.getStyle().name(), rollup.getContext().name(), rollup.getCount()))
+                .toList();
+
+        return new UsageStatsResponse(countingSince, totalCounts, granularity.name(), from, to, buckets);
+    }
+
+    /**
+     * Flushes completed minute buckets to the rollup table. The current and the
+     * previous minute are left in memory so increments racing with the flush are
+     * never lost.
+     */
+    @Scheduled(fixedDelayString = "${app.stats.flush-interval-ms:60000}",
+               initialDelayString = "${app.stats.flush-interval-ms:60000}")
+    public void flush() {
+        long cutoff = RollupGranularity.MINUTE.bucketStart(System.currentTimeMillis())
+                - RollupGranularity.MINUTE.getBucketSize().toMillis();
+        flushBefore(cutoff);
+    }
+
+    /**
+     * Flushes everything on shutdown; no more increments arrive at this point.
+     */
+    @PreDestroy
+    public void flushAll() {
+        flushBefore(Long.MAX_VALUE);
+    }
+
+    private void flushBefore(long cutoff) {
+        Map<Long, LongAdder[][]> completed = pending.headMap(cutoff);
+        if (completed.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Map.Entry<Long, LongAdder[][]> entry : completed.entrySet()) {
+                    writeBucket(entry.getKey(), entry.getValue());
+                }
+                Instant retention = Instant.now().minus(Duration.ofHours(minuteRetentionHours));
+                rollupRepository.deleteOlderThan(RollupGranularity.MINUTE, retention);
+            });
+            int flushed = completed.size();
+            completed.clear();
+            logger.debug("Flushed {} minute buckets to usage rollups", flushed);
+        } catch (Exception e) {
+            // Buckets stay pending and are retried on the next flush
+            logger.error("Failed to flush usage rollups: {}", e.getMessage(), e);
+        }
+    }
+
+    private void writeBucket(long minuteStart, LongAdder[][] counters) {
+        Instant minute = Instant.ofEpochMilli(minuteStart);
+        Instant hour = Instant.ofEpochMilli(RollupGranularity.HOUR.bucketStart(minuteStart));
+        for (EnhancementStyle style : STYLES) {
+            for (ContextType context : CONTEXTS) {
+                long count = counters[style.ordinal()][context.ordinal()].sum();
+                if (count > 0) {
+                    addToRollup(RollupGranularity.MINUTE, minute, style, context, count);
+                    addToRollup(RollupGranularity.HOUR, hour, style, context, count);
+                }
+            }
+        }
+    }
+
+    private void addToRollup(RollupGranularity granularity, Instant bucketStart, EnhancementStyle style,
+                             ContextType context, long count) {
+        UsageRollup rollup = rollupRepository
+                .findByGranularityAndBucketStartAndStyleAndContext(granularity, bucketStart, style, context)
+                .orElseGet(() -> new UsageRollup(granularity, bucketStart, style, context, 0));
+        rollup.setCount(rollup.getCount() + count);
+        rollupRepository.save(rollup);
+    }
+
+    private static LongAdder[][] newCounters() {
+        LongAdder[][] counters = new LongAdder[STYLES.length][CONTEXTS.length];
+        for (LongAdder[] row : counters) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = new LongAdder();
+            }
+        }
+        return counters;
+    }
+}
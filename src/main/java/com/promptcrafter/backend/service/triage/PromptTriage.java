@@ -0,0 +1,142 @@
+package com.promptcrafter.backend.service.triage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Cheap local check that decides, before any model call, whether a prompt
+ * needs the AI model at all.
+ *
+ * A prompt is scored by its length in words, by the sections it already has
+ * (role, task, requirements and output format, recognized at the start of a
+ * line, with or without markdown heading or bold markers), and by script:
+ * - Mostly non-Latin text always goes to the model, because section detection
+ *   and the rule-based templates are English only.
+ * - A prompt with enough sections is already well structured and is returned as is.
+ * - A short prompt gets the rule-based enhancement, like the fast_api service,
+ *   which returns inputs under 10 words without calling its model.
+ * - Everything else goes to the model.
+ *
+ * Configuration:
+ * - app.triage.enabled: Route prompts locally when the model adds nothing (default: true)
+ * - app.triage.short-max-words: Prompts with fewer words get the rule-based enhancement (default: 10)
+ * - app.triage.structured-min-sections: Sections (of role, task, requirements, format) for as-is (default: 3)
+ * - app.triage.min-latin-share: Share of letters in Latin script below which the model is always used (default: 0.8)
+ */
+@Component
+public class PromptTriage {
+
+    /**
+     * Where a prompt is sent.
+     */
+    public enum Route { AS_IS, RULE_BASED, MODEL }
+
+    public static final String REASON_DISABLED = "disabled";
+    public static final String REASON_NON_LATIN = "non_latin";
+    public static final String REASON_STRUCTURED = "structured";
+    public static final String REASON_SHORT = "short";
+    public static final String REASON_UNSTRUCTURED = "unstructured";
+
+    // Optional markdown heading, bold or list marker before a section label
+    private static final String LINE_START = "^[ \\t]*(?:#{1,6}[ \\t]*|[-*][ \\t]+|\\d+[.)][ \\t]+)?(?:\\*\\*|__)?";
+
+    private static final List<Pattern> SECTIONS = List.of(
+            section(phrase("you are|act as|acting as") + "|" + label("role|persona|system")),
+            section(label("task|goal|objective|instructions?|question") + "|" + phrase("your (?:task|job) is")),
+            // Requirements, or at least two list items
+            section(label("requirements?|constraints?|rules|guidelines|criteria")
+                    + "|(?:^[ \\t]*(?:[-*]|\\d+[.)])[ \\t]+\\S.*(?:\\R|\\z)){2}"),
+            section(label("output(?: format)?|format|response format")
+                    + "|" + phrase("respond (?:in|with|only)|answer in|return only")));
+
+    private final boolean enabled;
+    private final int shortMaxWords;
+    private final int structuredMinSections;
+    private final double minLatinShare;
+
+    public PromptTriage(@Value("${app.triage.enabled:true}") boolean enabled,
+                        @Value("${app.triage.short-max-words:10}") int shortMaxWords,
+                        @Value("${app.triage.structured-min-sections:3}") int structuredMinSections,
+                        @Value("${app.triage.min-latin-share:0.8}") double minLatinShare) {
+        this.enabled = enabled;
+        this.shortMaxWords = shortMaxWords;
+        this.structuredMinSections = structuredMinSections;
+        this.minLatinShare = minLatinShare;
+    }
+
+    /**
+     * Triage result.
+     *
+     * @param route Where the prompt is sent
+     * @param reason Why, one of the REASON_* constants
+     * @param words Words in the prompt
+     * @param sections Sections found, 0 to 4
+     */
+    public record Decision(Route route, String reason, int words, int sections) {}
+
+    /**
+     * @param originalText The user's prompt
+     * @return The route for the prompt
+     */
+    public Decision triage(String originalText) {
+        if (!enabled) {
+            return new Decision(Route.MODEL, REASON_DISABLED, 0, 0);
+        }
+
+        int words = 0;
+        int letters = 0;
+        int latinLetters = 0;
+        boolean inWord = false;
+        for (int i = 0, length = originalText.length(); i < length; i++) {
+            char c = originalText.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (!inWord) {
+                    words++;
+                    inWord = true;
+                }
+                if (Character.isLetter(c)) {
+                    letters++;
+                    if (Character.UnicodeScript.of(c) == Character.UnicodeScript.LATIN) {
+                        latinLetters++;
+                    }
+                }
+            } else if (c != '\'' && c != '-') {
+                inWord = false;
+            }
+        }
+
+        if (letters > 0 && latinLetters < minLatinShare * letters) {
+            return new Decision(Route.MODEL, REASON_NON_LATIN, words, 0);
+        }
+        int sections = 0;
+        for (Pattern section : SECTIONS) {
+            if (section.matcher(originalText).find()) {
+                sections++;
+            }
+        }
+        if (sections >= structuredMinSections) {
+            return new Decision(Route.AS_IS, REASON_STRUCTURED, words, sections);
+        }
+        if (words < shortMaxWords) {
+            return new Decision(Route.RULE_BASED, REASON_SHORT, words, sections);
+        }
+        return new Decision(Route.MODEL, REASON_UNSTRUCTURED, words, sections);
+    }
+
+    // A section heading: the label alone on its line or followed by a colon
+    private static String label(String names) {
+        return LINE_START + "(?:" + names + ")(?:\\*\\*|__)?[ \\t]*(?::|$)";
+    }
+
+    // A sentence opening that states the section
+    private static String phrase(String openings) {
+        return LINE_START + "(?:" + openings + ")\\b";
+    }
+
+    private static Pattern section(String regex) {
+        return Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
+    }
+}
@@ -4,6 +4,9 @@ import com.promptcrafter.backend.enums.ContextType;
 import com.promptcrafter.backend.enums.EnhancementStyle;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Locale;
+
 @Component
 public class PromptTemplateBuilder {
 
@@ -24,6 +27,51 @@ public class PromptTemplateBuilder {
                 .replace("{contextual_adjustments}", contextualAdjustments);
     }
 
+    /**
+     * Method to build the template for one part of a long prompt that is enhanced in parts.
+     * Every part gets the same style and context instructions, plus a note that the
+     * answer is joined with the other parts.
+     *
+     * @param chunk String variable storing one part of the original prompt
+     * @param style Enum classification of the prompt style
+     * @param context Enum classification of the prompt context type
+     * @param part Number of this part, starting at 1
+     * @param parts Number of parts of the prompt
+     * @return Adjusted part fitted in a template, as a String
+     */
+    public String buildChunkPrompt(String chunk, EnhancementStyle style, ContextType context, int part, int parts) {
+        return buildEnhancementPrompt(chunk, style, context)
+                .replace("Enhanced version:", "Note: This is part " + part + " of " + parts
+                        + " of a longer prompt. Rewrite only this part; it will be joined with the others,"
+                        + " so do not add a title, introduction or conclusion of its own.\n\nEnhanced version:");
+    }
+
+    /**
+     * Method to build the system instructions of a refinement session, where the user asks
+     * for changes to an enhanced prompt ("shorter", "more formal") one message at a time.
+     * Only the latest version and instructions are sent, so this replaces the full template.
+     *
+     * @param style Enum classification of the prompt style
+     * @param context Enum classification of the prompt context type
+     * @param earlierInstructions Changes requested in earlier turns that are no longer replayed, oldest first
+     * @return Instructions for the system message, as a String
+     */
+    public String buildRefinementInstructions(EnhancementStyle style, ContextType context,
+                                              List<String> earlierInstructions) {
+        StringBuilder instructions = new StringBuilder()
+                .append("Task: You revise an enhanced prompt. Apply the user's latest instruction to the ")
+                .append("latest version and keep everything else. Return only the revised prompt.\n\n")
+                .append("Style: ").append(style.name().toLowerCase(Locale.ROOT)).append('\n')
+                .append(getContextualAdjustments(context));
+        if (!earlierInstructions.isEmpty()) {
+            instructions.append("\n\nChanges already made, keep them:");
+            for (String instruction : earlierInstructions) {
+                instructions.append("\n- ").append(instruction);
+            }
+        }
+        return instructions.toString();
+    }
+
     /**
      * Method to get a template for putting in the prompt.
      *
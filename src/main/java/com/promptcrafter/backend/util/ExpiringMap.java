@@ -0,0 +1,146 @@
+package com.promptcrafter.backend.util;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Bounded map whose entries expire a fixed time after they were put.
+ *
+ * All entries share one TTL, so an insertion-ordered map is also ordered by
+ * expiry: expired entries are trimmed from the head on every access, and the
+ * eldest entry is dropped when the map is full. Putting an existing key moves
+ * it to the tail with a new expiry. There is no background thread.
+ *
+ * All methods are synchronized and short; values that take long to produce
+ * should be computed outside and put afterwards, or be futures.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class ExpiringMap<K, V> {
+
+    private final long ttlNanos;
+    private final Consumer<V> onDrop;
+    private final Map<K, Timed<V>> entries;
+
+    /**
+     * @param ttl How long an entry is kept after it was put
+     * @param maxEntries Entries kept at most
+     */
+    public ExpiringMap(Duration ttl, int maxEntries) {
+        this(ttl, maxEntries, value -> {});
+    }
+
+    /**
+     * @param ttl How long an entry is kept after it was put
+     * @param maxEntries Entries kept at most
+     * @param onDrop Called with each value that expired or was evicted, under the map's lock;
+     *               not called for values that are removed or replaced
+     */
+    public ExpiringMap(Duration ttl, int maxEntries, Consumer<V> onDrop) {
+        this.ttlNanos = ttl.toNanos();
+        this.onDrop = onDrop;
+        this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Timed<V>> eldest) {
+                if (size() > maxEntries) {
+                    onDrop.accept(eldest.getValue().value);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return The value, or null if there is none or it expired
+     */
+    public synchronized V get(K key) {
+        expire(System.nanoTime());
+        Timed<V> entry = entries.get(key);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * @return Whether an unexpired value is kept for the key
+     */
+    public synchronized boolean containsKey(K key) {
+        expire(System.nanoTime());
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Puts a value with a fresh expiry.
+     *
+     * @return The value it replaced, or null
+     */
+    public synchronized V put(K key, V value) {
+        long now = System.nanoTime();
+        expire(now);
+        // Re-inserted at the tail so the map stays ordered by expiry
+        Timed<V> previous = entries.remove(key);
+        entries.put(key, new Timed<>(value, now + ttlNanos));
+        return previous != null ? previous.value : null;
+    }
+
+    /**
+     * Puts a value unless an unexpired one is kept for the key.
+     *
+     * @return The value already kept, or null if this one was put
+     */
+    public synchronized V putIfAbsent(K key, V value) {
+        long now = System.nanoTime();
+        expire(now);
+        Timed<V> existing = entries.putIfAbsent(key, new Timed<>(value, now + ttlNanos));
+        return existing != null ? existing.value : null;
+    }
+
+    /**
+     * @return The removed value, or null if there was none or it expired
+     */
+    public synchronized V remove(K key) {
+        expire(System.nanoTime());
+        Timed<V> removed = entries.remove(key);
+        return removed != null ? removed.value : null;
+    }
+
+    /**
+     * Removes the key only if it is still mapped to the value.
+     *
+     * @return Whether it was removed
+     */
+    public synchronized boolean remove(K key, V value) {
+        Timed<V> entry = entries.get(key);
+        if (entry == null || !Objects.equals(entry.value, value)) {
+            return false;
+        }
+        entries.remove(key);
+        return true;
+    }
+
+    /**
+     * @return Entries kept, including expired ones not trimmed yet
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Caller holds the lock
+    private void expire(long now) {
+        Iterator<Timed<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Timed<V> entry = iterator.next();
+            if (entry.expiresAt - now > 0) {
+                return;
+            }
+            iterator.remove();
+            onDrop.accept(entry.value);
+        }
+    }
+
+    private record Timed<V>(V value, long expiresAt) {}
+}
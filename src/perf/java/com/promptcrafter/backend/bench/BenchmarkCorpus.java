@@ -0,0 +1,133 @@
+package com.promptcrafter.backend.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic corpus of realistic prompts and model responses for benchmarks.
+ *
+ * Prompts are built from everyday request phrasing; responses mimic the
+ * markdown structure the model returns for DETAILED/ACADEMIC enhancements
+ * (headings, bold labels, bullet lists), which is what the storage and
+ * cleaning paths actually see. A fixed seed keeps runs comparable.
+ */
+public final class BenchmarkCorpus {
+
+    private static final String[] OPENERS = {
+            "Explain", "Describe", "Summarize", "Compare", "Write a guide on", "Help me understand",
+            "Give an overview of", "Analyze", "Create a study plan for", "Outline the history of"
+    };
+
+    private static final String[] TOPICS = {
+            "quantum computing", "the causes of the French Revolution", "photosynthesis in C4 plants",
+            "microservice observability", "transformer attention mechanisms", "supply chain resilience",
+            "the economics of renewable energy", "memory management in the JVM", "climate adaptation policy",
+            "protein folding", "distributed consensus algorithms", "early childhood language acquisition"
+    };
+
+    private static final String[] QUALIFIERS = {
+            "in simple terms", "for a graduate seminar", "with real-world examples", "for a beginner",
+            "focusing on recent research", "including common misconceptions", "step by step",
+            "with a comparison table", "for a technical interview", "with citations where possible"
+    };
+
+    private static final String[] SENTENCES = {
+            "Provide relevant background information so the reader understands why this matters.",
+            "Include concrete examples and case studies that illustrate the key concepts.",
+            "Outline a detailed approach and process that can be followed step by step.",
+            "Identify potential issues, limitations, and how they can be addressed.",
+            "Present evidence-based analysis with proper citations to peer-reviewed sources.",
+            "Clarify the objectives and scope before going into implementation details.",
+            "Consider the theoretical context and the practical implications for practitioners.",
+            "Use clear, universal language and define any specialized terminology on first use.",
+            "Summarize the main takeaways at the end in a short bulleted list.",
+            "Highlight trade-offs between the competing approaches and when each is preferable."
+    };
+
+    private static final String[] HEADINGS = {
+            "Background Context", "Objective", "Scope", "Specific Examples", "Step-by-Step Methodology",
+            "Challenges & Solutions", "Detailed Recommendations", "Output Format", "Requirements"
+    };
+
+    private BenchmarkCorpus() {}
+
+    /**
+     * Builds a user prompt of approximately the requested length.
+     *
+     * @param random Source of randomness (seeded by the caller)
+     * @param targetLength Approximate length in characters (capped at 4000)
+     * @return A realistic prompt
+     */
+    public static String prompt(Random random, int targetLength) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(pick(random, OPENERS)).append(' ').append(pick(random, TOPICS)).append(' ')
+                .append(pick(random, QUALIFIERS)).append('.');
+        while (sb.length() < Math.min(targetLength, 4000)) {
+            sb.append(' ').append(pick(random, SENTENCES));
+        }
+        return sb.length() > 4000 ? sb.substring(0, 4000) : sb.toString();
+    }
+
+    /**
+     * Builds a markdown model response of approximately the requested length.
+     *
+     * @param random Source of randomness (seeded by the caller)
+     * @param targetLength Approximate length in characters (capped at 8000)
+     * @return A realistic enhanced prompt
+     */
+    public static String response(Random random, int targetLength) {
+        StringBuilder sb = new StringBuilder("**Comprehensive Analysis Request**\n\n");
+        sb.append(prompt(random, 120)).append("\n\n");
+        while (sb.length() < Math.min(targetLength, 8000)) {
+            sb.append("### ").append(pick(random, HEADINGS)).append("\n");
+            int bullets = 2 + random.nextInt(4);
+            for (int i = 0; i < bullets; i++) {
+                sb.append("- **").append(pick(random, HEADINGS)).append("**: ")
+                        .append(pick(random, SENTENCES)).append('\n');
+            }
+            sb.append('\n');
+        }
+        return sb.length() > 8000 ? sb.substring(0, 8000) : sb.toString();
+    }
+
+    /**
+     * Builds a list of responses with lengths spread between the given bounds.
+     *
+     * @param seed Random seed
+     * @param count Number of responses
+     * @param minLength Shortest response length
+     * @param maxLength Longest response length
+     * @return The generated responses
+     */
+    public static List<String> responses(long seed, int count, int minLength, int maxLength) {
+        Random random = new Random(seed);
+        List<String> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(response(random, minLength + random.nextInt(Math.max(1, maxLength - minLength))));
+        }
+        return result;
+    }
+
+    /**
+     * Builds a list of prompts with lengths spread between the given bounds.
+     *
+     * @param seed Random seed
+     * @param count Number of prompts
+     * @param minLength Shortest prompt length
+     * @param maxLength Longest prompt length
+     * @return The generated prompts
+     */
+    public static List<String> prompts(long seed, int count, int minLength, int maxLength) {
+        Random random = new Random(seed);
+        List<String> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(prompt(random, minLength + random.nextInt(Math.max(1, maxLength - minLength))));
+        }
+        return result;
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,22 @@
+package com.promptcrafter.backend.bench;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Raises log levels for benchmarks that call application code directly
+ * (without a Spring context, logback would default to DEBUG on the console).
+ * Console output would otherwise dominate the measured time.
+ */
+public final class BenchmarkLogging {
+
+    private BenchmarkLogging() {}
+
+    /**
+     * Sets the root logger to WARN.
+     */
+    public static void quiet() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+}
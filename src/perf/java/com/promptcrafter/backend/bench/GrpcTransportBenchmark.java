@@ -0,0 +1,149 @@
+package com.promptcrafter.backend.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promptcrafter.backend.PromptCrafterApplication;
+import com.promptcrafter.backend.dto.PromptRequest;
+import com.promptcrafter.backend.dto.PromptResponse;
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.grpc.GrpcServer;
+import com.promptcrafter.backend.grpc.proto.BatchEnhanceRequest;
+import com.promptcrafter.backend.grpc.proto.BatchEnhanceResponse;
+import com.promptcrafter.backend.grpc.proto.Context;
+import com.promptcrafter.backend.grpc.proto.EnhanceRequest;
+import com.promptcrafter.backend.grpc.proto.EnhanceResponse;
+import com.promptcrafter.backend.grpc.proto.EnhancerGrpc;
+import com.promptcrafter.backend.grpc.proto.Style;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of one enhancement over REST (POST /api/rewrite, JSON over
+ * HTTP/1.1) and over gRPC (unary Enhance and EnhanceBatch) against the same
+ * running application. No api key is set, so every request takes the
+ * rule-based fallback and the service work is identical on both paths; the
+ * difference is transport, (de)serialization and per-request framework cost.
+ *
+ * Client and server share the JVM, so gc.alloc.rate.norm covers both sides.
+ * History goes to the mmap store in a temporary directory. Warmup is long because
+ * the whole request path (servlet, Spring MVC, Netty) has to be compiled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GrpcTransportBenchmark {
+
+    private static final int ROWS = 256;
+    private static final int BATCH = 16;
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+
+    private ConfigurableApplicationContext context;
+    private Path historyDirectory;
+    private HttpClient httpClient;
+    private URI rewriteUri;
+    private ManagedChannel channel;
+    private EnhancerGrpc.EnhancerBlockingStub stub;
+
+    private List<String> jsonBodies;
+    private List<EnhanceRequest> grpcRequests;
+    private List<BatchEnhanceRequest> grpcBatches;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        historyDirectory = Files.createTempDirectory("grpc-bench-history");
+        context = new SpringApplicationBuilder(PromptCrafterApplication.class)
+                .logStartupInfo(false)
+                .run("--server.port=0",
+                        "--app.grpc.enabled=true",
+                        "--app.grpc.port=0",
+                        "--app.history.store=mmap",
+                        "--app.rate-limit.enabled=false",
+                        "--app.history.log.directory=" + historyDirectory,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.promptcrafter=ERROR");
+
+        int httpPort = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        rewriteUri = URI.create("http://127.0.0.1:" + httpPort + "/api/rewrite");
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        channel = NettyChannelBuilder.forAddress("127.0.0.1", context.getBean(GrpcServer.class).getPort())
+                .usePlaintext()
+                .build();
+        stub = EnhancerGrpc.newBlockingStub(channel);
+
+        List<String> prompts = BenchmarkCorpus.prompts(23, ROWS, 20, 1000);
+        EnhancementStyle[] styles = EnhancementStyle.values();
+        ContextType[] contexts = ContextType.values();
+        jsonBodies = new ArrayList<>(ROWS);
+        grpcRequests = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            EnhancementStyle style = styles[i % styles.length];
+            ContextType contextType = contexts[i % contexts.length];
+            jsonBodies.add(MAPPER.writeValueAsString(new PromptRequest(prompts.get(i), style, contextType)));
+            grpcRequests.add(EnhanceRequest.newBuilder()
+                    .setOriginalText(prompts.get(i))
+                    .setStyle(Style.valueOf(style.name()))
+                    .setContext(Context.valueOf(contextType.name()))
+                    .build());
+        }
+        grpcBatches = new ArrayList<>(ROWS / BATCH);
+        for (int i = 0; i < ROWS; i += BATCH) {
+            grpcBatches.add(BatchEnhanceRequest.newBuilder().addAllRequests(grpcRequests.subList(i, i + BATCH)).build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+        context.close();
+        FileSystemUtils.deleteRecursively(historyDirectory);
+    }
+
+    @Benchmark
+    public PromptResponse rest() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(rewriteUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(jsonBodies.get(next())))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        return MAPPER.readValue(response.body(), PromptResponse.class);
+    }
+
+    @Benchmark
+    public EnhanceResponse grpcUnary() {
+        return stub.enhance(grpcRequests.get(next()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public BatchEnhanceResponse grpcBatch() {
+        index = (index + 1) % grpcBatches.size();
+        return stub.enhanceBatch(grpcBatches.get(index));
+    }
+
+    private int next() {
+        index = (index + 1) % ROWS;
+        return index;
+    }
+}
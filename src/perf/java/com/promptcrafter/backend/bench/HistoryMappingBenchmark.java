@@ -0,0 +1,108 @@
+package com.promptcrafter.backend.bench;
+
+import com.promptcrafter.backend.dto.PromptHistoryResponse;
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.service.history.HistoryEntry;
+import com.promptcrafter.backend.service.history.HistoryStore;
+import com.promptcrafter.backend.service.impl.PromptEnhancementServiceImpl;
+import com.promptcrafter.backend.service.metrics.EnhancementMetrics;
+import com.promptcrafter.backend.service.stats.LatencyTracker;
+import com.promptcrafter.backend.service.stats.UsageLedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the HistoryItem mapping in getPromptHistory, excluding storage.
+ *
+ * The service is wired to an in-memory HistoryStore that returns a fixed list
+ * of entries, so the measured time is the mapping, the response construction
+ * and the metrics timer around the store call. Logging runs at WARN, so the
+ * INFO lines the method writes are filtered but not formatted.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistoryMappingBenchmark {
+
+    @Param({"10", "100"})
+    public int limit;
+
+    private PromptEnhancementServiceImpl service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkLogging.quiet();
+        List<String> prompts = BenchmarkCorpus.prompts(19, limit, 20, 4000);
+        List<String> responses = BenchmarkCorpus.responses(19, limit, 500, 8000);
+        EnhancementStyle[] styles = EnhancementStyle.values();
+        ContextType[] contexts = ContextType.values();
+        Instant now = Instant.now();
+
+        List<HistoryEntry> entries = new ArrayList<>(limit);
+        for (int i = 0; i < limit; i++) {
+            entries.add(new HistoryEntry((long) i, (long) i, prompts.get(i), styles[i % styles.length],
+                    contexts[i % contexts.length], responses.get(i), true, now.minusSeconds(i)));
+        }
+
+        service = new PromptEnhancementServiceImpl(null, null, new FixedHistoryStore(entries), null,
+                new EnhancementMetrics(new SimpleMeterRegistry(), "bench", new LatencyTracker(5000, 0.99),
+                        new UsageLedger(null, null, 0, 0)), event -> {}, null, null, null, null, null, null, 1, 1);
+    }
+
+    @Benchmark
+    public PromptHistoryResponse getPromptHistory() {
+        return service.getPromptHistory(limit);
+    }
+
+    /**
+     * Read-only store returning the same entries on every call.
+     */
+    private static final class FixedHistoryStore implements HistoryStore {
+        private final List<HistoryEntry> entries;
+
+        private FixedHistoryStore(List<HistoryEntry> entries) {
+            this.entries = List.copyOf(entries);
+        }
+
+        @Override
+        public HistoryEntry append(String userEmail, HistoryEntry entry) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<HistoryEntry> appendAll(String userEmail, List<HistoryEntry> entries) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<HistoryEntry> findLatest(int limit) {
+            return entries.size() <= limit ? entries : entries.subList(0, limit);
+        }
+
+        @Override
+        public Optional<HistoryEntry> findById(long id) {
+            return entries.stream().filter(entry -> entry.getId() == id).findFirst();
+        }
+
+        @Override
+        public Optional<HistoryEntry> replaceEnhancedText(long id, String enhancedText, boolean modelAnswer) {
+            return Optional.empty();
+        }
+
+        @Override
+        public long scan(Instant from, Instant to, EnhancementStyle style, ContextType context,
+                         HistoryVisitor visitor) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.promptcrafter.backend.bench;
+
+import com.promptcrafter.backend.PromptCrafterApplication;
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.service.history.HistoryEntry;
+import com.promptcrafter.backend.service.history.HistoryStore;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares the history write path and the "latest 10" read path of the JPA
+ * store against the memory-mapped log store.
+ *
+ * Each trial starts a non-web application context with a fresh H2 database
+ * and a fresh log directory, and pre-loads PRELOAD entries so reads do not run
+ * against an empty store.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistoryStoreBenchmark {
+
+    private static final int ROWS = 256;
+    private static final int PRELOAD = 2_000;
+    private static final String USER_EMAIL = "bench@promptcrafter.com";
+
+    @Param({"jpa", "mmap"})
+    public String store;
+
+    private ConfigurableApplicationContext context;
+    private HistoryStore historyStore;
+    private Path logDirectory;
+    private HistoryEntry[] entries;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        logDirectory = Files.createTempDirectory("history-bench");
+        context = new SpringApplicationBuilder(PromptCrafterApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                // Command line arguments, so they override application.properties
+                .run("--app.history.store=" + store,
+                        "--app.history.log.directory=" + logDirectory,
+                        "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        historyStore = context.getBean(HistoryStore.class);
+
+        List<String> prompts = BenchmarkCorpus.prompts(7, ROWS, 20, 4000);
+        List<String> responses = BenchmarkCorpus.responses(7, ROWS, 500, 8000);
+        EnhancementStyle[] styles = EnhancementStyle.values();
+        ContextType[] contexts = ContextType.values();
+        entries = new HistoryEntry[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            entries[i] = HistoryEntry.unsaved(prompts.get(i), styles[i % styles.length],
+                    contexts[i % contexts.length], responses.get(i), true);
+        }
+        for (int i = 0; i < PRELOAD; i++) {
+            historyStore.append(USER_EMAIL, entries[i % ROWS]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(logDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public HistoryEntry append() {
+        index = (index + 1) % ROWS;
+        return historyStore.append(USER_EMAIL, entries[index]);
+    }
+
+    @Benchmark
+    public List<HistoryEntry> findLatest() {
+        return historyStore.findLatest(10);
+    }
+}
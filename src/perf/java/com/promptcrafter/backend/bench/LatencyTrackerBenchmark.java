@@ -0,0 +1,54 @@
+package com.promptcrafter.backend.bench;
+
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.service.stats.LatencyTracker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-request cost of {@link LatencyTracker#record}, which must
+ * stay well under a microsecond. "threads4" runs four recording threads
+ * against the same tracker to show the recorders do not contend.
+ * {@link #rotate} measures the scheduled slot swap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LatencyTrackerBenchmark {
+
+    private static final EnhancementStyle[] STYLES = EnhancementStyle.values();
+    private static final ContextType[] CONTEXTS = ContextType.values();
+    private static final LatencyTracker.Outcome[] OUTCOMES = LatencyTracker.Outcome.values();
+
+    private final LatencyTracker tracker = new LatencyTracker(5000, 0.99);
+
+    @Benchmark
+    public void record() {
+        recordOne();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void threads4() {
+        recordOne();
+    }
+
+    @Benchmark
+    public void rotate() {
+        recordOne();
+        tracker.rotate();
+    }
+
+    private void recordOne() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        tracker.record(STYLES[random.nextInt(STYLES.length)], CONTEXTS[random.nextInt(CONTEXTS.length)],
+                OUTCOMES[random.nextInt(OUTCOMES.length)],
+                TimeUnit.MILLISECONDS.toNanos(200 + random.nextInt(6000)));
+    }
+}
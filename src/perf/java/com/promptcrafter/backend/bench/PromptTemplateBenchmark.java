@@ -0,0 +1,69 @@
+package com.promptcrafter.backend.bench;
+
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.service.ai.RuleBasedEnhancer;
+import com.promptcrafter.backend.templates.PromptTemplateBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the model prompt from a user prompt and extracting the
+ * user prompt back out of it (the first step of every fallback).
+ *
+ * The "promptLength" parameter is the upper bound of the prompt lengths in
+ * the corpus: 100 for typical one-line prompts, 1000 and 4000 for pasted text.
+ * Styles and contexts rotate across all enum values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromptTemplateBenchmark {
+
+    private static final int ROWS = 256;
+    private static final EnhancementStyle[] STYLES = EnhancementStyle.values();
+    private static final ContextType[] CONTEXTS = ContextType.values();
+
+    @Param({"100", "1000", "4000"})
+    public int promptLength;
+
+    private final PromptTemplateBuilder templateBuilder = new PromptTemplateBuilder();
+    private final RuleBasedEnhancer ruleBasedEnhancer = new RuleBasedEnhancer();
+
+    private List<String> prompts;
+    private String[] templates;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkLogging.quiet();
+        prompts = BenchmarkCorpus.prompts(11, ROWS, Math.min(20, promptLength / 2), promptLength);
+        templates = new String[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            templates[i] = templateBuilder.buildEnhancementPrompt(prompts.get(i),
+                    STYLES[i % STYLES.length], CONTEXTS[i % CONTEXTS.length]);
+        }
+    }
+
+    @Benchmark
+    public String buildEnhancementPrompt() {
+        int i = next();
+        return templateBuilder.buildEnhancementPrompt(prompts.get(i),
+                STYLES[i % STYLES.length], CONTEXTS[i % CONTEXTS.length]);
+    }
+
+    @Benchmark
+    public String extractOriginalFromTemplate() {
+        return ruleBasedEnhancer.extractOriginalFromTemplate(templates[next()]);
+    }
+
+    private int next() {
+        index = (index + 1) % ROWS;
+        return index;
+    }
+}
@@ -0,0 +1,69 @@
+package com.promptcrafter.backend.bench;
+
+import com.promptcrafter.backend.service.ratelimit.RateLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link RateLimiter#acquire}, which runs before every enhancement and
+ * history request. "manyClients" picks one of 10k clients per call, so threads
+ * rarely share a bucket; "oneClient" puts every call on one bucket, the worst
+ * case for the compare-and-set. The "threads4" variants run four threads
+ * against the same limiter to show the cost per call does not grow with
+ * threads. {@link #rejectedThreads4} is a single client flooding a limiter it
+ * has long exhausted.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    private static final int CLIENTS = 10_000;
+
+    // High enough that nearly every call is allowed and updates its bucket
+    private final RateLimiter open = new RateLimiter(Integer.MAX_VALUE, Integer.MAX_VALUE, CLIENTS + 1);
+    private final RateLimiter exhausted = new RateLimiter(1, 1, CLIENTS + 1);
+    private final String[] clients = new String[CLIENTS];
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "ip:10." + (i >> 16) + "." + ((i >> 8) & 0xff) + "." + (i & 0xff);
+            open.acquire(clients[i]);
+        }
+        exhausted.acquire(clients[0]);
+    }
+
+    @Benchmark
+    public boolean oneClient() {
+        return open.acquire(clients[0]).allowed();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean oneClientThreads4() {
+        return open.acquire(clients[0]).allowed();
+    }
+
+    @Benchmark
+    public boolean manyClients() {
+        return open.acquire(clients[ThreadLocalRandom.current().nextInt(CLIENTS)]).allowed();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean manyClientsThreads4() {
+        return open.acquire(clients[ThreadLocalRandom.current().nextInt(CLIENTS)]).allowed();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean rejectedThreads4() {
+        return exhausted.acquire(clients[0]).allowed();
+    }
+}
@@ -0,0 +1,163 @@
+package com.promptcrafter.backend.bench;
+
+import com.promptcrafter.backend.controller.RewriteController;
+import com.promptcrafter.backend.dto.PromptRequest;
+import com.promptcrafter.backend.dto.PromptResponse;
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.service.ai.LangChain4jService;
+import com.promptcrafter.backend.service.ai.LongPromptEnhancer;
+import com.promptcrafter.backend.service.ai.ResponseCleaner;
+import com.promptcrafter.backend.service.ai.RuleBasedEnhancer;
+import com.promptcrafter.backend.service.ai.TokenBudget;
+import com.promptcrafter.backend.service.history.HistoryEntry;
+import com.promptcrafter.backend.service.history.HistoryStore;
+import com.promptcrafter.backend.service.impl.PromptEnhancementServiceImpl;
+import com.promptcrafter.backend.service.logging.RequestLogPolicy;
+import com.promptcrafter.backend.service.metrics.EnhancementMetrics;
+import com.promptcrafter.backend.service.similarity.SimilarPromptFinder;
+import com.promptcrafter.backend.service.speculative.StylePregenerator;
+import com.promptcrafter.backend.service.triage.PromptTriage;
+import com.promptcrafter.backend.service.stats.LatencyTracker;
+import com.promptcrafter.backend.service.stats.UsageLedger;
+import com.promptcrafter.backend.service.stats.UsageStatsService;
+import com.promptcrafter.backend.templates.PromptTemplateBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request throughput of POST /api/rewrite (controller, service, rule-based
+ * fallback, in-memory store) under different logging setups. The SLF4J
+ * provider is fixed per JVM, so each setup is its own fork:
+ *
+ * - off: SLF4J NOP provider, the upper bound
+ * - syncWriter: tinylog writing to target/bench-logs/sync.log on the request thread
+ * - asyncWriter: tinylog writing through its writer thread, as in the prod profile
+ *
+ * "sampleRate" is app.logging.sample-rate; 1.0 logs every request, 0.05 is the
+ * prod profile default.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class RequestLoggingBenchmark {
+
+    private static final int ROWS = 256;
+    private static final String TINYLOG = "-Dslf4j.provider=org.tinylog.slf4j.TinylogSlf4jServiceProvider";
+    private static final String FORMAT =
+            "-Dtinylog.writer.format={date: yyyy-MM-dd HH:mm:ss} [{thread}] {level} {class-name} - {message}";
+
+    @Param({"1.0", "0.05"})
+    public double sampleRate;
+
+    private RewriteController controller;
+    private List<PromptRequest> requests;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EnhancementMetrics metrics = new EnhancementMetrics(new SimpleMeterRegistry(), "bench",
+                new LatencyTracker(5000, 0.99), new UsageLedger(null, null, 0, 0));
+        // No api key is set, so every request takes the rule-based fallback
+        TokenBudget tokenBudget = new TokenBudget(new PromptTemplateBuilder(), "gpt-4o-mini", 1500, 120, 500, 900, 600);
+        LangChain4jService aiService = new LangChain4jService(new RuleBasedEnhancer(), new ResponseCleaner(), metrics,
+                tokenBudget);
+        HistoryStore store = new DiscardingHistoryStore();
+        // Similar-prompt reuse, triage and speculative styles are off so every request runs the full pipeline
+        PromptEnhancementServiceImpl service = new PromptEnhancementServiceImpl(new PromptTemplateBuilder(),
+                aiService, store, new UsageStatsService(null, null), metrics, event -> {},
+                new SimilarPromptFinder(store, false, 0.8, 1024, 64),
+                new PromptTriage(false, 10, 3, 0.8), new RuleBasedEnhancer(),
+                new LongPromptEnhancer(aiService, null, null, metrics, tokenBudget, false, 1500, 800, 4, 1),
+                tokenBudget, new StylePregenerator(aiService, null, tokenBudget, metrics, false, 1, 64, 600, 2000), 1, 1);
+        controller = new RewriteController(service, null, new RequestLogPolicy(sampleRate, true), null, null, null, null);
+
+        List<String> prompts = BenchmarkCorpus.prompts(23, ROWS, 20, 1000);
+        EnhancementStyle[] styles = EnhancementStyle.values();
+        ContextType[] contexts = ContextType.values();
+        requests = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            requests.add(new PromptRequest(prompts.get(i), styles[i % styles.length], contexts[i % contexts.length]));
+        }
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dslf4j.provider=org.slf4j.helpers.NOP_FallbackServiceProvider")
+    public ResponseEntity<PromptResponse> off() {
+        return controller.rewrite(next(), null, null);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {TINYLOG, "-Dtinylog.writingthread=false", "-Dtinylog.level=info",
+            "-Dtinylog.writer=file", "-Dtinylog.writer.file=target/bench-logs/sync.log", FORMAT})
+    public ResponseEntity<PromptResponse> syncWriter() {
+        return controller.rewrite(next(), null, null);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {TINYLOG, "-Dtinylog.writingthread=true", "-Dtinylog.level=info",
+            "-Dtinylog.writer=file", "-Dtinylog.writer.file=target/bench-logs/async.log", FORMAT})
+    public ResponseEntity<PromptResponse> asyncWriter() {
+        return controller.rewrite(next(), null, null);
+    }
+
+    private PromptRequest next() {
+        PromptRequest request = requests.get(index);
+        index = (index + 1) % ROWS;
+        return request;
+    }
+
+    /**
+     * Store that assigns ids and keeps nothing, so memory stays flat.
+     */
+    private static final class DiscardingHistoryStore implements HistoryStore {
+        private final AtomicLong ids = new AtomicLong();
+
+        @Override
+        public HistoryEntry append(String userEmail, HistoryEntry entry) {
+            long id = ids.incrementAndGet();
+            return new HistoryEntry(id, id, entry.getOriginalText(), entry.getStyle(), entry.getContext(),
+                    entry.getEnhancedText(), entry.isModelAnswer(), Instant.now());
+        }
+
+        @Override
+        public List<HistoryEntry> appendAll(String userEmail, List<HistoryEntry> entries) {
+            List<HistoryEntry> saved = new ArrayList<>(entries.size());
+            for (HistoryEntry entry : entries) {
+                saved.add(append(userEmail, entry));
+            }
+            return saved;
+        }
+
+        @Override
+        public List<HistoryEntry> findLatest(int limit) {
+            return List.of();
+        }
+
+        @Override
+        public Optional<HistoryEntry> findById(long id) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<HistoryEntry> replaceEnhancedText(long id, String enhancedText, boolean modelAnswer) {
+            return Optional.empty();
+        }
+
+        @Override
+        public long scan(Instant from, Instant to, EnhancementStyle style, ContextType context,
+                         HistoryVisitor visitor) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.promptcrafter.backend.bench;
+
+import com.promptcrafter.backend.service.ai.ResponseCleaner;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures cleaning of model responses.
+ *
+ * Responses are markdown with the artifacts the cleaner removes ("Enhanced
+ * version:", "Task:", "Requirements:", "Original prompt:" lines and blank
+ * line runs). The "responseLength" parameter is the upper bound of response
+ * lengths in the corpus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseCleanerBenchmark {
+
+    private static final int ROWS = 256;
+
+    @Param({"200", "2000", "8000"})
+    public int responseLength;
+
+    private final ResponseCleaner responseCleaner = new ResponseCleaner();
+
+    private String[] responses;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkLogging.quiet();
+        List<String> bodies = BenchmarkCorpus.responses(13, ROWS, Math.min(100, responseLength / 2), responseLength);
+        responses = new String[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            // Every other response carries the template echo that models sometimes return
+            responses[i] = i % 2 == 0
+                    ? "Enhanced version:\n\n" + bodies.get(i)
+                    : "Task: rewrite\nOriginal prompt: " + bodies.get(i).substring(0, Math.min(80, bodies.get(i).length()))
+                        + "\n\n\nEnhanced version: " + bodies.get(i);
+        }
+    }
+
+    @Benchmark
+    public String clean() {
+        index = (index + 1) % ROWS;
+        return responseCleaner.clean(responses[index]);
+    }
+}
@@ -0,0 +1,63 @@
+package com.promptcrafter.backend.bench;
+
+import com.promptcrafter.backend.service.ai.RuleBasedEnhancer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the four rule-based fallback generators on already extracted
+ * user prompts. The "promptLength" parameter is the upper bound of prompt
+ * lengths in the corpus; concise enhancement takes different branches for
+ * prompts under 50 characters and prompts over 10 words.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RuleBasedEnhancerBenchmark {
+
+    private static final int ROWS = 256;
+
+    @Param({"100", "1000", "4000"})
+    public int promptLength;
+
+    private final RuleBasedEnhancer ruleBasedEnhancer = new RuleBasedEnhancer();
+
+    private List<String> prompts;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkLogging.quiet();
+        prompts = BenchmarkCorpus.prompts(17, ROWS, Math.min(20, promptLength / 2), promptLength);
+    }
+
+    @Benchmark
+    public String concise() {
+        return ruleBasedEnhancer.generateConciseEnhancement(next());
+    }
+
+    @Benchmark
+    public String academic() {
+        return ruleBasedEnhancer.generateAcademicEnhancement(next());
+    }
+
+    @Benchmark
+    public String detailed() {
+        return ruleBasedEnhancer.generateDetailedEnhancement(next());
+    }
+
+    @Benchmark
+    public String creative() {
+        return ruleBasedEnhancer.generateCreativeEnhancement(next());
+    }
+
+    private String next() {
+        index = (index + 1) % ROWS;
+        return prompts.get(index);
+    }
+}
@@ -0,0 +1,95 @@
+package com.promptcrafter.backend.bench;
+
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.service.similarity.MinHashIndex;
+import com.promptcrafter.backend.service.similarity.TextFeatures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the near-duplicate lookup of SimilarPromptFinder, excluding the
+ * history read of the matched entry.
+ *
+ * The index is filled with 20-word prompts drawn from a 5000-word vocabulary,
+ * spread over every style and context. findHit looks up a stored prompt with
+ * one word replaced, findMiss a prompt that was never stored; both include
+ * feature extraction. features measures the extraction alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SimilarPromptIndexBenchmark {
+
+    private static final int WORDS = 20;
+    private static final int QUERIES = 1024;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private MinHashIndex index;
+    private String[] hits;
+    private String[] misses;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(23);
+        String[] vocabulary = new String[5000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = Long.toString(random.nextLong() & Long.MAX_VALUE, 36).substring(0, 3 + random.nextInt(6));
+        }
+        EnhancementStyle[] styles = EnhancementStyle.values();
+        ContextType[] contexts = ContextType.values();
+
+        // Queries target stored prompts of the first style and context, spread over the index
+        int partitions = styles.length * contexts.length;
+        int stride = size / QUERIES / partitions * partitions;
+
+        index = new MinHashIndex(size, 64);
+        hits = new String[QUERIES];
+        for (int i = 0; i < size; i++) {
+            String[] words = new String[WORDS];
+            for (int w = 0; w < WORDS; w++) {
+                words[w] = vocabulary[random.nextInt(vocabulary.length)];
+            }
+            index.add(TextFeatures.of(String.join(" ", words)), i,
+                    styles[i % styles.length], contexts[i / styles.length % contexts.length]);
+            if (i % stride == 0 && i / stride < QUERIES) {
+                words[random.nextInt(WORDS)] = vocabulary[random.nextInt(vocabulary.length)];
+                hits[i / stride] = String.join(" ", words);
+            }
+        }
+
+        misses = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String[] words = new String[WORDS];
+            for (int w = 0; w < WORDS; w++) {
+                words[w] = vocabulary[random.nextInt(vocabulary.length)];
+            }
+            misses[i] = String.join(" ", words);
+        }
+    }
+
+    @Benchmark
+    public long[] features() {
+        return TextFeatures.of(hits[next++ & (QUERIES - 1)]);
+    }
+
+    @Benchmark
+    public MinHashIndex.Match findHit() {
+        return index.find(TextFeatures.of(hits[next++ & (QUERIES - 1)]),
+                EnhancementStyle.values()[0], ContextType.values()[0], 0.65);
+    }
+
+    @Benchmark
+    public MinHashIndex.Match findMiss() {
+        return index.find(TextFeatures.of(misses[next++ & (QUERIES - 1)]),
+                EnhancementStyle.values()[0], ContextType.values()[0], 0.65);
+    }
+}
@@ -0,0 +1,67 @@
+package com.promptcrafter.backend.bench;
+
+import com.promptcrafter.backend.model.converter.TextCompressionCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the CPU cost of compressing and decompressing stored text columns
+ * and reports the storage saved per row.
+ *
+ * The "kind" parameter selects the column: "enhanced" rows are markdown
+ * responses of 500-8000 characters, "original" rows are prompts of 20-4000
+ * characters. Storage bytes per row are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TextCompressionBenchmark {
+
+    private static final int ROWS = 256;
+
+    @Param({"enhanced", "original"})
+    public String kind;
+
+    private List<String> plain;
+    private String[] encoded;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        plain = "enhanced".equals(kind)
+                ? BenchmarkCorpus.responses(42, ROWS, 500, 8000)
+                : BenchmarkCorpus.prompts(42, ROWS, 20, 4000);
+        encoded = new String[ROWS];
+
+        long plainBytes = 0;
+        long storedBytes = 0;
+        for (int i = 0; i < ROWS; i++) {
+            encoded[i] = TextCompressionCodec.encode(plain.get(i));
+            plainBytes += plain.get(i).getBytes(StandardCharsets.UTF_8).length;
+            storedBytes += encoded[i].getBytes(StandardCharsets.UTF_8).length;
+        }
+        System.out.printf("%n[%s] storage bytes/row: plain=%d compressed=%d ratio=%.2f%n",
+                kind, plainBytes / ROWS, storedBytes / ROWS, (double) storedBytes / plainBytes);
+    }
+
+    @Benchmark
+    public String write() {
+        return TextCompressionCodec.encode(plain.get(next()));
+    }
+
+    @Benchmark
+    public String read() {
+        return TextCompressionCodec.decode(encoded[next()]);
+    }
+
+    private int next() {
+        index = (index + 1) % ROWS;
+        return index;
+    }
+}
@@ -0,0 +1,330 @@
+package com.promptcrafter.backend.bench.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promptcrafter.backend.PromptCrafterApplication;
+import com.promptcrafter.backend.bench.BenchmarkCorpus;
+import com.promptcrafter.backend.bench.stub.OpenAiStubServer;
+import com.promptcrafter.backend.bench.stub.StubConfig;
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load test of POST /api/rewrite.
+ *
+ * Starts an {@link OpenAiStubServer} and the full application on a random port
+ * pointed at it, then runs closed-loop load at each concurrency step (each
+ * worker sends its next request as soon as the previous one returns). Per step
+ * it reports throughput, latency percentiles, and the peak active and waiting
+ * connections of the Hikari pool, sampled every 50 ms.
+ *
+ * Run with:
+ * <pre>
+ * mvn -Pperf -DskipTests compile exec:exec -Dperf.main=com.promptcrafter.backend.bench.load.LoadTestHarness \
+ *     -Dperf.args="--steps 1,8,32,64 --step-seconds 20 --latency lognormal:600:2500"
+ * </pre>
+ *
+ * Options (besides the stub options in {@link StubConfig}):
+ * - --steps LIST: Concurrency levels (default: 1,4,16,32)
+ * - --warmup-seconds N: Unrecorded load before the first step (default: 5)
+ * - --step-seconds N: Recorded duration of each step (default: 15)
+ * - --output FILE: CSV report (default: target/loadtest.csv)
+ * - --app KEY=VALUE: Extra application property, repeatable (e.g. --app app.history.store=mmap)
+ */
+public final class LoadTestHarness {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private int[] steps = {1, 4, 16, 32};
+    private int warmupSeconds = 5;
+    private int stepSeconds = 15;
+    private Path output = Path.of("target", "loadtest.csv");
+    private final List<String> appProperties = new ArrayList<>();
+
+    private LoadTestHarness() {}
+
+    public static void main(String[] args) throws Exception {
+        LoadTestHarness harness = new LoadTestHarness();
+        harness.parse(args);
+        harness.run(StubConfig.parse(args));
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--steps" -> steps = Arrays.stream(value.split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+                case "--warmup-seconds" -> warmupSeconds = Integer.parseInt(value);
+                case "--step-seconds" -> stepSeconds = Integer.parseInt(value);
+                case "--output" -> output = Path.of(value);
+                case "--app" -> appProperties.add(value);
+                default -> { continue; }
+            }
+            i++;
+        }
+    }
+
+    private void run(StubConfig stubConfig) throws Exception {
+        try (OpenAiStubServer stub = OpenAiStubServer.start(stubConfig);
+             ConfigurableApplicationContext context = startApplication(stub)) {
+
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            HikariPoolMXBean pool = context.getBean(DataSource.class).unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            URI target = URI.create("http://127.0.0.1:" + port + "/api/rewrite");
+
+            System.out.printf("%nStub: %s (%s)%nApp:  %s%n", stub.baseUrl(), stubConfig, target);
+            List<String> bodies = requestBodies();
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            if (warmupSeconds > 0) {
+                System.out.printf("Warming up for %ds...%n", warmupSeconds);
+                runStep(client, target, bodies, steps[0], warmupSeconds, pool);
+            }
+
+            List<StepResult> results = new ArrayList<>();
+            for (int concurrency : steps) {
+                long stubBefore = stub.getRequests();
+                StepResult result = runStep(client, target, bodies, concurrency, stepSeconds, pool);
+                result.stubRequests = stub.getRequests() - stubBefore;
+                results.add(result);
+                System.out.println(result.toRow());
+            }
+
+            System.out.println();
+            System.out.println(StepResult.HEADER);
+            results.forEach(r -> System.out.println(r.toRow()));
+            System.out.printf("Stub injected: %d errors, %d throttles%n",
+                    stub.getInjectedErrors(), stub.getInjectedThrottles());
+            writeCsv(results);
+        }
+    }
+
+    private ConfigurableApplicationContext startApplication(OpenAiStubServer stub) {
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "app.openai.base-url=" + stub.baseUrl(),
+                "app.openai.api-key=stub-key",
+                "spring.datasource.url=jdbc:h2:mem:load-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "spring.jpa.show-sql=false",
+                "logging.level.root=WARN",
+                "logging.level.com.promptcrafter=WARN",
+                "logging.level.dev.langchain4j=ERROR",
+                // The harness is one client sending far more than the per-client limit
+                "app.rate-limit.enabled=false"));
+        properties.addAll(appProperties);
+        // Passed as command line arguments so they override application.properties
+        return new SpringApplicationBuilder(PromptCrafterApplication.class)
+                .logStartupInfo(false)
+                .run(properties.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    private static List<String> requestBodies() throws IOException {
+        List<String> prompts = BenchmarkCorpus.prompts(23, 512, 20, 1500);
+        EnhancementStyle[] styles = EnhancementStyle.values();
+        ContextType[] contexts = ContextType.values();
+        List<String> bodies = new ArrayList<>(prompts.size());
+        for (int i = 0; i < prompts.size(); i++) {
+            bodies.add(MAPPER.writeValueAsString(Map.of(
+                    "originalText", prompts.get(i),
+                    "style", styles[i % styles.length].name(),
+                    "context", contexts[i % contexts.length].name())));
+        }
+        return bodies;
+    }
+
+    private StepResult runStep(HttpClient client, URI target, List<String> bodies, int concurrency, int seconds,
+                               HikariPoolMXBean pool) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        PoolSample poolSample = new PoolSample();
+        sampler.scheduleAtFixedRate(() -> poolSample.add(pool), 0, 50, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<WorkerResult>> futures = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            int offset = w;
+            futures.add(workers.submit(() -> runWorker(client, target, bodies, offset, deadline)));
+        }
+
+        WorkerResult total = new WorkerResult();
+        for (Future<WorkerResult> future : futures) {
+            total.merge(future.get());
+        }
+        long elapsed = System.nanoTime() - start;
+        sampler.shutdownNow();
+        workers.shutdownNow();
+
+        return new StepResult(concurrency, total, elapsed, poolSample, pool.getTotalConnections());
+    }
+
+    private static WorkerResult runWorker(HttpClient client, URI target, List<String> bodies, int offset,
+                                          long deadline) {
+        WorkerResult result = new WorkerResult();
+        int next = offset;
+        while (System.nanoTime() < deadline) {
+            HttpRequest request = HttpRequest.newBuilder(target)
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(bodies.get(next % bodies.size())))
+                    .build();
+            next += 7;
+
+            long sent = System.nanoTime();
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                boolean ok = response.statusCode() == 200 && response.body().contains("\"success\":true");
+                result.record(System.nanoTime() - sent, ok);
+            } catch (IOException e) {
+                result.record(System.nanoTime() - sent, false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return result;
+    }
+
+    private void writeCsv(List<StepResult> results) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(output))) {
+            writer.println("concurrency,requests,errors,throughput_rps,p50_ms,p90_ms,p99_ms,max_ms,"
+                    + "stub_requests,pool_size,pool_active_max,pool_waiting_max,pool_waiting_mean");
+            for (StepResult r : results) {
+                writer.printf("%d,%d,%d,%.2f,%.1f,%.1f,%.1f,%.1f,%d,%d,%d,%d,%.2f%n",
+                        r.concurrency, r.requests, r.errors, r.throughput, r.p50, r.p90, r.p99, r.max,
+                        r.stubRequests, r.poolSize, r.poolActiveMax, r.poolWaitingMax, r.poolWaitingMean);
+            }
+        }
+        System.out.println("Report written to " + output.toAbsolutePath());
+    }
+
+    /**
+     * Latencies and error count collected by one worker thread.
+     */
+    private static final class WorkerResult {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void merge(WorkerResult other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], true);
+            }
+            errors += other.errors;
+        }
+    }
+
+    /**
+     * Hikari pool gauges sampled during a step.
+     */
+    private static final class PoolSample {
+        private int activeMax;
+        private int waitingMax;
+        private long waitingSum;
+        private long samples;
+
+        synchronized void add(HikariPoolMXBean pool) {
+            int active = pool.getActiveConnections();
+            int waiting = pool.getThreadsAwaitingConnection();
+            activeMax = Math.max(activeMax, active);
+            waitingMax = Math.max(waitingMax, waiting);
+            waitingSum += waiting;
+            samples++;
+        }
+    }
+
+    /**
+     * Summary of one concurrency step.
+     */
+    private static final class StepResult {
+        static final String HEADER = String.format("%6s %9s %7s %9s %9s %9s %9s %9s %6s %6s %8s",
+                "conc", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms",
+                "pool", "active", "waiting");
+
+        final int concurrency;
+        final long requests;
+        final long errors;
+        final double throughput;
+        final double p50;
+        final double p90;
+        final double p99;
+        final double max;
+        final int poolSize;
+        final int poolActiveMax;
+        final int poolWaitingMax;
+        final double poolWaitingMean;
+        long stubRequests;
+
+        StepResult(int concurrency, WorkerResult total, long elapsedNanos, PoolSample pool, int poolSize) {
+            long[] sorted = Arrays.copyOf(total.latencies, total.count);
+            Arrays.sort(sorted);
+            this.concurrency = concurrency;
+            this.requests = total.count;
+            this.errors = total.errors;
+            this.throughput = total.count / (elapsedNanos / 1e9);
+            this.p50 = percentileMillis(sorted, 0.50);
+            this.p90 = percentileMillis(sorted, 0.90);
+            this.p99 = percentileMillis(sorted, 0.99);
+            this.max = sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6;
+            this.poolSize = poolSize;
+            synchronized (pool) {
+                this.poolActiveMax = pool.activeMax;
+                this.poolWaitingMax = pool.waitingMax;
+                this.poolWaitingMean = pool.samples == 0 ? 0 : (double) pool.waitingSum / pool.samples;
+            }
+        }
+
+        private static double percentileMillis(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+        }
+
+        String toRow() {
+            return String.format("%6d %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %6d %6d %8d",
+                    concurrency, requests, errors, throughput, p50, p90, p99, max,
+                    poolSize, poolActiveMax, poolWaitingMax);
+        }
+    }
+}
@@ -0,0 +1,426 @@
+package com.promptcrafter.backend.bench.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promptcrafter.backend.PromptCrafterApplication;
+import com.promptcrafter.backend.bench.stub.OpenAiStubServer;
+import com.promptcrafter.backend.bench.stub.StubConfig;
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.service.ai.LangChain4jService;
+import com.promptcrafter.backend.templates.PromptTemplateBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a recorded request trace against one or more enhancer configurations
+ * and compares them.
+ *
+ * The trace is JSONL with one request per line. The history export
+ * (GET /api/history/export) can be used directly:
+ * - originalText (required)
+ * - style or enhancementStyle (default: DETAILED)
+ * - context (default: GENERAL)
+ * - timestamp or createdAt: ISO-8601 instant or epoch millis (required unless --speed max)
+ *
+ * Each configuration runs in its own non-web application context, with its
+ * properties passed as command line arguments. Requests go through
+ * PromptTemplateBuilder and LangChain4jService, without persistence, so only
+ * the enhancer is compared. Fallback rate and token counts are read from the
+ * pipeline meters (see EnhancementMetrics).
+ *
+ * Run with:
+ * <pre>
+ * mvn -Pperf -DskipTests compile exec:exec -Dperf.main=com.promptcrafter.backend.bench.replay.TraceReplay \
+ *     -Dperf.args="--trace history.ndjson --speed 4 --stub --latency lognormal:600:2500
+ *                  --config name=mini;app.openai.model=gpt-4o-mini;price.input=0.15;price.output=0.60
+ *                  --config name=mini-t0;app.openai.model=gpt-4o-mini;app.openai.temperature=0;price.input=0.15;price.output=0.60"
+ * </pre>
+ *
+ * Options:
+ * - --trace FILE: Trace to replay (required)
+ * - --speed original|max|FACTOR: Arrival timing; FACTOR 2 replays twice as fast (default: original)
+ * - --concurrency N: Worker threads for --speed max (default: 8)
+ * - --warmup N: Requests from the start of the trace run before measuring each
+ *   configuration, so JIT and connection setup do not favour later configurations (default: 20)
+ * - --config SPEC: "name=X;key=value;...", repeatable. Keys are application
+ *   properties, plus price.input / price.output in USD per million tokens
+ * - --stub: Start an OpenAiStubServer (stub options apply) and use it for
+ *   configurations without app.openai.base-url
+ * - --output FILE: CSV report (default: target/replay-report.csv)
+ *
+ * There is one template set today, so template variants cannot be compared
+ * yet; any property-driven choice (model, temperature, api.timeout,
+ * api.retry-attempts, base URL) can be.
+ */
+public final class TraceReplay {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private Path trace;
+    private String speed = "original";
+    private int concurrency = 8;
+    private int warmup = 20;
+    private boolean useStub;
+    private Path output = Path.of("target", "replay-report.csv");
+    private final List<ReplayConfig> configs = new ArrayList<>();
+
+    private TraceReplay() {}
+
+    public static void main(String[] args) throws Exception {
+        TraceReplay replay = new TraceReplay();
+        replay.parse(args);
+        replay.run(StubConfig.parse(args));
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--trace" -> trace = Path.of(args[++i]);
+                case "--speed" -> speed = args[++i].toLowerCase();
+                case "--concurrency" -> concurrency = Integer.parseInt(args[++i]);
+                case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                case "--config" -> configs.add(ReplayConfig.parse(args[++i]));
+                case "--stub" -> useStub = true;
+                case "--output" -> output = Path.of(args[++i]);
+                default -> { }
+            }
+        }
+        if (trace == null) {
+            throw new IllegalArgumentException("--trace is required");
+        }
+        if (configs.isEmpty()) {
+            configs.add(ReplayConfig.parse("name=default"));
+        }
+    }
+
+    private void run(StubConfig stubConfig) throws Exception {
+        List<TraceRequest> requests = readTrace();
+        System.out.printf("Loaded %d requests from %s, speed: %s%n", requests.size(), trace, speed);
+
+        OpenAiStubServer stub = useStub ? OpenAiStubServer.start(stubConfig) : null;
+        try {
+            List<ConfigReport> reports = new ArrayList<>();
+            for (ReplayConfig config : configs) {
+                System.out.printf("Replaying configuration '%s' %s%n", config.name, config.properties);
+                reports.add(replay(config, requests, stub));
+            }
+
+            System.out.println();
+            System.out.println(ConfigReport.HEADER);
+            reports.forEach(r -> System.out.println(r.toRow()));
+            writeCsv(reports);
+        } finally {
+            if (stub != null) {
+                stub.close();
+            }
+        }
+    }
+
+    private List<TraceRequest> readTrace() throws IOException {
+        List<TraceRequest> requests = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(trace)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node = MAPPER.readTree(line);
+                String text = node.path("originalText").asText(null);
+                if (text == null || text.isBlank()) {
+                    System.err.printf("Skipping line %d: no originalText%n", lineNumber);
+                    continue;
+                }
+                String style = firstText(node, "style", "enhancementStyle");
+                String context = node.path("context").asText(null);
+                requests.add(new TraceRequest(
+                        text,
+                        style != null ? EnhancementStyle.fromString(style) : EnhancementStyle.DETAILED,
+                        context != null ? ContextType.fromString(context) : ContextType.GENERAL,
+                        parseArrival(node, lineNumber)));
+            }
+        }
+        if (!"max".equals(speed)) {
+            requests.sort(Comparator.comparingLong(r -> r.arrivalMillis));
+        }
+        return requests;
+    }
+
+    private long parseArrival(JsonNode node, int lineNumber) {
+        JsonNode value = node.has("timestamp") ? node.get("timestamp") : node.get("createdAt");
+        if (value == null || value.isNull()) {
+            if ("max".equals(speed)) {
+                return 0;
+            }
+            throw new IllegalArgumentException("Line " + lineNumber + " has no timestamp; use --speed max");
+        }
+        return value.isNumber() ? value.asLong() : Instant.parse(value.asText()).toEpochMilli();
+    }
+
+    private static String firstText(JsonNode node, String... fields) {
+        for (String field : fields) {
+            if (node.hasNonNull(field)) {
+                return node.get(field).asText();
+            }
+        }
+        return null;
+    }
+
+    private ConfigReport replay(ReplayConfig config, List<TraceRequest> requests, OpenAiStubServer stub)
+            throws Exception {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:replay-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.promptcrafter=WARN",
+                "--logging.level.dev.langchain4j=ERROR"));
+        if (stub != null && !config.properties.containsKey("app.openai.base-url")) {
+            args.add("--app.openai.base-url=" + stub.baseUrl());
+            args.add("--app.openai.api-key=stub-key");
+        }
+        config.properties.forEach((key, value) -> args.add("--" + key + "=" + value));
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PromptCrafterApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(args.toArray(String[]::new))) {
+
+            PromptTemplateBuilder templateBuilder = context.getBean(PromptTemplateBuilder.class);
+            LangChain4jService aiService = context.getBean(LangChain4jService.class);
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+            boolean maxSpeed = "max".equals(speed);
+            double factor = maxSpeed || "original".equals(speed) ? 1.0 : Double.parseDouble(speed);
+            // Timed replays are open loop: every request runs when it is due, however many are in flight
+            ExecutorService executor = maxSpeed
+                    ? Executors.newFixedThreadPool(concurrency)
+                    : Executors.newCachedThreadPool();
+
+            for (int i = 0; i < Math.min(warmup, requests.size()); i++) {
+                execute(templateBuilder, aiService, requests.get(i));
+            }
+            MeterTotals before = MeterTotals.read(registry);
+
+            List<Future<RequestResult>> futures = new ArrayList<>(requests.size());
+            long firstArrival = requests.isEmpty() ? 0 : requests.get(0).arrivalMillis;
+            long start = System.nanoTime();
+            try {
+                for (TraceRequest request : requests) {
+                    if (!maxSpeed) {
+                        long dueNanos = start + (long) ((request.arrivalMillis - firstArrival) * 1_000_000 / factor);
+                        long wait = dueNanos - System.nanoTime();
+                        if (wait > 0) {
+                            TimeUnit.NANOSECONDS.sleep(wait);
+                        }
+                    }
+                    futures.add(executor.submit(() -> execute(templateBuilder, aiService, request)));
+                }
+
+                List<RequestResult> results = new ArrayList<>(futures.size());
+                for (Future<RequestResult> future : futures) {
+                    results.add(future.get());
+                }
+                MeterTotals measured = MeterTotals.read(registry).minus(before);
+                return new ConfigReport(config, results, measured);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private static RequestResult execute(PromptTemplateBuilder templateBuilder, LangChain4jService aiService,
+                                         TraceRequest request) {
+        long start = System.nanoTime();
+        try {
+            String template = templateBuilder.buildEnhancementPrompt(request.originalText, request.style, request.context);
+            String output = aiService.enhanceText(template, request.style, request.context);
+            return new RequestResult(System.nanoTime() - start, output != null ? output.length() : 0, false);
+        } catch (Exception e) {
+            return new RequestResult(System.nanoTime() - start, 0, true);
+        }
+    }
+
+    private void writeCsv(List<ConfigReport> reports) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(output))) {
+            writer.println("config,requests,errors,p50_ms,p90_ms,p99_ms,max_ms,mean_output_chars,"
+                    + "fallback_rate,fallback_reasons,prompt_tokens,completion_tokens,estimated_cost_usd");
+            for (ConfigReport r : reports) {
+                writer.printf("%s,%d,%d,%.1f,%.1f,%.1f,%.1f,%.0f,%.4f,%s,%d,%d,%.6f%n",
+                        r.name, r.requests, r.errors, r.p50, r.p90, r.p99, r.max, r.meanOutputChars,
+                        r.fallbackRate, r.fallbackReasons.toString().replace(",", ";"),
+                        r.promptTokens, r.completionTokens, r.costUsd);
+            }
+        }
+        System.out.println("Report written to " + output.toAbsolutePath());
+    }
+
+    /**
+     * One request from the trace.
+     */
+    private record TraceRequest(String originalText, EnhancementStyle style, ContextType context,
+                                long arrivalMillis) {}
+
+    /**
+     * Outcome of one replayed request.
+     */
+    private record RequestResult(long latencyNanos, int outputChars, boolean error) {}
+
+    /**
+     * A named set of application properties plus token prices.
+     */
+    private static final class ReplayConfig {
+        private String name = "config";
+        private double inputPricePerMillion;
+        private double outputPricePerMillion;
+        private final Map<String, String> properties = new LinkedHashMap<>();
+
+        static ReplayConfig parse(String spec) {
+            ReplayConfig config = new ReplayConfig();
+            for (String part : spec.split(";")) {
+                if (part.isBlank()) {
+                    continue;
+                }
+                int eq = part.indexOf('=');
+                if (eq < 1) {
+                    throw new IllegalArgumentException("Expected key=value in config spec: " + part);
+                }
+                String key = part.substring(0, eq).trim();
+                String value = part.substring(eq + 1).trim();
+                switch (key) {
+                    case "name" -> config.name = value;
+                    case "price.input" -> config.inputPricePerMillion = Double.parseDouble(value);
+                    case "price.output" -> config.outputPricePerMillion = Double.parseDouble(value);
+                    default -> config.properties.put(key, value);
+                }
+            }
+            return config;
+        }
+    }
+
+    /**
+     * Cumulative pipeline meter values at one point in time.
+     */
+    private static final class MeterTotals {
+        private final Map<String, Long> fallbacks = new LinkedHashMap<>();
+        private long promptTokens;
+        private long completionTokens;
+        private long promptChars;
+        private long completionChars;
+
+        static MeterTotals read(MeterRegistry registry) {
+            MeterTotals totals = new MeterTotals();
+            for (Timer timer : registry.find("promptcrafter.enhance.fallback").timers()) {
+                totals.fallbacks.merge(timer.getId().getTag("reason"), timer.count(), Long::sum);
+            }
+            totals.promptTokens = sumCounters(registry, "promptcrafter.model.prompt.tokens");
+            totals.completionTokens = sumCounters(registry, "promptcrafter.model.completion.tokens");
+            totals.promptChars = sumCounters(registry, "promptcrafter.model.prompt.chars");
+            totals.completionChars = sumCounters(registry, "promptcrafter.model.completion.chars");
+            return totals;
+        }
+
+        MeterTotals minus(MeterTotals earlier) {
+            MeterTotals delta = new MeterTotals();
+            fallbacks.forEach((reason, count) -> {
+                long diff = count - earlier.fallbacks.getOrDefault(reason, 0L);
+                if (diff > 0) {
+                    delta.fallbacks.put(reason, diff);
+                }
+            });
+            delta.promptTokens = promptTokens - earlier.promptTokens;
+            delta.completionTokens = completionTokens - earlier.completionTokens;
+            delta.promptChars = promptChars - earlier.promptChars;
+            delta.completionChars = completionChars - earlier.completionChars;
+            return delta;
+        }
+
+        private static long sumCounters(MeterRegistry registry, String name) {
+            return (long) registry.find(name).counters().stream().mapToDouble(Counter::count).sum();
+        }
+    }
+
+    /**
+     * Comparison row for one configuration.
+     */
+    private static final class ConfigReport {
+        static final String HEADER = String.format("%-16s %8s %6s %9s %9s %9s %10s %9s %12s %12s %11s",
+                "config", "requests", "errors", "p50 ms", "p90 ms", "p99 ms", "out chars", "fallback",
+                "prompt tok", "compl tok", "cost USD");
+
+        final String name;
+        final int requests;
+        final long errors;
+        final double p50;
+        final double p90;
+        final double p99;
+        final double max;
+        final double meanOutputChars;
+        final double fallbackRate;
+        final Map<String, Long> fallbackReasons = new LinkedHashMap<>();
+        final long promptTokens;
+        final long completionTokens;
+        final double costUsd;
+
+        ConfigReport(ReplayConfig config, List<RequestResult> results, MeterTotals meters) {
+            long[] latencies = results.stream().mapToLong(RequestResult::latencyNanos).sorted().toArray();
+            this.name = config.name;
+            this.requests = results.size();
+            this.errors = results.stream().filter(RequestResult::error).count();
+            this.p50 = percentileMillis(latencies, 0.50);
+            this.p90 = percentileMillis(latencies, 0.90);
+            this.p99 = percentileMillis(latencies, 0.99);
+            this.max = latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6;
+            this.meanOutputChars = results.stream().mapToInt(RequestResult::outputChars).average().orElse(0);
+
+            this.fallbackReasons.putAll(meters.fallbacks);
+            long fallbacks = meters.fallbacks.values().stream().mapToLong(Long::longValue).sum();
+            this.fallbackRate = requests == 0 ? 0 : (double) fallbacks / requests;
+
+            // Providers that do not report usage: estimate four characters per token
+            this.promptTokens = meters.promptTokens > 0 ? meters.promptTokens : meters.promptChars / 4;
+            this.completionTokens = meters.completionTokens > 0 ? meters.completionTokens : meters.completionChars / 4;
+            this.costUsd = (promptTokens * config.inputPricePerMillion
+                    + completionTokens * config.outputPricePerMillion) / 1_000_000;
+        }
+
+        private static double percentileMillis(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+        }
+
+        String toRow() {
+            return String.format("%-16s %8d %6d %9.1f %9.1f %9.1f %10.0f %8.1f%% %12d %12d %11.4f",
+                    name, requests, errors, p50, p90, p99, meanOutputChars, fallbackRate * 100,
+                    promptTokens, completionTokens, costUsd);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.promptcrafter.backend.bench.stub;
+
+import java.util.Random;
+
+/**
+ * Simulated upstream latency.
+ *
+ * Specs:
+ * - fixed:MS
+ * - uniform:MIN_MS:MAX_MS
+ * - lognormal:MEDIAN_MS:P99_MS (right-skewed, like real model latency)
+ */
+public final class LatencyDistribution {
+
+    // 99th percentile of the standard normal distribution
+    private static final double Z_99 = 2.3263;
+
+    private final String spec;
+    private final Kind kind;
+    private final double a;
+    private final double b;
+
+    private enum Kind { FIXED, UNIFORM, LOGNORMAL }
+
+    private LatencyDistribution(String spec, Kind kind, double a, double b) {
+        this.spec = spec;
+        this.kind = kind;
+        this.a = a;
+        this.b = b;
+    }
+
+    /**
+     * Parses a latency spec.
+     *
+     * @param spec The spec, e.g. "lognormal:800:3000"
+     * @return The distribution
+     * @throws IllegalArgumentException if the spec is malformed
+     */
+    public static LatencyDistribution parse(String spec) {
+        String[] parts = spec.trim().toLowerCase().split(":");
+        try {
+            return switch (parts[0]) {
+                case "fixed" -> new LatencyDistribution(spec, Kind.FIXED, Double.parseDouble(parts[1]), 0);
+                case "uniform" -> {
+                    double min = Double.parseDouble(parts[1]);
+                    double max = Double.parseDouble(parts[2]);
+                    if (max < min) {
+                        throw new IllegalArgumentException("uniform max must be >= min: " + spec);
+                    }
+                    yield new LatencyDistribution(spec, Kind.UNIFORM, min, max);
+                }
+                case "lognormal" -> {
+                    double median = Double.parseDouble(parts[1]);
+                    double p99 = Double.parseDouble(parts[2]);
+                    if (median <= 0 || p99 < median) {
+                        throw new IllegalArgumentException("lognormal needs 0 < median <= p99: " + spec);
+                    }
+                    double mu = Math.log(median);
+                    double sigma = (Math.log(p99) - mu) / Z_99;
+                    yield new LatencyDistribution(spec, Kind.LOGNORMAL, mu, sigma);
+                }
+                default -> throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+            };
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed latency spec: " + spec, e);
+        }
+    }
+
+    /**
+     * @param random Random source
+     * @return One latency sample in milliseconds
+     */
+    public long sampleMillis(Random random) {
+        return switch (kind) {
+            case FIXED -> Math.round(a);
+            case UNIFORM -> Math.round(a + random.nextDouble() * (b - a));
+            case LOGNORMAL -> Math.round(Math.exp(a + b * random.nextGaussian()));
+        };
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
@@ -0,0 +1,252 @@
+package com.promptcrafter.backend.bench.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.promptcrafter.backend.bench.BenchmarkCorpus;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local OpenAI-compatible chat completions server for load tests.
+ *
+ * Serves POST {baseUrl}/chat/completions with simulated latency, injected
+ * errors and optional SSE streaming ("stream": true), so the application can
+ * be driven end to end without calling the paid API. Point the application at
+ * it with app.openai.base-url={@link #baseUrl()} and any api-key other than
+ * "demo-key".
+ *
+ * Embedded use:
+ * <pre>
+ * try (OpenAiStubServer stub = OpenAiStubServer.start(StubConfig.parse(args))) { ... }
+ * </pre>
+ *
+ * Standalone use:
+ * <pre>
+ * mvn -Pperf -DskipTests compile exec:exec -Dperf.main=com.promptcrafter.backend.bench.stub.OpenAiStubServer \
+ *     -Dperf.args="--port 8090 --latency lognormal:800:3000 --error-rate 0.02"
+ * </pre>
+ *
+ * Completions are markdown from {@link BenchmarkCorpus}, seeded by the
+ * request body so identical prompts get identical answers. Token usage is
+ * reported as characters / 4.
+ */
+public final class OpenAiStubServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int STREAM_CHUNK_CHARS = 24;
+
+    private final StubConfig config;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong injectedThrottles = new AtomicLong();
+
+    private OpenAiStubServer(StubConfig config) throws IOException {
+        this.config = config;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", config.port), 512);
+        // Handlers sleep to simulate latency, so every in-flight request needs its own thread
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "openai-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/v1/chat/completions", this::handleChatCompletion);
+    }
+
+    /**
+     * Starts a stub server.
+     *
+     * @param config Stub behaviour; port 0 picks a free port
+     * @return The running server
+     * @throws IOException if the port cannot be bound
+     */
+    public static OpenAiStubServer start(StubConfig config) throws IOException {
+        OpenAiStubServer stub = new OpenAiStubServer(config);
+        stub.server.start();
+        return stub;
+    }
+
+    /**
+     * @return Base URL to use as app.openai.base-url
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+    }
+
+    public long getRequests() { return requests.get(); }
+    public long getInjectedErrors() { return injectedErrors.get(); }
+    public long getInjectedThrottles() { return injectedThrottles.get(); }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleChatCompletion(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendJson(exchange, 405, error("Method not allowed", "invalid_request_error"));
+                return;
+            }
+            requests.incrementAndGet();
+
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            JsonNode request = MAPPER.readTree(body);
+            String model = request.path("model").asText("gpt-4o-mini");
+            boolean stream = request.path("stream").asBoolean(false);
+            int promptChars = 0;
+            for (JsonNode message : request.path("messages")) {
+                promptChars += message.path("content").asText("").length();
+            }
+
+            long latencyMillis = config.latency.sampleMillis(ThreadLocalRandom.current())
+                    + config.latencyPerKchar * promptChars / 1000;
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < config.errorRate) {
+                injectedErrors.incrementAndGet();
+                sleep(latencyMillis);
+                sendJson(exchange, 500, error("Injected server error", "server_error"));
+                return;
+            }
+            if (roll < config.errorRate + config.throttleRate) {
+                injectedThrottles.incrementAndGet();
+                sendJson(exchange, 429, error("Injected rate limit", "rate_limit_exceeded"));
+                return;
+            }
+
+            Random contentRandom = new Random(Arrays.hashCode(body));
+            String content = BenchmarkCorpus.response(contentRandom, config.responseChars);
+            int promptTokens = Math.max(1, promptChars / 4);
+            int completionTokens = Math.max(1, content.length() / 4);
+
+            if (stream) {
+                streamCompletion(exchange, model, content, latencyMillis);
+            } else {
+                sleep(latencyMillis);
+                sendJson(exchange, 200, completion(model, content, promptTokens, completionTokens));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sends the completion as SSE chunks. A quarter of the latency passes before
+     * the first chunk (time to first token) and the rest is spread over the chunks.
+     */
+    private void streamCompletion(HttpExchange exchange, String model, String content, long latencyMillis)
+            throws IOException, InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+
+        int chunks = Math.max(1, (content.length() + STREAM_CHUNK_CHARS - 1) / STREAM_CHUNK_CHARS);
+        long firstTokenMillis = latencyMillis / 4;
+        long perChunkNanos = TimeUnit.MILLISECONDS.toNanos(latencyMillis - firstTokenMillis) / chunks;
+        String id = "chatcmpl-stub-" + requests.get();
+
+        OutputStream out = exchange.getResponseBody();
+        sleep(firstTokenMillis);
+        for (int i = 0; i < chunks; i++) {
+            String piece = content.substring(i * STREAM_CHUNK_CHARS,
+                    Math.min(content.length(), (i + 1) * STREAM_CHUNK_CHARS));
+            ObjectNode chunk = MAPPER.createObjectNode()
+                    .put("id", id)
+                    .put("object", "chat.completion.chunk")
+                    .put("created", System.currentTimeMillis() / 1000)
+                    .put("model", model);
+            ObjectNode choice = chunk.putArray("choices").addObject().put("index", 0);
+            choice.putObject("delta").put("content", piece);
+            choice.putNull("finish_reason");
+            writeEvent(out, MAPPER.writeValueAsString(chunk));
+            TimeUnit.NANOSECONDS.sleep(perChunkNanos);
+        }
+
+        ObjectNode last = MAPPER.createObjectNode()
+                .put("id", id)
+                .put("object", "chat.completion.chunk")
+                .put("created", System.currentTimeMillis() / 1000)
+                .put("model", model);
+        ObjectNode lastChoice = last.putArray("choices").addObject().put("index", 0);
+        lastChoice.putObject("delta");
+        lastChoice.put("finish_reason", "stop");
+        writeEvent(out, MAPPER.writeValueAsString(last));
+        writeEvent(out, "[DONE]");
+    }
+
+    private static void writeEvent(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private ObjectNode completion(String model, String content, int promptTokens, int completionTokens) {
+        ObjectNode response = MAPPER.createObjectNode()
+                .put("id", "chatcmpl-stub-" + requests.get())
+                .put("object", "chat.completion")
+                .put("created", System.currentTimeMillis() / 1000)
+                .put("model", model);
+        ArrayNode choices = response.putArray("choices");
+        ObjectNode choice = choices.addObject().put("index", 0).put("finish_reason", "stop");
+        choice.putObject("message").put("role", "assistant").put("content", content);
+        response.putObject("usage")
+                .put("prompt_tokens", promptTokens)
+                .put("completion_tokens", completionTokens)
+                .put("total_tokens", promptTokens + completionTokens);
+        return response;
+    }
+
+    private static ObjectNode error(String message, String type) {
+        ObjectNode response = MAPPER.createObjectNode();
+        response.putObject("error").put("message", message).put("type", type);
+        return response;
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, ObjectNode body) throws IOException {
+        byte[] bytes = MAPPER.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    /**
+     * Runs the stub standalone until the process is stopped.
+     *
+     * @param args See {@link StubConfig#parse(String[])}
+     */
+    public static void main(String[] args) throws Exception {
+        StubConfig config = StubConfig.parse(args);
+        OpenAiStubServer stub = start(config);
+        Runtime.getRuntime().addShutdownHook(new Thread(stub::close));
+        System.out.printf("OpenAI stub listening on %s (%s)%n", stub.baseUrl(), config);
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,57 @@
+package com.promptcrafter.backend.bench.stub;
+
+/**
+ * Behaviour of {@link OpenAiStubServer}.
+ *
+ * Options (all optional):
+ * - --port N: Listen port, 0 picks a free one (default: 0)
+ * - --latency SPEC: See {@link LatencyDistribution} (default: lognormal:600:2500)
+ * - --error-rate P: Fraction of requests answered with HTTP 500 (default: 0)
+ * - --throttle-rate P: Fraction of requests answered with HTTP 429 (default: 0)
+ * - --response-chars N: Approximate completion length (default: 1200)
+ * - --latency-per-kchar MS: Extra latency per 1000 prompt characters, for answers
+ *   that grow with the prompt (default: 0)
+ */
+public final class StubConfig {
+
+    int port = 0;
+    LatencyDistribution latency = LatencyDistribution.parse("lognormal:600:2500");
+    double errorRate = 0;
+    double throttleRate = 0;
+    int responseChars = 1200;
+    long latencyPerKchar = 0;
+
+    /**
+     * Parses stub options, ignoring options it does not know so callers can
+     * share one argument list with other tools.
+     *
+     * @param args Command line arguments
+     * @return The parsed configuration
+     */
+    public static StubConfig parse(String[] args) {
+        StubConfig config = new StubConfig();
+        for (int i = 0; i + 1 < args.length; i++) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--port" -> config.port = Integer.parseInt(value);
+                case "--latency" -> config.latency = LatencyDistribution.parse(value);
+                case "--error-rate" -> config.errorRate = Double.parseDouble(value);
+                case "--throttle-rate" -> config.throttleRate = Double.parseDouble(value);
+                case "--response-chars" -> config.responseChars = Integer.parseInt(value);
+                case "--latency-per-kchar" -> config.latencyPerKchar = Long.parseLong(value);
+                default -> { continue; }
+            }
+            i++;
+        }
+        if (config.errorRate + config.throttleRate > 1) {
+            throw new IllegalArgumentException("error-rate + throttle-rate must not exceed 1");
+        }
+        return config;
+    }
+
+    @Override
+    public String toString() {
+        return "latency=" + latency + ", error-rate=" + errorRate + ", throttle-rate=" + throttleRate
+                + ", response-chars=" + responseChars + ", latency-per-kchar=" + latencyPerKchar;
+    }
+}
@@ -0,0 +1,117 @@
+#!/usr/bin/env bash
+#
+# Measures time to the first successful POST /api/rewrite and the resident set
+# size at that moment, for each startup mode:
+#
+#   jar     java -jar, default profile
+#   lazy    java -jar with the "fast" profile (lazy initialization)
+#   aot     AOT-processed jar (mvn -Pfast-startup package) with -Dspring.aot.enabled=true
+#   cds     aot (or lazy, if the jar has no AOT code) from the extracted jar with a CDS archive
+#   native  target/testLangChain4j native executable (mvn -Pnative,fast-startup native:compile)
+#
+# Modes whose artifact is missing are skipped. Output is CSV on stdout.
+#
+# Usage: src/perf/startup/measure-startup.sh [--runs 3] [--modes jar,lazy,aot,cds,native] [--port 8080]
+
+set -euo pipefail
+
+RUNS=3
+MODES="jar,lazy,aot,cds,native"
+PORT=8080
+JAR="target/testLangChain4j-1.0-SNAPSHOT.jar"
+NATIVE="target/testLangChain4j"
+WORK="target/startup"
+TIMEOUT_SECONDS=120
+
+while [[ $# -gt 0 ]]; do
+    case "$1" in
+        --runs) RUNS="$2"; shift 2 ;;
+        --modes) MODES="$2"; shift 2 ;;
+        --port) PORT="$2"; shift 2 ;;
+        --jar) JAR="$2"; shift 2 ;;
+        *) echo "Unknown option: $1" >&2; exit 2 ;;
+    esac
+done
+
+if [[ ! -f "$JAR" ]]; then
+    echo "Build the application first: mvn -DskipTests package (or -Pfast-startup for aot/cds)" >&2
+    exit 1
+fi
+mkdir -p "$WORK"
+
+COMMON_ARGS=(--server.port="$PORT" --spring.jpa.show-sql=false)
+REQUEST='{"originalText":"write a short poem about the sea","style":"CONCISE","context":"GENERAL"}'
+
+has_aot() {
+    [[ $(unzip -l "$JAR") == *__ApplicationContextInitializer* ]]
+}
+
+# Extracts the jar and records a CDS archive with a training run that stops
+# after the context refreshes.
+prepare_cds() {
+    local extracted="$WORK/extracted"
+    rm -rf "$extracted"
+    java -Djarmode=tools -jar "$JAR" extract --destination "$extracted" >/dev/null 2>&1
+    local app_jar="$extracted/$(basename "$JAR")"
+    local aot_flag=()
+    has_aot && aot_flag=(-Dspring.aot.enabled=true)
+    java -XX:ArchiveClassesAtExit="$WORK/app.jsa" -Dspring.context.exit=onRefresh "${aot_flag[@]}" \
+        -jar "$app_jar" --spring.profiles.active=fast "${COMMON_ARGS[@]}" >"$WORK/cds-training.log" 2>&1
+    echo "$app_jar"
+}
+
+# Starts the command in the background and polls until a rewrite succeeds.
+# Prints "<millis>,<rss_kb>".
+measure() {
+    local log="$WORK/run.log"
+    local start end pid rss
+    start=$(date +%s%N)
+    "$@" >"$log" 2>&1 &
+    pid=$!
+    while true; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "Process exited before serving a request, see $log" >&2
+            return 1
+        fi
+        if curl -s -m 5 -X POST -H 'Content-Type: application/json' -d "$REQUEST" \
+                "http://localhost:$PORT/api/rewrite" 2>/dev/null | grep -q '"success":true'; then
+            break
+        fi
+        if (( ($(date +%s%N) - start) / 1000000000 > TIMEOUT_SECONDS )); then
+            echo "No successful request after ${TIMEOUT_SECONDS}s, see $log" >&2
+            kill "$pid"
+            return 1
+        fi
+        sleep 0.05
+    done
+    end=$(date +%s%N)
+    rss=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$(( (end - start) / 1000000 )),$rss"
+}
+
+echo "mode,run,first_rewrite_ms,rss_kb"
+IFS=',' read -ra SELECTED <<<"$MODES"
+for mode in "${SELECTED[@]}"; do
+    case "$mode" in
+        jar) cmd=(java -jar "$JAR" "${COMMON_ARGS[@]}") ;;
+        lazy) cmd=(java -jar "$JAR" --spring.profiles.active=fast "${COMMON_ARGS[@]}") ;;
+        aot)
+            if ! has_aot; then echo "Skipping aot: $JAR was not built with -Pfast-startup" >&2; continue; fi
+            cmd=(java -Dspring.aot.enabled=true -jar "$JAR" --spring.profiles.active=fast "${COMMON_ARGS[@]}") ;;
+        cds)
+            app_jar=$(prepare_cds)
+            aot_flag=()
+            has_aot && aot_flag=(-Dspring.aot.enabled=true)
+            cmd=(java -XX:SharedArchiveFile="$WORK/app.jsa" "${aot_flag[@]}" -jar "$app_jar"
+                 --spring.profiles.active=fast "${COMMON_ARGS[@]}") ;;
+        native)
+            if [[ ! -x "$NATIVE" ]]; then echo "Skipping native: $NATIVE not found" >&2; continue; fi
+            cmd=("$NATIVE" --spring.profiles.active=fast "${COMMON_ARGS[@]}") ;;
+        *) echo "Unknown mode: $mode" >&2; exit 2 ;;
+    esac
+    for run in $(seq 1 "$RUNS"); do
+        echo "$mode,$run,$(measure "${cmd[@]}")"
+    done
+done
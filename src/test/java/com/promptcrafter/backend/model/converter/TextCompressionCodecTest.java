@@ -0,0 +1,33 @@
+package com.promptcrafter.backend.model.converter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextCompressionCodecTest {
+
+    @Test
+    void roundTripsAndPassesPlainTextThrough() {
+        String text = "**Comprehensive Analysis Request**\n\nExplain quantum computing in simple terms\n\n"
+                + "**Required Elements:**\n"
+                + "- **Background Context**: Provide relevant background information\n"
+                + "- **Specific Examples**: Include concrete examples and case studies\n";
+
+        String encoded = TextCompressionCodec.encode(text);
+
+        assertThat(TextCompressionCodec.isEncoded(encoded)).isTrue();
+        assertThat(encoded.length()).isLessThan(text.length());
+        assertThat(TextCompressionCodec.decode(encoded)).isEqualTo(text);
+        assertThat(TextCompressionCodec.decode(text)).isEqualTo(text);
+    }
+
+    @Test
+    void decodesLazily() {
+        String text = "Explain quantum computing in simple terms";
+        CompressedText value = CompressedText.fromStored(TextCompressionCodec.encode(text));
+
+        assertThat(value.isDecoded()).isFalse();
+        assertThat(value.toString()).isEqualTo(text);
+        assertThat(value.isDecoded()).isTrue();
+    }
+}
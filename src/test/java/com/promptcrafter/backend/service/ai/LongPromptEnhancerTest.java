@@ -0,0 +1,104 @@
+package com.promptcrafter.backend.service.ai;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongPromptEnhancerTest {
+
+    // Only split() is exercised, which needs none of the collaborators
+    private final LongPromptEnhancer enhancer =
+            new LongPromptEnhancer(null, null, null, null, null, true, 1500, 800, 4, 1);
+
+    @AfterEach
+    void shutDown() {
+        enhancer.shutdown();
+    }
+
+    @Test
+    void keepsShortPromptsWhole() {
+        String text = paragraph('a', 700);
+
+        assertThat(enhancer.split(text)).containsExactly(text);
+    }
+
+    @Test
+    void cutsAtParagraphsNearEqualLengths() {
+        List<String> paragraphs = new ArrayList<>();
+        for (char c = 'a'; c < 'g'; c++) {
+            paragraphs.add(paragraph(c, 400));
+        }
+        String text = String.join("\n\n", paragraphs);
+
+        List<String> parts = enhancer.split(text);
+
+        assertThat(parts).hasSize(4);
+        assertThat(String.join("\n\n", parts)).isEqualTo(text);
+        assertThat(parts).allSatisfy(part -> assertThat(part.length()).isBetween(390, 810));
+    }
+
+    @Test
+    void cutsBeforeMarkdownHeadings() {
+        String text = "# Overview\n" + paragraph('a', 600) + "\n## Details\n" + paragraph('b', 600)
+                + "\n## Output\n" + paragraph('c', 600);
+
+        List<String> parts = enhancer.split(text);
+
+        assertThat(parts).hasSize(3);
+        assertThat(parts).extracting(part -> part.substring(0, part.indexOf('\n')))
+                .containsExactly("# Overview", "## Details", "## Output");
+    }
+
+    @Test
+    void fallsBackToSentencesWithoutParagraphs() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; text.length() < 2000; i++) {
+            text.append(i == 0 ? "" : " ").append("Sentence number ").append(i).append(" explains one more detail.");
+        }
+
+        List<String> parts = enhancer.split(text.toString());
+
+        assertThat(parts).hasSize(3);
+        assertThat(parts).allSatisfy(part -> assertThat(part).startsWith("Sentence").endsWith("detail."));
+        assertThat(String.join(" ", parts)).isEqualTo(text.toString());
+    }
+
+    @Test
+    void capsTheNumberOfParts() {
+        List<String> paragraphs = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            paragraphs.add(paragraph((char) ('a' + i), 300));
+        }
+
+        List<String> parts = enhancer.split(String.join("\n\n", paragraphs));
+
+        assertThat(parts).hasSize(4);
+    }
+
+    @Test
+    void keepsTextWithoutBoundariesWhole() {
+        String text = "x".repeat(2500);
+
+        assertThat(enhancer.split(text)).containsExactly(text);
+    }
+
+    @Test
+    void stripsBlankLinesAroundParts() {
+        String text = "\n" + paragraph('a', 750) + "\n\n \n\n\t\n\n" + paragraph('b', 750) + "\n\n";
+
+        assertThat(enhancer.split(text)).containsExactly(paragraph('a', 750), paragraph('b', 750));
+    }
+
+    // About length characters of words of one repeated letter, without sentence ends
+    private static String paragraph(char letter, int length) {
+        StringBuilder paragraph = new StringBuilder(length);
+        while (paragraph.length() < length) {
+            paragraph.append(paragraph.isEmpty() ? "" : " ").append(String.valueOf(letter).repeat(4));
+        }
+        return paragraph.substring(0, length).strip();
+    }
+}
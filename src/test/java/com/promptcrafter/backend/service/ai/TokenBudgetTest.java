@@ -0,0 +1,79 @@
+package com.promptcrafter.backend.service.ai;
+
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.templates.PromptTemplateBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBudgetTest {
+
+    private static final int MAX_INPUT = 600;
+
+    private final PromptTemplateBuilder templateBuilder = new PromptTemplateBuilder();
+    private final TokenBudget budget = new TokenBudget(templateBuilder, "gpt-4o-mini", MAX_INPUT, 120, 500, 900, 600);
+
+    @Test
+    void keepsPromptsWithinTheBudget() {
+        String prompt = "Explain quantum computing in simple terms for a high school student.";
+
+        assertThat(budget.fitInput(prompt, EnhancementStyle.DETAILED, ContextType.GENERAL)).isSameAs(prompt);
+    }
+
+    @Test
+    void trimsTheMiddleOfLongPromptsToFitWithTheTemplate() {
+        String prompt = sentences(400);
+
+        for (EnhancementStyle style : EnhancementStyle.values()) {
+            for (ContextType context : ContextType.values()) {
+                String fitted = budget.fitInput(prompt, style, context);
+
+                assertThat(fitted).contains("\n[...]\n");
+                assertThat(budget.count(templateBuilder.buildEnhancementPrompt(fitted, style, context)))
+                        .isLessThanOrEqualTo(MAX_INPUT);
+            }
+        }
+    }
+
+    @Test
+    void keepsTwoThirdsFromTheBeginningAndCutsAtSentenceEnds() {
+        String prompt = sentences(400);
+
+        String fitted = budget.fitInput(prompt, EnhancementStyle.CONCISE, ContextType.GENERAL);
+        String head = fitted.substring(0, fitted.indexOf("\n[...]\n"));
+        String tail = fitted.substring(fitted.indexOf("\n[...]\n") + "\n[...]\n".length());
+
+        assertThat(prompt).startsWith(head);
+        assertThat(prompt).endsWith(tail);
+        assertThat(head).endsWith(".");
+        assertThat(tail).startsWith("Sentence ");
+        assertThat(budget.count(head)).isGreaterThan(budget.count(tail));
+    }
+
+    @Test
+    void cutsAtWordsWhenThereAreNoSentences() {
+        String prompt = "word ".repeat(3000).strip();
+
+        String fitted = budget.fitInput(prompt, EnhancementStyle.ACADEMIC, ContextType.GOOGLE_SCHOLAR);
+
+        assertThat(fitted.split("\n\\[\\.\\.\\.]\n")).allSatisfy(part -> assertThat(part).matches("word( word)*"));
+    }
+
+    @Test
+    void doesNotLeaveBrokenCharactersAtTheCuts() {
+        String prompt = "日本語のテキストと絵文字😀を含む長いプロンプト。".repeat(200);
+
+        String fitted = budget.fitInput(prompt, EnhancementStyle.CREATIVE, ContextType.CHATGPT);
+
+        assertThat(fitted).contains("\n[...]\n").doesNotContain("�");
+    }
+
+    private static String sentences(int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 1; i <= count; i++) {
+            text.append(i == 1 ? "" : " ").append("Sentence ").append(i).append(" adds one more requirement.");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,200 @@
+package com.promptcrafter.backend.service.history;
+
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedLogHistoryStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopensAfterTornTail() throws IOException {
+        MappedLogHistoryStore store = open();
+        appendAll(store, 3);
+        store.close();
+
+        // A crash mid-append: a length header and part of a body, with no valid CRC
+        Path segment = segmentFiles().get(0);
+        int end = endOfRecords(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(24).putInt(200).putInt(12345).putLong(99).putLong(-1).flip(), end);
+        }
+
+        store = open();
+        assertThat(store.findLatest(10)).extracting(HistoryEntry::getId).containsExactly(3L, 2L, 1L);
+        assertThat(store.append("user", entry("after crash")).getId()).isEqualTo(4L);
+        store.close();
+
+        store = open();
+        assertThat(store.findLatest(10)).extracting(HistoryEntry::getId).containsExactly(4L, 3L, 2L, 1L);
+        assertThat(store.findById(4)).get().extracting(HistoryEntry::getOriginalText).isEqualTo("after crash");
+        store.close();
+    }
+
+    @Test
+    void discardsCorruptLastRecord() throws IOException {
+        MappedLogHistoryStore store = open();
+        appendAll(store, 3);
+        store.close();
+
+        // Flip the last byte of the third record's body
+        Path segment = segmentFiles().get(0);
+        int end = endOfRecords(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, end - 1);
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) ~last.get(0)}), end - 1);
+        }
+
+        store = open();
+        assertThat(store.findLatest(10)).extracting(HistoryEntry::getId).containsExactly(2L, 1L);
+        assertThat(store.findById(3)).isEmpty();
+        assertThat(store.append("user", entry("replacement")).getId()).isEqualTo(3L);
+        store.close();
+    }
+
+    @Test
+    void rollsOverSegmentsAndReadsAcrossThem() throws IOException {
+        MappedLogHistoryStore store = open();
+        String padding = "x".repeat(60_000);
+        for (int i = 1; i <= 40; i++) {
+            store.append("user", entry(i + padding));
+        }
+        store.close();
+
+        assertThat(segmentFiles()).hasSizeGreaterThan(1);
+
+        store = open();
+        assertThat(store.findLatest(100)).hasSize(40);
+        for (long id = 1; id <= 40; id++) {
+            assertThat(store.findById(id)).get().extracting(HistoryEntry::getOriginalText)
+                    .isEqualTo(id + padding);
+        }
+        assertThat(store.append("user", entry("next")).getId()).isEqualTo(41L);
+        store.close();
+    }
+
+    @Test
+    void replacedTextSurvivesRestart() throws IOException {
+        MappedLogHistoryStore store = open();
+        appendAll(store, 2);
+        assertThat(store.replaceEnhancedText(1, "upgraded", true)).get()
+                .extracting(HistoryEntry::getEnhancedText).isEqualTo("upgraded");
+        assertThat(store.replaceEnhancedText(3, "missing", true)).isEmpty();
+        store.close();
+
+        store = open();
+        HistoryEntry replaced = store.findById(1).orElseThrow();
+        assertThat(replaced.getEnhancedText()).isEqualTo("upgraded");
+        assertThat(replaced.getOriginalText()).isEqualTo("prompt 1");
+        assertThat(replaced.isModelAnswer()).isTrue();
+        assertThat(store.findById(2)).get().extracting(HistoryEntry::isModelAnswer).isEqualTo(false);
+        assertThat(store.findLatest(10)).extracting(HistoryEntry::getId).containsExactly(2L, 1L);
+        assertThat(store.append("user", entry("prompt 3")).getId()).isEqualTo(3L);
+        store.close();
+    }
+
+    @Test
+    void replacementAtTheTornTailIsDiscarded() throws IOException {
+        MappedLogHistoryStore store = open();
+        appendAll(store, 2);
+        store.replaceEnhancedText(1, "upgraded", true);
+        store.close();
+
+        // Corrupt the replacement, which is the last record
+        Path segment = segmentFiles().get(0);
+        int end = endOfRecords(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x7f}), end - 1);
+        }
+
+        store = open();
+        HistoryEntry draft = store.findById(1).orElseThrow();
+        assertThat(draft.getEnhancedText()).isEqualTo("enhanced 1");
+        assertThat(draft.isModelAnswer()).isFalse();
+        assertThat(store.findLatest(10)).hasSize(2);
+        store.close();
+    }
+
+    @Test
+    void readsVersionOneRecordsAsNotModelAnswers() throws IOException {
+        byte[] original = "old prompt".getBytes(StandardCharsets.UTF_8);
+        byte[] enhanced = "old enhancement".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer body = ByteBuffer.allocate(19 + 4 + original.length + 4 + enhanced.length)
+                .put((byte) 1)
+                .putLong(1)
+                .putLong(1_700_000_000_000L)
+                .put((byte) EnhancementStyle.ACADEMIC.ordinal())
+                .put((byte) ContextType.CHATGPT.ordinal())
+                .putInt(original.length).put(original)
+                .putInt(enhanced.length).put(enhanced);
+        CRC32 crc = new CRC32();
+        crc.update(body.array());
+        try (FileChannel channel = FileChannel.open(directory.resolve(String.format("segment-%020d.log", 1)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putInt(body.capacity()).putInt((int) crc.getValue()).flip());
+            channel.write(body.flip());
+        }
+
+        MappedLogHistoryStore store = open();
+        HistoryEntry old = store.findById(1).orElseThrow();
+        assertThat(old.getOriginalText()).isEqualTo("old prompt");
+        assertThat(old.getEnhancedText()).isEqualTo("old enhancement");
+        assertThat(old.getStyle()).isEqualTo(EnhancementStyle.ACADEMIC);
+        assertThat(old.getContext()).isEqualTo(ContextType.CHATGPT);
+        assertThat(old.isModelAnswer()).isFalse();
+
+        assertThat(store.append("user", entry("new prompt")).getId()).isEqualTo(2L);
+        store.close();
+        store = open();
+        assertThat(store.findLatest(10)).extracting(HistoryEntry::isModelAnswer).containsExactly(true, false);
+        store.close();
+    }
+
+    private MappedLogHistoryStore open() throws IOException {
+        return new MappedLogHistoryStore(directory, 1, false);
+    }
+
+    private static void appendAll(MappedLogHistoryStore store, int n) {
+        for (int i = 1; i <= n; i++) {
+            store.append("user", HistoryEntry.unsaved("prompt " + i, EnhancementStyle.CONCISE, ContextType.GENERAL,
+                    "enhanced " + i, false));
+        }
+    }
+
+    private static HistoryEntry entry(String originalText) {
+        return HistoryEntry.unsaved(originalText, EnhancementStyle.DETAILED, ContextType.GENERAL, "enhanced", true);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+
+    // Offset just past the last record, following the length prefixes
+    private static int endOfRecords(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        int position = 0;
+        while (position + 4 <= buffer.capacity() && buffer.getInt(position) > 0) {
+            position += 8 + buffer.getInt(position);
+        }
+        return position;
+    }
+}
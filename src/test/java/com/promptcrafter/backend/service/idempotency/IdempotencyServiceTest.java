@@ -0,0 +1,174 @@
+package com.promptcrafter.backend.service.idempotency;
+
+import com.promptcrafter.backend.dto.PromptRequest;
+import com.promptcrafter.backend.dto.PromptResponse;
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceTest {
+
+    private static final String CLIENT = "ip:127.0.0.1";
+
+    private final IdempotencyService service = new IdempotencyService(600, 100, 1000);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void replaysTheFirstResponse() {
+        IdempotencyService.Result first =
+                service.execute(CLIENT, "key", request("hello", EnhancementStyle.CONCISE), this::work);
+        IdempotencyService.Result repeat =
+                service.execute(CLIENT, "key", request("hello", EnhancementStyle.CONCISE), this::work);
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(repeat.replayed()).isTrue();
+        assertThat(repeat.response()).isSameAs(first.response());
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void rejectsTheKeyForADifferentRequest() {
+        service.execute(CLIENT, "key", request("hello", EnhancementStyle.CONCISE), this::work);
+
+        assertConflict(() -> service.execute(CLIENT, "key", request("hello!", EnhancementStyle.CONCISE), this::work),
+                HttpStatus.UNPROCESSABLE_ENTITY);
+        assertConflict(() -> service.execute(CLIENT, "key", request("hello", EnhancementStyle.DETAILED), this::work),
+                HttpStatus.UNPROCESSABLE_ENTITY);
+        // Equal String.hashCode, different text
+        service.execute(CLIENT, "other", request("Aa", EnhancementStyle.CONCISE), this::work);
+        assertConflict(() -> service.execute(CLIENT, "other", request("BB", EnhancementStyle.CONCISE), this::work),
+                HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void scopesKeysByClient() {
+        IdempotencyService.Result first = service.execute(CLIENT, "1", request("hello", EnhancementStyle.CONCISE),
+                this::work);
+        IdempotencyService.Result other = service.execute("ip:10.0.0.2", "1", request("bye", EnhancementStyle.CONCISE),
+                this::work);
+
+        assertThat(other.replayed()).isFalse();
+        assertThat(other.response()).isNotSameAs(first.response());
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void releasesTheKeyAfterAFailure() {
+        PromptRequest request = request("hello", EnhancementStyle.CONCISE);
+
+        service.execute(CLIENT, "failed", request, () -> PromptResponse.error("model down"));
+        assertThat(service.execute(CLIENT, "failed", request, this::work).replayed()).isFalse();
+
+        assertThatThrownBy(() -> service.execute(CLIENT, "thrown", request, () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(service.execute(CLIENT, "thrown", request, this::work).replayed()).isFalse();
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void forgetsKeysAfterTheTtl() {
+        IdempotencyService expiring = new IdempotencyService(0, 100, 1000);
+        PromptRequest request = request("hello", EnhancementStyle.CONCISE);
+
+        expiring.execute(CLIENT, "key", request, this::work);
+        assertThat(expiring.execute(CLIENT, "key", request, this::work).replayed()).isFalse();
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void dropsTheEldestKeyWhenFull() {
+        IdempotencyService small = new IdempotencyService(600, 2, 1000);
+        PromptRequest request = request("hello", EnhancementStyle.CONCISE);
+
+        small.execute(CLIENT, "a", request, this::work);
+        small.execute(CLIENT, "b", request, this::work);
+        small.execute(CLIENT, "c", request, this::work);
+
+        assertThat(small.execute(CLIENT, "c", request, this::work).replayed()).isTrue();
+        assertThat(small.execute(CLIENT, "a", request, this::work).replayed()).isFalse();
+    }
+
+    @Test
+    void rejectsBlankAndOverlongKeys() {
+        PromptRequest request = request("hello", EnhancementStyle.CONCISE);
+        String overlong = "k".repeat(IdempotencyService.MAX_KEY_LENGTH + 1);
+
+        assertConflict(() -> service.execute(CLIENT, " ", request, this::work), HttpStatus.BAD_REQUEST);
+        assertConflict(() -> service.execute(CLIENT, overlong, request, this::work), HttpStatus.BAD_REQUEST);
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    void repeatWaitsForTheRunningOriginal() throws Exception {
+        PromptRequest request = request("hello", EnhancementStyle.CONCISE);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<IdempotencyService.Result> original = CompletableFuture.supplyAsync(() ->
+                service.execute(CLIENT, "key", request, () -> {
+                    started.countDown();
+                    await(release);
+                    return work();
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<IdempotencyService.Result> repeat =
+                CompletableFuture.supplyAsync(() -> service.execute(CLIENT, "key", request, this::work));
+        release.countDown();
+
+        assertThat(repeat.get(5, TimeUnit.SECONDS).replayed()).isTrue();
+        assertThat(repeat.get().response()).isSameAs(original.get(5, TimeUnit.SECONDS).response());
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void repeatGivesUpAfterTheWaitTimeout() throws Exception {
+        IdempotencyService impatient = new IdempotencyService(600, 100, 50);
+        PromptRequest request = request("hello", EnhancementStyle.CONCISE);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<IdempotencyService.Result> original = CompletableFuture.supplyAsync(() ->
+                impatient.execute(CLIENT, "key", request, () -> {
+                    started.countDown();
+                    await(release);
+                    return work();
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertConflict(() -> impatient.execute(CLIENT, "key", request, this::work), HttpStatus.CONFLICT);
+        release.countDown();
+        assertThat(original.get(5, TimeUnit.SECONDS).replayed()).isFalse();
+    }
+
+    private PromptResponse work() {
+        return PromptResponse.success("enhanced " + calls.incrementAndGet());
+    }
+
+    private static PromptRequest request(String text, EnhancementStyle style) {
+        return new PromptRequest(text, style, ContextType.GENERAL);
+    }
+
+    private static void assertConflict(Runnable call, HttpStatus status) {
+        assertThatThrownBy(call::run)
+                .isInstanceOfSatisfying(IdempotencyConflictException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(status));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
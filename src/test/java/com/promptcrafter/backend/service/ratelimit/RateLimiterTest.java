@@ -0,0 +1,88 @@
+package com.promptcrafter.backend.service.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimiterTest {
+
+    // One request a minute, so nothing refills while a test runs
+    private final RateLimiter limiter = new RateLimiter(1, 3, 100);
+
+    @Test
+    void allowsTheBurstThenRejects() {
+        for (int remaining = 2; remaining >= 0; remaining--) {
+            RateLimiter.Decision decision = limiter.acquire("ip:1");
+
+            assertThat(decision.allowed()).isTrue();
+            assertThat(decision.limit()).isEqualTo(3);
+            assertThat(decision.remaining()).isEqualTo(remaining);
+            assertThat(decision.retryAfterNanos()).isZero();
+        }
+
+        RateLimiter.Decision rejected = limiter.acquire("ip:1");
+
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.remaining()).isZero();
+        assertThat(rejected.retryAfterNanos()).isPositive().isLessThanOrEqualTo(TimeUnit.MINUTES.toNanos(1));
+        assertThat(rejected.resetNanos()).isGreaterThan(TimeUnit.MINUTES.toNanos(2));
+    }
+
+    @Test
+    void keepsClientsApart() {
+        drain("key:a");
+
+        assertThat(limiter.acquire("key:a").allowed()).isFalse();
+        assertThat(limiter.acquire("key:b").allowed()).isTrue();
+        assertThat(limiter.clients()).isEqualTo(2);
+    }
+
+    @Test
+    void sharesOneBucketBetweenClientsOverTheLimit() {
+        RateLimiter small = new RateLimiter(1, 2, 2);
+        small.acquire("ip:1");
+        small.acquire("ip:2");
+
+        assertThat(small.acquire("ip:3").allowed()).isTrue();
+        assertThat(small.acquire("ip:4").allowed()).isTrue();
+        assertThat(small.acquire("ip:5").allowed()).isFalse();
+        assertThat(small.acquire("ip:1").allowed()).isTrue();
+        assertThat(small.clients()).isEqualTo(3);
+    }
+
+    @Test
+    void evictsOnlyRefilledBuckets() throws InterruptedException {
+        // One request every microsecond refills within the sleep below
+        RateLimiter fast = new RateLimiter(60_000_000, 3, 100);
+        fast.acquire("ip:1");
+        drain("ip:2");
+        Thread.sleep(5);
+
+        fast.evictIdle();
+        limiter.evictIdle();
+
+        assertThat(fast.clients()).isZero();
+        assertThat(limiter.clients()).isEqualTo(1);
+    }
+
+    @Test
+    void reportsTheWindowInWholeSeconds() {
+        assertThat(new RateLimiter(60, 20, 100).windowSeconds()).isEqualTo(20);
+        assertThat(new RateLimiter(7, 1, 100).windowSeconds()).isEqualTo(9);
+    }
+
+    @Test
+    void rejectsRatesBelowOne() {
+        assertThatThrownBy(() -> new RateLimiter(0, 20, 100)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RateLimiter(60, 0, 100)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void drain(String client) {
+        while (limiter.acquire(client).allowed()) {
+            // Take the whole burst
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.promptcrafter.backend.service.similarity;
+
+import com.promptcrafter.backend.enums.ContextType;
+import com.promptcrafter.backend.enums.EnhancementStyle;
+import com.promptcrafter.backend.service.history.HistoryAppendedEvent;
+import com.promptcrafter.backend.service.history.HistoryEntry;
+import com.promptcrafter.backend.service.history.HistoryStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SimilarPromptFinderTest {
+
+    private static final String PROMPT = "Explain how photosynthesis works in plants for a biology class";
+    private static final String SIMILAR = "explain how photosynthesis works in plants, for a biology class!";
+
+    private final Map<Long, HistoryEntry> stored = new HashMap<>();
+    private final HistoryStore historyStore = mock(HistoryStore.class);
+    private final SimilarPromptFinder finder = new SimilarPromptFinder(historyStore, true, 0.8, 1000, 64);
+
+    SimilarPromptFinderTest() {
+        when(historyStore.findById(anyLong()))
+                .thenAnswer(call -> Optional.ofNullable(stored.get(call.getArgument(0, Long.class))));
+    }
+
+    @Test
+    void reusesModelAnswersForSimilarPrompts() {
+        finder.onHistoryAppended(new HistoryAppendedEvent(store(1, PROMPT, true)));
+
+        assertThat(finder.find(SIMILAR, EnhancementStyle.DETAILED, ContextType.GENERAL))
+                .get().extracting(similar -> similar.entry().getId()).isEqualTo(1L);
+        assertThat(finder.find(SIMILAR, EnhancementStyle.CONCISE, ContextType.GENERAL)).isEmpty();
+    }
+
+    @Test
+    void skipsEntriesThatAreNotModelAnswers() {
+        // A refinement, fallback, draft or reused copy stored under the same prompt
+        finder.onHistoryAppended(new HistoryAppendedEvent(store(1, PROMPT, false)));
+
+        assertThat(finder.find(SIMILAR, EnhancementStyle.DETAILED, ContextType.GENERAL)).isEmpty();
+    }
+
+    @Test
+    void loadsOnlyModelAnswersFromHistory() throws Exception {
+        store(1, PROMPT, false);
+        store(2, "Summarize the causes of the first world war in five bullet points", true);
+        when(historyStore.scan(any(), any(), any(), any(), any())).thenAnswer(call -> {
+            HistoryStore.HistoryVisitor visitor = call.getArgument(4);
+            for (HistoryEntry entry : stored.values()) {
+                visitor.visit(entry);
+            }
+            return (long) stored.size();
+        });
+
+        finder.loadHistory();
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (finder.find("Summarize the causes of the first world war in five bullet points.",
+                EnhancementStyle.DETAILED, ContextType.GENERAL).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(finder.find("Summarize the causes of the first world war in five bullet points.",
+                EnhancementStyle.DETAILED, ContextType.GENERAL)).isPresent();
+        assertThat(finder.find(SIMILAR, EnhancementStyle.DETAILED, ContextType.GENERAL)).isEmpty();
+    }
+
+    private HistoryEntry store(long id, String originalText, boolean modelAnswer) {
+        HistoryEntry entry = new HistoryEntry(id, id, originalText, EnhancementStyle.DETAILED, ContextType.GENERAL,
+                "enhanced " + id, modelAnswer, Instant.now());
+        stored.put(id, entry);
+        return entry;
+    }
+}
@@ -0,0 +1,180 @@
+package com.promptcrafter.backend.service.stats;
+
+import com.promptcrafter.backend.dto.UserUsageResponse;
+import com.promptcrafter.backend.model.UserUsage;
+import com.promptcrafter.backend.repository.UserUsageRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.ToLongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UsageLedgerTest {
+
+    private static final UsageAccount ALICE = new UsageAccount("alice@example.com", "search");
+    private static final UsageAccount BOB = new UsageAccount("bob@example.com", "");
+
+    private final List<UserUsage> rows = new ArrayList<>();
+    private final UserUsageRepository repository = mock(UserUsageRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final UsageLedger ledger = new UsageLedger(repository, transactionManager, 0.15, 0.60);
+
+    UsageLedgerTest() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(repository.findByUserIdAndTeamAndBucketStart(any(), any(), any())).thenAnswer(call -> rows.stream()
+                .filter(row -> row.getUserId().equals(call.getArgument(0))
+                        && row.getTeam().equals(call.getArgument(1))
+                        && row.getBucketStart().equals(call.getArgument(2)))
+                .findFirst());
+        when(repository.save(any())).thenAnswer(call -> save(call.getArgument(0)));
+        when(repository.findInRange(any(), any(), any(), any())).thenAnswer(call -> rows.stream()
+                .filter(row -> call.getArgument(0) == null || row.getUserId().equals(call.getArgument(0)))
+                .filter(row -> call.getArgument(1) == null || row.getTeam().equals(call.getArgument(1)))
+                .toList());
+    }
+
+    @Test
+    void flushWritesCountsPerAccount() {
+        try (UsageLedger.Scope scope = UsageLedger.open(ALICE)) {
+            ledger.recordRequest();
+            ledger.recordRequest();
+            ledger.recordModelCall(1000, 500);
+            ledger.recordFallback();
+        }
+        try (UsageLedger.Scope scope = UsageLedger.open(BOB)) {
+            ledger.recordRequest();
+        }
+
+        ledger.flushAll();
+
+        assertThat(sum(ALICE, UserUsage::getRequests)).isEqualTo(2);
+        assertThat(sum(ALICE, UserUsage::getInputTokens)).isEqualTo(1000);
+        assertThat(sum(ALICE, UserUsage::getOutputTokens)).isEqualTo(500);
+        // 1000 * 0.15 + 500 * 0.60 micro-dollars
+        assertThat(sum(ALICE, UserUsage::getCostMicros)).isEqualTo(450);
+        assertThat(sum(ALICE, UserUsage::getFallbacks)).isEqualTo(1);
+        assertThat(sum(BOB, UserUsage::getRequests)).isEqualTo(1);
+    }
+
+    @Test
+    void laterFlushesAddToTheStoredRow() {
+        try (UsageLedger.Scope scope = UsageLedger.open(ALICE)) {
+            ledger.recordRequest();
+            ledger.flushAll();
+            ledger.recordRequest();
+            ledger.flushAll();
+        }
+
+        // Two rows only if the hour changed in between
+        assertThat(rows).hasSizeBetween(1, 2);
+        assertThat(sum(ALICE, UserUsage::getRequests)).isEqualTo(2);
+    }
+
+    @Test
+    void flushWithoutCountsDoesNotOpenATransaction() {
+        ledger.flushAll();
+
+        verify(transactionManager, never()).getTransaction(any());
+        assertThat(usage(null, null).getLastFlush()).isNotNull();
+    }
+
+    @Test
+    void failedFlushPutsTheCountsBack() {
+        doThrow(new IllegalStateException("database down")).when(repository).save(any());
+        try (UsageLedger.Scope scope = UsageLedger.open(ALICE)) {
+            ledger.recordRequest();
+            ledger.recordModelCall(100, 10);
+        }
+
+        ledger.flushAll();
+
+        verify(transactionManager).rollback(any());
+        UserUsageResponse pending = usage(null, null);
+        assertThat(pending.getLastFlush()).isNull();
+        assertThat(pending.getTotals()).singleElement().satisfies(total -> {
+            assertThat(total.getRequests()).isEqualTo(1);
+            assertThat(total.getInputTokens()).isEqualTo(100);
+        });
+
+        doAnswer(call -> save(call.getArgument(0))).when(repository).save(any());
+        ledger.flushAll();
+
+        assertThat(sum(ALICE, UserUsage::getRequests)).isEqualTo(1);
+        assertThat(sum(ALICE, UserUsage::getInputTokens)).isEqualTo(100);
+        assertThat(usage(null, null).getTotals()).singleElement()
+                .extracting(UserUsageResponse.AccountUsage::getRequests).isEqualTo(1L);
+    }
+
+    @Test
+    void reportMergesStoredAndPendingCounts() {
+        try (UsageLedger.Scope scope = UsageLedger.open(ALICE)) {
+            ledger.recordRequest();
+            ledger.flushAll();
+            ledger.recordRequest();
+            ledger.recordModelCall(2_000_000, 0);
+        }
+        try (UsageLedger.Scope scope = UsageLedger.open(BOB)) {
+            ledger.recordRequest();
+        }
+
+        UserUsageResponse report = usage(null, null);
+
+        // Sorted by cost, highest first
+        assertThat(report.getTotals()).extracting(UserUsageResponse.AccountUsage::getUser)
+                .containsExactly(ALICE.user(), BOB.user());
+        assertThat(report.getTotals().get(0).getRequests()).isEqualTo(2);
+        assertThat(report.getTotals().get(0).getEstimatedCostUsd()).isEqualTo(0.30);
+        assertThat(usage(BOB.user(), null).getTotals()).extracting(UserUsageResponse.AccountUsage::getUser)
+                .containsExactly(BOB.user());
+    }
+
+    @Test
+    void chargesTheDefaultAccountWithoutAScope() {
+        ledger.recordRequest();
+
+        assertThat(usage(null, null).getTotals()).singleElement()
+                .extracting(UserUsageResponse.AccountUsage::getUser).isEqualTo(UsageAccount.DEFAULT_USER);
+    }
+
+    @Test
+    void bindCarriesTheAccountToAnotherThread() throws Exception {
+        CompletableFuture<UsageAccount> charged;
+        try (UsageLedger.Scope scope = UsageLedger.open(ALICE)) {
+            charged = CompletableFuture.supplyAsync(UsageLedger.bind(UsageLedger::current));
+        }
+
+        assertThat(charged.get()).isEqualTo(ALICE);
+        assertThat(UsageLedger.current()).isEqualTo(UsageAccount.DEFAULT);
+    }
+
+    private UserUsage save(UserUsage row) {
+        if (!rows.contains(row)) {
+            rows.add(row);
+        }
+        return row;
+    }
+
+    // Counts recorded across an hour boundary land in two rows
+    private long sum(UsageAccount account, ToLongFunction<UserUsage> field) {
+        return rows.stream().filter(row -> row.getUserId().equals(account.user())).mapToLong(field).sum();
+    }
+
+    private UserUsageResponse usage(String user, String team) {
+        Instant now = Instant.now();
+        return ledger.getUsage(user, team, now.minus(Duration.ofDays(1)), now.plus(Duration.ofDays(1)));
+    }
+}
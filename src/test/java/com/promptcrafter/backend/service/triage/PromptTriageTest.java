@@ -0,0 +1,107 @@
+package com.promptcrafter.backend.service.triage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PromptTriageTest {
+
+    private final PromptTriage triage = new PromptTriage(true, 10, 3, 0.8);
+
+    @Test
+    void sendsShortPromptsToTheRuleBasedEnhancer() {
+        PromptTriage.Decision decision = triage.triage("Explain quantum computing simply");
+
+        assertThat(decision.route()).isEqualTo(PromptTriage.Route.RULE_BASED);
+        assertThat(decision.reason()).isEqualTo(PromptTriage.REASON_SHORT);
+        assertThat(decision.words()).isEqualTo(4);
+    }
+
+    @Test
+    void countsContractionsAndHyphenatedWordsOnce() {
+        assertThat(triage.triage("Don't over-explain the state-of-the-art results").words()).isEqualTo(5);
+    }
+
+    @Test
+    void sendsLongUnstructuredPromptsToTheModel() {
+        PromptTriage.Decision decision = triage.triage(
+                "Write a blog post about the history of the printing press and how it changed Europe");
+
+        assertThat(decision.route()).isEqualTo(PromptTriage.Route.MODEL);
+        assertThat(decision.reason()).isEqualTo(PromptTriage.REASON_UNSTRUCTURED);
+        assertThat(decision.sections()).isZero();
+    }
+
+    @Test
+    void returnsStructuredPromptsAsIs() {
+        String prompt = """
+                ## Role
+                You are a senior Java reviewer.
+
+                **Task:** Review the attached pull request for concurrency bugs.
+
+                Requirements:
+                - Point to the exact lines
+                - Suggest a fix for each finding
+
+                Output format: a markdown table with file, line and issue.
+                """;
+
+        PromptTriage.Decision decision = triage.triage(prompt);
+
+        assertThat(decision.route()).isEqualTo(PromptTriage.Route.AS_IS);
+        assertThat(decision.reason()).isEqualTo(PromptTriage.REASON_STRUCTURED);
+        assertThat(decision.sections()).isEqualTo(4);
+    }
+
+    @Test
+    void recognizesSectionsByOpeningPhrase() {
+        String prompt = """
+                Act as a travel agent planning a trip for a family of four.
+                Your task is to suggest a five day itinerary in Lisbon with museums and beaches.
+                Respond only with a numbered list of days.
+                """;
+
+        PromptTriage.Decision decision = triage.triage(prompt);
+
+        assertThat(decision.sections()).isEqualTo(3);
+        assertThat(decision.route()).isEqualTo(PromptTriage.Route.AS_IS);
+    }
+
+    @Test
+    void countsTwoListItemsAsRequirements() {
+        String oneItem = "Summarize the report for the board meeting next week please\n- keep it short\n";
+        String twoItems = oneItem + "2) mention the budget\n";
+
+        assertThat(triage.triage(oneItem).sections()).isZero();
+        assertThat(triage.triage(twoItems).sections()).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresLabelsInsideASentence() {
+        String prompt = "Please describe the role of the task force and the output format they expect in reports";
+
+        PromptTriage.Decision decision = triage.triage(prompt);
+
+        assertThat(decision.sections()).isZero();
+        assertThat(decision.route()).isEqualTo(PromptTriage.Route.MODEL);
+    }
+
+    @Test
+    void sendsNonLatinPromptsToTheModel() {
+        PromptTriage.Decision decision = triage.triage("量子コンピューティングを説明して");
+
+        assertThat(decision.route()).isEqualTo(PromptTriage.Route.MODEL);
+        assertThat(decision.reason()).isEqualTo(PromptTriage.REASON_NON_LATIN);
+    }
+
+    @Test
+    void sendsEverythingToTheModelWhenDisabled() {
+        PromptTriage disabled = new PromptTriage(false, 10, 3, 0.8);
+
+        PromptTriage.Decision decision = disabled.triage("Hi");
+
+        assertThat(decision.route()).isEqualTo(PromptTriage.Route.MODEL);
+        assertThat(decision.reason()).isEqualTo(PromptTriage.REASON_DISABLED);
+    }
+}
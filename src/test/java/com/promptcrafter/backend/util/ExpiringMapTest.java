@@ -0,0 +1,74 @@
+package com.promptcrafter.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiringMapTest {
+
+    private final List<String> dropped = new ArrayList<>();
+
+    @Test
+    void keepsValuesUntilTheTtl() {
+        ExpiringMap<String, String> map = new ExpiringMap<>(Duration.ofMinutes(10), 10, dropped::add);
+
+        assertThat(map.put("a", "1")).isNull();
+        assertThat(map.put("a", "2")).isEqualTo("1");
+        assertThat(map.get("a")).isEqualTo("2");
+        assertThat(map.containsKey("a")).isTrue();
+        assertThat(dropped).isEmpty();
+    }
+
+    @Test
+    void dropsExpiredValues() {
+        ExpiringMap<String, String> map = new ExpiringMap<>(Duration.ZERO, 10, dropped::add);
+
+        map.put("a", "1");
+
+        assertThat(map.get("a")).isNull();
+        assertThat(map.size()).isZero();
+        assertThat(dropped).containsExactly("1");
+    }
+
+    @Test
+    void evictsTheEldestWhenFull() {
+        ExpiringMap<String, String> map = new ExpiringMap<>(Duration.ofMinutes(10), 2, dropped::add);
+
+        map.put("a", "1");
+        map.put("b", "2");
+        // Putting again moves the key to the tail
+        map.put("a", "3");
+        map.put("c", "4");
+
+        assertThat(map.containsKey("b")).isFalse();
+        assertThat(map.get("a")).isEqualTo("3");
+        assertThat(map.get("c")).isEqualTo("4");
+        assertThat(dropped).containsExactly("2");
+    }
+
+    @Test
+    void putIfAbsentKeepsTheFirstValue() {
+        ExpiringMap<String, String> map = new ExpiringMap<>(Duration.ofMinutes(10), 10);
+
+        assertThat(map.putIfAbsent("a", "1")).isNull();
+        assertThat(map.putIfAbsent("a", "2")).isEqualTo("1");
+        assertThat(map.get("a")).isEqualTo("1");
+    }
+
+    @Test
+    void removesOnlyTheExpectedValue() {
+        ExpiringMap<String, String> map = new ExpiringMap<>(Duration.ofMinutes(10), 10, dropped::add);
+        map.put("a", "1");
+
+        assertThat(map.remove("a", "2")).isFalse();
+        assertThat(map.remove("a", "1")).isTrue();
+        map.put("b", "3");
+        assertThat(map.remove("b")).isEqualTo("3");
+        assertThat(map.size()).isZero();
+        assertThat(dropped).isEmpty();
+    }
+}